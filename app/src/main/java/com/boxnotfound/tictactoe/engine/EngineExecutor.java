@@ -0,0 +1,229 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+/**
+ * Runs {@link MoveEngine} searches off the main thread, so the UI never waits on an engine.
+ *
+ * Searches run one at a time on a single background thread.  Only the most recent request is ever
+ * of interest, so every new request cancels the search in progress, and a request still waiting
+ * for the thread is replaced rather than queued behind it.  Each search is limited to
+ * {@link #maxSearchMillis}, after which the engine stops and the best move found so far is used.
+ *
+ * Progress and results are delivered through the main thread {@link Executor}, and are dropped if
+ * the request has been cancelled or superseded by the time they arrive, so a stale search can
+ * never apply a move to a newer game.
+ *
+ * Once a chosen move has been delivered, the engine may ponder while the opponent decides on their
+ * reply, searching the position after the chosen move in the background as limited by the
+ * {@link PonderPolicy}.  Pondering stops as soon as the reply arrives, or anything else cancels it,
+ * but its results remain with the engine, so the search following the reply starts from the
+ * subtree of the actual reply rather than from scratch.
+ */
+public class EngineExecutor {
+
+    /**
+     * Receives the progress and result of a search, on the main thread.
+     */
+    public interface Callback {
+
+        /**
+         * Called whenever the engine has completed an iteration of the search.
+         * @param bestMove The grid index of the best move found so far.
+         * @param depth The depth the search has completed, in moves.
+         */
+        void onSearchProgress(final int bestMove, final int depth);
+
+        /**
+         * Called once the search has finished, unless it was cancelled.
+         * @param gridIndex The grid index of the chosen move, or -1 if the game is over.
+         */
+        void onMoveChosen(final int gridIndex);
+    }
+
+    private final MoveEngine engine;
+    private final Executor mainThreadExecutor;
+    private final long maxSearchMillis;
+    private final ThreadPoolExecutor searchExecutor;
+    /** The most recent request, or null if there is none or its move has been delivered. */
+    private SearchRequest currentRequest;
+    /** The control of the pondering search, or null if the engine is not pondering. */
+    private SearchControl ponderControl;
+    private PonderPolicy ponderPolicy = PonderPolicy.DISABLED;
+
+    /**
+     * @param engine The engine every search is run with.
+     * @param mainThreadExecutor Runs the callbacks on the main thread.
+     * @param maxSearchMillis The longest time a single search may take.
+     */
+    public EngineExecutor(@NonNull final MoveEngine engine, @NonNull final Executor mainThreadExecutor,
+                          final long maxSearchMillis) {
+        this.engine = engine;
+        this.mainThreadExecutor = mainThreadExecutor;
+        this.maxSearchMillis = maxSearchMillis;
+        // a single thread and a single waiting request, with any older waiting request discarded
+        searchExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "EngineExecutor");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Search for the best move of the current player of the given game, cancelling any search
+     * already in progress.
+     * @param position The game to choose a move for.  A copy is searched, so the game may keep
+     *                 changing on the main thread.
+     * @param callback Receives the progress and result of the search.
+     */
+    @MainThread
+    public void requestMove(@NonNull final GameState position, @NonNull final Callback callback) {
+        cancel();
+        GameState searchPosition = new GameState(position.getRowSize());
+        searchPosition.set(position.getRowSize(), position.getXTiles(), position.getOTiles(),
+                position.getLastMoveIndex(), position.getMoveCount(), position.getCurrentPlayer(),
+                position.getWinningPlayer(), position.isGameOver());
+        SearchRequest request = new SearchRequest(searchPosition, callback);
+        currentRequest = request;
+        searchExecutor.execute(request);
+    }
+
+    /**
+     * Cancel the current request, if any, and stop pondering.  Its search stops promptly, and none
+     * of its pending callbacks are delivered.
+     */
+    @MainThread
+    public void cancel() {
+        if (currentRequest != null) {
+            currentRequest.control.cancel();
+            currentRequest = null;
+        }
+        if (ponderControl != null) {
+            ponderControl.cancel();
+            ponderControl = null;
+        }
+    }
+
+    /**
+     * Set the policy limiting pondering after each chosen move.
+     * @param ponderPolicy The pondering policy, {@link PonderPolicy#DISABLED} by default.
+     */
+    @MainThread
+    public void setPonderPolicy(@NonNull final PonderPolicy ponderPolicy) {
+        this.ponderPolicy = ponderPolicy;
+    }
+
+    /**
+     * Check whether or not the engine is pondering the opponent's reply.
+     * @return True if pondering has started and has neither finished nor been stopped.
+     */
+    @MainThread
+    public boolean isPondering() {
+        return ponderControl != null && !ponderControl.isCancelled();
+    }
+
+    /**
+     * Start searching the position after the chosen move in the background, if the policy allows.
+     * @param position The searched position, which is no longer used by the engine.
+     * @param move The grid index of the move chosen for it.
+     */
+    @MainThread
+    private void startPondering(@NonNull final GameState position, final int move) {
+        if (!ponderPolicy.allowsPondering(position.getRowSize()) || move == -1 || currentRequest != null) {
+            return;
+        }
+        long moverTiles = position.getCurrentPlayer() == TileStatus.PLAYER_X ? position.getXTiles() : position.getOTiles();
+        if (!position.applyMove(move)
+                || WinConditionMasks.forRowSize(position.getRowSize()).findMetCondition(moverTiles | 1L << move, move) != -1
+                || position.getMoveCount() == position.getRowSize() * position.getRowSize()) {
+            // the chosen move ends the game, leaving nothing to ponder
+            return;
+        }
+        final SearchControl control = new PonderControl(ponderPolicy);
+        ponderControl = control;
+        searchExecutor.execute(() -> {
+            if (!control.isCancelled()) {
+                engine.chooseMove(position, control);
+            }
+            // the search has ended either way, so the control reports pondering has stopped
+            control.cancel();
+        });
+    }
+
+    /**
+     * Check whether or not a request is in progress.
+     * @return True if a search has been requested and its move has not been delivered.
+     */
+    @MainThread
+    public boolean isSearching() {
+        return currentRequest != null;
+    }
+
+    /**
+     * Cancel the current request and stop the background thread.  No further requests may be made.
+     */
+    @MainThread
+    public void shutdown() {
+        cancel();
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * A single search, run on the background thread, delivering its progress and result to the
+     * main thread only while it is still the {@link #currentRequest}.
+     */
+    private class SearchRequest implements Runnable, SearchControl.ProgressListener {
+
+        private final GameState position;
+        private final Callback callback;
+        private final SearchControl control;
+
+        private SearchRequest(@NonNull final GameState position, @NonNull final Callback callback) {
+            this.position = position;
+            this.callback = callback;
+            this.control = new SearchControl(maxSearchMillis, this);
+        }
+
+        @Override
+        public void run() {
+            if (control.isCancelled()) {
+                return;
+            }
+            final int move = engine.chooseMove(position, control);
+            if (control.isCancelled()) {
+                return;
+            }
+            mainThreadExecutor.execute(() -> {
+                if (currentRequest == this) {
+                    currentRequest = null;
+                    callback.onMoveChosen(move);
+                    startPondering(position, move);
+                }
+            });
+        }
+
+        @Override
+        public void onProgress(final int bestMove, final int depth) {
+            if (control.isCancelled()) {
+                return;
+            }
+            mainThreadExecutor.execute(() -> {
+                if (currentRequest == this) {
+                    callback.onSearchProgress(bestMove, depth);
+                }
+            });
+        }
+    }
+}
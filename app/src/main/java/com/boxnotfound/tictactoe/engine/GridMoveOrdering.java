@@ -0,0 +1,38 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Tries the hash move first, then every other move in grid index order, the order
+ * {@link com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils} indexes the tiles.  This
+ * serves as the baseline the other orderings are measured against.
+ */
+public class GridMoveOrdering implements MoveOrdering {
+
+    @Override
+    public void newSearch(final int rowSize) {
+    }
+
+    @Override
+    public int orderMoves(@NonNull final int[] moves, final long candidateTiles, final int hashMove,
+                          @NonNull final TileStatus player, @NonNull final ThreatIndex threatIndex, final int ply) {
+        int count = 0;
+        long tiles = candidateTiles;
+        if (hashMove != -1 && (tiles & (1L << hashMove)) != 0) {
+            moves[count++] = hashMove;
+            tiles &= ~(1L << hashMove);
+        }
+        while (tiles != 0) {
+            moves[count++] = Long.numberOfTrailingZeros(tiles);
+            tiles &= tiles - 1;
+        }
+        return count;
+    }
+
+    @Override
+    public void onCutoff(final int move, @NonNull final TileStatus player, final int ply, final int depth) {
+    }
+}
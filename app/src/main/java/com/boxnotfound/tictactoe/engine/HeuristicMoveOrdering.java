@@ -0,0 +1,142 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Orders the moves of a position by how likely they are to cut the search off:
+ *
+ * 1. The hash move, the best move stored for the position by a previous search.
+ * 2. Moves winning the game, then moves blocking a win of the opponent, both read from the
+ *    {@link ThreatIndex}.
+ * 3. Every other move, by its history score, which grows with every cutoff the move has caused for
+ *    the same player anywhere in the search, weighted by the depth searched.  The
+ *    {@link ThreatIndex#getTilePotential(int, TileStatus)} of the move is added, so moves are
+ *    ranked sensibly before any cutoffs are known, and the killer moves of the ply, the last two
+ *    moves that caused a cutoff in any position of the same ply, are given a bonus.
+ *
+ * Killer moves are not ranked above every other move, as is usual in games such as chess, since
+ * here positions of the same ply rarely share a refutation, and ranking them first searched more
+ * nodes than ranking them by history alone.
+ *
+ * History scores are halved at the start of each search, so they follow the game as it moves on
+ * rather than being dominated by the searches of earlier positions.  Killer moves only apply to the
+ * search that found them, so they are cleared instead.
+ */
+public class HeuristicMoveOrdering implements MoveOrdering {
+
+    private static final int HASH_MOVE_SCORE = 1 << 30;
+    private static final int WINNING_MOVE_SCORE = 1 << 29;
+    private static final int BLOCKING_MOVE_SCORE = 1 << 28;
+    private static final int FIRST_KILLER_BONUS = 4;
+    private static final int SECOND_KILLER_BONUS = 2;
+    /** History scores are halved before reaching the blocking move score. */
+    private static final int MAX_HISTORY_SCORE = 1 << 26;
+    private static final int TILE_COUNT = GameState.MAX_ROW_SIZE * GameState.MAX_ROW_SIZE;
+
+    /** The history score of each move, indexed by player then grid index. */
+    private final int[][] history = new int[2][TILE_COUNT];
+    /** The two killer moves of each ply, -1 if none, most recent first. */
+    private final int[][] killers = new int[TILE_COUNT + 1][2];
+    /** The score of each move being ordered, indexed by position in the ordered moves. */
+    private final int[] scores = new int[TILE_COUNT];
+    private int rowSize;
+
+    public HeuristicMoveOrdering() {
+        clearKillers();
+    }
+
+    @Override
+    public void newSearch(final int rowSize) {
+        if (rowSize != this.rowSize) {
+            // grid indexes mean different tiles on a board of a different size
+            for (int[] playerHistory : history) {
+                Arrays.fill(playerHistory, 0);
+            }
+            this.rowSize = rowSize;
+        } else {
+            ageHistory();
+        }
+        clearKillers();
+    }
+
+    private void ageHistory() {
+        for (int[] playerHistory : history) {
+            for (int i = 0; i < playerHistory.length; i++) {
+                playerHistory[i] >>= 1;
+            }
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = plyKillers[1] = -1;
+        }
+    }
+
+    @Override
+    public int orderMoves(@NonNull final int[] moves, final long candidateTiles, final int hashMove,
+                          @NonNull final TileStatus player, @NonNull final ThreatIndex threatIndex, final int ply) {
+        int[] playerHistory = history[indexOf(player)];
+        long winningTiles = threatIndex.getWinningTiles(player);
+        long blockingTiles = threatIndex.getMustBlockTiles(player);
+        int[] plyKillers = killers[ply];
+
+        int count = 0;
+        long tiles = candidateTiles;
+        while (tiles != 0) {
+            int move = Long.numberOfTrailingZeros(tiles);
+            long tile = tiles & -tiles;
+            tiles ^= tile;
+            int score;
+            if (move == hashMove) {
+                score = HASH_MOVE_SCORE;
+            } else if ((winningTiles & tile) != 0) {
+                score = WINNING_MOVE_SCORE;
+            } else if ((blockingTiles & tile) != 0) {
+                score = BLOCKING_MOVE_SCORE;
+            } else {
+                score = playerHistory[move] + threatIndex.getTilePotential(move, player);
+                if (move == plyKillers[0]) {
+                    score += FIRST_KILLER_BONUS;
+                } else if (move == plyKillers[1]) {
+                    score += SECOND_KILLER_BONUS;
+                }
+            }
+
+            // insertion sort, which is fastest for so few moves, keeping grid order between equals
+            int i = count++;
+            while (i > 0 && scores[i - 1] < score) {
+                scores[i] = scores[i - 1];
+                moves[i] = moves[i - 1];
+                i--;
+            }
+            scores[i] = score;
+            moves[i] = move;
+        }
+        return count;
+    }
+
+    @Override
+    public void onCutoff(final int move, @NonNull final TileStatus player, final int ply, final int depth) {
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        int[] playerHistory = history[indexOf(player)];
+        playerHistory[move] += depth * depth;
+        if (playerHistory[move] >= MAX_HISTORY_SCORE) {
+            ageHistory();
+        }
+    }
+
+    private static int indexOf(@NonNull final TileStatus player) {
+        return player == TileStatus.PLAYER_X ? 0 : 1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.model.GameState;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Chooses a move for the current player of a game.  Engines may take a long time to search, so
+ * they are run off the main thread by the {@link EngineExecutor}, and must stop promptly once
+ * their {@link SearchControl} says so.
+ */
+public interface MoveEngine {
+
+    /**
+     * Search for the best move of the current player.
+     * @param position The game to choose a move for, owned by the engine for the whole search.
+     * @param control Stops the search, and receives its progress.
+     * @return The grid index of the chosen move, or -1 if the game is over.
+     */
+    @WorkerThread
+    int chooseMove(@NonNull final GameState position, @NonNull final SearchControl control);
+}
@@ -0,0 +1,43 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Decides the order in which an alpha-beta search such as {@link NegamaxEngine} tries the moves of
+ * a position.  Moves likely to be best should come first, since every move searched after a move
+ * good enough to cut the search off is saved.  The search reports each cutoff back, so the
+ * ordering can learn which moves tend to cause them.
+ */
+public interface MoveOrdering {
+
+    /**
+     * Called at the start of every search.
+     * @param rowSize The number of tiles per row of the searched position.
+     */
+    void newSearch(final int rowSize);
+
+    /**
+     * Order the given moves of a position.
+     * @param moves Receives the grid indexes of the moves, in the order to search them.
+     * @param candidateTiles The moves to order, one bit per grid index.
+     * @param hashMove The best move stored for the position by a previous search, or -1.
+     * @param player The player to move.
+     * @param threatIndex The threats of the position.
+     * @param ply The number of moves made since the searched position.
+     * @return The number of moves written.
+     */
+    int orderMoves(@NonNull final int[] moves, final long candidateTiles, final int hashMove,
+                   @NonNull final TileStatus player, @NonNull final ThreatIndex threatIndex, final int ply);
+
+    /**
+     * Called whenever a move was good enough to cut the search of its position off.
+     * @param move The grid index of the move.
+     * @param player The player who made it.
+     * @param ply The number of moves made since the searched position, before the move.
+     * @param depth The number of moves the position was searched to.
+     */
+    void onCutoff(final int move, @NonNull final TileStatus player, final int ply, final int depth);
+}
@@ -0,0 +1,326 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.metrics.GameEvents;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+/**
+ * A {@link MoveEngine} performing an iteratively deepened negamax search with alpha-beta pruning
+ * directly on the bit sets of a {@link GameState}.  Each iteration searches one move deeper than
+ * the last, starting with the best move of the previous iteration, until the game has been solved
+ * or the {@link SearchControl} stops the search.  A stopped iteration is discarded, so the chosen
+ * move is always the best move of the deepest completed iteration.
+ *
+ * Positions at the depth limit that have not been won are scored as a draw.
+ *
+ * A {@link ThreatIndex} is kept up to date with every move searched, detecting forced moves
+ * without searching them: a player with a winning tile wins on their move, a player facing two or
+ * more of their opponent's winning tiles loses on the move after, and a player facing a single one
+ * has no other move worth searching than to block it.
+ *
+ * The moves of every position are tried in the order given by a {@link MoveOrdering}, by default
+ * a {@link HeuristicMoveOrdering}, which is told of every cutoff so it can learn from them.
+ *
+ * Every search result is kept in a {@link TranspositionTable} that outlives the search.  At the
+ * start of each search, the entries that cannot be reached from the searched position are
+ * discarded, so a search of a position that follows from a previous search, such as one made while
+ * pondering the opponent's turn, starts with the results of that previous search.
+ */
+public class NegamaxEngine implements MoveEngine {
+
+    /** The score of a won position, reduced by the number of moves taken to win it. */
+    private static final int WIN_SCORE = 1000;
+    /** Scores beyond this are wins or losses, whose distance to the end of the game is known. */
+    private static final int MIN_WIN_SCORE = WIN_SCORE - 2 * GameState.MAX_ROW_SIZE * GameState.MAX_ROW_SIZE;
+    /** The number of nodes searched between checks of the {@link SearchControl}. */
+    private static final int STOP_CHECK_INTERVAL = 1024;
+    /** The default size of the transposition table, as a power of 2. */
+    private static final int DEFAULT_TABLE_SIZE_BITS = 18;
+
+    private final TranspositionTable transpositionTable;
+    private final MoveOrdering moveOrdering;
+    /** The ordered moves of the position at each ply, indexed by ply. */
+    private final int[][] orderedMoves = new int[GameState.MAX_ROW_SIZE * GameState.MAX_ROW_SIZE + 1]
+            [GameState.MAX_ROW_SIZE * GameState.MAX_ROW_SIZE];
+    /** The threat index of each row size searched so far, indexed by row size. */
+    private final ThreatIndex[] threatIndexes = new ThreatIndex[GameState.MAX_ROW_SIZE + 1];
+    private ThreatIndex threatIndex;
+    private WinConditionMasks winConditionMasks;
+    private int gameBoardSize;
+    private long boardMask;
+    private SearchControl control;
+    private long nodeCount;
+    /** The score of the chosen move, from the point of view of the player to move. */
+    private int score;
+    private boolean stopped;
+
+    public NegamaxEngine() {
+        this(new TranspositionTable(DEFAULT_TABLE_SIZE_BITS));
+    }
+
+    /**
+     * @param transpositionTable The table every search result is kept in.
+     */
+    public NegamaxEngine(@NonNull final TranspositionTable transpositionTable) {
+        this(transpositionTable, new HeuristicMoveOrdering());
+    }
+
+    /**
+     * @param transpositionTable The table every search result is kept in.
+     * @param moveOrdering Orders the moves of every searched position.
+     */
+    public NegamaxEngine(@NonNull final TranspositionTable transpositionTable, @NonNull final MoveOrdering moveOrdering) {
+        this.transpositionTable = transpositionTable;
+        this.moveOrdering = moveOrdering;
+    }
+
+    @WorkerThread
+    @Override
+    public int chooseMove(@NonNull final GameState position, @NonNull final SearchControl control) {
+        long startNanos = GameEvents.start(GameEvents.SEARCH);
+        int move = searchMove(position, control);
+        GameEvents.search("negamax", position.getRowSize(), position.getMoveCount(), nodeCount, startNanos);
+        return move;
+    }
+
+    private int searchMove(@NonNull final GameState position, @NonNull final SearchControl control) {
+        if (position.isGameOver()) {
+            nodeCount = 0;
+            return -1;
+        }
+        this.winConditionMasks = WinConditionMasks.forRowSize(position.getRowSize());
+        this.gameBoardSize = position.getRowSize() * position.getRowSize();
+        this.boardMask = gameBoardSize == Long.SIZE ? -1L : (1L << gameBoardSize) - 1;
+        this.control = control;
+        threatIndex = threatIndexes[position.getRowSize()];
+        if (threatIndex == null) {
+            threatIndex = new ThreatIndex(position.getRowSize());
+            threatIndexes[position.getRowSize()] = threatIndex;
+        }
+        threatIndex.set(position.getXTiles(), position.getOTiles());
+        nodeCount = 0;
+        score = 0;
+        stopped = false;
+        // keep only the results that can still be reached from this position
+        transpositionTable.retainDescendants(position.getXTiles(), position.getOTiles());
+        transpositionTable.newSearch();
+        moveOrdering.newSearch(position.getRowSize());
+
+        TileStatus player = position.getCurrentPlayer();
+        TileStatus opponent;
+        long playerTiles;
+        long opponentTiles;
+        if (player == TileStatus.PLAYER_X) {
+            opponent = TileStatus.PLAYER_O;
+            playerTiles = position.getXTiles();
+            opponentTiles = position.getOTiles();
+        } else {
+            opponent = TileStatus.PLAYER_X;
+            playerTiles = position.getOTiles();
+            opponentTiles = position.getXTiles();
+        }
+
+        long winningTiles = threatIndex.getWinningTiles(player);
+        if (winningTiles != 0) {
+            int winningMove = Long.numberOfTrailingZeros(winningTiles);
+            score = WIN_SCORE - 1;
+            control.reportProgress(winningMove, 1);
+            return winningMove;
+        }
+
+        int openTileCount = gameBoardSize - position.getMoveCount();
+        int bestMove = -1;
+        if (transpositionTable.probe(playerTiles, opponentTiles)) {
+            bestMove = transpositionTable.getBestMove();
+        }
+        for (int depth = 1; depth <= openTileCount; depth++) {
+            int iterationBestMove = -1;
+            int alpha = -WIN_SCORE - 1;
+            // the best move known so far is searched first
+            int[] moves = orderedMoves[0];
+            int moveCount = moveOrdering.orderMoves(moves, ~(playerTiles | opponentTiles) & boardMask, bestMove,
+                    player, threatIndex, 0);
+            for (int i = 0; i < moveCount; i++) {
+                int gridIndex = moves[i];
+                long tile = 1L << gridIndex;
+                threatIndex.applyMove(gridIndex, player);
+                int score = -search(opponent, opponentTiles, playerTiles | tile, gridIndex, depth - 1, 1,
+                        -WIN_SCORE - 1, -alpha);
+                threatIndex.undoMove(gridIndex, player);
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBestMove = gridIndex;
+                }
+            }
+            if (stopped) {
+                break;
+            }
+            bestMove = iterationBestMove;
+            score = alpha;
+            transpositionTable.store(playerTiles, opponentTiles, depth, alpha, TranspositionTable.EXACT, bestMove);
+            control.reportProgress(bestMove, depth);
+            if (Math.abs(alpha) > MIN_WIN_SCORE) {
+                // the game has been solved, searching deeper cannot change the result
+                break;
+            }
+        }
+
+        if (bestMove == -1) {
+            bestMove = Long.numberOfTrailingZeros(~(playerTiles | opponentTiles));
+        }
+        return bestMove;
+    }
+
+    /**
+     * Score the position after the opponent claimed the given tile, from the point of view of the
+     * player to move.
+     * @param player The player to move.
+     * @param playerTiles The tiles of the player to move.
+     * @param opponentTiles The tiles of the opponent, including the tile just claimed.
+     * @param lastMove The grid index of the tile just claimed.
+     * @param depth The number of further moves to search.
+     * @param ply The number of moves made since the searched position.
+     */
+    private int search(final TileStatus player, final long playerTiles, final long opponentTiles, final int lastMove,
+                       final int depth, final int ply, int alpha, int beta) {
+        if (++nodeCount % STOP_CHECK_INTERVAL == 0 && control.shouldStop()) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (winConditionMasks.findMetCondition(opponentTiles, lastMove) != -1) {
+            return -(WIN_SCORE - ply);
+        }
+        long occupied = playerTiles | opponentTiles;
+        if (Long.bitCount(occupied) == gameBoardSize) {
+            return 0;
+        }
+
+        // forced moves are resolved from the threat index, regardless of the depth left
+        TileStatus opponent = player == TileStatus.PLAYER_X ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+        if (threatIndex.getWinningTiles(player) != 0) {
+            return WIN_SCORE - (ply + 1);
+        }
+        long mustBlockTiles = threatIndex.getWinningTiles(opponent);
+        if (Long.bitCount(mustBlockTiles) >= 2) {
+            return -(WIN_SCORE - (ply + 2));
+        }
+        if (depth == 0) {
+            return 0;
+        }
+        // with a single tile to block, every other move loses
+        long candidateTiles = mustBlockTiles != 0 ? mustBlockTiles : ~occupied & boardMask;
+
+        int hashMove = -1;
+        if (transpositionTable.probe(playerTiles, opponentTiles)) {
+            hashMove = transpositionTable.getBestMove();
+            if (transpositionTable.getDepth() >= depth) {
+                int score = fromTableScore(transpositionTable.getScore(), ply);
+                byte bound = transpositionTable.getBound();
+                if (bound == TranspositionTable.EXACT) {
+                    return score;
+                } else if (bound == TranspositionTable.LOWER_BOUND) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta) {
+                    return score;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int bestScore = -WIN_SCORE - 1;
+        int bestMove = -1;
+        int[] moves = orderedMoves[ply];
+        int moveCount = moveOrdering.orderMoves(moves, candidateTiles, hashMove, player, threatIndex, ply);
+        for (int i = 0; i < moveCount; i++) {
+            int gridIndex = moves[i];
+            long tile = 1L << gridIndex;
+            threatIndex.applyMove(gridIndex, player);
+            int score = -search(opponent, opponentTiles, playerTiles | tile, gridIndex, depth - 1, ply + 1, -beta, -alpha);
+            threatIndex.undoMove(gridIndex, player);
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = gridIndex;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        // a forced move says nothing about which moves tend to be good
+                        if (moveCount > 1) {
+                            moveOrdering.onCutoff(gridIndex, player, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        byte bound;
+        if (bestScore <= originalAlpha) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        } else {
+            bound = TranspositionTable.EXACT;
+        }
+        transpositionTable.store(playerTiles, opponentTiles, depth, toTableScore(bestScore, ply), bound, bestMove);
+        return bestScore;
+    }
+
+    /**
+     * Convert a score measured from the searched position into one measured from the position at
+     * the given ply, so it remains valid wherever the position is reached.
+     */
+    private static int toTableScore(final int score, final int ply) {
+        if (score > MIN_WIN_SCORE) {
+            return score + ply;
+        } else if (score < -MIN_WIN_SCORE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Reverse {@link #toTableScore(int, int)}.
+     */
+    private static int fromTableScore(final int score, final int ply) {
+        if (score > MIN_WIN_SCORE) {
+            return score - ply;
+        } else if (score < -MIN_WIN_SCORE) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Retrieve the score of the move chosen by the most recent search, as of the deepest completed
+     * iteration.  Scores above 0 are wins for the player to move and scores below 0 are losses,
+     * further from 0 the sooner the game ends.
+     * @return The score, 0 for a draw or if the game is undecided at the depth searched.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieve the number of positions visited by the most recent search.
+     * @return The node count.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+}
@@ -0,0 +1,36 @@
+package com.boxnotfound.tictactoe.engine;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The {@link SearchControl} of a pondering search, which in addition to the time limit of the
+ * {@link PonderPolicy} throttles the search to the policy's busy share.  Each time the search
+ * checks whether to stop, it sleeps for the rest of the period once it has used its share of it.
+ */
+class PonderControl extends SearchControl {
+
+    private final long busyNanosPerPeriod;
+    private final long idleMillisPerPeriod;
+    /** The {@link System#nanoTime()} the current busy period started at. */
+    private long periodStartNanos = System.nanoTime();
+
+    PonderControl(@NonNull final PonderPolicy ponderPolicy) {
+        super(ponderPolicy.getMaxPonderMillis());
+        busyNanosPerPeriod = PonderPolicy.PERIOD_MILLIS * 1000000L * ponderPolicy.getBusyPercent() / 100;
+        idleMillisPerPeriod = PonderPolicy.PERIOD_MILLIS * (100 - ponderPolicy.getBusyPercent()) / 100;
+    }
+
+    @Override
+    public boolean shouldStop() {
+        if (idleMillisPerPeriod > 0 && System.nanoTime() - periodStartNanos >= busyNanosPerPeriod) {
+            try {
+                Thread.sleep(idleMillisPerPeriod);
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+            }
+            periodStartNanos = System.nanoTime();
+        }
+        return super.shouldStop();
+    }
+}
@@ -0,0 +1,59 @@
+package com.boxnotfound.tictactoe.engine;
+
+import androidx.annotation.IntRange;
+
+/**
+ * Limits how much CPU the {@link EngineExecutor} spends pondering, which is searching the
+ * opponent's replies while waiting for them to move.
+ */
+public class PonderPolicy {
+
+    /** Never ponder. */
+    public static final PonderPolicy DISABLED = new PonderPolicy(0, 0, Integer.MAX_VALUE);
+
+    /** The length of each period the {@link #busyPercent} is measured over. */
+    static final long PERIOD_MILLIS = 20;
+
+    private final long maxPonderMillis;
+    private final int busyPercent;
+    private final int minRowSize;
+
+    /**
+     * @param maxPonderMillis The longest time to ponder while waiting for a single reply.
+     * @param busyPercent The share of each period pondering may keep the CPU busy, sleeping for the
+     *                    rest of the period.
+     * @param minRowSize The smallest row size worth pondering, since small boards are searched
+     *                   quickly enough without it.
+     */
+    public PonderPolicy(final long maxPonderMillis, @IntRange(from = 0, to = 100) final int busyPercent,
+                        final int minRowSize) {
+        this.maxPonderMillis = maxPonderMillis;
+        this.busyPercent = busyPercent;
+        this.minRowSize = minRowSize;
+    }
+
+    /**
+     * Check whether or not a game of the given size should be pondered.
+     * @param rowSize The number of tiles per row of the game.
+     * @return True if pondering is allowed.
+     */
+    public boolean allowsPondering(final int rowSize) {
+        return maxPonderMillis > 0 && busyPercent > 0 && rowSize >= minRowSize;
+    }
+
+    /**
+     * Retrieve the longest time to ponder while waiting for a single reply.
+     * @return The time limit, in milliseconds.
+     */
+    public long getMaxPonderMillis() {
+        return maxPonderMillis;
+    }
+
+    /**
+     * Retrieve the share of each period pondering may keep the CPU busy.
+     * @return The busy share, as a percentage.
+     */
+    public int getBusyPercent() {
+        return busyPercent;
+    }
+}
@@ -0,0 +1,371 @@
+package com.boxnotfound.tictactoe.engine;
+
+import com.boxnotfound.tictactoe.metrics.GameEvents;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+
+import java.util.Arrays;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+/**
+ * Answers whether the player to move can force a win, using a depth-first proof-number search
+ * (df-pn).  Rather than searching every move to a fixed depth, the search always expands the
+ * position that is cheapest to resolve, as measured by its proof number, the number of positions
+ * that would have to be won to prove the win, and its disproof number, the number that would have
+ * to be held to disprove it.  Short forced wins, such as the ones built from squares on larger
+ * boards, are proven after expanding only the few positions along them.
+ *
+ * The player to move at the searched position is the attacker, who must win.  A draw counts as a
+ * failure of the attacker, just as a loss does.  Forced moves are resolved through a
+ * {@link ThreatIndex}, as in {@link NegamaxEngine}: a player with a winning tile wins, a player
+ * facing two of their opponent's winning tiles loses, and a player facing one must block it.
+ *
+ * The proof and disproof numbers of every expanded position are kept in a fixed size table, keyed
+ * by the tiles of the attacker, the tiles of the defender and which player attacks.  An entry is
+ * valid for any search with the same attacker, so the table is kept between searches.  Once the
+ * table is full, unsolved entries are replaced before solved ones.
+ */
+public class ProofNumberSearch {
+
+    /** The proof or disproof number of a position that can never be proven or disproven. */
+    private static final int INFINITY = 100000000;
+    /** The number of nodes expanded between checks of the {@link SearchControl}. */
+    private static final int STOP_CHECK_INTERVAL = 1024;
+    /** The default size of the table, as a power of 2. */
+    private static final int DEFAULT_TABLE_SIZE_BITS = 18;
+
+    private final int mask;
+    private final long[] attackerKeys;
+    private final long[] defenderKeys;
+    /** Whether {@link TileStatus#PLAYER_X} is the attacker of each entry. */
+    private final boolean[] attackerIsX;
+    /** The proof number of each entry, 0 if the attacker wins. */
+    private final int[] proofNumbers;
+    /** The disproof number of each entry, 0 if the attacker cannot win. */
+    private final int[] disproofNumbers;
+
+    /** The threat index of each row size searched so far, indexed by row size. */
+    private final ThreatIndex[] threatIndexes = new ThreatIndex[GameState.MAX_ROW_SIZE + 1];
+    private ThreatIndex threatIndex;
+    private TileStatus attacker;
+    private TileStatus defender;
+    private boolean xAttacks;
+    private long boardMask;
+    private SearchControl control;
+    private long maxNodes;
+    private long nodeCount;
+    private boolean stopped;
+    /** The proof number of the position last searched, from the point of view of the attacker. */
+    private int resultProofNumber;
+    /** The disproof number of the position last searched, from the point of view of the attacker. */
+    private int resultDisproofNumber;
+
+    public ProofNumberSearch() {
+        this(DEFAULT_TABLE_SIZE_BITS);
+    }
+
+    /**
+     * @param sizeBits The table holds 2 ^ sizeBits positions.
+     */
+    public ProofNumberSearch(@IntRange(from = 1, to = 30) final int sizeBits) {
+        int size = 1 << sizeBits;
+        mask = size - 1;
+        attackerKeys = new long[size];
+        defenderKeys = new long[size];
+        attackerIsX = new boolean[size];
+        proofNumbers = new int[size];
+        disproofNumbers = new int[size];
+    }
+
+    /**
+     * Search whether the player to move in the given position can force a win.
+     * @param position The position to search, which is not modified.
+     * @param maxNodes The largest number of positions to expand before giving up.
+     * @param control Stops the search.
+     * @return The outcome of the search, with a winning line if the win was proven.
+     */
+    @WorkerThread
+    public ProofResult prove(@NonNull final GameState position, final long maxNodes, @NonNull final SearchControl control) {
+        long startNanos = GameEvents.start(GameEvents.SEARCH);
+        ProofResult result = searchProof(position, maxNodes, control);
+        GameEvents.search("proofNumber", position.getRowSize(), position.getMoveCount(), result.getNodeCount(),
+                startNanos);
+        return result;
+    }
+
+    private ProofResult searchProof(@NonNull final GameState position, final long maxNodes,
+                                    @NonNull final SearchControl control) {
+        if (position.isGameOver()) {
+            return new ProofResult(ProofResult.DISPROVEN, 0);
+        }
+        int rowSize = position.getRowSize();
+        threatIndex = threatIndexes[rowSize];
+        if (threatIndex == null) {
+            threatIndex = new ThreatIndex(rowSize);
+            threatIndexes[rowSize] = threatIndex;
+        }
+        threatIndex.set(position.getXTiles(), position.getOTiles());
+        int gameBoardSize = rowSize * rowSize;
+        boardMask = gameBoardSize == Long.SIZE ? -1L : (1L << gameBoardSize) - 1;
+        attacker = position.getCurrentPlayer();
+        defender = attacker == TileStatus.PLAYER_X ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+        xAttacks = attacker == TileStatus.PLAYER_X;
+        this.control = control;
+        this.maxNodes = maxNodes;
+        nodeCount = 0;
+        stopped = false;
+
+        long attackerTiles = attacker == TileStatus.PLAYER_X ? position.getXTiles() : position.getOTiles();
+        long defenderTiles = attacker == TileStatus.PLAYER_X ? position.getOTiles() : position.getXTiles();
+        search(attackerTiles, defenderTiles, true, INFINITY, INFINITY);
+        if (resultDisproofNumber == 0) {
+            return new ProofResult(ProofResult.DISPROVEN, nodeCount);
+        } else if (resultProofNumber != 0) {
+            return new ProofResult(ProofResult.UNKNOWN, nodeCount);
+        }
+        // the table usually holds the whole line already, so finding it is not held to the node limit
+        this.maxNodes = Long.MAX_VALUE;
+        stopped = false;
+        int[] winningLine = findWinningLine(attackerTiles, defenderTiles);
+        if (winningLine == null) {
+            return new ProofResult(ProofResult.UNKNOWN, nodeCount);
+        }
+        return new ProofResult(ProofResult.PROVEN, winningLine, nodeCount);
+    }
+
+    /**
+     * Expand the given position until its proof number reaches the given proof threshold, or its
+     * disproof number the given disproof threshold, or it has been solved.  The numbers and
+     * thresholds are those of the player to move, named phi and delta, so at a position of the
+     * defender phi is the disproof number and delta the proof number.  The resulting numbers are
+     * left in {@link #resultProofNumber} and {@link #resultDisproofNumber}.
+     * @param attackerTiles The tiles of the attacker.
+     * @param defenderTiles The tiles of the defender.
+     * @param attackerToMove Whether the attacker is the player to move.
+     */
+    private void search(final long attackerTiles, final long defenderTiles, final boolean attackerToMove,
+                        final int phiThreshold, final int deltaThreshold) {
+        if (++nodeCount >= maxNodes || (nodeCount % STOP_CHECK_INTERVAL == 0 && control.shouldStop())) {
+            stopped = true;
+        }
+        TileStatus player = attackerToMove ? attacker : defender;
+
+        // a forced result ends the game without searching any further
+        long occupied = attackerTiles | defenderTiles;
+        long mustBlockTiles = threatIndex.getMustBlockTiles(player);
+        if (threatIndex.getWinningTiles(player) != 0) {
+            store(attackerTiles, defenderTiles, attackerToMove, 0, INFINITY);
+            return;
+        } else if (Long.bitCount(mustBlockTiles) >= 2) {
+            store(attackerTiles, defenderTiles, attackerToMove, INFINITY, 0);
+            return;
+        } else if (occupied == boardMask) {
+            // a draw is a win for the defender
+            store(attackerTiles, defenderTiles, attackerToMove, attackerToMove ? INFINITY : 0, attackerToMove ? 0 : INFINITY);
+            return;
+        }
+
+        int slot = slotOf(attackerTiles, defenderTiles);
+        if (matches(slot, attackerTiles, defenderTiles)) {
+            int phi = attackerToMove ? proofNumbers[slot] : disproofNumbers[slot];
+            int delta = attackerToMove ? disproofNumbers[slot] : proofNumbers[slot];
+            if (phi >= phiThreshold || delta >= deltaThreshold) {
+                setResult(attackerToMove, phi, delta);
+                return;
+            }
+        }
+
+        // with a single tile to block, every other move loses
+        long candidateTiles = mustBlockTiles != 0 ? mustBlockTiles : ~occupied & boardMask;
+        int childCount = Long.bitCount(candidateTiles);
+        int[] moves = new int[childCount];
+        int[] childPhis = new int[childCount];
+        int[] childDeltas = new int[childCount];
+        for (int i = 0; i < childCount; i++) {
+            long tile = candidateTiles & -candidateTiles;
+            candidateTiles ^= tile;
+            moves[i] = Long.numberOfTrailingZeros(tile);
+            long childAttackerTiles = attackerToMove ? attackerTiles | tile : attackerTiles;
+            long childDefenderTiles = attackerToMove ? defenderTiles : defenderTiles | tile;
+            int childSlot = slotOf(childAttackerTiles, childDefenderTiles);
+            if (matches(childSlot, childAttackerTiles, childDefenderTiles)) {
+                // the child is a position of the opponent, so its numbers are swapped
+                childPhis[i] = attackerToMove ? disproofNumbers[childSlot] : proofNumbers[childSlot];
+                childDeltas[i] = attackerToMove ? proofNumbers[childSlot] : disproofNumbers[childSlot];
+            } else {
+                childPhis[i] = 1;
+                childDeltas[i] = 1;
+            }
+        }
+
+        while (true) {
+            // the player to move wins through any of their moves, and fails only if all of them fail
+            int phi = INFINITY;
+            int delta = 0;
+            int best = 0;
+            int secondChildDelta = INFINITY;
+            for (int i = 0; i < childCount; i++) {
+                phi = Math.min(phi, childDeltas[i]);
+                delta = Math.min(INFINITY, delta + childPhis[i]);
+                if (childDeltas[i] < childDeltas[best]) {
+                    secondChildDelta = childDeltas[best];
+                    best = i;
+                } else if (i != best && childDeltas[i] < secondChildDelta) {
+                    secondChildDelta = childDeltas[i];
+                }
+            }
+            if (stopped || phi >= phiThreshold || delta >= deltaThreshold) {
+                store(attackerTiles, defenderTiles, attackerToMove, phi, delta);
+                return;
+            }
+
+            int gridIndex = moves[best];
+            long tile = 1L << gridIndex;
+            int childPhiThreshold = deltaThreshold - delta + childPhis[best];
+            int childDeltaThreshold = Math.min(phiThreshold, secondChildDelta == INFINITY ? INFINITY : secondChildDelta + 1);
+            threatIndex.applyMove(gridIndex, player);
+            search(attackerToMove ? attackerTiles | tile : attackerTiles,
+                    attackerToMove ? defenderTiles : defenderTiles | tile,
+                    !attackerToMove, childPhiThreshold, childDeltaThreshold);
+            threatIndex.undoMove(gridIndex, player);
+            childPhis[best] = attackerToMove ? resultDisproofNumber : resultProofNumber;
+            childDeltas[best] = attackerToMove ? resultProofNumber : resultDisproofNumber;
+        }
+    }
+
+    /**
+     * Follow the proven moves from the searched position to a win of the attacker, searching each
+     * position again, which the table resolves at once unless its entry has since been replaced.
+     * @return The moves of the win, or null if the search was cancelled before it was found again.
+     */
+    private int[] findWinningLine(long attackerTiles, long defenderTiles) {
+        int[] line = new int[Long.bitCount(~(attackerTiles | defenderTiles) & boardMask)];
+        int length = 0;
+        boolean attackerToMove = true;
+        boolean won = false;
+        while (!stopped) {
+            TileStatus player = attackerToMove ? attacker : defender;
+            long winningTiles = threatIndex.getWinningTiles(attacker);
+            int move;
+            if (winningTiles != 0) {
+                // the attacker completes a win condition, or the defender blocks one, in vain
+                move = Long.numberOfTrailingZeros(winningTiles);
+                if (attackerToMove) {
+                    line[length++] = move;
+                    won = true;
+                    break;
+                }
+            } else {
+                move = findProvenMove(attackerTiles, defenderTiles, attackerToMove);
+                if (move == -1) {
+                    break;
+                }
+            }
+            line[length++] = move;
+            threatIndex.applyMove(move, player);
+            if (attackerToMove) {
+                attackerTiles |= 1L << move;
+            } else {
+                defenderTiles |= 1L << move;
+            }
+            attackerToMove = !attackerToMove;
+        }
+        for (int i = won ? length - 2 : length - 1; i >= 0; i--) {
+            threatIndex.undoMove(line[i], i % 2 == 0 ? attacker : defender);
+        }
+        return won ? Arrays.copyOf(line, length) : null;
+    }
+
+    /**
+     * Find a move of the given position that leads to a proven position, preferring the moves
+     * already proven in the table, and otherwise searching each move again.  Once a position of the
+     * defender is proven every one of their moves is, so the defender's first proven move is taken.
+     * @return The grid index of the move, or -1 if none could be found.
+     */
+    private int findProvenMove(final long attackerTiles, final long defenderTiles, final boolean attackerToMove) {
+        TileStatus player = attackerToMove ? attacker : defender;
+        long mustBlockTiles = threatIndex.getMustBlockTiles(player);
+        long candidateTiles = mustBlockTiles != 0 ? mustBlockTiles : ~(attackerTiles | defenderTiles) & boardMask;
+        long tiles = candidateTiles;
+        while (tiles != 0) {
+            long tile = tiles & -tiles;
+            tiles ^= tile;
+            long childAttackerTiles = attackerToMove ? attackerTiles | tile : attackerTiles;
+            long childDefenderTiles = attackerToMove ? defenderTiles : defenderTiles | tile;
+            int childSlot = slotOf(childAttackerTiles, childDefenderTiles);
+            if (matches(childSlot, childAttackerTiles, childDefenderTiles) && proofNumbers[childSlot] == 0) {
+                return Long.numberOfTrailingZeros(tile);
+            }
+        }
+
+        tiles = candidateTiles;
+        while (tiles != 0 && !stopped) {
+            long tile = tiles & -tiles;
+            tiles ^= tile;
+            int gridIndex = Long.numberOfTrailingZeros(tile);
+            threatIndex.applyMove(gridIndex, player);
+            search(attackerToMove ? attackerTiles | tile : attackerTiles,
+                    attackerToMove ? defenderTiles : defenderTiles | tile,
+                    !attackerToMove, INFINITY, INFINITY);
+            threatIndex.undoMove(gridIndex, player);
+            if (resultProofNumber == 0) {
+                return gridIndex;
+            }
+        }
+        return -1;
+    }
+
+    private int slotOf(final long attackerTiles, final long defenderTiles) {
+        long hash = (attackerTiles * 0x9E3779B97F4A7C15L) ^ (defenderTiles * 0xC2B2AE3D27D4EB4FL) ^ (xAttacks ? 1 : 0);
+        return (int) (hash ^ (hash >>> 29)) & mask;
+    }
+
+    /**
+     * Check whether the given slot holds the given position.  Empty slots have both numbers 0,
+     * which no position ever has.
+     */
+    private boolean matches(final int slot, final long attackerTiles, final long defenderTiles) {
+        return (proofNumbers[slot] | disproofNumbers[slot]) != 0
+                && attackerKeys[slot] == attackerTiles && defenderKeys[slot] == defenderTiles
+                && attackerIsX[slot] == xAttacks;
+    }
+
+    private void setResult(final boolean attackerToMove, final int phi, final int delta) {
+        resultProofNumber = attackerToMove ? phi : delta;
+        resultDisproofNumber = attackerToMove ? delta : phi;
+    }
+
+    /**
+     * Store the numbers of a position, given from the point of view of the player to move, and
+     * leave them as the result of the search.  A solved position is not replaced by an unsolved
+     * one.
+     */
+    private void store(final long attackerTiles, final long defenderTiles, final boolean attackerToMove,
+                       final int phi, final int delta) {
+        setResult(attackerToMove, phi, delta);
+        int slot = slotOf(attackerTiles, defenderTiles);
+        boolean samePosition = attackerKeys[slot] == attackerTiles && defenderKeys[slot] == defenderTiles
+                && attackerIsX[slot] == xAttacks;
+        boolean solved = proofNumbers[slot] == 0 ^ disproofNumbers[slot] == 0;
+        if (!samePosition && solved && phi != 0 && delta != 0) {
+            return;
+        }
+        attackerKeys[slot] = attackerTiles;
+        defenderKeys[slot] = defenderTiles;
+        attackerIsX[slot] = xAttacks;
+        proofNumbers[slot] = resultProofNumber;
+        disproofNumbers[slot] = resultDisproofNumber;
+    }
+
+    /**
+     * Discard every position in the table.
+     */
+    public void clear() {
+        Arrays.fill(proofNumbers, 0);
+        Arrays.fill(disproofNumbers, 0);
+    }
+}
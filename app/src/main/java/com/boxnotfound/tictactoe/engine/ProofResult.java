@@ -0,0 +1,59 @@
+package com.boxnotfound.tictactoe.engine;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The outcome of a {@link ProofNumberSearch}.
+ */
+public class ProofResult {
+
+    /** The player to move can force a win. */
+    public static final int PROVEN = 1;
+    /** The player to move cannot force a win, so the game ends in a draw or a loss for them. */
+    public static final int DISPROVEN = 2;
+    /** The search was stopped before the position was solved. */
+    public static final int UNKNOWN = 3;
+
+    private static final int[] NO_LINE = new int[0];
+
+    private final int status;
+    private final int[] winningLine;
+    private final long nodeCount;
+
+    ProofResult(final int status, @NonNull final int[] winningLine, final long nodeCount) {
+        this.status = status;
+        this.winningLine = winningLine;
+        this.nodeCount = nodeCount;
+    }
+
+    ProofResult(final int status, final long nodeCount) {
+        this(status, NO_LINE, nodeCount);
+    }
+
+    /**
+     * Retrieve the outcome of the search.
+     * @return One of {@link #PROVEN}, {@link #DISPROVEN} or {@link #UNKNOWN}.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieve the moves of a forced win, starting with the move of the player to move and ending
+     * with the move meeting a win condition.  Every other move is a reply of the opponent, who may
+     * have other replies, but none that avoid the loss.
+     * @return The grid indexes of the moves, empty unless the position was {@link #PROVEN}.  The
+     * returned array must not be modified.
+     */
+    public int[] getWinningLine() {
+        return winningLine;
+    }
+
+    /**
+     * Retrieve the number of positions the search expanded.
+     * @return The node count.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+}
@@ -0,0 +1,93 @@
+package com.boxnotfound.tictactoe.engine;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+
+/**
+ * Connects a running {@link MoveEngine} search to whoever requested it.  The engine polls
+ * {@link #shouldStop()} regularly, and stops searching as soon as the search has been cancelled or
+ * its deadline has passed, returning the best move found so far.  Along the way the engine may
+ * report the best move of every completed iteration through {@link #reportProgress(int, int)}.
+ */
+public class SearchControl {
+
+    /**
+     * Receives the progress of a search, on the thread running the search.
+     */
+    public interface ProgressListener {
+        void onProgress(final int bestMove, final int depth);
+    }
+
+    private static final ProgressListener NO_PROGRESS_LISTENER = (bestMove, depth) -> { };
+
+    /** The {@link System#nanoTime()} after which the search must stop. */
+    private final long deadlineNanos;
+    private final ProgressListener progressListener;
+    private volatile boolean cancelled;
+    /** The best move reported so far, -1 if none. */
+    private volatile int bestMove = -1;
+
+    /**
+     * @param maxSearchMillis The longest time the search may take, from now.
+     * @param progressListener Receives the progress of the search.
+     */
+    public SearchControl(final long maxSearchMillis, @NonNull final ProgressListener progressListener) {
+        this.deadlineNanos = System.nanoTime() + maxSearchMillis * 1000000L;
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Create a control for a search that is only limited by the given time, such as in tests and
+     * tools.
+     * @param maxSearchMillis The longest time the search may take, from now.
+     */
+    public SearchControl(final long maxSearchMillis) {
+        this(maxSearchMillis, NO_PROGRESS_LISTENER);
+    }
+
+    /**
+     * Check whether or not the search should stop, either because it has been cancelled or
+     * because its deadline has passed.
+     * @return True if the search should stop.
+     */
+    @AnyThread
+    public boolean shouldStop() {
+        return cancelled || System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Cancel the search.  The search stops the next time it checks {@link #shouldStop()}.
+     */
+    @AnyThread
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Check whether or not the search has been cancelled.
+     * @return True if the search has been cancelled.
+     */
+    @AnyThread
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Called by the engine whenever it has completed an iteration of the search.
+     * @param bestMove The grid index of the best move found so far.
+     * @param depth The depth the search has completed, in moves.
+     */
+    public void reportProgress(final int bestMove, final int depth) {
+        this.bestMove = bestMove;
+        progressListener.onProgress(bestMove, depth);
+    }
+
+    /**
+     * Retrieve the best move reported so far.
+     * @return The grid index of the best move, or -1 if none has been reported.
+     */
+    @AnyThread
+    public int getBestMove() {
+        return bestMove;
+    }
+}
@@ -0,0 +1,179 @@
+package com.boxnotfound.tictactoe.engine;
+
+import java.util.Arrays;
+
+import androidx.annotation.IntRange;
+
+/**
+ * A fixed size cache of search results, shared by every search an engine makes, so positions
+ * reached again, either later in the same search or by a later search, are not searched again.
+ *
+ * A position is keyed by the tiles of the player to move and the tiles of their opponent.  Both
+ * players are bound by the same win conditions, so this key fully determines the value of the
+ * position regardless of which player is to move.  Entries are stored in parallel primitive arrays
+ * in a single slot per hash, replacing the previous entry unless it was searched deeper during the
+ * current search.
+ *
+ * Once a move has actually been made, every position that does not follow from it can never be
+ * reached again.  {@link #retainDescendants(long, long)} discards those positions, so only the
+ * subtree of the move actually made is kept for the next search.
+ */
+public class TranspositionTable {
+
+    /** The stored score is exact. */
+    public static final byte EXACT = 1;
+    /** The stored score is a lower bound of the actual score. */
+    public static final byte LOWER_BOUND = 2;
+    /** The stored score is an upper bound of the actual score. */
+    public static final byte UPPER_BOUND = 3;
+    /** Marks an empty slot. */
+    private static final byte EMPTY = 0;
+
+    private final int mask;
+    private final long[] playerKeys;
+    private final long[] opponentKeys;
+    private final short[] scores;
+    private final byte[] depths;
+    private final byte[] bounds;
+    private final byte[] bestMoves;
+    /** The search each entry was stored by. */
+    private final byte[] generations;
+    private byte generation;
+    /** The slot found by the last call to {@link #probe(long, long)}. */
+    private int probedSlot;
+
+    /**
+     * @param sizeBits The table holds 2 ^ sizeBits entries.
+     */
+    public TranspositionTable(@IntRange(from = 1, to = 30) final int sizeBits) {
+        int size = 1 << sizeBits;
+        mask = size - 1;
+        playerKeys = new long[size];
+        opponentKeys = new long[size];
+        scores = new short[size];
+        depths = new byte[size];
+        bounds = new byte[size];
+        bestMoves = new byte[size];
+        generations = new byte[size];
+    }
+
+    private int slotOf(final long playerTiles, final long opponentTiles) {
+        long hash = (playerTiles * 0x9E3779B97F4A7C15L) ^ (opponentTiles * 0xC2B2AE3D27D4EB4FL);
+        return (int) (hash ^ (hash >>> 29)) & mask;
+    }
+
+    /**
+     * Look up the given position.  If found, its entry can be read through the getters until the
+     * next call to {@link #probe(long, long)} or {@link #store}.
+     * @param playerTiles The tiles of the player to move.
+     * @param opponentTiles The tiles of their opponent.
+     * @return True if the position has an entry.
+     */
+    public boolean probe(final long playerTiles, final long opponentTiles) {
+        int slot = slotOf(playerTiles, opponentTiles);
+        probedSlot = slot;
+        return bounds[slot] != EMPTY && playerKeys[slot] == playerTiles && opponentKeys[slot] == opponentTiles;
+    }
+
+    /**
+     * Store the result of searching the given position.
+     * @param playerTiles The tiles of the player to move.
+     * @param opponentTiles The tiles of their opponent.
+     * @param depth The number of moves searched.
+     * @param score The score of the position, relative to the position itself.
+     * @param bound One of {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     * @param bestMove The grid index of the best move found, or -1.
+     */
+    public void store(final long playerTiles, final long opponentTiles, final int depth, final int score,
+                      final byte bound, final int bestMove) {
+        int slot = slotOf(playerTiles, opponentTiles);
+        boolean samePosition = playerKeys[slot] == playerTiles && opponentKeys[slot] == opponentTiles;
+        if (bounds[slot] != EMPTY && !samePosition && generations[slot] == generation && depths[slot] > depth) {
+            // keep the deeper result of the current search
+            return;
+        }
+        playerKeys[slot] = playerTiles;
+        opponentKeys[slot] = opponentTiles;
+        scores[slot] = (short) score;
+        depths[slot] = (byte) depth;
+        bounds[slot] = bound;
+        bestMoves[slot] = (byte) bestMove;
+        generations[slot] = generation;
+    }
+
+    /**
+     * Called at the start of every search, so entries stored by previous searches are replaced in
+     * favour of the current search.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Discard every entry that cannot be reached from the given position, since it does not hold
+     * all of the tiles already claimed.
+     * @param xTiles The tiles controlled by Player X in the position.
+     * @param oTiles The tiles controlled by Player O in the position.
+     * @return The number of entries retained.
+     */
+    public int retainDescendants(final long xTiles, final long oTiles) {
+        int retained = 0;
+        for (int slot = 0; slot <= mask; slot++) {
+            if (bounds[slot] == EMPTY) {
+                continue;
+            }
+            // Player X moves first, so Player X is to move whenever both players hold as many tiles
+            long entryXTiles = playerKeys[slot];
+            long entryOTiles = opponentKeys[slot];
+            if (Long.bitCount(entryXTiles) != Long.bitCount(entryOTiles)) {
+                entryXTiles = opponentKeys[slot];
+                entryOTiles = playerKeys[slot];
+            }
+            if ((entryXTiles & xTiles) == xTiles && (entryOTiles & oTiles) == oTiles) {
+                retained++;
+            } else {
+                bounds[slot] = EMPTY;
+            }
+        }
+        return retained;
+    }
+
+    /**
+     * Discard every entry.
+     */
+    public void clear() {
+        Arrays.fill(bounds, EMPTY);
+    }
+
+    /**
+     * Retrieve the score of the probed entry.
+     * @return The score, relative to the position itself.
+     */
+    public int getScore() {
+        return scores[probedSlot];
+    }
+
+    /**
+     * Retrieve the depth the probed entry was searched to.
+     * @return The number of moves searched.
+     */
+    public int getDepth() {
+        return depths[probedSlot];
+    }
+
+    /**
+     * Retrieve how the score of the probed entry relates to the actual score.
+     * @return One of {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public byte getBound() {
+        return bounds[probedSlot];
+    }
+
+    /**
+     * Retrieve the best move of the probed entry.
+     * @return The grid index of the best move, or -1.
+     */
+    public int getBestMove() {
+        return bestMoves[probedSlot];
+    }
+}
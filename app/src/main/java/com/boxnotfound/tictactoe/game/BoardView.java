@@ -0,0 +1,256 @@
+package com.boxnotfound.tictactoe.game;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.View;
+
+import com.boxnotfound.tictactoe.R;
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.TileColor;
+import com.boxnotfound.tictactoe.model.TileStatus;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Custom View drawing the entire TicTacToe game board onto a single Canvas, rather than using a
+ * separate View per tile.  The player images are rasterised into Bitmaps once per tile size and
+ * reused for every tile, tinted by one of three pre-built Paints according to each tile's
+ * {@link TileColor}, so drawing the board allocates nothing regardless of its size.  A single touch
+ * handler maps the touched coordinates onto the grid index of the selected tile.
+ *
+ * The board is always drawn as a square, sized to the smaller of the available width and height.
+ */
+public class BoardView extends View {
+
+    /**
+     * Receives the tiles selected by the user.
+     */
+    public interface OnTileSelectedListener {
+        void onTileSelected(final int gridIndex);
+    }
+
+    /** The spacing between tiles, in dp. */
+    private static final float TILE_SPACING_DP = 1;
+    /** The padding between a tile's edge and its player image, in dp. */
+    private static final float TILE_PADDING_DP = 8;
+    /** The player image never shrinks below this fraction of the tile size due to padding. */
+    private static final float MIN_IMAGE_FRACTION = 0.5f;
+
+    /** The tiles to draw, indexed by grid index. */
+    private List<TicTacToeTile> tiles;
+    /** The number of tiles on a single row of the game board. */
+    private int rowSize;
+    private OnTileSelectedListener tileSelectedListener;
+
+    private final float tileSpacing;
+    private final float tilePadding;
+    private final Paint tilePaint = new Paint();
+    /** The Paints tinting the player images, indexed by {@link TileColor#ordinal()}. */
+    private final Paint[] imagePaints = new Paint[TileColor.values().length];
+
+    /** The rasterised player images of every image size drawn so far, mapped by size in pixels. */
+    private final SparseArray<Bitmap[]> playerImageCache = new SparseArray<>();
+    /** The rasterised player images of the current image size, indexed by
+     *  {@link TileStatus#ordinal()}, with no image for {@link TileStatus#OPEN}. */
+    private Bitmap[] playerImages;
+    /** The size of a tile, including its spacing, in pixels. */
+    private float tileSize;
+    /** The offset of the player image from a tile's top left corner, in pixels. */
+    private float imageOffset;
+
+    public BoardView(Context context) {
+        this(context, null);
+    }
+
+    public BoardView(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public BoardView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        float density = getResources().getDisplayMetrics().density;
+        tileSpacing = TILE_SPACING_DP * density;
+        tilePadding = TILE_PADDING_DP * density;
+        tilePaint.setColor(Color.WHITE);
+
+        imagePaints[TileColor.NORMAL.ordinal()] = createImagePaint(R.color.colorTileNormal);
+        imagePaints[TileColor.PREVIOUS_MOVE.ordinal()] = createImagePaint(R.color.colorTilePreviousMove);
+        imagePaints[TileColor.WINNER.ordinal()] = createImagePaint(R.color.colorTileWinner);
+    }
+
+    private Paint createImagePaint(final int colorResource) {
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        paint.setColorFilter(new PorterDuffColorFilter(
+                ContextCompat.getColor(getContext(), colorResource), PorterDuff.Mode.SRC_ATOP));
+        return paint;
+    }
+
+    /**
+     * Set the tiles to be drawn.  The tiles are read whenever the board is drawn, so later changes
+     * to their state only require a call to {@link #invalidateTile(int)}.
+     * @param tiles The tiles, indexed by grid index.
+     * @param rowSize The number of tiles on a single row of the game board.
+     */
+    public void setTiles(@NonNull final List<TicTacToeTile> tiles, final int rowSize) {
+        this.tiles = tiles;
+        if (this.rowSize != rowSize) {
+            this.rowSize = rowSize;
+            updateTileSize(getWidth());
+        }
+        invalidate();
+    }
+
+    /**
+     * Redraw the tile at the given grid index following a change of its state.  Only the bounds
+     * of the tile are invalidated, so the rest of the board is clipped from the redraw where the
+     * renderer honours dirty regions.
+     * @param gridIndex The index of the changed tile.
+     */
+    public void invalidateTile(final int gridIndex) {
+        if (rowSize == 0 || tileSize <= 0 || gridIndex < 0 || gridIndex >= rowSize * rowSize) {
+            invalidate();
+            return;
+        }
+        float left = (gridIndex % rowSize) * tileSize;
+        float top = (gridIndex / rowSize) * tileSize;
+        invalidate((int) left, (int) top, (int) Math.ceil(left + tileSize), (int) Math.ceil(top + tileSize));
+    }
+
+    public void setOnTileSelectedListener(@Nullable final OnTileSelectedListener tileSelectedListener) {
+        this.tileSelectedListener = tileSelectedListener;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int height = MeasureSpec.getSize(heightMeasureSpec);
+        int size;
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            size = height;
+        } else if (MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            size = width;
+        } else {
+            size = Math.min(width, height);
+        }
+        setMeasuredDimension(size, size);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateTileSize(w);
+    }
+
+    /**
+     * Recalculate the tile dimensions for the current board size and row size, and select the
+     * player images rasterised at the matching size, rasterising them if needed.
+     */
+    private void updateTileSize(final int boardSize) {
+        if (rowSize == 0 || boardSize == 0) {
+            return;
+        }
+        tileSize = (float) boardSize / rowSize;
+        float innerSize = tileSize - tileSpacing;
+        float padding = Math.min(tilePadding, innerSize * (1 - MIN_IMAGE_FRACTION) / 2);
+        int imageSize = Math.max(1, (int) (innerSize - 2 * padding));
+        imageOffset = (tileSize - imageSize) / 2;
+
+        playerImages = playerImageCache.get(imageSize);
+        if (playerImages == null) {
+            playerImages = new Bitmap[TileStatus.values().length];
+            playerImages[TileStatus.PLAYER_X.ordinal()] = rasterise(R.drawable.ic_player_x, imageSize);
+            playerImages[TileStatus.PLAYER_O.ordinal()] = rasterise(R.drawable.ic_player_o, imageSize);
+            playerImageCache.put(imageSize, playerImages);
+        }
+    }
+
+    /**
+     * Draw the given vector drawable resource into a new square Bitmap.
+     */
+    private Bitmap rasterise(final int drawableResource, final int size) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Drawable drawable = AppCompatResources.getDrawable(getContext(), drawableResource);
+        if (drawable != null) {
+            drawable.setBounds(0, 0, size, size);
+            drawable.draw(new Canvas(bitmap));
+        }
+        return bitmap;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (tiles == null || playerImages == null) {
+            return;
+        }
+        float halfSpacing = tileSpacing / 2;
+        int tileCount = Math.min(tiles.size(), rowSize * rowSize);
+        for (int gridIndex = 0; gridIndex < tileCount; gridIndex++) {
+            float left = (gridIndex % rowSize) * tileSize;
+            float top = (gridIndex / rowSize) * tileSize;
+            canvas.drawRect(left + halfSpacing, top + halfSpacing,
+                    left + tileSize - halfSpacing, top + tileSize - halfSpacing, tilePaint);
+
+            TicTacToeTile tile = tiles.get(gridIndex);
+            Bitmap playerImage = playerImages[tile.getCurrentState().ordinal()];
+            if (playerImage != null) {
+                canvas.drawBitmap(playerImage, left + imageOffset, top + imageOffset,
+                        imagePaints[tile.getCurrentColor().ordinal()]);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                return true;
+            case MotionEvent.ACTION_UP:
+                int gridIndex = getGridIndexAt(event.getX(), event.getY());
+                if (gridIndex != -1 && tileSelectedListener != null) {
+                    tileSelectedListener.onTileSelected(gridIndex);
+                }
+                performClick();
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Map a point within the view onto the grid index of the tile drawn there.
+     * @param x The horizontal position, in pixels.
+     * @param y The vertical position, in pixels.
+     * @return The grid index, or -1 if the point is outside of the board.
+     */
+    public int getGridIndexAt(final float x, final float y) {
+        if (rowSize == 0 || tileSize <= 0 || x < 0 || y < 0) {
+            return -1;
+        }
+        int col = (int) (x / tileSize);
+        int row = (int) (y / tileSize);
+        if (col >= rowSize || row >= rowSize) {
+            return -1;
+        }
+        return row * rowSize + col;
+    }
+}
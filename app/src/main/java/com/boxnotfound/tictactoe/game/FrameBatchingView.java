@@ -0,0 +1,150 @@
+package com.boxnotfound.tictactoe.game;
+
+import android.view.Choreographer;
+
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.TileStatus;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A {@link GameContract.View} that sits between the {@link GameContract.Presenter} and the actual
+ * UI, collecting every callback into a {@link GameRenderState} rather than updating the UI
+ * straight away.  The first callback after a frame schedules the next frame, on which every change
+ * collected since is passed to the {@link GameContract.RenderTarget} in a single call.
+ *
+ * A single move reports the move, then the next player's turn, the win or the draw, and several
+ * moves may be made before the next frame, but the UI is only ever updated once per frame.
+ *
+ * The same {@link Choreographer.FrameCallback} is posted for every frame, so a pending frame can be
+ * removed again by {@link #release()} once the UI is destroyed.
+ */
+public class FrameBatchingView implements GameContract.View {
+
+    /**
+     * Schedules work to run at the start of the next frame, matching the methods of the
+     * {@link Choreographer}.
+     */
+    public interface FrameScheduler {
+        void postFrameCallback(@NonNull final Choreographer.FrameCallback frameCallback);
+
+        void removeFrameCallback(@NonNull final Choreographer.FrameCallback frameCallback);
+    }
+
+    private final GameContract.RenderTarget renderTarget;
+    private final FrameScheduler frameScheduler;
+    private final GameRenderState renderState = new GameRenderState();
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> renderFrame();
+    /** Whether or not a frame has been scheduled and not yet rendered. */
+    private boolean frameScheduled;
+    /** The number of frames rendered. */
+    private long frameCount;
+    /** The number of presenter callbacks received. */
+    private long updateCount;
+
+    /**
+     * @param renderTarget The UI that renders the collected changes.
+     * @param frameScheduler Schedules each frame the changes are rendered on.
+     */
+    public FrameBatchingView(@NonNull final GameContract.RenderTarget renderTarget,
+                             @NonNull final FrameScheduler frameScheduler) {
+        this.renderTarget = renderTarget;
+        this.frameScheduler = frameScheduler;
+    }
+
+    @Override
+    public void setPresenter(@NonNull final GameContract.Presenter presenter) {
+        renderTarget.setPresenter(presenter);
+    }
+
+    @Override
+    public void displayNewTicTacToeGame(@NonNull final List<TicTacToeTile> tiles, final int rowSize) {
+        renderState.setNewGame(tiles, rowSize);
+        onUpdate();
+    }
+
+    @Override
+    public void displayPlayerMove(final int gridIndex, final int previousMoveIndex) {
+        renderState.addChangedTile(gridIndex);
+        if (previousMoveIndex != -1) {
+            renderState.addChangedTile(previousMoveIndex);
+        }
+        onUpdate();
+    }
+
+    @Override
+    public void displayPlayerTurn(@NonNull final TileStatus player) {
+        renderState.setStatus(GameRenderState.STATUS_PLAYER_TURN, player);
+        onUpdate();
+    }
+
+    @Override
+    public void displayGameWon(@NonNull final TileStatus winningPlayer, @NonNull final int[] winningGridIndexes) {
+        for (int gridIndex : winningGridIndexes) {
+            renderState.addChangedTile(gridIndex);
+        }
+        renderState.setStatus(GameRenderState.STATUS_GAME_WON, winningPlayer);
+        onUpdate();
+    }
+
+    @Override
+    public void displayGameDraw() {
+        renderState.setStatus(GameRenderState.STATUS_GAME_DRAW, null);
+        onUpdate();
+    }
+
+    /**
+     * Count the callback, and schedule the next frame if one is not already pending.
+     */
+    private void onUpdate() {
+        renderState.countUpdate();
+        updateCount++;
+        if (!frameScheduled) {
+            frameScheduled = true;
+            frameScheduler.postFrameCallback(frameCallback);
+        }
+    }
+
+    /**
+     * Render every change collected since the previous frame.
+     */
+    private void renderFrame() {
+        frameScheduled = false;
+        if (renderState.hasChanges()) {
+            renderTarget.renderFrame(renderState);
+            frameCount++;
+        }
+        renderState.clear();
+    }
+
+    /**
+     * Remove the pending frame, if one is scheduled, and discard every change collected for it.
+     * Called once the UI is destroyed, so the frame scheduler no longer holds on to this View.
+     */
+    public void release() {
+        if (frameScheduled) {
+            frameScheduler.removeFrameCallback(frameCallback);
+            frameScheduled = false;
+        }
+        renderState.clear();
+    }
+
+    /**
+     * Retrieve the number of frames in which the UI has been updated.
+     * @return The number of rendered frames.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Retrieve the number of presenter callbacks received, each of which would otherwise have
+     * updated the UI on its own.
+     * @return The number of callbacks.
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+}
@@ -8,7 +8,10 @@ import butterknife.BindView;
 import butterknife.ButterKnife;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.DisplayMetrics;
+import android.view.Choreographer;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -17,8 +20,20 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.boxnotfound.tictactoe.R;
+import com.boxnotfound.tictactoe.engine.EngineExecutor;
+import com.boxnotfound.tictactoe.engine.NegamaxEngine;
+import com.boxnotfound.tictactoe.engine.PonderPolicy;
+import com.boxnotfound.tictactoe.metrics.Metrics;
 import com.boxnotfound.tictactoe.model.TileColor;
 import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.journal.MoveJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The main TicTacToe Activity, which implements {@link GameFragment.OnGameUpdateListener} in order
@@ -31,6 +46,56 @@ public class GameActivity extends AppCompatActivity implements GameFragment.OnGa
      * a new game exist in the Activity.
      */
     private GamePresenter gamePresenter;
+    /**
+     * The journal the current game is recorded to, so it can be restored after the process has
+     * been destroyed.  Null until the journal has been opened, or if it could not be opened.
+     */
+    private MoveJournal moveJournal;
+    /**
+     * The name of the directory within the app's files directory that holds the journal.
+     */
+    private static final String JOURNAL_DIRECTORY_NAME = "journal";
+    /**
+     * Runs every disk operation on a {@link #moveJournal} that the main thread must not wait for:
+     * opening, committing and closing it.  The thread is shared by every instance of this Activity,
+     * so the journal of a destroyed instance is closed before the next instance opens it again, and
+     * ends once it has been idle for a while.
+     */
+    private static final ExecutorService JOURNAL_EXECUTOR = createJournalExecutor();
+    /**
+     * Collects every UI update from the {@link #gamePresenter} into one render per frame.
+     */
+    private FrameBatchingView batchingView;
+    /**
+     * Chooses moves for the current player in the background when the user asks for one.
+     */
+    private EngineExecutor engineExecutor;
+    /**
+     * The longest time the engine may search for a single move.
+     */
+    private static final long ENGINE_MAX_SEARCH_MILLIS = 500;
+    /**
+     * Ponder the player's reply to every computer move on the larger boards, for up to 10 seconds
+     * at half of a single core.
+     */
+    private static final PonderPolicy ENGINE_PONDER_POLICY = new PonderPolicy(10000, 50, 6);
+    /**
+     * Posts the {@link #heatmapTick}, and hands engine results and the opened journal back to the
+     * main thread.
+     */
+    private Handler mainThreadHandler;
+    /**
+     * Moves the window of {@link Metrics#PRESENTER_MOVE_HEATMAP} on to the wall clock once per
+     * slot while this Activity is started, so the presenter never reads the clock per move, and
+     * the window keeps moving whether or not any game is played or the metrics are enabled.
+     */
+    private final Runnable heatmapTick = new Runnable() {
+        @Override
+        public void run() {
+            Metrics.PRESENTER_MOVE_HEATMAP.advanceTo(System.currentTimeMillis());
+            mainThreadHandler.postDelayed(this, Metrics.PRESENTER_MOVE_HEATMAP.getSlotMillis());
+        }
+    };
     /**
      * Reference to the ImageView object representing the current player's turn.
      */
@@ -55,7 +120,108 @@ public class GameActivity extends AppCompatActivity implements GameFragment.OnGa
         fragmentTransaction.replace(R.id.frame_game_content, gameFragment);
         fragmentTransaction.commit();
 
-        gamePresenter = new GamePresenter(gameFragment);
+        // batch every UI update from the presenter into one render per frame
+        final Choreographer choreographer = Choreographer.getInstance();
+        batchingView = new FrameBatchingView(gameFragment, new FrameBatchingView.FrameScheduler() {
+            @Override
+            public void postFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+                choreographer.postFrameCallback(frameCallback);
+            }
+
+            @Override
+            public void removeFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+                choreographer.removeFrameCallback(frameCallback);
+            }
+        });
+
+        // engine results are handed back to the presenter on the main thread
+        mainThreadHandler = new Handler(Looper.getMainLooper());
+        engineExecutor = new EngineExecutor(new NegamaxEngine(), mainThreadHandler::post, ENGINE_MAX_SEARCH_MILLIS);
+        engineExecutor.setPonderPolicy(ENGINE_PONDER_POLICY);
+
+        gamePresenter = new GamePresenter(batchingView, null, engineExecutor);
+        openMoveJournal(mainThreadHandler);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        heatmapTick.run();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        mainThreadHandler.removeCallbacks(heatmapTick);
+        // the process may be destroyed at any point from here on, so commit every recorded move,
+        // off the main thread since committing forces the journal files to disk
+        if (moveJournal != null) {
+            JOURNAL_EXECUTOR.execute(moveJournal::sync);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // a frame still pending would otherwise render into the destroyed fragment
+        batchingView.release();
+        engineExecutor.shutdown();
+        if (moveJournal != null) {
+            closeMoveJournal(moveJournal);
+            moveJournal = null;
+        }
+    }
+
+    /**
+     * Open the {@link MoveJournal} stored in the app's files directory on the
+     * {@link #JOURNAL_EXECUTOR}, since recovering the journal reads its files, then hand it to the
+     * {@link #gamePresenter} on the main thread.  The journal is left unused if it could not be
+     * opened, and closed again if this Activity was destroyed in the meantime.
+     * @param mainThreadHandler The handler of the main thread.
+     */
+    private void openMoveJournal(@NonNull final Handler mainThreadHandler) {
+        final File journalDirectory = new File(getFilesDir(), JOURNAL_DIRECTORY_NAME);
+        JOURNAL_EXECUTOR.execute(() -> {
+            final MoveJournal openedJournal;
+            try {
+                openedJournal = MoveJournal.open(journalDirectory, 1);
+            } catch (IOException e) {
+                return;
+            }
+            mainThreadHandler.post(() -> {
+                if (isDestroyed()) {
+                    closeMoveJournal(openedJournal);
+                    return;
+                }
+                moveJournal = openedJournal;
+                gamePresenter.attachMoveJournal(openedJournal);
+            });
+        });
+    }
+
+    /**
+     * Close the given journal on the {@link #JOURNAL_EXECUTOR}, since closing commits every
+     * recorded move.
+     */
+    private static void closeMoveJournal(@NonNull final MoveJournal journal) {
+        JOURNAL_EXECUTOR.execute(() -> {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                // nothing left to do, the journal already committed as much as it could
+            }
+        });
+    }
+
+    private static ExecutorService createJournalExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "MoveJournal");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     @Override
@@ -77,6 +243,9 @@ public class GameActivity extends AppCompatActivity implements GameFragment.OnGa
             case R.id.button_decrement_board_size:
                 gamePresenter.decrementBoardSize();
                 return true;
+            case R.id.button_engine_move:
+                gamePresenter.requestEngineMove();
+                return true;
             default:
                 return super.onOptionsItemSelected(item);
         }
@@ -26,18 +26,29 @@ public interface GameContract {
 
         void decrementBoardSize();
 
+        void requestEngineMove();
+
     }
 
     interface View extends BaseView<Presenter> {
 
         void displayNewTicTacToeGame(@NonNull final List<TicTacToeTile> tiles, final int rowSize);
 
-        void displayPlayerMove();
+        void displayPlayerMove(final int gridIndex, final int previousMoveIndex);
 
         void displayPlayerTurn(@NonNull final TileStatus player);
 
-        void displayGameWon(@NonNull final TileStatus winningPlayer);
+        void displayGameWon(@NonNull final TileStatus winningPlayer, @NonNull final int[] winningGridIndexes);
 
         void displayGameDraw();
     }
+
+    /**
+     * The UI rendering the changes a {@link FrameBatchingView} has collected from the Presenter,
+     * once per frame.
+     */
+    interface RenderTarget extends BaseView<Presenter> {
+
+        void renderFrame(@NonNull final GameRenderState renderState);
+    }
 }
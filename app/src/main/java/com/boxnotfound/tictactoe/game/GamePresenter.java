@@ -1,18 +1,22 @@
 package com.boxnotfound.tictactoe.game;
 
+import com.boxnotfound.tictactoe.engine.EngineExecutor;
+import com.boxnotfound.tictactoe.metrics.GameEvents;
+import com.boxnotfound.tictactoe.metrics.Metrics;
+import com.boxnotfound.tictactoe.model.GameState;
 import com.boxnotfound.tictactoe.model.TicTacToeBoard;
 import com.boxnotfound.tictactoe.model.TicTacToeTile;
 import com.boxnotfound.tictactoe.model.TileColor;
 import com.boxnotfound.tictactoe.model.TileStatus;
-import com.boxnotfound.tictactoe.model.wincondition.WinCondition;
-import com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils;
+import com.boxnotfound.tictactoe.model.journal.JournaledGame;
+import com.boxnotfound.tictactoe.model.journal.MoveJournal;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
 
 import androidx.annotation.NonNull;
-import androidx.collection.SparseArrayCompat;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 /**
  * The Presenter Component of the TicTacToe game board
@@ -53,6 +57,10 @@ public class GamePresenter implements GameContract.Presenter {
      *  rebuild prior to a new game being started.
      */
     private static TileStatus winningPlayer;
+    /** When a game is won, cache the grid indexes of the winning tiles along with the
+     *  {@link #winningPlayer}, so the View can update only those tiles.
+     */
+    private static int[] winningGridIndexes = new int[0];
     /** Flag to indicate if the current game has been completed.  If yes, no more user moves are
      *  allowed until a call to start a new game has been issued by the user.
      */
@@ -77,18 +85,48 @@ public class GamePresenter implements GameContract.Presenter {
      *  {@link #gameBoardSize}, it indicates that there are no more moves that can be made.
      */
     private static int moveCount;
-    /** The cached map of Lists of {@link WinCondition} objects provided by
-     *  {@link WinConditionUtils#generateWinConditionsFromTicTacToeBoard(TicTacToeTile[][])}
-     *  associated with the current game's
-     *  {@link #gameBoard}, mapped by the grid index value, with 0 representing the top left
-     *  corner of the game board, and ({@link #gameBoardSize} - 1) representing the bottom right
-     *  corner of the game board.  When a player makes a move, the View passes the game board
-     *  index to the Presenter, which can be used to access the list of {@link WinCondition}
-     *  objects containing the tile associated with that particular index.  This allows the
-     *  Presenter to focus solely on checking the conditions that are only impacted by the
-     *  previous player move.
-     */
-    private static SparseArrayCompat<List<WinCondition>> winConditionMap;
+    /** The {@link WinConditionMasks} of the current game's row size, loaded once per row size
+     *  from the tables generated at build time and shared by every game of that size, so starting
+     *  a new game creates no win condition at all.  When a player makes a move, the View passes
+     *  the game board index to the Presenter, which can be used to access the conditions
+     *  containing the tile associated with that particular index.  This allows the Presenter to
+     *  focus solely on checking the conditions that are only impacted by the previous player move.
+     */
+    private static WinConditionMasks winConditionMasks;
+    /** The tiles controlled by each player in the current game, one bit per grid index, checked
+     *  against the {@link #winConditionMasks}.
+     */
+    private static long xTiles, oTiles;
+    /** The id the current game is recorded under in the {@link #moveJournal}.  Only a single game
+     *  is ever played at a time, so the same id is reused for every new game.
+     */
+    private static final long JOURNAL_GAME_ID = 0;
+    /** The journal every new game and move is recorded to, allowing the game to be restored after
+     *  the process has been destroyed.  Null if the game should not be journaled.
+     */
+    private MoveJournal moveJournal;
+    /** Set while the moves of a game restored from the {@link #moveJournal} are applied again, so
+     *  they are not counted by the metrics or emitted as events a second time.
+     */
+    private boolean replayingJournal;
+    /** Runs the engine choosing moves for the current player off the main thread.  Null if no
+     *  engine is available.
+     */
+    private final EngineExecutor engineExecutor;
+    /** Applies each move chosen by the {@link #engineExecutor} as if the player had selected it. */
+    private final EngineExecutor.Callback engineCallback = new EngineExecutor.Callback() {
+        @Override
+        public void onSearchProgress(final int bestMove, final int depth) {
+            // only the final move is shown, intermediate results would flicker across the board
+        }
+
+        @Override
+        public void onMoveChosen(final int gridIndex) {
+            if (gridIndex != -1) {
+                setPlayerMove(gridIndex);
+            }
+        }
+    };
 
     /**
      * Constructor requires a {@link GameContract.View} component in order to be able to communicate
@@ -96,10 +134,54 @@ public class GamePresenter implements GameContract.Presenter {
      * @param gameView
      */
     public GamePresenter(@NonNull final GameContract.View gameView) {
+        this(gameView, null);
+    }
+
+    /**
+     * Constructor requires a {@link GameContract.View} component in order to be able to communicate
+     * updates for the View, and optionally a {@link MoveJournal} to record the game to.
+     * @param gameView The View component.
+     * @param moveJournal The journal to record the game to, or null if it should not be recorded.
+     */
+    public GamePresenter(@NonNull final GameContract.View gameView, @Nullable final MoveJournal moveJournal) {
+        this(gameView, moveJournal, null);
+    }
+
+    /**
+     * Constructor requires a {@link GameContract.View} component in order to be able to communicate
+     * updates for the View, and optionally a {@link MoveJournal} to record the game to and an
+     * {@link EngineExecutor} to choose moves with.
+     * @param gameView The View component.
+     * @param moveJournal The journal to record the game to, or null if it should not be recorded.
+     * @param engineExecutor The engine to choose moves with, or null if none is available.
+     */
+    public GamePresenter(@NonNull final GameContract.View gameView, @Nullable final MoveJournal moveJournal,
+                         @Nullable final EngineExecutor engineExecutor) {
         this.gameView = gameView;
+        this.moveJournal = moveJournal;
+        this.engineExecutor = engineExecutor;
         gameView.setPresenter(this);
     }
 
+    /**
+     * Discard the game kept across Activity rebuilds, so the next launch starts a new game at the
+     * default board size, exactly as the initial application launch does.
+     */
+    @VisibleForTesting
+    public static void resetGameState() {
+        gameBoardRowSize = GAME_BOARD_MIN_ROW_SIZE;
+        gameBoardSize = gameBoardRowSize * gameBoardRowSize;
+        currentPlayer = null;
+        winningPlayer = null;
+        winningGridIndexes = new int[0];
+        gameOver = false;
+        firstLaunch = true;
+        rowOfLastMove = columnOfLastMove = -1;
+        moveCount = 0;
+        winConditionMasks = null;
+        xTiles = oTiles = 0;
+    }
+
     /**
      * Called by the View component when the LifeCycle state has reached onResume.  This is the
      * first method called by the View, and is not initiated by the user.
@@ -115,19 +197,41 @@ public class GamePresenter implements GameContract.Presenter {
      * initial application launch or if the user has requested a new game be started.  If neither
      * of these are the case, such as during screen orientation change or the OS calling onResume
      * after onPause, simply retrieve the cached game board and pass that state the the View.
+     * If this is the initial application launch and the {@link #moveJournal} holds a game from a
+     * previous process, that game is restored instead of starting a new one.
      * @param userRequested If the user has pushed one of the buttons that request a new game.
      */
     @Override
     public void launchNewTicTacToeGame(final boolean userRequested) {
         if (userRequested || firstLaunch) {
+            // only a new game is timed, not the same game shown again after a rotation or onResume
+            long startNanos = Metrics.PRESENTER_LAUNCH_NEW_GAME.start();
+            // a search of the previous game must never apply its move to the new one
+            cancelEngineMove();
+            JournaledGame journaledGame = userRequested ? null : getJournaledGame();
+            if (journaledGame != null) {
+                gameBoardRowSize = journaledGame.getRowSize();
+                gameBoardSize = gameBoardRowSize * gameBoardRowSize;
+            }
+
             gameBoard = TicTacToeBoard.setupTicTacToeBoard(gameBoardRowSize, true);
             firstLaunch = false;
             gameOver = false;
             winningPlayer = TileStatus.OPEN;
+            winningGridIndexes = new int[0];
             rowOfLastMove = columnOfLastMove = -1;
             moveCount = 0;
             currentPlayer = TileStatus.PLAYER_X;
             setupWinConditions();
+
+            if (journaledGame != null) {
+                replayJournaledGame(journaledGame);
+            } else {
+                // a restored game was reported when first created, only a new game is reported now
+                GameEvents.gameCreated(JOURNAL_GAME_ID, gameBoardRowSize);
+                journalNewGame();
+            }
+            Metrics.PRESENTER_LAUNCH_NEW_GAME.stop(startNanos);
         } else {
             gameBoard = TicTacToeBoard.setupTicTacToeBoard(gameBoardRowSize, false);
         }
@@ -136,7 +240,7 @@ public class GamePresenter implements GameContract.Presenter {
             gameView.displayPlayerTurn(currentPlayer);
         } else {
             if (winningPlayer != TileStatus.OPEN) {
-                gameView.displayGameWon(winningPlayer);
+                gameView.displayGameWon(winningPlayer, winningGridIndexes);
             } else {
                 gameView.displayGameDraw();
             }
@@ -145,93 +249,252 @@ public class GamePresenter implements GameContract.Presenter {
     }
 
     /**
-     *  Call {@link WinConditionUtils#generateWinConditionsFromTicTacToeBoard(TicTacToeTile[][])}
-     *  to generate the map of lists of {@link WinCondition} objects that monitor the game status
-     *  and notify if/when the game has been won.
+     *  Retrieve the cached {@link WinConditionMasks} of the current row size, which monitor the
+     *  game status and notify if/when the game has been won, and clear the tiles of both players.
      */
     private void setupWinConditions() {
+        winConditionMasks = WinConditionMasks.forRowSize(gameBoardRowSize);
+        xTiles = oTiles = 0;
+    }
 
-        if (winConditionMap != null) {
-            winConditionMap.clear();
+    /**
+     * Pass the {@link TicTacToeBoard#getTileList() list view} of the current {@link #gameBoard}
+     * to the view, which can be used by its {@link BoardView} to display the state of the current
+     * game.  The list reads directly from the game board, so nothing is copied.
+     */
+    private void setupTileListForView() {
+        gameView.displayNewTicTacToeGame(TicTacToeBoard.getTileList(), gameBoardRowSize);
+    }
+
+    /**
+     * Retrieve the game held by the {@link #moveJournal} from a previous process, if it can be
+     * restored here.
+     * @return The journaled game, or null if there is none, or its board is not offered here.
+     */
+    @Nullable
+    private JournaledGame getJournaledGame() {
+        if (moveJournal == null) {
+            return null;
         }
+        JournaledGame journaledGame = moveJournal.getGame(JOURNAL_GAME_ID);
+        // the journal only holds boards it supports, which may not all be boards offered here
+        if (journaledGame != null && (journaledGame.getRowSize() < GAME_BOARD_MIN_ROW_SIZE
+                || journaledGame.getRowSize() > GAME_BOARD_MAX_ROW_SIZE)) {
+            return null;
+        }
+        return journaledGame;
+    }
 
-        winConditionMap = WinConditionUtils.generateWinConditionsFromTicTacToeBoard(gameBoard);
+    /**
+     * Apply each move of a game restored from the {@link #moveJournal} to the freshly set up
+     * {@link #gameBoard}, without recording the moves again, nor counting them in the metrics or
+     * emitting their events, since they were already counted and emitted when first played.
+     * @param journaledGame The game to restore.
+     */
+    private void replayJournaledGame(@NonNull final JournaledGame journaledGame) {
+        replayingJournal = true;
+        try {
+            for (int i = 0; i < journaledGame.getMoveCount(); i++) {
+                applyPlayerMove(journaledGame.getMove(i));
+            }
+        } finally {
+            replayingJournal = false;
+        }
     }
 
     /**
-     * Convert the two-dimensional {@link TicTacToeTile} array into an ArrayList, which is passed
-     * to the view and can be used by its
-     * {@link com.boxnotfound.tictactoe.game.GameFragment.GameBoardAdapter} to display the state of
-     * the current game.
+     * Start recording to a {@link MoveJournal} that was opened after this Presenter was created,
+     * since opening a journal reads it from disk and so must not hold up the first game.  If no
+     * move has been made in the current game yet, the game held by the journal is restored in its
+     * place, as if the journal had been available from the initial application launch, or if the
+     * journal holds no such game, the current game is recorded as its new game.  Otherwise the
+     * current game is left alone and the journal records from the next new game on.
+     * @param moveJournal The opened journal.
      */
-    private void setupTileListForView() {
-        List<TicTacToeTile> tiles = new ArrayList<>();
-        for (TicTacToeTile[] tileRow : gameBoard) {
-            tiles.addAll(Arrays.asList(tileRow));
+    public void attachMoveJournal(@NonNull final MoveJournal moveJournal) {
+        this.moveJournal = moveJournal;
+        if (moveCount == 0 && !gameOver) {
+            if (getJournaledGame() != null) {
+                firstLaunch = true;
+                launchNewTicTacToeGame(false);
+            } else {
+                // the current game was already reported as created, it only needs recording
+                journalNewGame();
+            }
+        }
+    }
+
+    /**
+     * Record the start of a new game to the {@link #moveJournal}.
+     */
+    private void journalNewGame() {
+        if (moveJournal != null) {
+            try {
+                moveJournal.recordNewGame(JOURNAL_GAME_ID, gameBoardRowSize);
+            } catch (IOException e) {
+                // journaling is best effort, the game itself remains playable without it
+                moveJournal = null;
+            }
         }
-        gameView.displayNewTicTacToeGame(tiles, gameBoardRowSize);
     }
 
     /**
-     * Called by the View when a player has clicked one of the game board's tiles.  If the game is
-     * not over, and the tile's {@link TileStatus} is set to {@link TileStatus#OPEN}, set that
-     * tile's status to match the player that selected it.  Additionally, this sets the tile's
-     * {@link TileColor} to {@link TileColor#PREVIOUS_MOVE}, which indicates to the View that it
-     * should highlight this tile.
+     * Record a move of the current game to the {@link #moveJournal}.
+     * @param gridIndex The index of the tile selected.
+     */
+    private void journalPlayerMove(final int gridIndex) {
+        if (moveJournal != null) {
+            try {
+                moveJournal.recordMove(JOURNAL_GAME_ID, gridIndex);
+            } catch (IOException e) {
+                // journaling is best effort, the game itself remains playable without it
+                moveJournal = null;
+            }
+        }
+    }
+
+    /**
+     * Called by the View when a player has clicked one of the game board's tiles.  If the move is
+     * valid, it is applied to the game board and recorded to the {@link #moveJournal}.
      * @param gridIndex The index of the tile selected.
      */
     @Override
     public void setPlayerMove(final int gridIndex) {
+        long startNanos = Metrics.PRESENTER_SET_PLAYER_MOVE.start();
+        if (applyPlayerMove(gridIndex)) {
+            cancelEngineMove();
+            journalPlayerMove(gridIndex);
+        }
+        Metrics.PRESENTER_SET_PLAYER_MOVE.stop(startNanos);
+    }
+
+    /**
+     * Called by the View when the user has asked the engine to make the current player's move.
+     * The search runs in the background, and its move is applied through
+     * {@link #setPlayerMove(int)} once chosen, unless the game has changed in the meantime.
+     */
+    @Override
+    public void requestEngineMove() {
+        if (engineExecutor != null && !gameOver) {
+            engineExecutor.requestMove(createGameState(), engineCallback);
+        }
+    }
+
+    /**
+     * Cancel the engine's search, if any, since the position it is searching no longer exists.
+     */
+    private void cancelEngineMove() {
+        if (engineExecutor != null) {
+            engineExecutor.cancel();
+        }
+    }
+
+    /**
+     * Convert the current {@link #gameBoard} into the {@link GameState} searched by the engine.
+     * @return The state of the current game.
+     */
+    private GameState createGameState() {
+        int lastMoveIndex = rowOfLastMove == -1 ? -1 : rowOfLastMove * gameBoardRowSize + columnOfLastMove;
+        GameState gameState = new GameState(gameBoardRowSize);
+        gameState.set(gameBoardRowSize, xTiles, oTiles, lastMoveIndex, moveCount, currentPlayer,
+                winningPlayer, gameOver);
+        return gameState;
+    }
+
+    /**
+     * If the game is not over, and the tile's {@link TileStatus} is set to {@link TileStatus#OPEN},
+     * set that tile's status to match the player that selected it.  Additionally, this sets the
+     * tile's {@link TileColor} to {@link TileColor#PREVIOUS_MOVE}, which indicates to the View that
+     * it should highlight this tile.
+     * @param gridIndex The index of the tile selected.
+     * @return Whether or not the move was applied.
+     */
+    private boolean applyPlayerMove(final int gridIndex) {
         if (!gameOver) {
             int row = gridIndex / gameBoardRowSize;
             int col = gridIndex % gameBoardRowSize;
             TicTacToeTile selectedTile = gameBoard[row][col];
             if (selectedTile.getCurrentState() == TileStatus.OPEN) {
                 moveCount++;
+                if (!replayingJournal) {
+                    Metrics.PRESENTER_MOVES.increment();
+                    if (Metrics.isEnabled()) {
+                        Metrics.PRESENTER_MOVE_HEATMAP.recordMove(gameBoardRowSize, moveCount - 1, gridIndex);
+                    }
+                }
 
                 selectedTile.setCurrentState(currentPlayer);
+                if (currentPlayer == TileStatus.PLAYER_X) {
+                    xTiles |= 1L << gridIndex;
+                } else {
+                    oTiles |= 1L << gridIndex;
+                }
                 //setting this to true tells the Adapter to set this tile's color to the primary
                 //color, in order to clearly indicate to the user the last move that was made
                 selectedTile.setCurrentColor(TileColor.PREVIOUS_MOVE);
 
                 // if this was the first move of the game, there is no previous move
+                int previousMoveIndex = -1;
                 if (rowOfLastMove != -1) {
                     // change the previous tile's color back to the default color
                     TicTacToeTile previouslyMovedTile = gameBoard[rowOfLastMove][columnOfLastMove];
                     previouslyMovedTile.setCurrentColor(TileColor.NORMAL);
+                    previousMoveIndex = rowOfLastMove * gameBoardRowSize + columnOfLastMove;
                 }
                 // keep track of the index so we can update the color again after the next move
                 rowOfLastMove = row;
                 columnOfLastMove = col;
-                gameView.displayPlayerMove();
+                gameView.displayPlayerMove(gridIndex, previousMoveIndex);
                 checkWinConditions(gridIndex);
+                return true;
             }
         }
+        return false;
     }
 
     /**
-     * Retrieve the list of {@link TicTacToeTile} from the {@link #winConditionMap} using the index
-     * provided by the View, iterating through each one, and calling each {@link WinCondition}
-     * object's respective {@link WinCondition#winConditionMet()} method.  If this returns true,
-     * the game has been won by the current player.  If no conditions are met, we can proceed to
-     * the next player's move and then check if there are any moves left.
+     * Retrieve the conditions containing the tile at the index provided by the View from the
+     * {@link #winConditionMasks}, checking the current player's tiles against each one's mask.  If
+     * the player holds every tile of a mask, the game has been won by the current player.  If no
+     * conditions are met, we can proceed to the next player's move and then check if there are any
+     * moves left.
      * @param gridIndex The index of the tile selected.
      */
     private void checkWinConditions(final int gridIndex) {
-        List<WinCondition> winConditions = winConditionMap.get(gridIndex);
-        for (int i = 0; !gameOver && i < winConditions.size(); i++) {
-            final WinCondition winCondition = winConditions.get(i);
-            if (winCondition.winConditionMet()) {
-                List<TicTacToeTile> winningTiles = winCondition.getTiles();
-                for (TicTacToeTile tile : winningTiles) {
-                    tile.setCurrentColor(TileColor.WINNER);
-                }
-                gameOver = true;
-                winningPlayer = currentPlayer;
-                gameView.displayGameWon(winningPlayer);
-                break;
+        long startNanos = replayingJournal ? GameEvents.NOT_TIMED : GameEvents.startWinCheck();
+        long playerTiles = currentPlayer == TileStatus.PLAYER_X ? xTiles : oTiles;
+        int[] conditions = winConditionMasks.getConditionsForTile(gridIndex);
+        int metCondition = -1;
+        int examined = 0;
+        while (metCondition == -1 && examined < conditions.length) {
+            final int condition = conditions[examined++];
+            final long mask = winConditionMasks.getMask(condition);
+            if ((playerTiles & mask) == mask) {
+                metCondition = condition;
             }
         }
+        // only the checks themselves are timed, not the View's updates
+        if (startNanos != GameEvents.NOT_TIMED) {
+            GameEvents.winChecked(startNanos, Metrics.PRESENTER_CHECK_WIN_CONDITIONS,
+                    Metrics.PRESENTER_CONDITIONS_EXAMINED, JOURNAL_GAME_ID, gridIndex, currentPlayer, examined);
+        }
+
+        if (metCondition != -1) {
+            long winningTiles = winConditionMasks.getMask(metCondition);
+            winningGridIndexes = new int[Long.bitCount(winningTiles)];
+            for (int i = 0; winningTiles != 0; i++, winningTiles &= winningTiles - 1) {
+                int winningIndex = Long.numberOfTrailingZeros(winningTiles);
+                gameBoard[winningIndex / gameBoardRowSize][winningIndex % gameBoardRowSize].setCurrentColor(TileColor.WINNER);
+                winningGridIndexes[i] = winningIndex;
+            }
+            gameOver = true;
+            winningPlayer = currentPlayer;
+            if (!replayingJournal) {
+                Metrics.PRESENTER_GAMES_WON.increment();
+                GameEvents.gameOver(JOURNAL_GAME_ID, winningPlayer, winConditionMasks.getType(metCondition));
+            }
+            gameView.displayGameWon(winningPlayer, winningGridIndexes);
+        }
 
         if (!gameOver) {
             moveToNextPlayer();
@@ -259,6 +522,10 @@ public class GamePresenter implements GameContract.Presenter {
     private void checkIfBoardIsFilled() {
         if (moveCount == gameBoardSize) {
             gameOver = true;
+            if (!replayingJournal) {
+                Metrics.PRESENTER_GAMES_DRAWN.increment();
+                GameEvents.gameOver(JOURNAL_GAME_ID, TileStatus.OPEN, null);
+            }
             gameView.displayGameDraw();
         }
     }
@@ -0,0 +1,153 @@
+package com.boxnotfound.tictactoe.game;
+
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.TileStatus;
+
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Aggregates every UI state change reported by the {@link GameContract.Presenter} between two
+ * frames, so the changes can be rendered together by a single call to
+ * {@link GameContract.RenderTarget#renderFrame(GameRenderState)}.
+ *
+ * Tile changes accumulate, while each game status replaces the previous one, since only the most
+ * recent status is ever visible.  A new game replaces every pending tile change, since the whole
+ * board is redrawn anyway.
+ */
+public class GameRenderState {
+
+    /** No status change is pending. */
+    public static final int STATUS_NONE = 0;
+    /** It is {@link #getStatusPlayer()}'s turn to make a move. */
+    public static final int STATUS_PLAYER_TURN = 1;
+    /** The game has been won by {@link #getStatusPlayer()}. */
+    public static final int STATUS_GAME_WON = 2;
+    /** The game has ended in a draw. */
+    public static final int STATUS_GAME_DRAW = 3;
+
+    /** The tiles of a new game, or null if no new game has been launched. */
+    private List<TicTacToeTile> newGameTiles;
+    private int newGameRowSize;
+    /** The grid indexes of the tiles changed since the last frame, without duplicates. */
+    private int[] changedTiles = new int[8];
+    private int changedTileCount;
+    private int status = STATUS_NONE;
+    private TileStatus statusPlayer;
+    /** The number of presenter callbacks aggregated since the last frame. */
+    private int updateCount;
+
+    void setNewGame(@NonNull final List<TicTacToeTile> tiles, final int rowSize) {
+        newGameTiles = tiles;
+        newGameRowSize = rowSize;
+        changedTileCount = 0;
+    }
+
+    void addChangedTile(final int gridIndex) {
+        if (newGameTiles != null) {
+            return;
+        }
+        for (int i = 0; i < changedTileCount; i++) {
+            if (changedTiles[i] == gridIndex) {
+                return;
+            }
+        }
+        if (changedTileCount == changedTiles.length) {
+            changedTiles = Arrays.copyOf(changedTiles, changedTileCount * 2);
+        }
+        changedTiles[changedTileCount++] = gridIndex;
+    }
+
+    void setStatus(final int status, @Nullable final TileStatus statusPlayer) {
+        this.status = status;
+        this.statusPlayer = statusPlayer;
+    }
+
+    void countUpdate() {
+        updateCount++;
+    }
+
+    /**
+     * Discard every pending change once it has been rendered.
+     */
+    void clear() {
+        newGameTiles = null;
+        newGameRowSize = 0;
+        changedTileCount = 0;
+        status = STATUS_NONE;
+        statusPlayer = null;
+        updateCount = 0;
+    }
+
+    /**
+     * Check whether or not any change is waiting to be rendered.
+     * @return True if there is a pending change.
+     */
+    public boolean hasChanges() {
+        return newGameTiles != null || changedTileCount > 0 || status != STATUS_NONE;
+    }
+
+    /**
+     * Retrieve the tiles of a new game launched since the last frame.
+     * @return The tiles, or null if no new game has been launched.
+     */
+    @Nullable
+    public List<TicTacToeTile> getNewGameTiles() {
+        return newGameTiles;
+    }
+
+    /**
+     * Retrieve the row size of a new game launched since the last frame.
+     * @return The row size, or 0 if no new game has been launched.
+     */
+    public int getNewGameRowSize() {
+        return newGameRowSize;
+    }
+
+    /**
+     * Retrieve the number of tiles changed since the last frame.  Always 0 when a new game has been
+     * launched, since every tile is drawn anyway.
+     * @return The number of changed tiles.
+     */
+    public int getChangedTileCount() {
+        return changedTileCount;
+    }
+
+    /**
+     * Retrieve the grid index of a changed tile.
+     * @param i The index of the change, below {@link #getChangedTileCount()}.
+     * @return The grid index of the changed tile.
+     */
+    public int getChangedTile(final int i) {
+        return changedTiles[i];
+    }
+
+    /**
+     * Retrieve the most recent game status reported since the last frame.
+     * @return One of {@link #STATUS_NONE}, {@link #STATUS_PLAYER_TURN}, {@link #STATUS_GAME_WON}
+     * or {@link #STATUS_GAME_DRAW}.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Retrieve the player the {@link #getStatus() status} refers to.
+     * @return The player whose turn it is, or who has won the game, otherwise null.
+     */
+    @Nullable
+    public TileStatus getStatusPlayer() {
+        return statusPlayer;
+    }
+
+    /**
+     * Retrieve the number of presenter callbacks aggregated into this frame.
+     * @return The number of aggregated callbacks.
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+}
@@ -0,0 +1,65 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A thread safe count of events, only counted while {@link Metrics#isEnabled()}.
+ */
+public class Counter {
+
+    private final String name;
+    // LongAdder would contend less, but needs API 24
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * @param name The name the counter is exported under.
+     */
+    public Counter(@NonNull final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Count a single event.
+     */
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Count the given number of events.
+     * @param events The number of events.
+     */
+    public void add(final long events) {
+        if (Metrics.isEnabled()) {
+            count.addAndGet(events);
+        }
+    }
+
+    /**
+     * Discard every event counted.
+     */
+    public void reset() {
+        count.set(0);
+    }
+
+    /**
+     * Retrieve the number of events counted.
+     * @return The count.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Retrieve the name the counter is exported under.
+     * @return The name.
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,53 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Receives the game and search events enabled in {@link GameEvents}, on the thread that caused
+ * them, so a profiler or tracer can lay them out as a timeline per game.  Listeners must return
+ * quickly, since they run inside the instrumented calls.
+ */
+public interface GameEventListener {
+
+    /**
+     * Called when a new game has been set up.
+     * @param gameId The id of the game.
+     * @param rowSize The number of tiles per row.
+     */
+    void onGameCreated(final long gameId, final int rowSize);
+
+    /**
+     * Called when a move has been applied and the win conditions it affects have been checked.
+     * @param gameId The id of the game.
+     * @param gridIndex The index of the tile claimed.
+     * @param player The player who claimed it.
+     * @param winCheckNanos The time taken to check the win conditions.
+     * @param conditionsExamined The number of win conditions checked.
+     */
+    void onMove(final long gameId, final int gridIndex, @NonNull final TileStatus player, final long winCheckNanos,
+                final int conditionsExamined);
+
+    /**
+     * Called when a game has ended.
+     * @param gameId The id of the game.
+     * @param winningPlayer The player who won, or {@link TileStatus#OPEN} for a draw.
+     * @param winningType The type of the condition that won the game, or null if the game was
+     *                    drawn, forfeited, or won by a custom rule.
+     */
+    void onGameOver(final long gameId, @NonNull final TileStatus winningPlayer, @Nullable final WinConditionType winningType);
+
+    /**
+     * Called when a search for a move or a proof has completed.
+     * @param searcher The name of the search.
+     * @param rowSize The number of tiles per row of the searched position.
+     * @param moveCount The number of moves made in the searched position.
+     * @param nodeCount The number of positions visited.
+     * @param durationNanos The time taken by the search.
+     */
+    void onSearch(@NonNull final String searcher, final int rowSize, final int moveCount, final long nodeCount,
+                  final long durationNanos);
+}
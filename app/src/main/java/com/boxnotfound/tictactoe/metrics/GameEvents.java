@@ -0,0 +1,189 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Emits the game lifecycle, move and search events to a single {@link GameEventListener}, for
+ * correlating profiles and traces with game activity.  Every event type is enabled separately,
+ * by a mask of the event constants, or by a settings profile of the form:
+ *
+ * # comments and blank lines are ignored
+ * gameCreated.enabled=true
+ * move.enabled=true
+ * gameOver.enabled=true
+ * search.enabled=false
+ *
+ * Events are disabled until a listener is set.  While an event type is disabled, emitting it
+ * costs a single read of {@link #enabledEvents}, and the instrumented code skips reading the
+ * clock for it.
+ */
+public class GameEvents {
+
+    /** The event of a new game, see {@link GameEventListener#onGameCreated(long, int)}. */
+    public static final int GAME_CREATED = 1;
+    /** The event of every move, see {@link GameEventListener#onMove(long, int, TileStatus, long, int)}. */
+    public static final int MOVE = 1 << 1;
+    /** The event of every game result, see {@link GameEventListener#onGameOver(long, TileStatus, WinConditionType)}. */
+    public static final int GAME_OVER = 1 << 2;
+    /** The event of every search, see {@link GameEventListener#onSearch(String, int, int, long, long)}. */
+    public static final int SEARCH = 1 << 3;
+    /** Every event type. */
+    public static final int ALL = GAME_CREATED | MOVE | GAME_OVER | SEARCH;
+
+    /** Returned by {@link #start(int)} for a disabled event, telling the event to do nothing. */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final String[] EVENT_NAMES = {"gameCreated", "move", "gameOver", "search"};
+
+    private static volatile GameEventListener listener;
+    /** The mask of the enabled events, 0 while there is no listener. */
+    private static volatile int enabledEvents;
+
+    private GameEvents() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    /**
+     * Deliver the given events to the given listener, replacing any previous listener.
+     * @param listener The listener, or null to disable every event.
+     * @param events The mask of the event types to deliver.
+     */
+    public static synchronized void setListener(@Nullable final GameEventListener listener, final int events) {
+        GameEvents.listener = listener;
+        GameEvents.enabledEvents = listener == null ? 0 : events & ALL;
+    }
+
+    /**
+     * Parse a settings profile into a mask of the event types it enables.
+     * @param profile The settings, in the format described by {@link GameEvents}.
+     * @return The mask of the enabled event types.
+     * @throws IllegalArgumentException If the profile is malformed.
+     */
+    public static int parseProfile(@NonNull final String profile) {
+        int events = 0;
+        for (String line : profile.split("\n")) {
+            int comment = line.indexOf('#');
+            String setting = (comment == -1 ? line : line.substring(0, comment)).trim();
+            if (setting.isEmpty()) {
+                continue;
+            }
+            int separator = setting.indexOf('=');
+            String key = separator == -1 ? setting : setting.substring(0, separator).trim();
+            String value = separator == -1 ? "" : setting.substring(separator + 1).trim();
+            int event = -1;
+            for (int i = 0; i < EVENT_NAMES.length; i++) {
+                if (key.equals(EVENT_NAMES[i] + ".enabled")) {
+                    event = i;
+                }
+            }
+            if (event == -1 || !(value.equals("true") || value.equals("false"))) {
+                throw new IllegalArgumentException("Unknown setting " + setting);
+            }
+            if (value.equals("true")) {
+                events |= 1 << event;
+            } else {
+                events &= ~(1 << event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Retrieve whether or not the given event type is delivered.
+     * @param event The event type.
+     * @return True if a listener receives the event.
+     */
+    public static boolean isEnabled(final int event) {
+        return (enabledEvents & event) != 0;
+    }
+
+    /**
+     * Start timing the given event.
+     * @param event The event type.
+     * @return The current time, or {@link #NOT_TIMED} if the event is disabled.
+     */
+    public static long start(final int event) {
+        return isEnabled(event) ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Start timing a win check, if either the metrics or the {@link #MOVE} event will use the time.
+     * @return The current time, or {@link #NOT_TIMED} if nothing will use it.
+     */
+    public static long startWinCheck() {
+        return Metrics.isEnabled() || isEnabled(MOVE) ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Record a win check timed with {@link #startWinCheck()} to the given metrics, if enabled, and
+     * emit the event of its move.  Callers skip this when the check was not timed, so the number
+     * of conditions examined need only be worked out when it is used.
+     * @param startNanos The value returned by {@link #startWinCheck()}, not {@link #NOT_TIMED}.
+     * @param winCheckHistogram The histogram of the caller's win checks.
+     * @param conditionsExaminedCounter The counter of the caller's conditions examined.
+     */
+    public static void winChecked(final long startNanos, @NonNull final LatencyHistogram winCheckHistogram,
+                                  @NonNull final Counter conditionsExaminedCounter, final long gameId,
+                                  final int gridIndex, @NonNull final TileStatus player, final int conditionsExamined) {
+        long winCheckNanos = System.nanoTime() - startNanos;
+        if (Metrics.isEnabled()) {
+            winCheckHistogram.recordValue(winCheckNanos);
+            conditionsExaminedCounter.add(conditionsExamined);
+        }
+        move(gameId, gridIndex, player, winCheckNanos, conditionsExamined);
+    }
+
+    /**
+     * Emit the event of a new game, if enabled.
+     */
+    public static void gameCreated(final long gameId, final int rowSize) {
+        if (isEnabled(GAME_CREATED)) {
+            GameEventListener listener = GameEvents.listener;
+            if (listener != null) {
+                listener.onGameCreated(gameId, rowSize);
+            }
+        }
+    }
+
+    /**
+     * Emit the event of a move, if enabled.
+     */
+    public static void move(final long gameId, final int gridIndex, @NonNull final TileStatus player,
+                            final long winCheckNanos, final int conditionsExamined) {
+        if (isEnabled(MOVE)) {
+            GameEventListener listener = GameEvents.listener;
+            if (listener != null) {
+                listener.onMove(gameId, gridIndex, player, winCheckNanos, conditionsExamined);
+            }
+        }
+    }
+
+    /**
+     * Emit the event of a game result, if enabled.
+     */
+    public static void gameOver(final long gameId, @NonNull final TileStatus winningPlayer,
+                                @Nullable final WinConditionType winningType) {
+        if (isEnabled(GAME_OVER)) {
+            GameEventListener listener = GameEvents.listener;
+            if (listener != null) {
+                listener.onGameOver(gameId, winningPlayer, winningType);
+            }
+        }
+    }
+
+    /**
+     * Emit the event of a search timed with {@link #start(int)}.
+     * @param startNanos The value returned by {@link #start(int)} for {@link #SEARCH}.
+     */
+    public static void search(@NonNull final String searcher, final int rowSize, final int moveCount,
+                              final long nodeCount, final long startNanos) {
+        GameEventListener listener = GameEvents.listener;
+        if (startNanos != NOT_TIMED && listener != null) {
+            listener.onSearch(searcher, rowSize, moveCount, nodeCount, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A thread safe histogram of durations in nanoseconds, bucketed the way HdrHistogram buckets its
+ * values: every power of 2 is split into {@link #SUB_BUCKET_COUNT} linear sub-buckets, so any
+ * recorded value is known to within 1 part in {@link #SUB_BUCKET_COUNT}, from a single nanosecond
+ * up to the longest duration a long can hold, in a fixed {@link #BUCKET_COUNT} counters.
+ *
+ * Recording takes a handful of atomic updates, and never allocates.  Calls are timed with
+ * {@link #start()} and {@link #stop(long)}, which only record while {@link Metrics#isEnabled()},
+ * and skip reading the clock altogether while metrics are disabled.
+ */
+public class LatencyHistogram {
+
+    /** Returned by {@link #start()} while metrics are disabled, telling {@link #stop(long)} to do nothing. */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** Enough buckets for every positive long, the last power of 2 being 2^62. */
+    private static final int BUCKET_COUNT = (Long.SIZE - 1 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * @param name The name the histogram is exported under.
+     */
+    public LatencyHistogram(@NonNull final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Start timing a call.
+     * @return The time the call started, to be passed to {@link #stop(long)}, or
+     * {@link #NOT_TIMED} if metrics are disabled.
+     */
+    public long start() {
+        return Metrics.isEnabled() ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Record the duration of a call timed with {@link #start()}.
+     * @param startNanos The value returned by {@link #start()}.
+     */
+    public void stop(final long startNanos) {
+        if (startNanos != NOT_TIMED) {
+            recordValue(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Record a single duration, whether or not metrics are enabled.
+     * @param nanos The duration, negative values being recorded as 0.
+     */
+    public void recordValue(final long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketIndex(value));
+        totalNanos.addAndGet(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Record a single duration, along with the durations of the calls that a stall of that length
+     * would have held up, had the caller not been waiting on it: one less expected interval at a
+     * time, down to the expected interval itself.  This corrects for coordinated omission, the way
+     * HdrHistogram's method of the same name does.
+     * @param nanos The duration, negative values being recorded as 0.
+     * @param expectedIntervalNanos The time expected between calls, 0 or less to record the
+     *                              duration alone.
+     */
+    public void recordValueWithExpectedInterval(final long nanos, final long expectedIntervalNanos) {
+        recordValue(nanos);
+        if (expectedIntervalNanos <= 0) {
+            return;
+        }
+        for (long missing = nanos - expectedIntervalNanos; missing >= expectedIntervalNanos;
+             missing -= expectedIntervalNanos) {
+            recordValue(missing);
+        }
+    }
+
+    /**
+     * Discard every recorded value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    private static int bucketIndex(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * The largest value that falls in the given bucket, so reported values are never understated.
+     */
+    private static long highestValueInBucket(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Capture the values recorded so far.  Values recorded while the snapshot is taken may or may
+     * not be included.
+     * @return The snapshot.
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketCounts[i] = counts.get(i);
+            count += bucketCounts[i];
+        }
+        return new Snapshot(name, bucketCounts, count, totalNanos.get(), maxNanos.get());
+    }
+
+    /**
+     * Retrieve the name the histogram is exported under.
+     * @return The name.
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The values of a {@link LatencyHistogram} at a point in time.
+     */
+    public static class Snapshot {
+
+        private final String name;
+        private final long[] bucketCounts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(@NonNull final String name, @NonNull final long[] bucketCounts, final long count,
+                         final long totalNanos, final long maxNanos) {
+            this.name = name;
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Retrieve the value below which the given share of the recorded values fall.
+         * @param percentile The share, from 0 to 100.
+         * @return The value in nanoseconds, to within the precision of the histogram, or 0 if no
+         * values were recorded.
+         */
+        public long getValueAtPercentile(final double percentile) {
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= target) {
+                    return Math.min(highestValueInBucket(i), maxNanos);
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Retrieve the name of the histogram the snapshot was taken of.
+         * @return The name.
+         */
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Retrieve the number of values recorded.
+         * @return The count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Retrieve the mean of the values recorded.
+         * @return The mean in nanoseconds, or 0 if no values were recorded.
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Retrieve the largest value recorded.
+         * @return The value in nanoseconds, exactly as recorded.
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
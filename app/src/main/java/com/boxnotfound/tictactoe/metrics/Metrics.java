@@ -0,0 +1,143 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The metrics of the game and engine hot paths, switchable at runtime and disabled by default.
+ *
+ * Every metric is a static {@link LatencyHistogram} or {@link Counter}, created once, so recording
+ * never looks anything up or allocates.  While metrics are disabled, the instrumented code pays a
+ * single read of the {@link #enabled} flag per metric, and never reads the clock.
+ *
+ * The histograms time the calls they are named after.  The
+ * {@link com.boxnotfound.tictactoe.game.GamePresenter} and the
+ * {@link com.boxnotfound.tictactoe.model.session.GameSessions} each record into metrics of their
+ * own, exported under the names prefixed with "presenter." and "sessions.", so the single game on
+ * screen and the games hosted for other players are never mixed up.
+ */
+public class Metrics {
+
+    private static final List<LatencyHistogram> HISTOGRAMS = new ArrayList<>();
+    private static final List<Counter> COUNTERS = new ArrayList<>();
+
+    /** The time taken by the presenter to apply a player's move, including checking the win conditions. */
+    public static final LatencyHistogram PRESENTER_SET_PLAYER_MOVE = histogram("presenter.setPlayerMove");
+    /** The time taken by the presenter to check the win conditions affected by a move. */
+    public static final LatencyHistogram PRESENTER_CHECK_WIN_CONDITIONS = histogram("presenter.checkWinConditions");
+    /** The time taken by the presenter to set up a new game. */
+    public static final LatencyHistogram PRESENTER_LAUNCH_NEW_GAME = histogram("presenter.launchNewTicTacToeGame");
+    /** The time taken by WinConditionUtils to generate the win condition objects of a game board. */
+    public static final LatencyHistogram GENERATE_WIN_CONDITIONS = histogram("generateWinConditionsFromTicTacToeBoard");
+    /** The time taken by the sessions to apply a player's move, including checking the win conditions. */
+    public static final LatencyHistogram SESSIONS_SET_PLAYER_MOVE = histogram("sessions.setPlayerMove");
+    /** The time taken by the sessions to check the win conditions affected by a move. */
+    public static final LatencyHistogram SESSIONS_CHECK_WIN_CONDITIONS = histogram("sessions.checkWinConditions");
+    /** The time taken by the sessions to set up a new game. */
+    public static final LatencyHistogram SESSIONS_LAUNCH_NEW_GAME = histogram("sessions.launchNewTicTacToeGame");
+
+    /** The number of moves applied by the presenter. */
+    public static final Counter PRESENTER_MOVES = counter("presenter.moves");
+    /** The number of win conditions checked by the presenter after a move. */
+    public static final Counter PRESENTER_CONDITIONS_EXAMINED = counter("presenter.conditionsExamined");
+    /** The number of games won in the presenter. */
+    public static final Counter PRESENTER_GAMES_WON = counter("presenter.gamesWon");
+    /** The number of games drawn in the presenter. */
+    public static final Counter PRESENTER_GAMES_DRAWN = counter("presenter.gamesDrawn");
+    /** The number of win condition objects created by WinConditionUtils. */
+    public static final Counter WIN_CONDITIONS_CREATED = counter("winConditionsCreated");
+    /** The number of moves applied by the sessions. */
+    public static final Counter SESSIONS_MOVES = counter("sessions.moves");
+    /** The number of win conditions checked by the sessions after a move. */
+    public static final Counter SESSIONS_CONDITIONS_EXAMINED = counter("sessions.conditionsExamined");
+    /** The number of games won in the sessions. */
+    public static final Counter SESSIONS_GAMES_WON = counter("sessions.gamesWon");
+    /** The number of games drawn in the sessions. */
+    public static final Counter SESSIONS_GAMES_DRAWN = counter("sessions.gamesDrawn");
+
+    /**
+     * The tiles chosen by every move in the presenter, per row size and move number, over windows
+     * of up to 5 minutes of the wall clock.  The presenter never reads the clock: the GameActivity
+     * moves the window on from a tick every slot while it is started, so a snapshot should be
+     * taken at the current time with {@link MoveHeatmap#snapshot(long, long)}.  Snapshots are
+     * taken from the heatmap itself, rather than from {@link #snapshot()}.
+     */
+    public static final MoveHeatmap PRESENTER_MOVE_HEATMAP = new MoveHeatmap(10 * 1000, 30);
+    /**
+     * The tiles chosen by every move in the sessions, per row size and move number, over windows
+     * of up to 5 minutes of the sessions' own clock, see
+     * {@link com.boxnotfound.tictactoe.model.session.GameSessions#advanceTo(long)}.
+     */
+    public static final MoveHeatmap SESSIONS_MOVE_HEATMAP = new MoveHeatmap(10 * 1000, 30);
+
+    private static volatile boolean enabled;
+
+    private Metrics() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    private static LatencyHistogram histogram(@NonNull final String name) {
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    private static Counter counter(@NonNull final String name) {
+        Counter counter = new Counter(name);
+        COUNTERS.add(counter);
+        return counter;
+    }
+
+    /**
+     * Start or stop recording every metric.  The values recorded so far are kept.
+     * @param enabled Whether or not metrics should be recorded.
+     */
+    public static void setEnabled(final boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Retrieve whether or not metrics are being recorded.
+     * @return True if metrics are enabled.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Discard the values of every metric.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+        for (Counter counter : COUNTERS) {
+            counter.reset();
+        }
+        PRESENTER_MOVE_HEATMAP.reset();
+        SESSIONS_MOVE_HEATMAP.reset();
+    }
+
+    /**
+     * Capture the values of every metric, for export.
+     * @return The snapshot.
+     */
+    @NonNull
+    public static MetricsSnapshot snapshot() {
+        List<LatencyHistogram.Snapshot> histograms = new ArrayList<>();
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histograms.add(histogram.snapshot());
+        }
+        List<String> counterNames = new ArrayList<>();
+        long[] counts = new long[COUNTERS.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counterNames.add(COUNTERS.get(i).getName());
+            counts[i] = COUNTERS.get(i).getCount();
+        }
+        return new MetricsSnapshot(Collections.unmodifiableList(histograms), Collections.unmodifiableList(counterNames),
+                counts);
+    }
+}
@@ -0,0 +1,99 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import java.util.List;
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The values of every {@link Metrics} metric at a point in time, exported as plain text by
+ * {@link #toString()} or as JSON by {@link #toJson()}.  Durations are exported in nanoseconds.
+ */
+public class MetricsSnapshot {
+
+    /** The percentiles exported for every histogram. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private final List<LatencyHistogram.Snapshot> histograms;
+    private final List<String> counterNames;
+    private final long[] counts;
+
+    MetricsSnapshot(@NonNull final List<LatencyHistogram.Snapshot> histograms, @NonNull final List<String> counterNames,
+                    @NonNull final long[] counts) {
+        this.histograms = histograms;
+        this.counterNames = counterNames;
+        this.counts = counts;
+    }
+
+    /**
+     * Retrieve the snapshot of every histogram.
+     * @return The unmodifiable list of histogram snapshots.
+     */
+    @NonNull
+    public List<LatencyHistogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Retrieve the count of the counter with the given name.
+     * @param name The name of the counter.
+     * @return The count.
+     * @throws IllegalArgumentException If there is no counter with the name.
+     */
+    public long getCount(@NonNull final String name) {
+        int index = counterNames.indexOf(name);
+        if (index == -1) {
+            throw new IllegalArgumentException("Unknown counter " + name);
+        }
+        return counts[index];
+    }
+
+    /**
+     * Export the snapshot as a JSON object, with an object per histogram and a number per counter.
+     * @return The JSON text.
+     */
+    @NonNull
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"histograms\":{");
+        for (int i = 0; i < histograms.size(); i++) {
+            LatencyHistogram.Snapshot histogram = histograms.get(i);
+            json.append(i == 0 ? "" : ",").append('"').append(histogram.getName()).append("\":{")
+                    .append("\"count\":").append(histogram.getCount())
+                    .append(",\"mean\":").append(String.format(Locale.US, "%.1f", histogram.getMeanNanos()));
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                json.append(",\"").append(PERCENTILE_NAMES[p]).append("\":")
+                        .append(histogram.getValueAtPercentile(PERCENTILES[p]));
+            }
+            json.append(",\"max\":").append(histogram.getMaxNanos()).append('}');
+        }
+        json.append("},\"counters\":{");
+        for (int i = 0; i < counts.length; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(counterNames.get(i)).append("\":").append(counts[i]);
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Export the snapshot as plain text, a line per histogram and per counter.
+     * @return The text.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (LatencyHistogram.Snapshot histogram : histograms) {
+            text.append(String.format(Locale.US, "%-40s count=%d mean=%.1fns", histogram.getName(),
+                    histogram.getCount(), histogram.getMeanNanos()));
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                text.append(' ').append(PERCENTILE_NAMES[p]).append('=')
+                        .append(histogram.getValueAtPercentile(PERCENTILES[p])).append("ns");
+            }
+            text.append(" max=").append(histogram.getMaxNanos()).append("ns\n");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            text.append(String.format(Locale.US, "%-40s %d\n", counterNames.get(i), counts[i]));
+        }
+        return text.toString();
+    }
+}
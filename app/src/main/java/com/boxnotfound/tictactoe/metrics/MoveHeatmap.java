@@ -0,0 +1,330 @@
+package com.boxnotfound.tictactoe.metrics;
+
+import com.boxnotfound.tictactoe.model.GameState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Counts the grid index chosen by every move, per row size and per move number, across every
+ * game, over a sliding window of time.
+ *
+ * Time is split into slots of a fixed length, and a ring of slots covers the longest window that
+ * can be exported.  The current slot only moves on when {@link #advanceTo(long)} is called, so
+ * recording a move never reads the clock: whoever owns the clock calls it at least once per slot,
+ * from a periodic tick rather than from the moves.  A {@link #snapshot(long, long)} taken at a
+ * given time selects its slots relative to that time, so moves of slots that have since passed
+ * are left out even when the tick is late.
+ *
+ * Every recording thread counts into a stripe of its own, so writers never contend: recording a
+ * move is a thread local lookup and a plain increment.  A stripe's slot is cleared by its own
+ * thread the first time it records into the slot after the slot has moved on.  A
+ * {@link #snapshot(long)} merges the stripes without stopping the writers, skipping any slot that
+ * is cleared while it is read, so a snapshot may miss the last few moves recorded.
+ *
+ * A stripe is kept for every thread that has ever recorded a move, so writers should be
+ * long-lived threads, such as the threads of a pool.
+ */
+public class MoveHeatmap {
+
+    /** Marks a slot of a stripe that holds no valid counts. */
+    private static final long NO_EPOCH = -1;
+
+    private final long slotMillis;
+    private final int slotCount;
+    /** The index of the current slot since the epoch, the time divided by {@link #slotMillis}. */
+    private volatile long currentEpoch;
+
+    private final List<Stripe> stripes = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Stripe> localStripe = new ThreadLocal<Stripe>() {
+        @Override
+        protected Stripe initialValue() {
+            Stripe stripe = new Stripe(slotCount);
+            stripes.add(stripe);
+            return stripe;
+        }
+    };
+
+    /**
+     * @param slotMillis The length of every slot, the resolution of every window.
+     * @param slotCount The number of slots kept, so the longest window is this many slots long.
+     */
+    public MoveHeatmap(@IntRange(from = 1) final long slotMillis, @IntRange(from = 1) final int slotCount) {
+        if (slotMillis < 1 || slotCount < 1) {
+            throw new IllegalArgumentException("Slots must be at least 1 ms long, and at least 1 kept");
+        }
+        this.slotMillis = slotMillis;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * Move the current slot on to the one holding the given time.  Time never moves backwards, so
+     * earlier times are ignored.
+     * @param nowMillis The current time.
+     */
+    public void advanceTo(final long nowMillis) {
+        long epoch = nowMillis / slotMillis;
+        if (epoch > currentEpoch) {
+            synchronized (this) {
+                if (epoch > currentEpoch) {
+                    currentEpoch = epoch;
+                }
+            }
+        }
+    }
+
+    /**
+     * Count a move in the current slot.
+     * @param rowSize The number of tiles per row of the game.
+     * @param moveNumber The zero based number of the move within the game.
+     * @param gridIndex The index of the tile selected.
+     */
+    public void recordMove(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize, final int moveNumber,
+                           final int gridIndex) {
+        long epoch = currentEpoch;
+        int slot = (int) (epoch % slotCount);
+        Stripe stripe = localStripe.get();
+        if (stripe.epochs.get(slot) != epoch) {
+            stripe.clearSlot(slot, epoch);
+        }
+        int[] counts = stripe.counts[slot][rowSize];
+        if (counts == null) {
+            int gameBoardSize = rowSize * rowSize;
+            counts = new int[gameBoardSize * gameBoardSize];
+            stripe.counts[slot][rowSize] = counts;
+        }
+        counts[moveNumber * rowSize * rowSize + gridIndex]++;
+    }
+
+    /**
+     * Discard every move counted so far.  Moves recorded while resetting may or may not be kept.
+     */
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                stripe.epochs.set(slot, NO_EPOCH);
+            }
+        }
+    }
+
+    /**
+     * Retrieve the length of every slot, the longest a periodic {@link #advanceTo(long)} may wait.
+     * @return The slot length, in milliseconds.
+     */
+    public long getSlotMillis() {
+        return slotMillis;
+    }
+
+    /**
+     * Merge the moves counted within the given window, up to and including the current slot.
+     * @param windowMillis The length of the window, rounded up to whole slots and down to the
+     *                     slots kept.
+     * @return The snapshot.
+     */
+    @NonNull
+    public Snapshot snapshot(final long windowMillis) {
+        return merge(currentEpoch, windowMillis);
+    }
+
+    /**
+     * Merge the moves counted within the given window ending at the given time, whether or not
+     * the current slot has been moved on to that time yet.
+     * @param nowMillis The time the window ends at, on the clock given to {@link #advanceTo(long)}.
+     * @param windowMillis The length of the window, rounded up to whole slots and down to the
+     *                     slots kept.
+     * @return The snapshot.
+     */
+    @NonNull
+    public Snapshot snapshot(final long nowMillis, final long windowMillis) {
+        return merge(nowMillis / slotMillis, windowMillis);
+    }
+
+    /**
+     * Merge the moves counted within the given window, up to and including the slot of the given epoch.
+     */
+    @NonNull
+    private Snapshot merge(final long epoch, final long windowMillis) {
+        long windowSlots = windowMillis / slotMillis + (windowMillis % slotMillis == 0 ? 0 : 1);
+        windowSlots = Math.min(slotCount, Math.max(1, windowSlots));
+        long[][] counts = new long[GameState.MAX_ROW_SIZE + 1][];
+        // each slot is read into a scratch copy first, and only kept if it was not cleared meanwhile
+        int[][] slotCopy = new int[GameState.MAX_ROW_SIZE + 1][];
+        for (Stripe stripe : stripes) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                long slotEpoch = stripe.epochs.get(slot);
+                if (slotEpoch == NO_EPOCH || slotEpoch > epoch || slotEpoch <= epoch - windowSlots) {
+                    continue;
+                }
+                for (int rowSize = 2; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+                    int[] slotCounts = stripe.counts[slot][rowSize];
+                    if (slotCounts == null) {
+                        slotCopy[rowSize] = null;
+                        continue;
+                    }
+                    if (slotCopy[rowSize] == null || slotCopy[rowSize].length != slotCounts.length) {
+                        slotCopy[rowSize] = new int[slotCounts.length];
+                    }
+                    System.arraycopy(slotCounts, 0, slotCopy[rowSize], 0, slotCounts.length);
+                }
+                if (stripe.epochs.get(slot) != slotEpoch) {
+                    continue;
+                }
+                for (int rowSize = 2; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+                    int[] copy = slotCopy[rowSize];
+                    if (copy == null) {
+                        continue;
+                    }
+                    if (counts[rowSize] == null) {
+                        counts[rowSize] = new long[copy.length];
+                    }
+                    for (int i = 0; i < copy.length; i++) {
+                        counts[rowSize][i] += copy[i];
+                    }
+                }
+            }
+        }
+        return new Snapshot(windowSlots * slotMillis, counts);
+    }
+
+    /**
+     * The counts of a single recording thread, in a ring of slots.  Only the owning thread writes
+     * the counts; the slot epochs are also invalidated by {@link #reset()}.
+     */
+    private static class Stripe {
+
+        /** The epoch each slot holds the counts of, or {@link #NO_EPOCH}. */
+        private final AtomicLongArray epochs;
+        /** The counts of each slot, indexed by slot, then by row size, then by move number and grid index. */
+        private final int[][][] counts;
+
+        private Stripe(final int slotCount) {
+            epochs = new AtomicLongArray(slotCount);
+            for (int slot = 0; slot < slotCount; slot++) {
+                epochs.set(slot, NO_EPOCH);
+            }
+            counts = new int[slotCount][GameState.MAX_ROW_SIZE + 1][];
+        }
+
+        /**
+         * Clear a slot for reuse by the given epoch, invalidating it first so readers skip it.
+         */
+        private void clearSlot(final int slot, final long epoch) {
+            epochs.set(slot, NO_EPOCH);
+            for (int[] rowSizeCounts : counts[slot]) {
+                if (rowSizeCounts != null) {
+                    Arrays.fill(rowSizeCounts, 0);
+                }
+            }
+            epochs.set(slot, epoch);
+        }
+    }
+
+    /**
+     * The moves counted within a window, merged across every recording thread.
+     */
+    public static class Snapshot {
+
+        private final long windowMillis;
+        /** The counts of each row size, indexed by move number and grid index, or null if none. */
+        private final long[][] counts;
+
+        private Snapshot(final long windowMillis, @NonNull final long[][] counts) {
+            this.windowMillis = windowMillis;
+            this.counts = counts;
+        }
+
+        /**
+         * Retrieve the length of the window covered.
+         * @return The window length, in milliseconds.
+         */
+        public long getWindowMillis() {
+            return windowMillis;
+        }
+
+        /**
+         * Retrieve the number of times the given tile was chosen by the given move.
+         * @param rowSize The number of tiles per row of the games.
+         * @param moveNumber The zero based number of the move within its game.
+         * @param gridIndex The index of the tile.
+         * @return The count.
+         */
+        public long getCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize, final int moveNumber,
+                             final int gridIndex) {
+            long[] rowSizeCounts = counts[rowSize];
+            return rowSizeCounts == null ? 0 : rowSizeCounts[moveNumber * rowSize * rowSize + gridIndex];
+        }
+
+        /**
+         * Retrieve the number of times each tile was chosen by the given move, or by any move.
+         * @param rowSize The number of tiles per row of the games.
+         * @param moveNumber The zero based number of the move within its game, or -1 for every move.
+         * @return The counts, indexed by grid index.
+         */
+        @NonNull
+        public long[] getTileCounts(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize,
+                                    @IntRange(from = -1) final int moveNumber) {
+            int gameBoardSize = rowSize * rowSize;
+            long[] tileCounts = new long[gameBoardSize];
+            long[] rowSizeCounts = counts[rowSize];
+            if (rowSizeCounts == null) {
+                return tileCounts;
+            }
+            for (int move = 0; move < gameBoardSize; move++) {
+                if (moveNumber == -1 || move == moveNumber) {
+                    for (int gridIndex = 0; gridIndex < gameBoardSize; gridIndex++) {
+                        tileCounts[gridIndex] += rowSizeCounts[move * gameBoardSize + gridIndex];
+                    }
+                }
+            }
+            return tileCounts;
+        }
+
+        /**
+         * Retrieve the number of moves counted in games of the given row size.
+         * @param rowSize The number of tiles per row of the games.
+         * @return The move count.
+         */
+        public long getMoveCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+            long total = 0;
+            for (long count : getTileCounts(rowSize, -1)) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Export the snapshot as a JSON object, with an array per row size that has any moves,
+         * holding an array of tile counts per move number.
+         * @return The JSON text.
+         */
+        @NonNull
+        public String toJson() {
+            StringBuilder json = new StringBuilder(String.format(Locale.US, "{\"windowMillis\":%d,\"rowSizes\":{",
+                    windowMillis));
+            boolean first = true;
+            for (int rowSize = 2; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+                if (counts[rowSize] == null) {
+                    continue;
+                }
+                json.append(first ? "" : ",").append('"').append(rowSize).append("\":[");
+                first = false;
+                int gameBoardSize = rowSize * rowSize;
+                for (int move = 0; move < gameBoardSize; move++) {
+                    json.append(move == 0 ? "[" : ",[");
+                    for (int gridIndex = 0; gridIndex < gameBoardSize; gridIndex++) {
+                        json.append(gridIndex == 0 ? "" : ",").append(counts[rowSize][move * gameBoardSize + gridIndex]);
+                    }
+                    json.append(']');
+                }
+                json.append(']');
+            }
+            return json.append("}}").toString();
+        }
+    }
+}
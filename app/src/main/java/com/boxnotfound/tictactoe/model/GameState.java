@@ -0,0 +1,204 @@
+package com.boxnotfound.tictactoe.model;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * A compact model of a complete game, used wherever many games need to be held at once.  Rather
+ * than a {@link TicTacToeTile} object per tile, the tiles controlled by each player are stored as
+ * a single bit set, with bit N representing the tile at grid index N.  Since the game board is
+ * never larger than 8 x 8, each bit set fits in a single long.
+ */
+public class GameState {
+
+    /**
+     * The largest supported number of tiles per row, limited by the size of a long.
+     */
+    public static final int MAX_ROW_SIZE = 8;
+
+    /**
+     * The number of tiles on a single row of the game board.
+     */
+    private int rowSize;
+    /**
+     * The tiles controlled by {@link TileStatus#PLAYER_X}, one bit per grid index.
+     */
+    private long xTiles;
+    /**
+     * The tiles controlled by {@link TileStatus#PLAYER_O}, one bit per grid index.
+     */
+    private long oTiles;
+    /**
+     * The grid index of the tile selected during the previous move, -1 if no move has been made.
+     */
+    private int lastMoveIndex;
+    /**
+     * The number of moves made in the game.
+     */
+    private int moveCount;
+    /**
+     * The player set to make the next game move.
+     */
+    private TileStatus currentPlayer;
+    /**
+     * The player who has won the game, {@link TileStatus#OPEN} if the game has not been won.
+     */
+    private TileStatus winningPlayer;
+    /**
+     * Whether or not the game has been completed, either by a win or a draw.
+     */
+    private boolean gameOver;
+
+    /**
+     * A game state starts as a new game with an empty board of the given size.
+     * @param rowSize The number of tiles per row.
+     */
+    public GameState(@IntRange(from = 2, to = MAX_ROW_SIZE) final int rowSize) {
+        reset(rowSize);
+    }
+
+    /**
+     * Reset the state to a new game with an empty board of the given size.
+     * @param rowSize The number of tiles per row.
+     */
+    public void reset(@IntRange(from = 2, to = MAX_ROW_SIZE) final int rowSize) {
+        if (rowSize < 2 || rowSize > MAX_ROW_SIZE) {
+            throw new IllegalArgumentException("Unsupported row size " + rowSize);
+        }
+        this.rowSize = rowSize;
+        xTiles = oTiles = 0;
+        lastMoveIndex = -1;
+        moveCount = 0;
+        currentPlayer = TileStatus.PLAYER_X;
+        winningPlayer = TileStatus.OPEN;
+        gameOver = false;
+    }
+
+    /**
+     * Claim the tile at the given grid index for the {@link #currentPlayer} and pass the turn to
+     * the other player.  Evaluating whether the move has won the game is left to the caller.
+     * @param gridIndex The index of the tile selected.
+     * @return Whether or not the move was applied, false if the game is over or the tile is not
+     * open.
+     */
+    public boolean applyMove(final int gridIndex) {
+        if (gameOver || getTileStatus(gridIndex) != TileStatus.OPEN) {
+            return false;
+        }
+        if (currentPlayer == TileStatus.PLAYER_X) {
+            xTiles |= 1L << gridIndex;
+            currentPlayer = TileStatus.PLAYER_O;
+        } else {
+            oTiles |= 1L << gridIndex;
+            currentPlayer = TileStatus.PLAYER_X;
+        }
+        lastMoveIndex = gridIndex;
+        moveCount++;
+        return true;
+    }
+
+    /**
+     * Retrieve the player controlling the tile at the given grid index.
+     * @param gridIndex The index of the tile.
+     * @return The {@link TileStatus} of the tile.
+     */
+    public TileStatus getTileStatus(final int gridIndex) {
+        long tile = 1L << gridIndex;
+        if ((xTiles & tile) != 0) {
+            return TileStatus.PLAYER_X;
+        } else if ((oTiles & tile) != 0) {
+            return TileStatus.PLAYER_O;
+        } else {
+            return TileStatus.OPEN;
+        }
+    }
+
+    /**
+     * Overwrite every field of the state at once, used when restoring a state from its packed form.
+     */
+    public void set(final int rowSize, final long xTiles, final long oTiles, final int lastMoveIndex,
+                    final int moveCount, @NonNull final TileStatus currentPlayer,
+                    @NonNull final TileStatus winningPlayer, final boolean gameOver) {
+        this.rowSize = rowSize;
+        this.xTiles = xTiles;
+        this.oTiles = oTiles;
+        this.lastMoveIndex = lastMoveIndex;
+        this.moveCount = moveCount;
+        this.currentPlayer = currentPlayer;
+        this.winningPlayer = winningPlayer;
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * Retrieve the number of tiles on a single row of the game board.
+     * @return The row size.
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Retrieve the tiles controlled by {@link TileStatus#PLAYER_X}.
+     * @return The bit set of tiles, one bit per grid index.
+     */
+    public long getXTiles() {
+        return xTiles;
+    }
+
+    /**
+     * Retrieve the tiles controlled by {@link TileStatus#PLAYER_O}.
+     * @return The bit set of tiles, one bit per grid index.
+     */
+    public long getOTiles() {
+        return oTiles;
+    }
+
+    /**
+     * Retrieve the grid index of the tile selected during the previous move.
+     * @return The grid index, or -1 if no move has been made.
+     */
+    public int getLastMoveIndex() {
+        return lastMoveIndex;
+    }
+
+    /**
+     * Retrieve the number of moves made in the game.
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Retrieve the player set to make the next game move.
+     * @return The current player.
+     */
+    public TileStatus getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Retrieve the player who has won the game.
+     * @return The winning player, or {@link TileStatus#OPEN} if the game has not been won.
+     */
+    public TileStatus getWinningPlayer() {
+        return winningPlayer;
+    }
+
+    /**
+     * Retrieve whether or not the game has been completed.
+     * @return True if the game has been won or drawn.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Mark the game as completed.
+     * @param winningPlayer The player who won the game, or {@link TileStatus#OPEN} for a draw.
+     */
+    public void setGameOver(@NonNull final TileStatus winningPlayer) {
+        this.winningPlayer = winningPlayer;
+        this.gameOver = true;
+    }
+}
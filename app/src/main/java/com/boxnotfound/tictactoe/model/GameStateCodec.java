@@ -0,0 +1,249 @@
+package com.boxnotfound.tictactoe.model;
+
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Packs a complete {@link GameState}, along with the win condition that ended it, into a few
+ * bytes, for saving to a Bundle, journaling or sending over the network.  Encoding and decoding
+ * read and write the caller's arrays and states directly, and never allocate.
+ *
+ * Encoding layout, version 1:
+ *          [byte version] [byte row size | flags] [byte move count] [byte last move index + 1]
+ *          [byte winning condition + 1] [occupied tiles] [owner of each occupied tile]
+ *
+ * The occupied tiles take a bit per tile, in grid index order, rounded up to whole bytes.  The
+ * owners take a bit per occupied tile, in the same order, set for {@link TileStatus#PLAYER_O},
+ * also rounded up to whole bytes.  Every multi-bit field is written least significant bit first.
+ * The winning condition is an index of the {@link WinConditionMasks} of the row size.
+ *
+ * An empty 4 x 4 board takes 7 bytes, and a full 8 x 8 board {@link #MAX_ENCODED_LENGTH}.
+ *
+ * The app itself does not save its games with the codec: the presenter keeps its game across
+ * Activity rebuilds, and the {@link com.boxnotfound.tictactoe.model.journal.MoveJournal} restores
+ * it after the process has been destroyed.
+ */
+public class GameStateCodec {
+
+    /** The version written by {@link #encode(GameState, int, byte[], int)}. */
+    public static final int VERSION = 1;
+    /** The number of bytes taken by the fixed fields, ahead of the tiles. */
+    private static final int HEADER_LENGTH = 5;
+    /** The largest number of bytes taken by an encoded game, that of a full 8 x 8 board. */
+    public static final int MAX_ENCODED_LENGTH = HEADER_LENGTH + 2 * GameState.MAX_ROW_SIZE * GameState.MAX_ROW_SIZE / Byte.SIZE;
+    /** Returned by {@link #decode(byte[], int, GameState)} for a game that has not been won. */
+    public static final int NO_WINNING_CONDITION = -1;
+
+    private static final int ROW_SIZE_MASK = 0xF;
+    /** Flag bits holding the {@link TileStatus#ordinal()} of the winning player. */
+    private static final int WINNING_PLAYER_SHIFT = 4;
+    private static final int WINNING_PLAYER_MASK = 0x3 << WINNING_PLAYER_SHIFT;
+    /** Flag bit set when {@link TileStatus#PLAYER_O} makes the next move. */
+    private static final int PLAYER_O_TO_MOVE_FLAG = 0x40;
+    /** Flag bit set once the game is over. */
+    private static final int GAME_OVER_FLAG = 0x80;
+
+    private static final TileStatus[] TILE_STATUSES = TileStatus.values();
+
+    private GameStateCodec() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    /**
+     * Retrieve the number of bytes taken by the encoding of the given game.
+     * @param gameState The game.
+     * @return The encoded length.
+     */
+    public static int getEncodedLength(@NonNull final GameState gameState) {
+        return getEncodedLength(gameState.getRowSize(), gameState.getMoveCount());
+    }
+
+    /**
+     * Retrieve the number of bytes taken by the encoded game at the given offset, without decoding it.
+     * @param buffer The encoded game.
+     * @param offset The position of the encoded game in the buffer.
+     * @return The encoded length.
+     * @throws IllegalArgumentException If the buffer does not hold a supported encoding.
+     */
+    public static int getEncodedLength(@NonNull final byte[] buffer, final int offset) {
+        checkHeader(buffer, offset);
+        return getEncodedLength(buffer[offset + 1] & ROW_SIZE_MASK, buffer[offset + 2] & 0xFF);
+    }
+
+    private static int getEncodedLength(final int rowSize, final int moveCount) {
+        return HEADER_LENGTH + byteCount(rowSize * rowSize) + byteCount(moveCount);
+    }
+
+    /**
+     * Encode the given game into the buffer.
+     * @param gameState The game to encode.
+     * @param winningCondition The index of the {@link WinConditionMasks} condition that won the
+     *                         game, or {@link #NO_WINNING_CONDITION}.
+     * @param buffer The buffer to write to, with at least {@link #getEncodedLength(GameState)}
+     *               bytes from the offset.
+     * @param offset The position to write the encoding at.
+     * @return The number of bytes written.
+     * @throws IllegalArgumentException If the winning condition does not exist for the row size,
+     * or is not held by the winning player, since the encoding would then fail to decode.
+     */
+    public static int encode(@NonNull final GameState gameState,
+                             @IntRange(from = NO_WINNING_CONDITION) final int winningCondition,
+                             @NonNull final byte[] buffer, final int offset) {
+        int rowSize = gameState.getRowSize();
+        checkWinningCondition(rowSize, winningCondition, gameState.getWinningPlayer(),
+                gameState.getXTiles(), gameState.getOTiles());
+        int length = getEncodedLength(gameState);
+        if (offset < 0 || offset + length > buffer.length) {
+            throw new IllegalArgumentException("Buffer too small for " + length + " bytes");
+        }
+        int flags = rowSize
+                | gameState.getWinningPlayer().ordinal() << WINNING_PLAYER_SHIFT
+                | (gameState.getCurrentPlayer() == TileStatus.PLAYER_O ? PLAYER_O_TO_MOVE_FLAG : 0)
+                | (gameState.isGameOver() ? GAME_OVER_FLAG : 0);
+        buffer[offset] = VERSION;
+        buffer[offset + 1] = (byte) flags;
+        buffer[offset + 2] = (byte) gameState.getMoveCount();
+        buffer[offset + 3] = (byte) (gameState.getLastMoveIndex() + 1);
+        buffer[offset + 4] = (byte) (winningCondition + 1);
+
+        long xTiles = gameState.getXTiles();
+        long oTiles = gameState.getOTiles();
+        long occupiedTiles = xTiles | oTiles;
+        int gameBoardSize = rowSize * rowSize;
+        int position = writeBits(occupiedTiles, gameBoardSize, buffer, offset + HEADER_LENGTH);
+        // gather the owner of every occupied tile into consecutive bits
+        long owners = 0;
+        int ownerCount = 0;
+        for (long tiles = occupiedTiles; tiles != 0; tiles &= tiles - 1) {
+            if ((oTiles & tiles & -tiles) != 0) {
+                owners |= 1L << ownerCount;
+            }
+            ownerCount++;
+        }
+        writeBits(owners, gameState.getMoveCount(), buffer, position);
+        return length;
+    }
+
+    /**
+     * Decode the game at the given offset into the given state, overwriting all of it.
+     * @param buffer The encoded game.
+     * @param offset The position of the encoded game in the buffer.
+     * @param gameState The state to decode into.
+     * @return The index of the {@link WinConditionMasks} condition that won the game, or
+     * {@link #NO_WINNING_CONDITION}.
+     * @throws IllegalArgumentException If the buffer does not hold a valid game of a supported
+     * version.  The state is left untouched.
+     */
+    public static int decode(@NonNull final byte[] buffer, final int offset, @NonNull final GameState gameState) {
+        int length = getEncodedLength(buffer, offset);
+        if (offset + length > buffer.length) {
+            throw new IllegalArgumentException("Truncated game of " + length + " bytes");
+        }
+        int flags = buffer[offset + 1] & 0xFF;
+        int rowSize = flags & ROW_SIZE_MASK;
+        int moveCount = buffer[offset + 2] & 0xFF;
+        int lastMoveIndex = (buffer[offset + 3] & 0xFF) - 1;
+        int winningCondition = (buffer[offset + 4] & 0xFF) - 1;
+        int gameBoardSize = rowSize * rowSize;
+
+        long occupiedTiles = readBits(buffer, offset + HEADER_LENGTH, gameBoardSize);
+        long owners = readBits(buffer, offset + HEADER_LENGTH + byteCount(gameBoardSize), moveCount);
+        if (Long.bitCount(occupiedTiles) != moveCount) {
+            throw new IllegalArgumentException("Move count " + moveCount + " does not match the tiles");
+        }
+        // scatter the owner bits back onto the occupied tiles
+        long oTiles = 0;
+        int ownerIndex = 0;
+        for (long tiles = occupiedTiles; tiles != 0; tiles &= tiles - 1) {
+            if ((owners & 1L << ownerIndex) != 0) {
+                oTiles |= tiles & -tiles;
+            }
+            ownerIndex++;
+        }
+        long xTiles = occupiedTiles & ~oTiles;
+
+        if (lastMoveIndex >= gameBoardSize || (moveCount == 0) != (lastMoveIndex == -1)
+                || (lastMoveIndex != -1 && (occupiedTiles & 1L << lastMoveIndex) == 0)) {
+            throw new IllegalArgumentException("Invalid last move " + lastMoveIndex);
+        }
+        int winningPlayerOrdinal = (flags & WINNING_PLAYER_MASK) >> WINNING_PLAYER_SHIFT;
+        if (winningPlayerOrdinal >= TILE_STATUSES.length) {
+            throw new IllegalArgumentException("Invalid winning player " + winningPlayerOrdinal);
+        }
+        TileStatus winningPlayer = TILE_STATUSES[winningPlayerOrdinal];
+        checkWinningCondition(rowSize, winningCondition, winningPlayer, xTiles, oTiles);
+
+        gameState.set(rowSize, xTiles, oTiles, lastMoveIndex, moveCount,
+                (flags & PLAYER_O_TO_MOVE_FLAG) != 0 ? TileStatus.PLAYER_O : TileStatus.PLAYER_X,
+                winningPlayer, (flags & GAME_OVER_FLAG) != 0);
+        return winningCondition;
+    }
+
+    /**
+     * Check the version and row size of the encoded game at the given offset.
+     */
+    private static void checkHeader(@NonNull final byte[] buffer, final int offset) {
+        if (offset < 0 || offset + HEADER_LENGTH > buffer.length) {
+            throw new IllegalArgumentException("Truncated game header");
+        }
+        if (buffer[offset] != VERSION) {
+            throw new IllegalArgumentException("Unsupported version " + buffer[offset]);
+        }
+        int rowSize = buffer[offset + 1] & ROW_SIZE_MASK;
+        if (rowSize < 2 || rowSize > GameState.MAX_ROW_SIZE) {
+            throw new IllegalArgumentException("Unsupported row size " + rowSize);
+        }
+        if ((buffer[offset + 2] & 0xFF) > rowSize * rowSize) {
+            throw new IllegalArgumentException("Invalid move count " + (buffer[offset + 2] & 0xFF));
+        }
+    }
+
+    /**
+     * Check the winning condition is one of the row size, and every one of its tiles is held by the
+     * winning player, or that there is no winning condition.
+     */
+    private static void checkWinningCondition(final int rowSize, final int winningCondition,
+                                              @NonNull final TileStatus winningPlayer, final long xTiles,
+                                              final long oTiles) {
+        if (winningCondition == NO_WINNING_CONDITION) {
+            return;
+        }
+        WinConditionMasks winConditionMasks = WinConditionMasks.forRowSize(rowSize);
+        long winnerTiles = winningPlayer == TileStatus.PLAYER_X ? xTiles : oTiles;
+        if (winningCondition < 0 || winningPlayer == TileStatus.OPEN
+                || winningCondition >= winConditionMasks.getConditionCount()
+                || (winConditionMasks.getMask(winningCondition) & ~winnerTiles) != 0) {
+            throw new IllegalArgumentException("Invalid win condition " + winningCondition);
+        }
+    }
+
+    private static int byteCount(final int bitCount) {
+        return (bitCount + Byte.SIZE - 1) / Byte.SIZE;
+    }
+
+    /**
+     * Write the given number of low bits, rounded up to whole bytes.
+     * @return The position after the bytes written.
+     */
+    private static int writeBits(final long bits, final int bitCount, @NonNull final byte[] buffer, final int offset) {
+        int byteCount = byteCount(bitCount);
+        for (int i = 0; i < byteCount; i++) {
+            buffer[offset + i] = (byte) (bits >>> (i * Byte.SIZE));
+        }
+        return offset + byteCount;
+    }
+
+    /**
+     * Read the given number of low bits, ignoring any bits beyond them in the last byte.
+     */
+    private static long readBits(@NonNull final byte[] buffer, final int offset, final int bitCount) {
+        long bits = 0;
+        int byteCount = byteCount(bitCount);
+        for (int i = 0; i < byteCount; i++) {
+            bits |= (buffer[offset + i] & 0xFFL) << (i * Byte.SIZE);
+        }
+        return bitCount == Long.SIZE ? bits : bits & ((1L << bitCount) - 1);
+    }
+}
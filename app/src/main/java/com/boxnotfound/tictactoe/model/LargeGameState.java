@@ -0,0 +1,266 @@
+package com.boxnotfound.tictactoe.model;
+
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * A game on a board far larger than {@link GameState#MAX_ROW_SIZE}, up to {@link #MAX_ROW_SIZE}
+ * tiles per row, following the same win conditions as {@link WinConditionUtils}.
+ *
+ * No win condition is ever materialised.  {@link WinConditionUtils} creates an object per
+ * condition, including one per 2 x 2 square, so roughly a million for a 1000 x 1000 board, before
+ * the first move is made.  Instead, each player has a counter of their tiles per row, per column
+ * and per diagonal, so a line is met once its counter reaches the row size, and the squares and
+ * corners are checked directly, only around the tile just claimed.
+ *
+ * The tiles of each player are stored as bit sets, one per row, only allocated once the player
+ * claims a tile of the row, so a new game takes O(rowSize) memory, growing to at most 2 bits per
+ * tile.
+ */
+public class LargeGameState {
+
+    /** The largest supported number of tiles per row. */
+    public static final int MAX_ROW_SIZE = 1024;
+
+    private static final int X = 0;
+    private static final int O = 1;
+
+    private final int rowSize;
+    private final int wordsPerRow;
+    /** The tiles of each player, indexed by player then row, null for a row without any. */
+    private final long[][][] rowTiles;
+    /** The number of tiles each player holds in each row, indexed by player then row. */
+    private final int[][] rowCounts;
+    /** The number of tiles each player holds in each column, indexed by player then column. */
+    private final int[][] columnCounts;
+    /** The number of tiles each player holds on the top left to bottom right diagonal. */
+    private final int[] diagonalCounts = new int[2];
+    /** The number of tiles each player holds on the top right to bottom left diagonal. */
+    private final int[] antiDiagonalCounts = new int[2];
+
+    private int moveCount;
+    private int lastMoveIndex = -1;
+    private TileStatus currentPlayer = TileStatus.PLAYER_X;
+    private TileStatus winningPlayer = TileStatus.OPEN;
+    /** The type of the condition that won the game, null if the game has not been won. */
+    private WinConditionType winningType;
+    /** The grid index of the top left tile of the winning square, -1 unless won by a square. */
+    private int winningSquareIndex = -1;
+    private boolean gameOver;
+
+    /**
+     * Create a new game with an empty board of the given size.
+     * @param rowSize The number of tiles per row.
+     */
+    public LargeGameState(@IntRange(from = 2, to = MAX_ROW_SIZE) final int rowSize) {
+        if (rowSize < 2 || rowSize > MAX_ROW_SIZE) {
+            throw new IllegalArgumentException("Unsupported row size " + rowSize);
+        }
+        this.rowSize = rowSize;
+        wordsPerRow = (rowSize + Long.SIZE - 1) / Long.SIZE;
+        rowTiles = new long[2][rowSize][];
+        rowCounts = new int[2][rowSize];
+        columnCounts = new int[2][rowSize];
+    }
+
+    /**
+     * Claim the tile at the given grid index for the {@link #currentPlayer}, pass the turn to the
+     * other player, and check whether the move has ended the game.
+     * @param gridIndex The index of the tile selected.
+     * @return Whether or not the move was applied, false if the game is over, or the tile is off
+     * the board or not open.
+     */
+    public boolean applyMove(final int gridIndex) {
+        if (gameOver || gridIndex < 0 || gridIndex >= rowSize * rowSize
+                || getTileStatus(gridIndex) != TileStatus.OPEN) {
+            return false;
+        }
+        int player = currentPlayer == TileStatus.PLAYER_X ? X : O;
+        int row = gridIndex / rowSize;
+        int col = gridIndex % rowSize;
+        long[] tiles = rowTiles[player][row];
+        if (tiles == null) {
+            tiles = new long[wordsPerRow];
+            rowTiles[player][row] = tiles;
+        }
+        tiles[col >>> 6] |= 1L << col;
+        rowCounts[player][row]++;
+        columnCounts[player][col]++;
+        if (row == col) {
+            diagonalCounts[player]++;
+        }
+        if (row + col == rowSize - 1) {
+            antiDiagonalCounts[player]++;
+        }
+        lastMoveIndex = gridIndex;
+        moveCount++;
+
+        winningType = findMetCondition(player, row, col);
+        if (winningType != null) {
+            winningPlayer = currentPlayer;
+            gameOver = true;
+        } else if ((long) moveCount == (long) rowSize * rowSize) {
+            gameOver = true;
+        }
+        currentPlayer = currentPlayer == TileStatus.PLAYER_X ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+        return true;
+    }
+
+    /**
+     * Find the first condition containing the given tile that the given player has met, in the
+     * order {@link WinConditionUtils} lists them.
+     * @return The type of the condition met, or null if none are.
+     */
+    private WinConditionType findMetCondition(final int player, final int row, final int col) {
+        if (rowCounts[player][row] == rowSize) {
+            return WinConditionType.ROW;
+        } else if (columnCounts[player][col] == rowSize) {
+            return WinConditionType.COLUMN;
+        } else if (diagonalCounts[player] == rowSize || antiDiagonalCounts[player] == rowSize) {
+            return WinConditionType.DIAGONAL;
+        }
+        // the squares containing the tile, in the order of their top left tiles
+        for (int top = Math.max(row - 1, 0); top <= Math.min(row, rowSize - 2); top++) {
+            for (int left = Math.max(col - 1, 0); left <= Math.min(col, rowSize - 2); left++) {
+                if (holds(player, top, left) && holds(player, top, left + 1)
+                        && holds(player, top + 1, left) && holds(player, top + 1, left + 1)) {
+                    winningSquareIndex = top * rowSize + left;
+                    return WinConditionType.SQUARE;
+                }
+            }
+        }
+        int last = rowSize - 1;
+        if ((row == 0 || row == last) && (col == 0 || col == last)
+                && holds(player, 0, 0) && holds(player, 0, last) && holds(player, last, 0) && holds(player, last, last)) {
+            return WinConditionType.CORNERS;
+        }
+        return null;
+    }
+
+    private boolean holds(final int player, final int row, final int col) {
+        long[] tiles = rowTiles[player][row];
+        return tiles != null && (tiles[col >>> 6] & (1L << col)) != 0;
+    }
+
+    /**
+     * Retrieve the player controlling the tile at the given grid index.
+     * @param gridIndex The index of the tile.
+     * @return The {@link TileStatus} of the tile.
+     */
+    public TileStatus getTileStatus(final int gridIndex) {
+        int row = gridIndex / rowSize;
+        int col = gridIndex % rowSize;
+        if (holds(X, row, col)) {
+            return TileStatus.PLAYER_X;
+        } else if (holds(O, row, col)) {
+            return TileStatus.PLAYER_O;
+        }
+        return TileStatus.OPEN;
+    }
+
+    /**
+     * Retrieve the grid indexes of the tiles of the condition that won the game, computed on
+     * demand.
+     * @return The grid indexes, in the order {@link WinConditionUtils} lists them, or an empty
+     * array if the game has not been won.
+     */
+    @NonNull
+    public int[] getWinningGridIndexes() {
+        if (winningType == null) {
+            return new int[0];
+        }
+        int player = winningPlayer == TileStatus.PLAYER_X ? X : O;
+        int row = lastMoveIndex / rowSize;
+        int col = lastMoveIndex % rowSize;
+        int last = rowSize - 1;
+        int[] gridIndexes;
+        switch (winningType) {
+            case ROW:
+                gridIndexes = new int[rowSize];
+                for (int i = 0; i < rowSize; i++) {
+                    gridIndexes[i] = row * rowSize + i;
+                }
+                break;
+            case COLUMN:
+                gridIndexes = new int[rowSize];
+                for (int i = 0; i < rowSize; i++) {
+                    gridIndexes[i] = i * rowSize + col;
+                }
+                break;
+            case DIAGONAL:
+                gridIndexes = new int[rowSize];
+                boolean topLeft = diagonalCounts[player] == rowSize;
+                for (int i = 0; i < rowSize; i++) {
+                    gridIndexes[i] = i * rowSize + (topLeft ? i : last - i);
+                }
+                break;
+            case SQUARE:
+                gridIndexes = new int[] {winningSquareIndex, winningSquareIndex + rowSize,
+                        winningSquareIndex + 1, winningSquareIndex + rowSize + 1};
+                break;
+            default:
+                gridIndexes = new int[] {0, last, last * rowSize + last, last * rowSize};
+                break;
+        }
+        return gridIndexes;
+    }
+
+    /**
+     * Retrieve the number of tiles on a single row of the game board.
+     * @return The row size.
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Retrieve the grid index of the tile selected during the previous move.
+     * @return The grid index, or -1 if no move has been made.
+     */
+    public int getLastMoveIndex() {
+        return lastMoveIndex;
+    }
+
+    /**
+     * Retrieve the number of moves made in the game.
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Retrieve the player set to make the next game move.
+     * @return The current player.
+     */
+    public TileStatus getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Retrieve the player who has won the game.
+     * @return The winning player, or {@link TileStatus#OPEN} if the game has not been won.
+     */
+    public TileStatus getWinningPlayer() {
+        return winningPlayer;
+    }
+
+    /**
+     * Retrieve the type of the condition that won the game.
+     * @return The condition type, or null if the game has not been won.
+     */
+    public WinConditionType getWinningType() {
+        return winningType;
+    }
+
+    /**
+     * Retrieve whether or not the game has been completed.
+     * @return True if the game has been won or drawn.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
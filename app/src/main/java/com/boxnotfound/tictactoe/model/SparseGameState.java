@@ -0,0 +1,264 @@
+package com.boxnotfound.tictactoe.model;
+
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+import com.boxnotfound.tictactoe.util.LongIntHashMap;
+
+import androidx.annotation.IntRange;
+
+/**
+ * A game on an unbounded board, where a player wins by claiming a given number of tiles in a row,
+ * horizontally, vertically or diagonally, or by claiming the four tiles of any 2 x 2 square.
+ *
+ * Tiles are addressed by their x and y coordinates, which may be any int, with x growing to the
+ * right and y growing downwards.  The board ends at the bounds of an int: lines and squares are
+ * never continued past them, rather than wrapping around to the opposite edge.  Only the claimed
+ * tiles are stored, in a {@link LongIntHashMap} keyed by the packed coordinates of each tile, so
+ * memory grows with the number of moves rather than with the extent of the board, and no lookup
+ * boxes.
+ *
+ * After each move, only the four lines through the claimed tile and the four squares containing
+ * it are checked, so every move is checked in constant time however large the game grows.  The
+ * conditions met are reported with the same {@link WinConditionType}s as the fixed size game:
+ * {@link WinConditionType#ROW} for a horizontal line, {@link WinConditionType#COLUMN} for a
+ * vertical line, {@link WinConditionType#DIAGONAL} for either diagonal line and
+ * {@link WinConditionType#SQUARE} for a square.  An unbounded board has no corners.
+ */
+public class SparseGameState {
+
+    /** The value of a tile claimed by {@link TileStatus#PLAYER_X} in {@link #tiles}. */
+    private static final int X = 1;
+    /** The value of a tile claimed by {@link TileStatus#PLAYER_O} in {@link #tiles}. */
+    private static final int O = 2;
+    /** The value returned by {@link #tiles} for an open tile. */
+    private static final int OPEN = 0;
+
+    /** The x and y steps of each line direction, in the order their types are reported. */
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+    private static final WinConditionType[] DIRECTION_TYPES = {
+            WinConditionType.ROW, WinConditionType.COLUMN, WinConditionType.DIAGONAL, WinConditionType.DIAGONAL
+    };
+
+    private final int winLength;
+    /** The player claiming each claimed tile, keyed by {@link #packCell(int, int)}. */
+    private final LongIntHashMap tiles = new LongIntHashMap();
+
+    private int moveCount;
+    private long lastMoveCell;
+    private TileStatus currentPlayer = TileStatus.PLAYER_X;
+    private TileStatus winningPlayer = TileStatus.OPEN;
+    /** The type of the condition that won the game, null if the game has not been won. */
+    private WinConditionType winningType;
+    /** The tiles of the condition that won the game, as packed cells, empty until it is won. */
+    private long[] winningCells = new long[0];
+
+    /**
+     * Create a new game on an empty board.
+     * @param winLength The number of tiles a player must claim in a row to win.
+     */
+    public SparseGameState(@IntRange(from = 2) final int winLength) {
+        if (winLength < 2) {
+            throw new IllegalArgumentException("Unsupported win length " + winLength);
+        }
+        this.winLength = winLength;
+    }
+
+    /**
+     * Pack the coordinates of a tile into the single long used to key it.
+     * @param x The x coordinate of the tile.
+     * @param y The y coordinate of the tile.
+     * @return The packed cell.
+     */
+    public static long packCell(final int x, final int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Unpack the x coordinate of a cell packed by {@link #packCell(int, int)}.
+     * @param cell The packed cell.
+     * @return The x coordinate.
+     */
+    public static int cellX(final long cell) {
+        return (int) (cell >> 32);
+    }
+
+    /**
+     * Unpack the y coordinate of a cell packed by {@link #packCell(int, int)}.
+     * @param cell The packed cell.
+     * @return The y coordinate.
+     */
+    public static int cellY(final long cell) {
+        return (int) cell;
+    }
+
+    /**
+     * Claim the tile at the given coordinates for the {@link #currentPlayer}, pass the turn to the
+     * other player, and check whether the move has won the game.
+     * @param x The x coordinate of the tile.
+     * @param y The y coordinate of the tile.
+     * @return Whether or not the move was applied, false if the game is over or the tile is not
+     * open.
+     */
+    public boolean applyMove(final int x, final int y) {
+        long cell = packCell(x, y);
+        if (winningType != null || tiles.containsKey(cell)) {
+            return false;
+        }
+        int player = currentPlayer == TileStatus.PLAYER_X ? X : O;
+        tiles.put(cell, player);
+        lastMoveCell = cell;
+        moveCount++;
+        if (findMetCondition(player, x, y)) {
+            winningPlayer = currentPlayer;
+        }
+        currentPlayer = currentPlayer == TileStatus.PLAYER_X ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+        return true;
+    }
+
+    /**
+     * Check the lines and squares through the given tile for a win of the given player, recording
+     * the first one met.
+     * @return True if the player has won.
+     */
+    private boolean findMetCondition(final int player, final int x, final int y) {
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            int dx = DIRECTIONS[direction][0];
+            int dy = DIRECTIONS[direction][1];
+            int backward = countInDirection(player, x, y, -dx, -dy);
+            int forward = countInDirection(player, x, y, dx, dy);
+            if (backward + 1 + forward >= winLength) {
+                winningType = DIRECTION_TYPES[direction];
+                winningCells = new long[backward + 1 + forward];
+                for (int i = 0; i < winningCells.length; i++) {
+                    winningCells[i] = packCell(x + (i - backward) * dx, y + (i - backward) * dy);
+                }
+                return true;
+            }
+        }
+        // the squares containing the tile, in the order of their top left tiles
+        for (long top = y - 1L; top <= y; top++) {
+            for (long left = x - 1L; left <= x; left++) {
+                if (holds(player, left, top) && holds(player, left, top + 1)
+                        && holds(player, left + 1, top) && holds(player, left + 1, top + 1)) {
+                    int squareLeft = (int) left;
+                    int squareTop = (int) top;
+                    winningType = WinConditionType.SQUARE;
+                    winningCells = new long[] {packCell(squareLeft, squareTop), packCell(squareLeft, squareTop + 1),
+                            packCell(squareLeft + 1, squareTop), packCell(squareLeft + 1, squareTop + 1)};
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count the tiles of the given player in a row from the given tile, excluding the tile itself,
+     * stopping at the first tile they do not hold, at the edge of the board, or once a win is
+     * certain.
+     */
+    private int countInDirection(final int player, final int x, final int y, final int dx, final int dy) {
+        int count = 0;
+        long cx = (long) x + dx;
+        long cy = (long) y + dy;
+        while (count < winLength - 1 && holds(player, cx, cy)) {
+            count++;
+            cx += dx;
+            cy += dy;
+        }
+        return count;
+    }
+
+    /**
+     * Check whether the given player holds the tile at the given coordinates, which are widened to
+     * a long so that tiles past the bounds of an int are simply not held.
+     */
+    private boolean holds(final int player, final long x, final long y) {
+        if (x != (int) x || y != (int) y) {
+            return false;
+        }
+        return tiles.get(packCell((int) x, (int) y), OPEN) == player;
+    }
+
+    /**
+     * Retrieve the player controlling the tile at the given coordinates.
+     * @param x The x coordinate of the tile.
+     * @param y The y coordinate of the tile.
+     * @return The {@link TileStatus} of the tile.
+     */
+    public TileStatus getTileStatus(final int x, final int y) {
+        int player = tiles.get(packCell(x, y), OPEN);
+        if (player == X) {
+            return TileStatus.PLAYER_X;
+        } else if (player == O) {
+            return TileStatus.PLAYER_O;
+        }
+        return TileStatus.OPEN;
+    }
+
+    /**
+     * Retrieve the number of tiles a player must claim in a row to win.
+     * @return The win length.
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Retrieve the number of moves made in the game, which is also the number of tiles stored.
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Retrieve the tile selected during the previous move.
+     * @return The packed cell of the tile, meaningless if no move has been made.
+     */
+    public long getLastMoveCell() {
+        return lastMoveCell;
+    }
+
+    /**
+     * Retrieve the player set to make the next game move.
+     * @return The current player.
+     */
+    public TileStatus getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Retrieve the player who has won the game.
+     * @return The winning player, or {@link TileStatus#OPEN} if the game has not been won.
+     */
+    public TileStatus getWinningPlayer() {
+        return winningPlayer;
+    }
+
+    /**
+     * Retrieve the type of the condition that won the game.
+     * @return The condition type, or null if the game has not been won.
+     */
+    public WinConditionType getWinningType() {
+        return winningType;
+    }
+
+    /**
+     * Retrieve the tiles of the condition that won the game.  A line may be longer than the win
+     * length, if the winning move joined two shorter lines, up to the win length on each side.
+     * The returned array must not be modified.
+     * @return The packed cells of the tiles, or an empty array if the game has not been won.
+     */
+    public long[] getWinningCells() {
+        return winningCells;
+    }
+
+    /**
+     * Retrieve whether or not the game has been completed.  A game on an unbounded board can only
+     * end in a win.
+     * @return True if the game has been won.
+     */
+    public boolean isGameOver() {
+        return winningType != null;
+    }
+}
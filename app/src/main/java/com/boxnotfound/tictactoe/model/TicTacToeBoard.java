@@ -1,6 +1,11 @@
 package com.boxnotfound.tictactoe.model;
 
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
 import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
 
 /**
  * The model class that generates the {@link TicTacToeTile} objects representing the current
@@ -12,6 +17,10 @@ public class TicTacToeBoard {
      * The cache of {@link TicTacToeTile} objects.
      */
     private static TicTacToeTile[][] gameBoard;
+    /**
+     * The read only view of the {@link #gameBoard} as a flat list, created along with it.
+     */
+    private static List<TicTacToeTile> tileList;
 
     private TicTacToeBoard() {
         //prevent instantiation to prevent multiple game board instantiations
@@ -27,10 +36,22 @@ public class TicTacToeBoard {
         if (gameBoard == null || newGame) {
             gameBoard = new TicTacToeTile[rowSize][rowSize];
             initializeTiles(rowSize);
+            tileList = new TileList(gameBoard);
         }
         return gameBoard;
     }
 
+    /**
+     * Provides the current game board as a flat list of tiles, ordered by grid index, with 0
+     * representing the top left corner of the game board.  The list is a read only view of the
+     * game board rather than a copy, so it always reflects the current state of every tile, and is
+     * only created once per new game.
+     * @return The list of tiles, or null if no game board has been set up.
+     */
+    public static List<TicTacToeTile> getTileList() {
+        return tileList;
+    }
+
     /**
      * Generate each tile and insert one into each index of the {@link #gameBoard}.  The game board
      * is always in a square shape, with the equally sized rows and columns.
@@ -43,4 +64,32 @@ public class TicTacToeBoard {
             }
         }
     }
+
+    /**
+     * A read only list view of a two-dimensional game board, mapping each grid index onto the row
+     * and column of its tile.
+     */
+    private static class TileList extends AbstractList<TicTacToeTile> implements RandomAccess {
+
+        private final TicTacToeTile[][] board;
+        private final int rowSize;
+
+        private TileList(@NonNull final TicTacToeTile[][] board) {
+            this.board = board;
+            this.rowSize = board.length;
+        }
+
+        @Override
+        public TicTacToeTile get(final int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            }
+            return board[index / rowSize][index % rowSize];
+        }
+
+        @Override
+        public int size() {
+            return rowSize * rowSize;
+        }
+    }
 }
@@ -0,0 +1,185 @@
+package com.boxnotfound.tictactoe.model.archive;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.arena.GameArena;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The statistics of the games of an archive, gathered by a {@link GameArchiveScanner}.  Every
+ * count is kept per row size, so statistics gathered over separate parts of an archive are
+ * combined by adding them up with {@link #merge(ArchiveStatistics)}.
+ *
+ * A game that ended without a win or a full board, such as a forfeited game, is counted as a game
+ * but neither as a win nor as a draw.
+ */
+public class ArchiveStatistics {
+
+    private static final int TYPE_COUNT = WinConditionType.values().length;
+
+    /** The number of games of each row size, indexed by row size. */
+    private final long[] gameCounts = new long[GameState.MAX_ROW_SIZE + 1];
+    /** The number of games won by {@link com.boxnotfound.tictactoe.model.TileStatus#PLAYER_X}. */
+    private final long[] xWinCounts = new long[GameState.MAX_ROW_SIZE + 1];
+    /** The number of games won by {@link com.boxnotfound.tictactoe.model.TileStatus#PLAYER_O}. */
+    private final long[] oWinCounts = new long[GameState.MAX_ROW_SIZE + 1];
+    /** The number of games that filled the board without a win. */
+    private final long[] drawCounts = new long[GameState.MAX_ROW_SIZE + 1];
+    /** The total number of moves made in the games. */
+    private final long[] moveTotals = new long[GameState.MAX_ROW_SIZE + 1];
+    /** The number of games won by each {@link WinConditionType}, indexed by row size, then by ordinal. */
+    private final long[][] winTypeCounts = new long[GameState.MAX_ROW_SIZE + 1][TYPE_COUNT];
+
+    ArchiveStatistics() {
+    }
+
+    /**
+     * Count a game.
+     * @param status The result of the game, one of the {@link GameArena} statuses.
+     * @param winType The type of the winning condition, or null if the game was not won.
+     */
+    void addGame(final int rowSize, final int moveCount, final byte status, @Nullable final WinConditionType winType) {
+        gameCounts[rowSize]++;
+        moveTotals[rowSize] += moveCount;
+        if (status == GameArena.X_WON) {
+            xWinCounts[rowSize]++;
+        } else if (status == GameArena.O_WON) {
+            oWinCounts[rowSize]++;
+        } else if (status == GameArena.DRAW) {
+            drawCounts[rowSize]++;
+        }
+        if (winType != null) {
+            winTypeCounts[rowSize][winType.ordinal()]++;
+        }
+    }
+
+    /**
+     * Add the counts of the given statistics to these.
+     * @param other The statistics of another part of the archive.
+     */
+    void merge(@NonNull final ArchiveStatistics other) {
+        for (int rowSize = 0; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            gameCounts[rowSize] += other.gameCounts[rowSize];
+            xWinCounts[rowSize] += other.xWinCounts[rowSize];
+            oWinCounts[rowSize] += other.oWinCounts[rowSize];
+            drawCounts[rowSize] += other.drawCounts[rowSize];
+            moveTotals[rowSize] += other.moveTotals[rowSize];
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                winTypeCounts[rowSize][type] += other.winTypeCounts[rowSize][type];
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of games of every row size.
+     * @return The game count.
+     */
+    public long getGameCount() {
+        long count = 0;
+        for (long gameCount : gameCounts) {
+            count += gameCount;
+        }
+        return count;
+    }
+
+    /**
+     * Retrieve the number of games of the given row size.
+     * @param rowSize The number of tiles per row.
+     * @return The game count.
+     */
+    public long getGameCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        return gameCounts[rowSize];
+    }
+
+    /**
+     * Retrieve the number of games of the given row size won by Player X.
+     * @param rowSize The number of tiles per row.
+     * @return The win count.
+     */
+    public long getXWinCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        return xWinCounts[rowSize];
+    }
+
+    /**
+     * Retrieve the number of games of the given row size won by Player O.
+     * @param rowSize The number of tiles per row.
+     * @return The win count.
+     */
+    public long getOWinCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        return oWinCounts[rowSize];
+    }
+
+    /**
+     * Retrieve the number of games of the given row size that filled the board without a win.
+     * @param rowSize The number of tiles per row.
+     * @return The draw count.
+     */
+    public long getDrawCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        return drawCounts[rowSize];
+    }
+
+    /**
+     * Retrieve the advantage of moving first at the given row size: the share of games won by
+     * Player X, less the share won by Player O.
+     * @param rowSize The number of tiles per row.
+     * @return The advantage, from -1 to 1, or 0 if there are no games of the row size.
+     */
+    public double getFirstMoveAdvantage(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        if (gameCounts[rowSize] == 0) {
+            return 0;
+        }
+        return (double) (xWinCounts[rowSize] - oWinCounts[rowSize]) / gameCounts[rowSize];
+    }
+
+    /**
+     * Retrieve the average number of moves made in the games of the given row size.
+     * @param rowSize The number of tiles per row.
+     * @return The average game length, or 0 if there are no games of the row size.
+     */
+    public double getAverageMoveCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        if (gameCounts[rowSize] == 0) {
+            return 0;
+        }
+        return (double) moveTotals[rowSize] / gameCounts[rowSize];
+    }
+
+    /**
+     * Retrieve the number of games of the given row size won by the given type of condition.
+     * @param rowSize The number of tiles per row.
+     * @param type The type of the winning condition.
+     * @return The win count.
+     */
+    public long getWinCount(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize,
+                            @NonNull final WinConditionType type) {
+        return winTypeCounts[rowSize][type.ordinal()];
+    }
+
+    /**
+     * Retrieve the number of games of every row size won by the given type of condition.
+     * @param type The type of the winning condition.
+     * @return The win count.
+     */
+    public long getWinCount(@NonNull final WinConditionType type) {
+        long count = 0;
+        for (long[] typeCounts : winTypeCounts) {
+            count += typeCounts[type.ordinal()];
+        }
+        return count;
+    }
+
+    /**
+     * Retrieve how often the given type of condition decides a game, over every row size.
+     * @param type The type of the winning condition.
+     * @return The share of won games won by the type, or 0 if no game was won.
+     */
+    public double getWinShare(@NonNull final WinConditionType type) {
+        long wins = 0;
+        for (int rowSize = 0; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            wins += xWinCounts[rowSize] + oWinCounts[rowSize];
+        }
+        return wins == 0 ? 0 : (double) getWinCount(type) / wins;
+    }
+}
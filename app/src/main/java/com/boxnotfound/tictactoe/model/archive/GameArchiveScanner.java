@@ -0,0 +1,202 @@
+package com.boxnotfound.tictactoe.model.archive;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.arena.GameArena;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.util.SharedForkJoinPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Gathers the {@link ArchiveStatistics} of an archive written by a {@link GameArchiveWriter},
+ * without reading the archive onto the heap.
+ *
+ * The blocks of the archive are split in half until at most {@link #BLOCKS_PER_TASK} remain, and
+ * each range of blocks is memory-mapped and scanned on a {@link ForkJoinPool}.  Every game is
+ * replayed directly on the bit sets of its players against the {@link WinConditionMasks} of its
+ * row size, so scanning allocates nothing per game.  Each task counts into its own statistics,
+ * which are merged as the tasks complete, so the scanning threads share nothing.
+ */
+public class GameArchiveScanner {
+
+    /** The number of blocks a single task scans before the work is split no further. */
+    private static final int BLOCKS_PER_TASK = 16;
+
+    private GameArchiveScanner() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    /**
+     * Scan every game of the given archive on the {@link SharedForkJoinPool}.
+     * @param archive The archive file.
+     * @return The statistics of the archive.
+     * @throws IOException If the file could not be read, or is not an archive.
+     * @throws IllegalArgumentException If the archive holds a game that could not have been played.
+     */
+    @NonNull
+    public static ArchiveStatistics scan(@NonNull final File archive) throws IOException {
+        return scan(archive, SharedForkJoinPool.get());
+    }
+
+    /**
+     * Scan every game of the given archive on the given pool.
+     * @param archive The archive file.
+     * @param pool The pool the blocks are scanned on.
+     * @return The statistics of the archive.
+     * @throws IOException If the file could not be read, or is not an archive.
+     * @throws IllegalArgumentException If the archive holds a game that could not have been played.
+     */
+    @NonNull
+    public static ArchiveStatistics scan(@NonNull final File archive, @NonNull final ForkJoinPool pool) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(archive, "r")) {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            if (size < GameArchiveWriter.ARCHIVE_HEADER_SIZE) {
+                throw new IOException("Not a game archive " + archive);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, GameArchiveWriter.ARCHIVE_HEADER_SIZE);
+            if (header.getInt(0) != GameArchiveWriter.ARCHIVE_MAGIC
+                    || header.getInt(4) != GameArchiveWriter.BLOCK_SIZE) {
+                throw new IOException("Not a game archive " + archive);
+            }
+            long dataSize = size - GameArchiveWriter.ARCHIVE_HEADER_SIZE;
+            long blockCount = (dataSize + GameArchiveWriter.BLOCK_SIZE - 1) / GameArchiveWriter.BLOCK_SIZE;
+            return pool.invoke(new ScanTask(channel, size, 0, blockCount));
+        } catch (RuntimeException e) {
+            // mapping failures inside a task surface unchecked
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Splits a range of blocks in half until it is no larger than {@link #BLOCKS_PER_TASK}, then
+     * maps and scans it.
+     */
+    private static class ScanTask extends RecursiveTask<ArchiveStatistics> {
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long fromBlock;
+        private final long toBlock;
+
+        private ScanTask(@NonNull final FileChannel channel, final long fileSize, final long fromBlock,
+                         final long toBlock) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected ArchiveStatistics compute() {
+            if (toBlock - fromBlock <= BLOCKS_PER_TASK) {
+                try {
+                    return scanBlocks();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            long middle = (fromBlock + toBlock) >>> 1;
+            ScanTask second = new ScanTask(channel, fileSize, middle, toBlock);
+            second.fork();
+            ArchiveStatistics statistics = new ScanTask(channel, fileSize, fromBlock, middle).compute();
+            statistics.merge(second.join());
+            return statistics;
+        }
+
+        private ArchiveStatistics scanBlocks() throws IOException {
+            ArchiveStatistics statistics = new ArchiveStatistics();
+            long start = GameArchiveWriter.ARCHIVE_HEADER_SIZE + fromBlock * GameArchiveWriter.BLOCK_SIZE;
+            long end = Math.min(fileSize, GameArchiveWriter.ARCHIVE_HEADER_SIZE + toBlock * GameArchiveWriter.BLOCK_SIZE);
+            if (start >= end) {
+                return statistics;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            WinConditionMasks[] winConditionMasks = new WinConditionMasks[GameState.MAX_ROW_SIZE + 1];
+            int length = (int) (end - start);
+            for (int blockStart = 0; blockStart < length; blockStart += GameArchiveWriter.BLOCK_SIZE) {
+                int blockEnd = Math.min(length, blockStart + GameArchiveWriter.BLOCK_SIZE);
+                int position = blockStart;
+                while (position + GameArchiveWriter.GAME_HEADER_SIZE <= blockEnd) {
+                    int rowSize = buffer.get(position);
+                    if (rowSize == 0) {
+                        // the rest of the block is padding
+                        break;
+                    }
+                    int moveCount = buffer.get(position + 1) & 0xFF;
+                    int movesStart = position + GameArchiveWriter.GAME_HEADER_SIZE;
+                    if (rowSize < 2 || rowSize > GameState.MAX_ROW_SIZE || moveCount > rowSize * rowSize
+                            || movesStart + moveCount > blockEnd) {
+                        throw corruptGame(position);
+                    }
+                    WinConditionMasks masks = winConditionMasks[rowSize];
+                    if (masks == null) {
+                        masks = WinConditionMasks.forRowSize(rowSize);
+                        winConditionMasks[rowSize] = masks;
+                    }
+                    replayGame(buffer, movesStart, rowSize, moveCount, masks, statistics, position);
+                    position = movesStart + moveCount;
+                }
+            }
+            return statistics;
+        }
+
+        /**
+         * Replay the moves of a single game on a pair of bit sets, then count its result.
+         */
+        private void replayGame(@NonNull final ByteBuffer buffer, final int movesStart, final int rowSize,
+                                final int moveCount, @NonNull final WinConditionMasks masks,
+                                @NonNull final ArchiveStatistics statistics, final int position) {
+            long xTiles = 0;
+            long oTiles = 0;
+            byte status = GameArena.IN_PROGRESS;
+            int winningCondition = -1;
+            for (int move = 0; move < moveCount; move++) {
+                int gridIndex = buffer.get(movesStart + move);
+                long tile = 1L << gridIndex;
+                if (status != GameArena.IN_PROGRESS || gridIndex < 0 || gridIndex >= rowSize * rowSize || ((xTiles | oTiles) & tile) != 0) {
+                    // moves after a win, off the board, or on a claimed tile
+                    throw corruptGame(position);
+                }
+                long playerTiles;
+                if ((move & 1) == 0) {
+                    playerTiles = xTiles |= tile;
+                } else {
+                    playerTiles = oTiles |= tile;
+                }
+                for (int condition : masks.getConditionsForTile(gridIndex)) {
+                    long mask = masks.getMask(condition);
+                    if ((playerTiles & mask) == mask) {
+                        status = (move & 1) == 0 ? GameArena.X_WON : GameArena.O_WON;
+                        winningCondition = condition;
+                        break;
+                    }
+                }
+            }
+            if (status == GameArena.IN_PROGRESS && moveCount == rowSize * rowSize) {
+                status = GameArena.DRAW;
+            }
+            statistics.addGame(rowSize, moveCount, status,
+                    winningCondition == -1 ? null : masks.getType(winningCondition));
+        }
+
+        private IllegalArgumentException corruptGame(final int position) {
+            return new IllegalArgumentException("Corrupt game at byte "
+                    + (GameArchiveWriter.ARCHIVE_HEADER_SIZE + fromBlock * GameArchiveWriter.BLOCK_SIZE + position));
+        }
+    }
+}
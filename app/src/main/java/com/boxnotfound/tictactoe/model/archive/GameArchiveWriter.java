@@ -0,0 +1,156 @@
+package com.boxnotfound.tictactoe.model.archive;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.journal.JournaledGame;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Appends finished games to an archive file, for later analysis by a {@link GameArchiveScanner}.
+ *
+ * Games are packed into fixed size blocks of {@link #BLOCK_SIZE} bytes, and a game never spans two
+ * blocks, so an archive can be split at any block boundary and each part scanned on its own.  The
+ * rest of a block that cannot hold the next game is filled with zeros, and the last block of the
+ * archive ends with the file.
+ *
+ * Archive file layout:
+ *          [int magic] [int block size]
+ *          block: [byte row size] [byte move count] [byte grid index] ... ... [zero padding]
+ *          ...
+ *
+ * The writer is not thread safe.
+ */
+public class GameArchiveWriter implements Closeable {
+
+    /** Identifies a valid archive file. */
+    static final int ARCHIVE_MAGIC = 0x54414743;
+    /** The size in bytes of the header at the start of the archive file. */
+    static final int ARCHIVE_HEADER_SIZE = 8;
+    /** The size in bytes of every block of games. */
+    static final int BLOCK_SIZE = 64 * 1024;
+    /** The size in bytes of a game before its moves. */
+    static final int GAME_HEADER_SIZE = 2;
+
+    private final FileChannel channel;
+    /** The block being filled, written out once the next game does not fit. */
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+    private long gameCount;
+
+    private GameArchiveWriter(@NonNull final FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Create a new, empty archive file, replacing any file at the given path.
+     * @param file The archive file.
+     * @return The writer of the archive.
+     * @throws IOException If the file could not be created.
+     */
+    @NonNull
+    public static GameArchiveWriter create(@NonNull final File file) throws IOException {
+        FileChannel channel = new FileOutputStream(file).getChannel();
+        ByteBuffer header = ByteBuffer.allocate(ARCHIVE_HEADER_SIZE);
+        header.putInt(ARCHIVE_MAGIC).putInt(BLOCK_SIZE).flip();
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new GameArchiveWriter(channel);
+    }
+
+    /**
+     * Append a game, given as the grid index of every move in the order they were made.
+     * @param rowSize The number of tiles per row.
+     * @param moves The grid index of every move.
+     * @param moveCount The number of moves made.
+     * @throws IOException If a full block could not be written.
+     */
+    public void append(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize, @NonNull final byte[] moves,
+                       final int moveCount) throws IOException {
+        if (moveCount > moves.length) {
+            throw new IllegalArgumentException("Invalid move count " + moveCount);
+        }
+        checkGame(rowSize, moveCount);
+        ensureSpace(GAME_HEADER_SIZE + moveCount);
+        block.put((byte) rowSize).put((byte) moveCount).put(moves, 0, moveCount);
+        gameCount++;
+    }
+
+    /**
+     * Append a game replayed from a journal.
+     * @param game The game.
+     * @throws IOException If a full block could not be written.
+     */
+    public void append(@NonNull final JournaledGame game) throws IOException {
+        int moveCount = game.getMoveCount();
+        checkGame(game.getRowSize(), moveCount);
+        ensureSpace(GAME_HEADER_SIZE + moveCount);
+        block.put((byte) game.getRowSize()).put((byte) moveCount);
+        for (int move = 0; move < moveCount; move++) {
+            block.put((byte) game.getMove(move));
+        }
+        gameCount++;
+    }
+
+    /**
+     * Retrieve the number of games appended.
+     * @return The game count.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    private static void checkGame(final int rowSize, final int moveCount) {
+        if (rowSize < 2 || rowSize > GameState.MAX_ROW_SIZE) {
+            throw new IllegalArgumentException("Unsupported row size " + rowSize);
+        }
+        if (moveCount < 0 || moveCount > rowSize * rowSize) {
+            throw new IllegalArgumentException("Invalid move count " + moveCount);
+        }
+    }
+
+    /**
+     * Pad out and write the current block if it cannot hold the given number of bytes.
+     */
+    private void ensureSpace(final int length) throws IOException {
+        if (block.remaining() < length) {
+            while (block.hasRemaining()) {
+                block.put((byte) 0);
+            }
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block);
+        }
+        block.clear();
+    }
+
+    /**
+     * Write the last, partly filled block and close the file.
+     * @throws IOException If the block could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.boxnotfound.tictactoe.model.arena;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.util.SharedForkJoinPool;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Holds a large number of independent games of the same row size, stepped in lockstep, for use in
+ * self-play and load testing.  Rather than an object per game, each property of the games is
+ * stored in its own primitive array indexed by game, so stepping every game walks a handful of
+ * contiguous arrays.
+ *
+ * Each call to {@link #step(byte[])} applies at most one move to every game, then evaluates the
+ * {@link WinConditionMasks} affected by that move.  Since no two games share any state, the games
+ * are split into chunks of {@link #CHUNK_SIZE} that are stepped in parallel on a
+ * {@link ForkJoinPool}.
+ */
+public class GameArena {
+
+    /** The game has not been completed. */
+    public static final byte IN_PROGRESS = 0;
+    /** The game has been won by {@link TileStatus#PLAYER_X}. */
+    public static final byte X_WON = 1;
+    /** The game has been won by {@link TileStatus#PLAYER_O}. */
+    public static final byte O_WON = 2;
+    /** Every tile has been claimed without either player winning. */
+    public static final byte DRAW = 3;
+
+    /** Passed in place of a grid index for a game that should not move during a step. */
+    public static final byte NO_MOVE = -1;
+
+    /** The number of games a single task steps before the work is split no further. */
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final int gameCount;
+    private final int gameBoardSize;
+    private final WinConditionMasks winConditionMasks;
+    /** A local copy of every {@link WinConditionMasks} mask, read directly by the step loop. */
+    private final long[] masks;
+    private final ForkJoinPool pool;
+
+    /** The tiles controlled by {@link TileStatus#PLAYER_X} in each game, one bit per grid index. */
+    private final long[] xTiles;
+    /** The tiles controlled by {@link TileStatus#PLAYER_O} in each game, one bit per grid index. */
+    private final long[] oTiles;
+    /** Whether or not {@link TileStatus#PLAYER_O} makes the next move in each game. */
+    private final boolean[] playerOToMove;
+    /** The number of moves made in each game. */
+    private final byte[] moveCounts;
+    /** The completion status of each game, one of {@link #IN_PROGRESS}, {@link #X_WON},
+     *  {@link #O_WON} or {@link #DRAW}. */
+    private final byte[] statuses;
+    /** The index of the {@link WinConditionMasks} condition that won each game, -1 if none. */
+    private final short[] winningConditions;
+
+    /**
+     * Create an arena of new games, stepped on the {@link SharedForkJoinPool}.
+     * @param gameCount The number of games.
+     * @param rowSize The number of tiles per row of every game.
+     */
+    public GameArena(@IntRange(from = 1) final int gameCount, @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        this(gameCount, rowSize, SharedForkJoinPool.get());
+    }
+
+    /**
+     * Create an arena of new games.
+     * @param gameCount The number of games.
+     * @param rowSize The number of tiles per row of every game.
+     * @param pool The pool the games are stepped on.
+     */
+    public GameArena(@IntRange(from = 1) final int gameCount, @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize,
+                     @NonNull final ForkJoinPool pool) {
+        this(gameCount, WinConditionMasks.forRowSize(rowSize), pool);
+    }
+
+    /**
+     * Create an arena of new games following the given win conditions, such as those of a
+     * {@link com.boxnotfound.tictactoe.model.wincondition.RuleSet} compiled by
+     * {@link com.boxnotfound.tictactoe.model.wincondition.RuleCompiler}.
+     * @param gameCount The number of games.
+     * @param winConditionMasks The win conditions of every game, which also set its row size.
+     * @param pool The pool the games are stepped on.
+     */
+    public GameArena(@IntRange(from = 1) final int gameCount, @NonNull final WinConditionMasks winConditionMasks,
+                     @NonNull final ForkJoinPool pool) {
+        this.gameCount = gameCount;
+        this.gameBoardSize = winConditionMasks.getRowSize() * winConditionMasks.getRowSize();
+        this.winConditionMasks = winConditionMasks;
+        this.pool = pool;
+        masks = new long[winConditionMasks.getConditionCount()];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = winConditionMasks.getMask(i);
+        }
+        xTiles = new long[gameCount];
+        oTiles = new long[gameCount];
+        playerOToMove = new boolean[gameCount];
+        moveCounts = new byte[gameCount];
+        statuses = new byte[gameCount];
+        winningConditions = new short[gameCount];
+        Arrays.fill(winningConditions, (short) -1);
+    }
+
+    /**
+     * Reset every game to a new game.
+     */
+    public void reset() {
+        Arrays.fill(xTiles, 0);
+        Arrays.fill(oTiles, 0);
+        Arrays.fill(playerOToMove, false);
+        Arrays.fill(moveCounts, (byte) 0);
+        Arrays.fill(statuses, IN_PROGRESS);
+        Arrays.fill(winningConditions, (short) -1);
+    }
+
+    /**
+     * Apply one move to every game in parallel.  Moves to a game that is over, or to a tile that is
+     * off the board or not open, are ignored.
+     * @param moves The grid index to claim for each game, indexed by game, or {@link #NO_MOVE}.
+     */
+    public void step(@NonNull final byte[] moves) {
+        if (moves.length != gameCount) {
+            throw new IllegalArgumentException("Expected " + gameCount + " moves but got " + moves.length);
+        }
+        if (gameCount <= CHUNK_SIZE) {
+            stepRange(moves, 0, gameCount);
+        } else {
+            pool.invoke(new StepTask(moves, 0, gameCount));
+        }
+    }
+
+    /**
+     * Apply one move to each game in the given range, on the calling thread.  Moves are ignored as
+     * they are by {@link #step(byte[])}, before any state of their game is changed.
+     * @param moves The grid index to claim for each game, indexed by game, or {@link #NO_MOVE}.
+     * @param from The first game to step, inclusive.
+     * @param to The last game to step, exclusive.
+     */
+    public void stepRange(@NonNull final byte[] moves, final int from, final int to) {
+        for (int game = from; game < to; game++) {
+            int gridIndex = moves[game];
+            if (gridIndex < 0 || gridIndex >= gameBoardSize || statuses[game] != IN_PROGRESS) {
+                continue;
+            }
+            long tile = 1L << gridIndex;
+            if (((xTiles[game] | oTiles[game]) & tile) != 0) {
+                continue;
+            }
+
+            long playerTiles;
+            byte winStatus;
+            if (playerOToMove[game]) {
+                playerTiles = oTiles[game] |= tile;
+                winStatus = O_WON;
+            } else {
+                playerTiles = xTiles[game] |= tile;
+                winStatus = X_WON;
+            }
+            playerOToMove[game] = !playerOToMove[game];
+            int moveCount = ++moveCounts[game];
+
+            int[] conditions = winConditionMasks.getConditionsForTile(gridIndex);
+            for (int condition : conditions) {
+                long mask = masks[condition];
+                if ((playerTiles & mask) == mask) {
+                    statuses[game] = winStatus;
+                    winningConditions[game] = (short) condition;
+                    break;
+                }
+            }
+            if (statuses[game] == IN_PROGRESS && moveCount == gameBoardSize) {
+                statuses[game] = DRAW;
+            }
+        }
+    }
+
+    /**
+     * Splits a range of games in half until it is no larger than {@link #CHUNK_SIZE}.
+     */
+    private class StepTask extends RecursiveAction {
+
+        private final byte[] moves;
+        private final int from;
+        private final int to;
+
+        private StepTask(@NonNull final byte[] moves, final int from, final int to) {
+            this.moves = moves;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_SIZE) {
+                stepRange(moves, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StepTask(moves, from, middle), new StepTask(moves, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Retrieve the number of games in the arena.
+     * @return The game count.
+     */
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Retrieve the {@link WinConditionMasks} every game in the arena is evaluated against.
+     * @return The win condition masks.
+     */
+    public WinConditionMasks getWinConditionMasks() {
+        return winConditionMasks;
+    }
+
+    /**
+     * Retrieve the tiles controlled by {@link TileStatus#PLAYER_X} in the given game.
+     * @param game The index of the game.
+     * @return The bit set of tiles, one bit per grid index.
+     */
+    public long getXTiles(final int game) {
+        return xTiles[game];
+    }
+
+    /**
+     * Retrieve the tiles controlled by {@link TileStatus#PLAYER_O} in the given game.
+     * @param game The index of the game.
+     * @return The bit set of tiles, one bit per grid index.
+     */
+    public long getOTiles(final int game) {
+        return oTiles[game];
+    }
+
+    /**
+     * Retrieve the player set to make the next move in the given game.
+     * @param game The index of the game.
+     * @return The current player.
+     */
+    public TileStatus getCurrentPlayer(final int game) {
+        return playerOToMove[game] ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+    }
+
+    /**
+     * Retrieve the number of moves made in the given game.
+     * @param game The index of the game.
+     * @return The move count.
+     */
+    public int getMoveCount(final int game) {
+        return moveCounts[game];
+    }
+
+    /**
+     * Retrieve the completion status of the given game.
+     * @param game The index of the game.
+     * @return One of {@link #IN_PROGRESS}, {@link #X_WON}, {@link #O_WON} or {@link #DRAW}.
+     */
+    public byte getStatus(final int game) {
+        return statuses[game];
+    }
+
+    /**
+     * Retrieve the {@link WinConditionMasks} condition that won the given game.
+     * @param game The index of the game.
+     * @return The index of the winning condition, or -1 if the game has not been won.
+     */
+    public int getWinningCondition(final int game) {
+        return winningConditions[game];
+    }
+}
@@ -0,0 +1,107 @@
+package com.boxnotfound.tictactoe.model.journal;
+
+import com.boxnotfound.tictactoe.model.GameState;
+
+import androidx.annotation.IntRange;
+
+/**
+ * The model class representing a single game as it has been recorded by the {@link MoveJournal}.
+ * A game is described entirely by its row size and the ordered list of grid indices that have been
+ * selected, with the first move always belonging to Player X and each following move alternating
+ * between the two players.  Replaying the moves in order against a fresh game board of the same
+ * row size reproduces the exact game state, including the previous move highlight and any win.
+ */
+public class JournaledGame {
+
+    /**
+     * The unique id the game has been journaled under.
+     */
+    private final long gameId;
+    /**
+     * The number of tiles on a single row of the game board.
+     */
+    private final int rowSize;
+    /**
+     * The grid index of each move made, in the order the moves were made.  Grid indices never
+     * exceed 63 for the supported board sizes, so a single byte per move is sufficient.
+     */
+    private final byte[] moves;
+    /**
+     * The number of valid entries in {@link #moves}.
+     */
+    private int moveCount;
+    /**
+     * The tiles selected by the {@link #moves}, a bit per grid index.
+     */
+    private long claimedTiles;
+
+    /**
+     * A journaled game starts without any moves.
+     * @param gameId The unique id the game has been journaled under.
+     * @param rowSize The number of tiles on a single row of the game board, see
+     *                {@link #isValidRowSize(int)}.
+     */
+    JournaledGame(final long gameId, @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        this.gameId = gameId;
+        this.rowSize = rowSize;
+        this.moves = new byte[rowSize * rowSize];
+    }
+
+    /**
+     * Check whether a game of the given row size can be journaled.  Any other row size can only be
+     * the result of a corrupted record.
+     * @param rowSize The number of tiles on a single row of the game board.
+     * @return True if the row size is supported.
+     */
+    static boolean isValidRowSize(final int rowSize) {
+        return rowSize >= 2 && rowSize <= GameState.MAX_ROW_SIZE;
+    }
+
+    /**
+     * Append a move to the game, unless it selects a tile that is off the board or already
+     * selected, which can only be the result of a corrupted record.
+     * @param gridIndex The index of the tile selected.
+     * @return Whether or not the move was valid and appended.
+     */
+    boolean addMove(final int gridIndex) {
+        if (gridIndex < 0 || gridIndex >= moves.length || (claimedTiles & (1L << gridIndex)) != 0) {
+            return false;
+        }
+        claimedTiles |= 1L << gridIndex;
+        moves[moveCount++] = (byte) gridIndex;
+        return true;
+    }
+
+    /**
+     * Retrieve the unique id the game has been journaled under.
+     * @return The game id.
+     */
+    public long getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Retrieve the number of tiles on a single row of the game board.
+     * @return The row size.
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Retrieve the number of moves made so far.
+     * @return The move count.
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Retrieve the grid index of the move made at the given position in the game.
+     * @param moveNumber The zero based position of the move.
+     * @return The grid index of the tile selected by that move.
+     */
+    public int getMove(final int moveNumber) {
+        return moves[moveNumber];
+    }
+}
@@ -0,0 +1,413 @@
+package com.boxnotfound.tictactoe.model.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.boxnotfound.tictactoe.model.GameState;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An append-only journal of game events, allowing games to survive the process being destroyed.
+ *
+ * Every new game, move and game ending is appended as a fixed size record to one of several
+ * memory-mapped shard files, chosen by the game id.  Appending a record is a plain memory write;
+ * records only become durable once they are committed, which happens in groups of
+ * {@link #COMMIT_INTERVAL} records or whenever {@link #sync()} is called, so the cost of forcing
+ * the files to disk is shared by many moves.
+ *
+ * The journal also keeps every active game in memory as a {@link JournaledGame}.  Whenever a shard
+ * runs out of space, or when {@link #snapshot()} is called, the active games are written to a
+ * compact snapshot file and all shards are emptied.  Opening a journal loads the last snapshot and
+ * replays the committed records written since, so the active games are exactly as they were at the
+ * last commit.
+ *
+ * Shard file layout:
+ *          [int magic] [int committed record count] [long snapshot generation]
+ *          [long game id] [int record type] [int record value] ...
+ *
+ * Snapshot file layout:
+ *          [int magic] [long snapshot generation] [int game count]
+ *          [long game id] [byte row size] [byte move count] [byte grid index] ... ...
+ *
+ * A shard whose generation does not match the snapshot's generation holds records that the
+ * snapshot already contains, which can only happen if the process was destroyed between writing
+ * a snapshot and emptying the shards, so its records are skipped during recovery.
+ *
+ * Recovery never trusts the files: a game with an unsupported row size, or with a move that is
+ * off its board or on a tile already selected, is dropped rather than recovered.
+ *
+ * The journal may be used from several threads, such as a main thread recording moves while a
+ * background thread commits them.
+ */
+public class MoveJournal implements Closeable {
+
+    /** Identifies a valid shard file. */
+    private static final int SHARD_MAGIC = 0x544A524E;
+    /** Identifies a valid snapshot file. */
+    private static final int SNAPSHOT_MAGIC = 0x54534E50;
+    /** The size in bytes of the header at the start of each shard file. */
+    private static final int SHARD_HEADER_SIZE = 16;
+    /** Position of the committed record count within the shard header. */
+    private static final int HEADER_COMMITTED_COUNT_OFFSET = 4;
+    /** Position of the snapshot generation within the shard header. */
+    private static final int HEADER_GENERATION_OFFSET = 8;
+    /** The size in bytes of a single journal record. */
+    private static final int RECORD_SIZE = 16;
+    /** The number of records each shard can hold before a snapshot is required. */
+    private static final int RECORDS_PER_SHARD = 65536;
+    /** The number of appended records that are committed together with a single disk sync. */
+    static final int COMMIT_INTERVAL = 64;
+    /** The size of the buffer used when writing a snapshot file. */
+    private static final int SNAPSHOT_BUFFER_SIZE = 64 * 1024;
+
+    /** Record type of a new game, the record value holding the row size. */
+    private static final int RECORD_NEW_GAME = 1;
+    /** Record type of a player move, the record value holding the grid index. */
+    private static final int RECORD_MOVE = 2;
+    /** Record type of a game that is no longer active, the record value is unused. */
+    private static final int RECORD_GAME_ENDED = 3;
+
+    private static final String SHARD_FILE_PREFIX = "journal-";
+    private static final String SNAPSHOT_FILE_NAME = "snapshot";
+    private static final String SNAPSHOT_TEMP_FILE_NAME = "snapshot.tmp";
+
+    /** The directory holding the shard and snapshot files. */
+    private final File directory;
+    /** The memory-mapped shard files, indexed by {@link #shardIndexOf(long)}. */
+    private final Shard[] shards;
+    /** Every active game, mapped by game id. */
+    private final Map<Long, JournaledGame> activeGames = new HashMap<>();
+    /** The generation of the most recently written snapshot, 0 if none has been written. */
+    private long generation;
+    /** The number of records appended since the last commit. */
+    private int uncommittedRecords;
+
+    private MoveJournal(@NonNull final File directory, final int shardCount) {
+        this.directory = directory;
+        this.shards = new Shard[shardCount];
+    }
+
+    /**
+     * Open the journal stored in the given directory, creating it if it does not exist yet, and
+     * recover every game that was active at the time of the last commit.
+     * @param directory The directory holding the journal files.
+     * @param shardCount The number of shard files the records are spread across.  A journal must
+     *                   always be reopened with the same shard count.
+     * @return The opened journal.
+     * @throws IOException If the journal files could not be read or created.
+     */
+    public static MoveJournal open(@NonNull final File directory, @IntRange(from = 1) final int shardCount) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create journal directory " + directory);
+        }
+        MoveJournal journal = new MoveJournal(directory, shardCount);
+        try {
+            journal.recover();
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Load the last snapshot, then replay the committed records of every shard written since.
+     */
+    private void recover() throws IOException {
+        loadSnapshot();
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = new Shard(new File(directory, SHARD_FILE_PREFIX + i));
+            shards[i] = shard;
+            MappedByteBuffer buffer = shard.buffer;
+            if (buffer.getInt(0) != SHARD_MAGIC || buffer.getLong(HEADER_GENERATION_OFFSET) != generation) {
+                // either a new shard, or one whose records are already part of the snapshot
+                shard.reset(generation);
+                continue;
+            }
+            int committedRecords = Math.max(0,
+                    Math.min(buffer.getInt(HEADER_COMMITTED_COUNT_OFFSET), RECORDS_PER_SHARD));
+            for (int record = 0; record < committedRecords; record++) {
+                int position = SHARD_HEADER_SIZE + record * RECORD_SIZE;
+                applyRecord(buffer.getLong(position), buffer.getInt(position + 8), buffer.getInt(position + 12));
+            }
+            shard.recordCount = shard.committedCount = committedRecords;
+        }
+    }
+
+    /**
+     * Populate {@link #activeGames} from the snapshot file, if one exists.
+     */
+    private void loadSnapshot() throws IOException {
+        File snapshotFile = new File(directory, SNAPSHOT_FILE_NAME);
+        if (!snapshotFile.isFile()) {
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "r")) {
+            FileChannel channel = file.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 16 || buffer.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Corrupted journal snapshot " + snapshotFile);
+            }
+            generation = buffer.getLong();
+            int gameCount = buffer.getInt();
+            for (int i = 0; i < gameCount; i++) {
+                long gameId = buffer.getLong();
+                int rowSize = buffer.get();
+                int moveCount = buffer.get();
+                JournaledGame game = JournaledGame.isValidRowSize(rowSize) ? new JournaledGame(gameId, rowSize) : null;
+                for (int move = 0; move < moveCount; move++) {
+                    int gridIndex = buffer.get();
+                    if (game != null && !game.addMove(gridIndex)) {
+                        game = null;
+                    }
+                }
+                if (game != null) {
+                    activeGames.put(gameId, game);
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated journal snapshot " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Update the {@link #activeGames} to reflect a single journal record.
+     */
+    private void applyRecord(final long gameId, final int type, final int value) {
+        switch (type) {
+            case RECORD_NEW_GAME:
+                if (JournaledGame.isValidRowSize(value)) {
+                    activeGames.put(gameId, new JournaledGame(gameId, value));
+                } else {
+                    activeGames.remove(gameId);
+                }
+                break;
+            case RECORD_MOVE:
+                JournaledGame game = activeGames.get(gameId);
+                if (game != null && !game.addMove(value)) {
+                    activeGames.remove(gameId);
+                }
+                break;
+            case RECORD_GAME_ENDED:
+                activeGames.remove(gameId);
+                break;
+            default:
+                // unknown record types are ignored so older versions can read newer journals
+                break;
+        }
+    }
+
+    /**
+     * Record that a new game has been started under the given id, replacing any game previously
+     * journaled under the same id.
+     * @param gameId The unique id of the game.
+     * @param rowSize The number of tiles on a single row of the game board.
+     * @throws IOException If a snapshot was required to make room for the record and failed.
+     */
+    public synchronized void recordNewGame(final long gameId,
+                                           @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize)
+            throws IOException {
+        append(gameId, RECORD_NEW_GAME, rowSize);
+    }
+
+    /**
+     * Record a move made by the current player of the given game.
+     * @param gameId The unique id of the game.
+     * @param gridIndex The index of the tile selected.
+     * @throws IOException If a snapshot was required to make room for the record and failed.
+     */
+    public synchronized void recordMove(final long gameId, final int gridIndex) throws IOException {
+        append(gameId, RECORD_MOVE, gridIndex);
+    }
+
+    /**
+     * Record that the given game is no longer active, so it will not be recovered.
+     * @param gameId The unique id of the game.
+     * @throws IOException If a snapshot was required to make room for the record and failed.
+     */
+    public synchronized void recordGameEnded(final long gameId) throws IOException {
+        append(gameId, RECORD_GAME_ENDED, 0);
+    }
+
+    /**
+     * Write a single record to the game's shard, committing it along with any other pending
+     * records once {@link #COMMIT_INTERVAL} records have accumulated.
+     */
+    private void append(final long gameId, final int type, final int value) throws IOException {
+        Shard shard = shards[shardIndexOf(gameId)];
+        if (shard.recordCount == RECORDS_PER_SHARD) {
+            snapshot();
+        }
+        int position = SHARD_HEADER_SIZE + shard.recordCount * RECORD_SIZE;
+        shard.buffer.putLong(position, gameId);
+        shard.buffer.putInt(position + 8, type);
+        shard.buffer.putInt(position + 12, value);
+        shard.recordCount++;
+        applyRecord(gameId, type, value);
+
+        if (++uncommittedRecords >= COMMIT_INTERVAL) {
+            sync();
+        }
+    }
+
+    /**
+     * Commit every record appended so far, making them durable.  The records themselves are forced
+     * to disk before the header count that makes them visible to recovery is updated.
+     */
+    public synchronized void sync() {
+        for (Shard shard : shards) {
+            shard.commit();
+        }
+        uncommittedRecords = 0;
+    }
+
+    /**
+     * Write every active game to a new snapshot file and empty all shards.  The snapshot is written
+     * to a temporary file first and renamed over the previous snapshot, so a failure at any point
+     * leaves either the old or the new snapshot in place.
+     * @throws IOException If the snapshot file could not be written.
+     */
+    public synchronized void snapshot() throws IOException {
+        long nextGeneration = generation + 1;
+        File tempFile = new File(directory, SNAPSHOT_TEMP_FILE_NAME);
+        try (RandomAccessFile file = new RandomAccessFile(tempFile, "rw")) {
+            file.setLength(0);
+            FileChannel channel = file.getChannel();
+            ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_BUFFER_SIZE);
+            buffer.putInt(SNAPSHOT_MAGIC).putLong(nextGeneration).putInt(activeGames.size());
+            for (JournaledGame game : activeGames.values()) {
+                int moveCount = game.getMoveCount();
+                if (buffer.remaining() < 10 + moveCount) {
+                    writeFully(channel, buffer);
+                }
+                buffer.putLong(game.getGameId());
+                buffer.put((byte) game.getRowSize());
+                buffer.put((byte) moveCount);
+                for (int move = 0; move < moveCount; move++) {
+                    buffer.put((byte) game.getMove(move));
+                }
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        if (!tempFile.renameTo(new File(directory, SNAPSHOT_FILE_NAME))) {
+            throw new IOException("Unable to replace journal snapshot in " + directory);
+        }
+        generation = nextGeneration;
+        for (Shard shard : shards) {
+            shard.reset(generation);
+        }
+        uncommittedRecords = 0;
+    }
+
+    private static void writeFully(@NonNull final FileChannel channel, @NonNull final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Retrieve the game journaled under the given id.
+     * @param gameId The unique id of the game.
+     * @return The journaled game, or null if no game is active under that id.
+     */
+    @Nullable
+    public synchronized JournaledGame getGame(final long gameId) {
+        return activeGames.get(gameId);
+    }
+
+    /**
+     * Retrieve every game that is currently active.
+     * @return An unmodifiable copy of the active games.
+     */
+    public synchronized Collection<JournaledGame> getActiveGames() {
+        return Collections.unmodifiableCollection(new ArrayList<>(activeGames.values()));
+    }
+
+    /**
+     * Commit any pending records and release the shard files.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Shard shard : shards) {
+            if (shard == null) {
+                continue;
+            }
+            shard.commit();
+            try {
+                shard.file.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Map a game id onto the shard holding its records.
+     */
+    private int shardIndexOf(final long gameId) {
+        return (int) ((gameId & Long.MAX_VALUE) % shards.length);
+    }
+
+    /**
+     * A single memory-mapped shard file.
+     */
+    private static class Shard {
+
+        private final RandomAccessFile file;
+        private final MappedByteBuffer buffer;
+        /** The number of records written to the shard, committed or not. */
+        private int recordCount;
+        /** The number of records recovery will replay. */
+        private int committedCount;
+
+        private Shard(@NonNull final File shardFile) throws IOException {
+            file = new RandomAccessFile(shardFile, "rw");
+            long size = SHARD_HEADER_SIZE + (long) RECORDS_PER_SHARD * RECORD_SIZE;
+            buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        /**
+         * Make every record written to the shard visible to recovery.
+         */
+        private void commit() {
+            if (recordCount != committedCount) {
+                buffer.force();
+                buffer.putInt(HEADER_COMMITTED_COUNT_OFFSET, recordCount);
+                buffer.force();
+                committedCount = recordCount;
+            }
+        }
+
+        /**
+         * Discard every record and mark the shard as belonging to the given snapshot generation.
+         */
+        private void reset(final long generation) {
+            buffer.putInt(0, SHARD_MAGIC);
+            buffer.putInt(HEADER_COMMITTED_COUNT_OFFSET, 0);
+            buffer.putLong(HEADER_GENERATION_OFFSET, generation);
+            buffer.force();
+            recordCount = committedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.boxnotfound.tictactoe.model.perft;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+import com.boxnotfound.tictactoe.util.SharedForkJoinPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Enumerates every sequence of moves from a position up to a given depth, counting the positions
+ * reached at each depth along with the games won, by {@link WinConditionType}, and drawn there.
+ * Games won by a custom rule of a compiled {@link com.boxnotfound.tictactoe.model.wincondition.RuleSet},
+ * which has no type, are counted as custom wins.
+ * A game that has been won or drawn is not played any further.  The counts serve as a reference
+ * any other implementation of the rules can be validated against, and the time taken as a measure
+ * of raw move generation and win checking speed.
+ *
+ * A win is credited to the first condition met by the move, in the order
+ * {@link WinConditionMasks} lists the conditions of each tile, which is the same condition the
+ * {@link com.boxnotfound.tictactoe.game.GamePresenter} reports.
+ *
+ * The first {@link #SPLIT_DEPTH} moves are searched as separate tasks on a {@link ForkJoinPool},
+ * each counting its own subtree sequentially into its own {@link PerftResult}, which are then
+ * merged.
+ */
+public class Perft {
+
+    /** The number of moves whose subtrees are split into separate tasks. */
+    private static final int SPLIT_DEPTH = 2;
+
+    private final int rowSize;
+    private final long boardMask;
+    private final WinConditionMasks winConditionMasks;
+    /** The index each condition's wins are counted under in {@link PerftResult#wins}, indexed by
+     *  condition: the ordinal of its {@link WinConditionType}, or {@link PerftResult#CUSTOM}. */
+    private final int[] conditionWinIndexes;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a perft of the given row size, run on the {@link SharedForkJoinPool}.
+     * @param rowSize The number of tiles per row.
+     */
+    public Perft(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        this(rowSize, SharedForkJoinPool.get());
+    }
+
+    /**
+     * Create a perft of the given row size.
+     * @param rowSize The number of tiles per row.
+     * @param pool The pool the subtrees are counted on.
+     */
+    public Perft(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize, @NonNull final ForkJoinPool pool) {
+        this(WinConditionMasks.forRowSize(rowSize), pool);
+    }
+
+    /**
+     * Create a perft of the given win conditions, such as those compiled from a custom
+     * {@link com.boxnotfound.tictactoe.model.wincondition.RuleSet}, run on the
+     * {@link SharedForkJoinPool}.
+     * @param winConditionMasks The win conditions, which also give the row size.
+     */
+    public Perft(@NonNull final WinConditionMasks winConditionMasks) {
+        this(winConditionMasks, SharedForkJoinPool.get());
+    }
+
+    /**
+     * Create a perft of the given win conditions.
+     * @param winConditionMasks The win conditions, which also give the row size.
+     * @param pool The pool the subtrees are counted on.
+     */
+    public Perft(@NonNull final WinConditionMasks winConditionMasks, @NonNull final ForkJoinPool pool) {
+        this.rowSize = winConditionMasks.getRowSize();
+        int gameBoardSize = rowSize * rowSize;
+        this.boardMask = gameBoardSize == Long.SIZE ? -1L : (1L << gameBoardSize) - 1;
+        this.winConditionMasks = winConditionMasks;
+        this.pool = pool;
+        conditionWinIndexes = new int[winConditionMasks.getConditionCount()];
+        for (int condition = 0; condition < conditionWinIndexes.length; condition++) {
+            WinConditionType type = winConditionMasks.getType(condition);
+            conditionWinIndexes[condition] = type == null ? PerftResult.CUSTOM : type.ordinal();
+        }
+    }
+
+    /**
+     * Count every sequence of moves from a new game, up to the given depth.
+     * @param maxDepth The number of moves to enumerate.
+     * @return The counts at each depth.
+     */
+    public PerftResult run(@IntRange(from = 0) final int maxDepth) {
+        return run(new GameState(rowSize), maxDepth);
+    }
+
+    /**
+     * Count every sequence of moves from the given position, up to the given depth.
+     * @param position The position to start from, which must have the row size of this perft.
+     * @param maxDepth The number of moves to enumerate.
+     * @return The counts at each depth.
+     */
+    public PerftResult run(@NonNull final GameState position, @IntRange(from = 0) final int maxDepth) {
+        if (position.getRowSize() != rowSize) {
+            throw new IllegalArgumentException("Expected row size " + rowSize + " but got " + position.getRowSize());
+        }
+        long startNanos = System.nanoTime();
+        PerftResult result;
+        if (position.isGameOver() || maxDepth == 0) {
+            result = new PerftResult(rowSize, maxDepth);
+        } else if (position.getCurrentPlayer() == TileStatus.PLAYER_X) {
+            result = pool.invoke(new PerftTask(position.getXTiles(), position.getOTiles(), 1, maxDepth));
+        } else {
+            result = pool.invoke(new PerftTask(position.getOTiles(), position.getXTiles(), 1, maxDepth));
+        }
+        result.setElapsedNanos(System.nanoTime() - startNanos);
+        return result;
+    }
+
+    /**
+     * Count the move just made into the given result.
+     * @return True if the game is over after the move.
+     */
+    private boolean countMove(final long playerTiles, final long opponentTiles, final int gridIndex, final int depth,
+                              @NonNull final PerftResult result) {
+        result.nodes[depth]++;
+        int condition = winConditionMasks.findMetCondition(playerTiles, gridIndex);
+        if (condition != -1) {
+            result.wins[depth][conditionWinIndexes[condition]]++;
+            return true;
+        } else if ((playerTiles | opponentTiles) == boardMask) {
+            result.draws[depth]++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Count every move of the player to move, and their subtrees, on the calling thread.
+     * @param playerTiles The tiles of the player to move.
+     * @param opponentTiles The tiles of their opponent.
+     * @param depth The depth reached by the next move.
+     */
+    private void count(final long playerTiles, final long opponentTiles, final int depth, final int maxDepth,
+                       @NonNull final PerftResult result) {
+        long openTiles = ~(playerTiles | opponentTiles) & boardMask;
+        while (openTiles != 0) {
+            long tile = openTiles & -openTiles;
+            openTiles ^= tile;
+            long nextPlayerTiles = playerTiles | tile;
+            if (!countMove(nextPlayerTiles, opponentTiles, Long.numberOfTrailingZeros(tile), depth, result)
+                    && depth < maxDepth) {
+                count(opponentTiles, nextPlayerTiles, depth + 1, maxDepth, result);
+            }
+        }
+    }
+
+    /**
+     * Counts the moves of a single position, forking a task per move until {@link #SPLIT_DEPTH} has
+     * been reached.
+     */
+    private class PerftTask extends RecursiveTask<PerftResult> {
+
+        private final long playerTiles;
+        private final long opponentTiles;
+        private final int depth;
+        private final int maxDepth;
+
+        private PerftTask(final long playerTiles, final long opponentTiles, final int depth, final int maxDepth) {
+            this.playerTiles = playerTiles;
+            this.opponentTiles = opponentTiles;
+            this.depth = depth;
+            this.maxDepth = maxDepth;
+        }
+
+        @Override
+        protected PerftResult compute() {
+            PerftResult result = new PerftResult(rowSize, maxDepth);
+            if (depth > SPLIT_DEPTH || depth == maxDepth) {
+                count(playerTiles, opponentTiles, depth, maxDepth, result);
+                return result;
+            }
+
+            List<PerftTask> subtasks = new ArrayList<>();
+            long openTiles = ~(playerTiles | opponentTiles) & boardMask;
+            while (openTiles != 0) {
+                long tile = openTiles & -openTiles;
+                openTiles ^= tile;
+                long nextPlayerTiles = playerTiles | tile;
+                if (!countMove(nextPlayerTiles, opponentTiles, Long.numberOfTrailingZeros(tile), depth, result)) {
+                    subtasks.add(new PerftTask(opponentTiles, nextPlayerTiles, depth + 1, maxDepth));
+                }
+            }
+            invokeAll(subtasks);
+            for (PerftTask subtask : subtasks) {
+                result.add(subtask.join());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Retrieve the number of tiles per row of the positions counted.
+     * @return The row size.
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+}
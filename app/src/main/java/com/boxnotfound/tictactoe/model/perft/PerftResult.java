@@ -0,0 +1,185 @@
+package com.boxnotfound.tictactoe.model.perft;
+
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The counts of a {@link Perft} run, indexed by depth, where depth 1 holds the positions reached
+ * by the first move.
+ */
+public class PerftResult {
+
+    private static final WinConditionType[] TYPES = WinConditionType.values();
+    /** The index of the wins by custom rules, which have no {@link WinConditionType}, in {@link #wins}. */
+    static final int CUSTOM = TYPES.length;
+
+    private final int rowSize;
+    private final int maxDepth;
+    /** The number of positions reached at each depth. */
+    final long[] nodes;
+    /** The number of games won at each depth, indexed by depth then {@link WinConditionType} ordinal,
+     *  or {@link #CUSTOM}. */
+    final long[][] wins;
+    /** The number of games drawn at each depth. */
+    final long[] draws;
+    private long elapsedNanos;
+
+    PerftResult(final int rowSize, final int maxDepth) {
+        this.rowSize = rowSize;
+        this.maxDepth = maxDepth;
+        nodes = new long[maxDepth + 1];
+        wins = new long[maxDepth + 1][TYPES.length + 1];
+        draws = new long[maxDepth + 1];
+    }
+
+    /**
+     * Add the counts of another result of the same depth to this one.
+     */
+    void add(@NonNull final PerftResult other) {
+        for (int depth = 0; depth <= maxDepth; depth++) {
+            nodes[depth] += other.nodes[depth];
+            draws[depth] += other.draws[depth];
+            for (int type = 0; type <= CUSTOM; type++) {
+                wins[depth][type] += other.wins[depth][type];
+            }
+        }
+    }
+
+    void setElapsedNanos(final long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Retrieve the number of tiles per row of the positions counted.
+     * @return The row size.
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Retrieve the number of moves enumerated.
+     * @return The maximum depth.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Retrieve the number of positions reached at the given depth, including the games that ended
+     * there.
+     * @param depth The number of moves made.
+     * @return The position count.
+     */
+    public long getNodes(final int depth) {
+        return nodes[depth];
+    }
+
+    /**
+     * Retrieve the number of games won at the given depth by a condition of the given type.
+     * @param depth The number of moves made.
+     * @param type The type of the winning condition.
+     * @return The win count.
+     */
+    public long getWins(final int depth, @NonNull final WinConditionType type) {
+        return wins[depth][type.ordinal()];
+    }
+
+    /**
+     * Retrieve the number of games won at the given depth by a custom rule, which has no
+     * {@link WinConditionType}.
+     * @param depth The number of moves made.
+     * @return The win count.
+     */
+    public long getCustomWins(final int depth) {
+        return wins[depth][CUSTOM];
+    }
+
+    /**
+     * Retrieve the number of games won at the given depth by any condition.
+     * @param depth The number of moves made.
+     * @return The win count.
+     */
+    public long getWins(final int depth) {
+        long total = 0;
+        for (long count : wins[depth]) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Retrieve the number of games drawn at the given depth.
+     * @param depth The number of moves made.
+     * @return The draw count.
+     */
+    public long getDraws(final int depth) {
+        return draws[depth];
+    }
+
+    /**
+     * Retrieve the number of positions reached at every depth.
+     * @return The total position count.
+     */
+    public long getTotalNodes() {
+        long total = 0;
+        for (long count : nodes) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Retrieve the time taken by the run.
+     * @return The elapsed time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Retrieve the number of positions reached per second of the run.
+     * @return The node rate.
+     */
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : getTotalNodes() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Format the counts as a table with a line per depth, followed by the node rate.  Wins by
+     * custom rules are only given a column if there are any.
+     */
+    @Override
+    public String toString() {
+        boolean hasCustomWins = false;
+        for (long[] depthWins : wins) {
+            hasCustomWins |= depthWins[CUSTOM] != 0;
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.US, "perft %dx%d depth %d%n", rowSize, rowSize, maxDepth));
+        builder.append(String.format(Locale.US, "%5s %14s", "depth", "nodes"));
+        for (WinConditionType type : TYPES) {
+            builder.append(String.format(Locale.US, " %12s", type.name().toLowerCase(Locale.US)));
+        }
+        if (hasCustomWins) {
+            builder.append(String.format(Locale.US, " %12s", "custom"));
+        }
+        builder.append(String.format(Locale.US, " %12s%n", "draws"));
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            builder.append(String.format(Locale.US, "%5d %14d", depth, nodes[depth]));
+            for (int type = 0; type < TYPES.length; type++) {
+                builder.append(String.format(Locale.US, " %12d", wins[depth][type]));
+            }
+            if (hasCustomWins) {
+                builder.append(String.format(Locale.US, " %12d", wins[depth][CUSTOM]));
+            }
+            builder.append(String.format(Locale.US, " %12d%n", draws[depth]));
+        }
+        builder.append(String.format(Locale.US, "%d nodes in %.3f s, %.0f nodes/s", getTotalNodes(),
+                elapsedNanos / 1e9, getNodesPerSecond()));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,224 @@
+package com.boxnotfound.tictactoe.model.session;
+
+import com.boxnotfound.tictactoe.metrics.GameEvents;
+import com.boxnotfound.tictactoe.metrics.Metrics;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.store.TieredGameStore;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.util.LongIntHashMap;
+import com.boxnotfound.tictactoe.util.TimingWheel;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.Nullable;
+
+/**
+ * Hosts many concurrent games, each identified by a game id, following the same new game and
+ * player move semantics as the {@link com.boxnotfound.tictactoe.game.GameContract.Presenter}.
+ *
+ * Every game has a deadline tracked by a single {@link TimingWheel}.  While a game is in progress,
+ * the deadline is the turn timeout of the current player, and is reset on every move.  If the
+ * deadline passes, the current player forfeits the game to the other player, or the game ends as a
+ * draw if no move has been made at all.  Once a game is over, the deadline becomes the idle
+ * timeout, after which the game is evicted from the sessions.
+ *
+ * Each game owns one timer handle from launch until eviction, so moves and ticks never allocate.
+ * The sessions are not thread safe, and are driven entirely by calls to
+ * {@link #advanceTo(long)}.
+ */
+public class GameSessions implements TimingWheel.ExpiryListener {
+
+    /** Returned by the {@link #timers} map for unknown game ids. */
+    private static final int NO_TIMER = -1;
+
+    private final TieredGameStore gameStore;
+    private final TimingWheel timingWheel;
+    /** The timer handle of every hosted game, mapped by game id. */
+    private final LongIntHashMap timers = new LongIntHashMap();
+    /** Receives the state of every game peeked at by a timer, reused so expiring games allocate nothing. */
+    private final GameState peekedState = new GameState(GameState.MAX_ROW_SIZE);
+    /** The time a player has to make their move before forfeiting the game. */
+    private final long turnTimeoutMillis;
+    /** The time a finished game is kept before it is evicted. */
+    private final long idleTimeoutMillis;
+    /** The number of games that ended by a turn timeout. */
+    private long expiredGameCount;
+
+    /**
+     * @param turnTimeoutMillis The time a player has to make their move before forfeiting the game.
+     * @param idleTimeoutMillis The time a finished game is kept before it is evicted.
+     * @param tickMillis The resolution of every deadline.
+     * @param maxHeapGames The maximum number of games held on the heap at once, see
+     *                     {@link TieredGameStore}.
+     * @param startMillis The current time.
+     */
+    public GameSessions(final long turnTimeoutMillis, final long idleTimeoutMillis,
+                        @IntRange(from = 1) final long tickMillis, @IntRange(from = 1) final int maxHeapGames,
+                        final long startMillis) {
+        this.turnTimeoutMillis = turnTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.gameStore = new TieredGameStore(maxHeapGames);
+        this.timingWheel = new TimingWheel(tickMillis, startMillis, this);
+    }
+
+    /**
+     * Start a new game under the given id, replacing any game already hosted under it, and start
+     * the first player's turn timeout.
+     * @param gameId The unique id of the game.
+     * @param rowSize The number of tiles per row.
+     */
+    public void launchNewTicTacToeGame(final long gameId, @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        long startNanos = Metrics.SESSIONS_LAUNCH_NEW_GAME.start();
+        gameStore.createGame(gameId, rowSize);
+        int timer = timers.get(gameId, NO_TIMER);
+        if (timer == NO_TIMER) {
+            timer = timingWheel.newTimer(gameId);
+            timers.put(gameId, timer);
+        }
+        timingWheel.schedule(timer, turnTimeoutMillis);
+        Metrics.SESSIONS_LAUNCH_NEW_GAME.stop(startNanos);
+        GameEvents.gameCreated(gameId, rowSize);
+    }
+
+    /**
+     * Apply a move by the current player of the given game, then check whether the move has won or
+     * drawn the game.  A valid move resets the turn timeout, or starts the idle timeout if the game
+     * is now over.
+     * @param gameId The unique id of the game.
+     * @param gridIndex The index of the tile selected.
+     * @return Whether or not the move was applied, false if the game does not exist, is over, or the
+     * tile is not open.
+     */
+    public boolean setPlayerMove(final long gameId, final int gridIndex) {
+        long startNanos = Metrics.SESSIONS_SET_PLAYER_MOVE.start();
+        GameState gameState = gameStore.getGame(gameId);
+        if (gameState == null || !gameState.applyMove(gridIndex)) {
+            Metrics.SESSIONS_SET_PLAYER_MOVE.stop(startNanos);
+            return false;
+        }
+        Metrics.SESSIONS_MOVES.increment();
+        if (Metrics.isEnabled()) {
+            Metrics.SESSIONS_MOVE_HEATMAP.recordMove(gameState.getRowSize(), gameState.getMoveCount() - 1, gridIndex);
+        }
+
+        // the turn has already passed on, so the player who moved is the other player
+        TileStatus movingPlayer;
+        long movingPlayerTiles;
+        if (gameState.getCurrentPlayer() == TileStatus.PLAYER_O) {
+            movingPlayer = TileStatus.PLAYER_X;
+            movingPlayerTiles = gameState.getXTiles();
+        } else {
+            movingPlayer = TileStatus.PLAYER_O;
+            movingPlayerTiles = gameState.getOTiles();
+        }
+
+        WinConditionMasks winConditionMasks = WinConditionMasks.forRowSize(gameState.getRowSize());
+        long checkStartNanos = GameEvents.startWinCheck();
+        int metCondition = winConditionMasks.findMetCondition(movingPlayerTiles, gridIndex);
+        if (checkStartNanos != GameEvents.NOT_TIMED) {
+            GameEvents.winChecked(checkStartNanos, Metrics.SESSIONS_CHECK_WIN_CONDITIONS,
+                    Metrics.SESSIONS_CONDITIONS_EXAMINED, gameId, gridIndex, movingPlayer,
+                    countConditionsExamined(winConditionMasks, gridIndex, metCondition));
+        }
+        if (metCondition != -1) {
+            gameState.setGameOver(movingPlayer);
+            Metrics.SESSIONS_GAMES_WON.increment();
+            GameEvents.gameOver(gameId, movingPlayer, winConditionMasks.getType(metCondition));
+        } else if (gameState.getMoveCount() == gameState.getRowSize() * gameState.getRowSize()) {
+            gameState.setGameOver(TileStatus.OPEN);
+            Metrics.SESSIONS_GAMES_DRAWN.increment();
+            GameEvents.gameOver(gameId, TileStatus.OPEN, null);
+        }
+
+        int timer = timers.get(gameId, NO_TIMER);
+        timingWheel.schedule(timer, gameState.isGameOver() ? idleTimeoutMillis : turnTimeoutMillis);
+        Metrics.SESSIONS_SET_PLAYER_MOVE.stop(startNanos);
+        return true;
+    }
+
+    /**
+     * Count the conditions containing the given tile that were checked before the given condition
+     * was found to be met, including it.
+     */
+    private static int countConditionsExamined(final WinConditionMasks winConditionMasks, final int gridIndex,
+                                               final int metCondition) {
+        int[] conditions = winConditionMasks.getConditionsForTile(gridIndex);
+        int examined = 0;
+        while (examined < conditions.length && conditions[examined++] != metCondition) {
+            // every condition up to the one met was checked
+        }
+        return examined;
+    }
+
+    /**
+     * Process every deadline up to the given time, and move the window of the
+     * {@link Metrics#SESSIONS_MOVE_HEATMAP} on to it.
+     * @param nowMillis The current time.
+     */
+    public void advanceTo(final long nowMillis) {
+        timingWheel.advanceTo(nowMillis);
+        Metrics.SESSIONS_MOVE_HEATMAP.advanceTo(nowMillis);
+    }
+
+    /**
+     * End an in progress game whose turn timeout has passed, or evict a finished game whose idle
+     * timeout has passed.
+     */
+    @Override
+    public void onTimerExpired(final int timer, final long gameId) {
+        // the game is only peeked at, so an expiring game never takes a heap entry from a game in play
+        if (!gameStore.peekGame(gameId, peekedState) || peekedState.isGameOver()) {
+            evictGame(gameId, timer);
+            return;
+        }
+
+        TileStatus winningPlayer;
+        if (peekedState.getMoveCount() == 0) {
+            winningPlayer = TileStatus.OPEN;
+        } else if (peekedState.getCurrentPlayer() == TileStatus.PLAYER_X) {
+            winningPlayer = TileStatus.PLAYER_O;
+        } else {
+            winningPlayer = TileStatus.PLAYER_X;
+        }
+        gameStore.setGameOver(gameId, winningPlayer);
+        expiredGameCount++;
+        GameEvents.gameOver(gameId, winningPlayer, null);
+        timingWheel.schedule(timer, idleTimeoutMillis);
+    }
+
+    /**
+     * Remove the game and release its timer.
+     */
+    private void evictGame(final long gameId, final int timer) {
+        gameStore.removeGame(gameId);
+        timers.remove(gameId, NO_TIMER);
+        timingWheel.releaseTimer(timer);
+    }
+
+    /**
+     * Retrieve the state of the given game.  The returned state must not be used once any other
+     * method of the sessions has been called.
+     * @param gameId The unique id of the game.
+     * @return The game state, or null if no game is hosted under the id.
+     */
+    @Nullable
+    public GameState getGame(final long gameId) {
+        return gameStore.getGame(gameId);
+    }
+
+    /**
+     * Retrieve the number of games currently hosted, finished or not.
+     * @return The number of games.
+     */
+    public int getGameCount() {
+        return gameStore.getGameCount();
+    }
+
+    /**
+     * Retrieve the number of games that have ended because a player ran out of time.
+     * @return The number of expired games.
+     */
+    public long getExpiredGameCount() {
+        return expiredGameCount;
+    }
+}
@@ -0,0 +1,352 @@
+package com.boxnotfound.tictactoe.model.store;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.util.LongIntHashMap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Holds a large number of games in two tiers.  Recently used games live on the heap as
+ * {@link GameState} objects, while every other game is packed into a fixed size slot of a direct
+ * {@link ByteBuffer}, outside of the garbage collected heap.  The number of games on the heap is
+ * capped, and once the cap is exceeded the least recently used game is packed back into its slot.
+ *
+ * The heap tier is a fixed set of entries, allocated up front, linked into a list from the least
+ * to the most recently used, and found by game id through a primitive map.  Every game owns a slot
+ * from the moment it is created until it is removed, and the {@link GameState} of an evicted game
+ * is reused by the game inflated into its entry, so once every entry holds a state, moving games
+ * between the tiers allocates nothing.  Slots are
+ * grouped into segments of {@link #SLOTS_PER_SEGMENT}, which are allocated as the number of games
+ * grows, and freed slots are reused before a new segment is allocated.
+ *
+ * Slot layout ({@link #SLOT_SIZE} bytes):
+ *          [long x tiles] [long o tiles] [byte row size] [byte move count]
+ *          [byte last move index] [byte flags]
+ *
+ * The store is not thread safe.
+ */
+public class TieredGameStore {
+
+    /** The size in bytes of a single packed game. */
+    static final int SLOT_SIZE = 20;
+    /** The number of slots in a single off-heap segment. */
+    private static final int SLOTS_PER_SEGMENT = 1 << 16;
+    /** Returned by the {@link #slotIndexes} map for unknown game ids. */
+    private static final int NO_SLOT = -1;
+    /** Returned by the {@link #heapEntries} map for games that are not on the heap, and ends the
+     *  lists of heap entries. */
+    private static final int NO_ENTRY = -1;
+
+    private static final int X_TILES_OFFSET = 0;
+    private static final int O_TILES_OFFSET = 8;
+    private static final int ROW_SIZE_OFFSET = 16;
+    private static final int MOVE_COUNT_OFFSET = 17;
+    private static final int LAST_MOVE_OFFSET = 18;
+    private static final int FLAGS_OFFSET = 19;
+
+    /** Flag bits holding the {@link TileStatus#ordinal()} of the current player. */
+    private static final int CURRENT_PLAYER_MASK = 0x3;
+    /** Flag bits holding the {@link TileStatus#ordinal()} of the winning player. */
+    private static final int WINNING_PLAYER_SHIFT = 2;
+    private static final int WINNING_PLAYER_MASK = 0x3 << WINNING_PLAYER_SHIFT;
+    /** Flag bit set once the game is over. */
+    private static final int GAME_OVER_FLAG = 0x10;
+
+    private static final TileStatus[] TILE_STATUSES = TileStatus.values();
+
+    /** The off-heap segments holding the packed games. */
+    private ByteBuffer[] segments = new ByteBuffer[0];
+    /** The slot index of every game in the store, mapped by game id. */
+    private final LongIntHashMap slotIndexes = new LongIntHashMap();
+    /** Slot indexes that have been released by removed games and can be reused. */
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+    /** The number of slots that have ever been handed out. */
+    private int allocatedSlots;
+    /** The heap entry of every game currently inflated on the heap, mapped by game id. */
+    private final LongIntHashMap heapEntries;
+    /** The id of the game held by each heap entry. */
+    private final long[] heapGameIds;
+    /** The state held by each heap entry, kept for reuse once the entry is released. */
+    private final GameState[] heapStates;
+    /** The next more recently used entry of each heap entry, or the next entry of the free list. */
+    private final int[] newerEntries;
+    /** The next less recently used entry of each heap entry. */
+    private final int[] olderEntries;
+    private int leastRecentEntry = NO_ENTRY;
+    private int mostRecentEntry = NO_ENTRY;
+    /** The first of the entries released by removed games. */
+    private int freeEntry = NO_ENTRY;
+    /** The number of heap entries that have ever been handed out. */
+    private int usedEntries;
+    private int heapGameCount;
+
+    /**
+     * @param maxHeapGames The maximum number of games held on the heap at once.
+     */
+    public TieredGameStore(@IntRange(from = 1) final int maxHeapGames) {
+        if (maxHeapGames < 1) {
+            throw new IllegalArgumentException("At least one game must be held on the heap");
+        }
+        heapEntries = new LongIntHashMap(maxHeapGames);
+        heapGameIds = new long[maxHeapGames];
+        heapStates = new GameState[maxHeapGames];
+        newerEntries = new int[maxHeapGames];
+        olderEntries = new int[maxHeapGames];
+    }
+
+    /**
+     * Start a new game under the given id, replacing any game previously stored under it.  The new
+     * game is placed on the heap as the most recently used game.
+     * @param gameId The unique id of the game.
+     * @param rowSize The number of tiles per row.
+     * @return The heap state of the new game.
+     */
+    public GameState createGame(final long gameId, @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        if (!slotIndexes.containsKey(gameId)) {
+            slotIndexes.put(gameId, allocateSlot());
+        }
+        int entry = heapEntries.get(gameId, NO_ENTRY);
+        if (entry == NO_ENTRY) {
+            entry = acquireEntry(gameId);
+        } else {
+            markMostRecent(entry);
+        }
+        GameState gameState = heapStates[entry];
+        if (gameState == null) {
+            gameState = new GameState(rowSize);
+            heapStates[entry] = gameState;
+        } else {
+            gameState.reset(rowSize);
+        }
+        return gameState;
+    }
+
+    /**
+     * Retrieve the heap state of the given game, inflating it from its off-heap slot if it is not
+     * on the heap already, and mark it as the most recently used game.  Changes made to the
+     * returned state are kept until the game is removed.  The returned state must not be used once
+     * another game has been created or retrieved, since it may have been evicted and recycled.
+     * @param gameId The unique id of the game.
+     * @return The heap state of the game, or null if no game is stored under the id.
+     */
+    @Nullable
+    public GameState getGame(final long gameId) {
+        int entry = heapEntries.get(gameId, NO_ENTRY);
+        if (entry != NO_ENTRY) {
+            markMostRecent(entry);
+            return heapStates[entry];
+        }
+        int slot = slotIndexes.get(gameId, NO_SLOT);
+        if (slot == NO_SLOT) {
+            return null;
+        }
+        entry = acquireEntry(gameId);
+        heapStates[entry] = unpack(slot, heapStates[entry]);
+        return heapStates[entry];
+    }
+
+    /**
+     * Copy the state of the given game into the given state, without inflating it onto the heap or
+     * marking it as used, so a game that is only inspected never evicts a game in play.
+     * @param gameId The unique id of the game.
+     * @param into The state to copy the game into.
+     * @return Whether or not a game is stored under the id.  If not, the given state is unchanged.
+     */
+    public boolean peekGame(final long gameId, @NonNull final GameState into) {
+        int entry = heapEntries.get(gameId, NO_ENTRY);
+        if (entry != NO_ENTRY) {
+            GameState gameState = heapStates[entry];
+            into.set(gameState.getRowSize(), gameState.getXTiles(), gameState.getOTiles(),
+                    gameState.getLastMoveIndex(), gameState.getMoveCount(), gameState.getCurrentPlayer(),
+                    gameState.getWinningPlayer(), gameState.isGameOver());
+            return true;
+        }
+        int slot = slotIndexes.get(gameId, NO_SLOT);
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        unpack(slot, into);
+        return true;
+    }
+
+    /**
+     * End the given game, without inflating it onto the heap or marking it as used.
+     * @param gameId The unique id of the game.
+     * @param winningPlayer The player who won, or {@link TileStatus#OPEN} for a draw.
+     */
+    public void setGameOver(final long gameId, @NonNull final TileStatus winningPlayer) {
+        int entry = heapEntries.get(gameId, NO_ENTRY);
+        if (entry != NO_ENTRY) {
+            heapStates[entry].setGameOver(winningPlayer);
+            return;
+        }
+        int slot = slotIndexes.get(gameId, NO_SLOT);
+        if (slot != NO_SLOT) {
+            ByteBuffer segment = segments[slot / SLOTS_PER_SEGMENT];
+            int position = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE + FLAGS_OFFSET;
+            int flags = (segment.get(position) & CURRENT_PLAYER_MASK)
+                    | winningPlayer.ordinal() << WINNING_PLAYER_SHIFT
+                    | GAME_OVER_FLAG;
+            segment.put(position, (byte) flags);
+        }
+    }
+
+    /**
+     * Remove the given game from the store, releasing its slot.
+     * @param gameId The unique id of the game.
+     */
+    public void removeGame(final long gameId) {
+        int slot = slotIndexes.remove(gameId, NO_SLOT);
+        if (slot != NO_SLOT) {
+            int entry = heapEntries.remove(gameId, NO_ENTRY);
+            if (entry != NO_ENTRY) {
+                unlink(entry);
+                newerEntries[entry] = freeEntry;
+                freeEntry = entry;
+                heapGameCount--;
+            }
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    /**
+     * Retrieve the total number of games in the store.
+     * @return The number of games across both tiers.
+     */
+    public int getGameCount() {
+        return slotIndexes.size();
+    }
+
+    /**
+     * Retrieve the number of games currently inflated on the heap.
+     * @return The number of heap games.
+     */
+    public int getHeapGameCount() {
+        return heapGameCount;
+    }
+
+    /**
+     * Hand out a heap entry for the given game as the most recently used entry, packing the least
+     * recently used game back into its slot if every entry is in use.  The entry keeps the state
+     * of the game it last held, if any, for reuse.
+     */
+    private int acquireEntry(final long gameId) {
+        int entry;
+        if (freeEntry != NO_ENTRY) {
+            entry = freeEntry;
+            freeEntry = newerEntries[entry];
+        } else if (usedEntries < heapGameIds.length) {
+            entry = usedEntries++;
+        } else {
+            entry = leastRecentEntry;
+            long evictedGameId = heapGameIds[entry];
+            pack(heapStates[entry], slotIndexes.get(evictedGameId, NO_SLOT));
+            heapEntries.remove(evictedGameId, NO_ENTRY);
+            unlink(entry);
+            heapGameCount--;
+        }
+        heapGameIds[entry] = gameId;
+        heapEntries.put(gameId, entry);
+        linkMostRecent(entry);
+        heapGameCount++;
+        return entry;
+    }
+
+    private void markMostRecent(final int entry) {
+        if (entry != mostRecentEntry) {
+            unlink(entry);
+            linkMostRecent(entry);
+        }
+    }
+
+    private void linkMostRecent(final int entry) {
+        olderEntries[entry] = mostRecentEntry;
+        newerEntries[entry] = NO_ENTRY;
+        if (mostRecentEntry != NO_ENTRY) {
+            newerEntries[mostRecentEntry] = entry;
+        } else {
+            leastRecentEntry = entry;
+        }
+        mostRecentEntry = entry;
+    }
+
+    private void unlink(final int entry) {
+        int older = olderEntries[entry];
+        int newer = newerEntries[entry];
+        if (older != NO_ENTRY) {
+            newerEntries[older] = newer;
+        } else {
+            leastRecentEntry = newer;
+        }
+        if (newer != NO_ENTRY) {
+            olderEntries[newer] = older;
+        } else {
+            mostRecentEntry = older;
+        }
+    }
+
+    /**
+     * Hand out a free slot, allocating a new off-heap segment if every slot is in use.
+     */
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        int slot = allocatedSlots++;
+        int segment = slot / SLOTS_PER_SEGMENT;
+        if (segment == segments.length) {
+            segments = Arrays.copyOf(segments, segment + 1);
+            segments[segment] = ByteBuffer.allocateDirect(SLOTS_PER_SEGMENT * SLOT_SIZE);
+        }
+        return slot;
+    }
+
+    /**
+     * Write the given game state into its off-heap slot.
+     */
+    private void pack(@NonNull final GameState gameState, final int slot) {
+        ByteBuffer segment = segments[slot / SLOTS_PER_SEGMENT];
+        int position = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE;
+        int flags = gameState.getCurrentPlayer().ordinal()
+                | gameState.getWinningPlayer().ordinal() << WINNING_PLAYER_SHIFT
+                | (gameState.isGameOver() ? GAME_OVER_FLAG : 0);
+        segment.putLong(position + X_TILES_OFFSET, gameState.getXTiles());
+        segment.putLong(position + O_TILES_OFFSET, gameState.getOTiles());
+        segment.put(position + ROW_SIZE_OFFSET, (byte) gameState.getRowSize());
+        segment.put(position + MOVE_COUNT_OFFSET, (byte) gameState.getMoveCount());
+        segment.put(position + LAST_MOVE_OFFSET, (byte) gameState.getLastMoveIndex());
+        segment.put(position + FLAGS_OFFSET, (byte) flags);
+    }
+
+    /**
+     * Inflate the game state held in the given off-heap slot, into the given state if there is one.
+     */
+    private GameState unpack(final int slot, @Nullable final GameState reusedState) {
+        ByteBuffer segment = segments[slot / SLOTS_PER_SEGMENT];
+        int position = (slot % SLOTS_PER_SEGMENT) * SLOT_SIZE;
+        int flags = segment.get(position + FLAGS_OFFSET);
+        GameState gameState = reusedState;
+        if (gameState == null) {
+            gameState = new GameState(segment.get(position + ROW_SIZE_OFFSET));
+        }
+        gameState.set(segment.get(position + ROW_SIZE_OFFSET),
+                segment.getLong(position + X_TILES_OFFSET),
+                segment.getLong(position + O_TILES_OFFSET),
+                segment.get(position + LAST_MOVE_OFFSET),
+                segment.get(position + MOVE_COUNT_OFFSET),
+                TILE_STATUSES[flags & CURRENT_PLAYER_MASK],
+                TILE_STATUSES[(flags & WINNING_PLAYER_MASK) >> WINNING_PLAYER_SHIFT],
+                (flags & GAME_OVER_FLAG) != 0);
+        return gameState;
+    }
+}
@@ -0,0 +1,134 @@
+package com.boxnotfound.tictactoe.model.wincondition;
+
+import com.boxnotfound.tictactoe.model.GameState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Compiles a {@link RuleSet} into the {@link WinConditionMasks} of a given row size, the same
+ * structure the built-in rules are checked with, so a custom rule costs no more to check than a
+ * built-in rule with the same number of conditions per tile.
+ *
+ * Each rule generates its conditions in turn, in the order the rule set lists them.  A shape is
+ * placed at every position it fits on the board, ordered by the row then the column of its top
+ * left corner, one shape of the rule after the other.  A condition repeating one already
+ * generated by the same rule is dropped, so a symmetric shape is not checked twice.
+ *
+ * The masks of each rule set and row size are compiled once and cached, since they never change.
+ */
+public class RuleCompiler {
+
+    /** The cached masks of each rule set, indexed by row size. */
+    private static final Map<RuleSet, WinConditionMasks[]> MASKS_BY_RULE_SET = new HashMap<>();
+
+    private RuleCompiler() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    /**
+     * Retrieve the win condition masks of the given rule set on a game board with the given row
+     * size, compiling them on first use.
+     * @param ruleSet The rules to compile.
+     * @param rowSize The number of tiles per row.
+     * @return The win condition masks.
+     */
+    public static synchronized WinConditionMasks compile(@NonNull final RuleSet ruleSet,
+                                                         @IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        if (rowSize < 2 || rowSize > GameState.MAX_ROW_SIZE) {
+            throw new IllegalArgumentException("Unsupported row size " + rowSize);
+        }
+        WinConditionMasks[] masksByRowSize = MASKS_BY_RULE_SET.get(ruleSet);
+        if (masksByRowSize == null) {
+            masksByRowSize = new WinConditionMasks[GameState.MAX_ROW_SIZE + 1];
+            MASKS_BY_RULE_SET.put(ruleSet, masksByRowSize);
+        }
+        WinConditionMasks winConditionMasks = masksByRowSize[rowSize];
+        if (winConditionMasks == null) {
+            if (ruleSet.equals(RuleSet.STANDARD) && rowSize >= WinConditionTables.MIN_ROW_SIZE
+                    && rowSize <= WinConditionTables.MAX_ROW_SIZE) {
+                // the standard rules of the sizes the game offers were compiled at build time
+                winConditionMasks = WinConditionMasks.fromTables(rowSize);
+            } else {
+                winConditionMasks = generate(ruleSet, rowSize);
+            }
+            masksByRowSize[rowSize] = winConditionMasks;
+        }
+        return winConditionMasks;
+    }
+
+    private static WinConditionMasks generate(@NonNull final RuleSet ruleSet, final int rowSize) {
+        List<Long> masks = new ArrayList<>();
+        List<WinConditionType> types = new ArrayList<>();
+        List<String> ruleNames = new ArrayList<>();
+        for (WinRule rule : ruleSet.getRules()) {
+            int ruleStart = masks.size();
+            WinConditionType builtInType = rule.getBuiltInType();
+            if (builtInType != null) {
+                for (long mask : generateBuiltIn(builtInType, rowSize)) {
+                    addCondition(masks, types, ruleNames, ruleStart, mask, builtInType, rule.getName());
+                }
+            }
+            for (int shape = 0; shape < rule.getShapeCount(); shape++) {
+                int[] rows = rule.getShapeRows(shape);
+                int[] columns = rule.getShapeColumns(shape);
+                int height = 0;
+                int width = 0;
+                for (int i = 0; i < rows.length; i++) {
+                    height = Math.max(height, rows[i] + 1);
+                    width = Math.max(width, columns[i] + 1);
+                }
+                for (int top = 0; top + height <= rowSize; top++) {
+                    for (int left = 0; left + width <= rowSize; left++) {
+                        long mask = 0;
+                        for (int i = 0; i < rows.length; i++) {
+                            mask |= tileBit(rowSize, top + rows[i], left + columns[i]);
+                        }
+                        addCondition(masks, types, ruleNames, ruleStart, mask, rule.getShapeType(shape), rule.getName());
+                    }
+                }
+            }
+        }
+        return new WinConditionMasks(rowSize, masks, types, ruleNames);
+    }
+
+    private static void addCondition(@NonNull final List<Long> masks, @NonNull final List<WinConditionType> types,
+                                     @NonNull final List<String> ruleNames, final int ruleStart, final long mask,
+                                     final WinConditionType type, @NonNull final String ruleName) {
+        if (masks.subList(ruleStart, masks.size()).contains(mask)) {
+            return;
+        }
+        masks.add(mask);
+        types.add(type);
+        ruleNames.add(ruleName);
+    }
+
+    /**
+     * Generate the masks of a built-in rule whose conditions depend on the size of the board, from
+     * the same {@link WinConditionGeometry} as {@link WinConditionUtils}.
+     */
+    private static List<Long> generateBuiltIn(@NonNull final WinConditionType type, final int rowSize) {
+        List<Long> masks = new ArrayList<>();
+        for (int[] gridIndexes : WinConditionGeometry.generate(type, rowSize)) {
+            long mask = 0;
+            for (int gridIndex : gridIndexes) {
+                mask |= 1L << gridIndex;
+            }
+            masks.add(mask);
+        }
+        return masks;
+    }
+
+    /**
+     * Convert the row and column index values to a single bit, based on the grid index of the
+     * {@link WinConditionGeometry}.
+     */
+    private static long tileBit(final int rowSize, final int row, final int col) {
+        return 1L << WinConditionGeometry.gridIndex(rowSize, row, col);
+    }
+}
@@ -0,0 +1,155 @@
+package com.boxnotfound.tictactoe.model.wincondition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+
+/**
+ * An ordered set of {@link WinRule}s, parsed from a plain text definition, so variants of the game
+ * can be played without changing any code.  A rule set is compiled into {@link WinConditionMasks}
+ * for a given row size by {@link RuleCompiler}.
+ *
+ * The definition holds one rule per line, in the order their conditions are checked.  Blank lines
+ * and anything following a # are ignored.
+ *
+ * row, column, diagonal, square, corners: The built-in rule of that {@link WinConditionType}.
+ * line k: k tiles in a row, horizontally, vertically or diagonally, anywhere on the board.
+ * shape name [rotate]: A custom shape, drawn on the lines that follow with an X for each tile of
+ * the shape and a dot for every other tile, up to a line reading end.  With rotate, every distinct
+ * rotation and reflection of the shape also meets the rule.
+ *
+ * For example, the built-in rules followed by an L in any orientation:
+ *
+ * row
+ * column
+ * diagonal
+ * square
+ * corners
+ * shape L rotate
+ * X.
+ * X.
+ * XX
+ * end
+ */
+public class RuleSet {
+
+    /** The rules every game follows unless given another rule set. */
+    public static final RuleSet STANDARD = parse("row\ncolumn\ndiagonal\nsquare\ncorners");
+
+    private final String definition;
+    private final List<WinRule> rules;
+
+    private RuleSet(@NonNull final String definition, @NonNull final List<WinRule> rules) {
+        this.definition = definition;
+        this.rules = Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Parse a rule set from its definition.
+     * @param definition The definition, in the format described by {@link RuleSet}.
+     * @return The rule set.
+     * @throws IllegalArgumentException If the definition is malformed.
+     */
+    public static RuleSet parse(@NonNull final String definition) {
+        List<WinRule> rules = new ArrayList<>();
+        // the definition is kept without comments or blank lines, so equivalent definitions match
+        StringBuilder normalised = new StringBuilder();
+        String[] lines = definition.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = stripComment(lines[i]);
+            if (line.isEmpty()) {
+                continue;
+            }
+            normalised.append(line).append('\n');
+            String[] words = line.split("\\s+");
+            switch (words[0]) {
+                case "row":
+                case "column":
+                case "diagonal":
+                case "square":
+                case "corners":
+                    expectWords(words, 1, i);
+                    rules.add(WinRule.builtIn(WinConditionType.valueOf(words[0].toUpperCase(Locale.ROOT))));
+                    break;
+                case "line":
+                    expectWords(words, 2, i);
+                    try {
+                        rules.add(WinRule.line(Integer.parseInt(words[1])));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Line " + (i + 1) + ": invalid length " + words[1]);
+                    }
+                    break;
+                case "shape":
+                    if (words.length < 2 || words.length > 3 || (words.length == 3 && !words[2].equals("rotate"))) {
+                        throw new IllegalArgumentException("Line " + (i + 1) + ": expected shape name [rotate]");
+                    }
+                    List<String> pattern = new ArrayList<>();
+                    int start = i;
+                    while (true) {
+                        if (++i == lines.length) {
+                            throw new IllegalArgumentException("Line " + (start + 1) + ": shape " + words[1] + " has no end");
+                        }
+                        String row = stripComment(lines[i]);
+                        normalised.append(row).append('\n');
+                        if (row.equals("end")) {
+                            break;
+                        }
+                        pattern.add(row);
+                    }
+                    rules.add(WinRule.shape(words[1], pattern, words.length == 3));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Line " + (i + 1) + ": unknown rule " + words[0]);
+            }
+        }
+        return new RuleSet(normalised.toString(), rules);
+    }
+
+    private static String stripComment(@NonNull final String line) {
+        int comment = line.indexOf('#');
+        return (comment == -1 ? line : line.substring(0, comment)).trim();
+    }
+
+    private static void expectWords(@NonNull final String[] words, final int count, final int lineIndex) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("Line " + (lineIndex + 1) + ": unexpected arguments to " + words[0]);
+        }
+    }
+
+    /**
+     * Retrieve the definition of the rule set, without comments or blank lines.
+     * @return The normalised definition.
+     */
+    @NonNull
+    public String getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Retrieve the rules, in the order their conditions are checked.
+     * @return The unmodifiable list of rules.
+     */
+    @NonNull
+    public List<WinRule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof RuleSet && ((RuleSet) o).definition.equals(definition);
+    }
+
+    @Override
+    public int hashCode() {
+        return definition.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return definition;
+    }
+}
@@ -0,0 +1,214 @@
+package com.boxnotfound.tictactoe.model.wincondition;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+
+import java.util.Arrays;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Tracks, for each player, every win condition that is one tile short of being met, and the open
+ * tiles that would complete them.  A condition is a threat of a player when the player holds all
+ * but one of its tiles and their opponent holds none, so the missing tile wins the game for the
+ * player, and must be blocked by their opponent.
+ *
+ * Rather than scanning every condition for every open tile, the index is updated incrementally as
+ * each move is applied or undone, touching only the conditions containing the moved tile, as listed
+ * by {@link WinConditionMasks#getConditionsForTile(int)}.  The winning tiles of each player are
+ * kept as a bit set, one bit per grid index, so they are available in constant time after every
+ * move.
+ */
+public class ThreatIndex {
+
+    private static final int X = 0;
+    private static final int O = 1;
+
+    private final WinConditionMasks winConditionMasks;
+    private final int gameBoardSize;
+    /** The number of tiles required by each condition. */
+    private final byte[] conditionSizes;
+    /** The tiles controlled by each player, one bit per grid index. */
+    private final long[] playerTiles = new long[2];
+    /** The number of tiles of each condition held by each player, indexed by player then condition. */
+    private final byte[][] claimedCounts;
+    /** The number of threats each open tile completes, indexed by player then grid index. */
+    private final byte[][] threatCounts;
+    /** The tiles completing a threat of each player, one bit per grid index. */
+    private final long[] winningTiles = new long[2];
+    /** The number of threats of each player. */
+    private final int[] threatConditionCounts = new int[2];
+
+    /**
+     * Create an index of an empty game board of the given size.
+     * @param rowSize The number of tiles per row.
+     */
+    public ThreatIndex(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        winConditionMasks = WinConditionMasks.forRowSize(rowSize);
+        gameBoardSize = rowSize * rowSize;
+        int conditionCount = winConditionMasks.getConditionCount();
+        conditionSizes = new byte[conditionCount];
+        for (int condition = 0; condition < conditionCount; condition++) {
+            conditionSizes[condition] = (byte) Long.bitCount(winConditionMasks.getMask(condition));
+        }
+        claimedCounts = new byte[2][conditionCount];
+        threatCounts = new byte[2][gameBoardSize];
+    }
+
+    /**
+     * Reset the index to an empty game board.
+     */
+    public void reset() {
+        for (int player = X; player <= O; player++) {
+            playerTiles[player] = 0;
+            winningTiles[player] = 0;
+            threatConditionCounts[player] = 0;
+            Arrays.fill(claimedCounts[player], (byte) 0);
+            Arrays.fill(threatCounts[player], (byte) 0);
+        }
+    }
+
+    /**
+     * Reset the index to the given position.
+     * @param xTiles The tiles controlled by Player X, one bit per grid index.
+     * @param oTiles The tiles controlled by Player O, one bit per grid index.
+     */
+    public void set(final long xTiles, final long oTiles) {
+        reset();
+        for (int gridIndex = 0; gridIndex < gameBoardSize; gridIndex++) {
+            long tile = 1L << gridIndex;
+            if ((xTiles & tile) != 0) {
+                applyMove(gridIndex, TileStatus.PLAYER_X);
+            } else if ((oTiles & tile) != 0) {
+                applyMove(gridIndex, TileStatus.PLAYER_O);
+            }
+        }
+    }
+
+    /**
+     * Update the index after the given player has claimed the given open tile.
+     * @param gridIndex The index of the claimed tile.
+     * @param player The player who claimed it.
+     */
+    public void applyMove(final int gridIndex, @NonNull final TileStatus player) {
+        updateTile(gridIndex, indexOf(player), 1);
+    }
+
+    /**
+     * Update the index after the given player's claim of the given tile has been taken back.  Moves
+     * must be undone in the reverse order they were applied.
+     * @param gridIndex The index of the tile to open again.
+     * @param player The player who claimed it.
+     */
+    public void undoMove(final int gridIndex, @NonNull final TileStatus player) {
+        updateTile(gridIndex, indexOf(player), -1);
+    }
+
+    /**
+     * Claim or open a tile.  The threats of every condition containing the tile are removed, the
+     * claimed counts are updated, and the threats of the same conditions are then added back as
+     * they now stand.
+     */
+    private void updateTile(final int gridIndex, final int player, final int change) {
+        int[] conditions = winConditionMasks.getConditionsForTile(gridIndex);
+        for (int condition : conditions) {
+            updateThreats(condition, -1);
+        }
+        playerTiles[player] ^= 1L << gridIndex;
+        byte[] counts = claimedCounts[player];
+        for (int condition : conditions) {
+            counts[condition] += change;
+        }
+        for (int condition : conditions) {
+            updateThreats(condition, 1);
+        }
+    }
+
+    /**
+     * Add or remove the threat the given condition forms for either player, if any.
+     */
+    private void updateThreats(final int condition, final int change) {
+        int required = conditionSizes[condition] - 1;
+        for (int player = X; player <= O; player++) {
+            if (claimedCounts[player][condition] == required && claimedCounts[1 - player][condition] == 0) {
+                long missingTile = winConditionMasks.getMask(condition) & ~playerTiles[player];
+                int gridIndex = Long.numberOfTrailingZeros(missingTile);
+                int threats = threatCounts[player][gridIndex] += change;
+                if (threats == 0) {
+                    winningTiles[player] &= ~missingTile;
+                } else {
+                    winningTiles[player] |= missingTile;
+                }
+                threatConditionCounts[player] += change;
+            }
+        }
+    }
+
+    private static int indexOf(@NonNull final TileStatus player) {
+        return player == TileStatus.PLAYER_X ? X : O;
+    }
+
+    /**
+     * Retrieve the open tiles that would immediately win the game for the given player.  These are
+     * also the tiles their opponent must block.
+     * @param player The player.
+     * @return The bit set of winning tiles, one bit per grid index.
+     */
+    public long getWinningTiles(@NonNull final TileStatus player) {
+        return winningTiles[indexOf(player)];
+    }
+
+    /**
+     * Retrieve the open tiles the given player must claim to stop their opponent from winning on
+     * their next move.
+     * @param player The player.
+     * @return The bit set of tiles to block, one bit per grid index.
+     */
+    public long getMustBlockTiles(@NonNull final TileStatus player) {
+        return winningTiles[1 - indexOf(player)];
+    }
+
+    /**
+     * Retrieve the number of win conditions the given player is one tile short of meeting, with no
+     * tile held by their opponent.
+     * @param player The player.
+     * @return The number of threats.
+     */
+    public int getThreatCount(@NonNull final TileStatus player) {
+        return threatConditionCounts[indexOf(player)];
+    }
+
+    /**
+     * Rate how much claiming the given open tile would do for the given player, both towards
+     * meeting their own win conditions and towards blocking their opponent's.  Every condition
+     * containing the tile that is still open to a player adds the square of one more than the
+     * number of its tiles that player holds, so conditions close to being met count the most.
+     * @param gridIndex The index of the open tile.
+     * @param player The player to claim the tile.
+     * @return The rating, 0 if every condition containing the tile is held by both players.
+     */
+    public int getTilePotential(final int gridIndex, @NonNull final TileStatus player) {
+        int self = indexOf(player);
+        int potential = 0;
+        for (int condition : winConditionMasks.getConditionsForTile(gridIndex)) {
+            int claimed = claimedCounts[self][condition];
+            int opponentClaimed = claimedCounts[1 - self][condition];
+            if (opponentClaimed == 0) {
+                potential += (claimed + 1) * (claimed + 1);
+            }
+            if (claimed == 0) {
+                potential += (opponentClaimed + 1) * (opponentClaimed + 1);
+            }
+        }
+        return potential;
+    }
+
+    /**
+     * Retrieve the {@link WinConditionMasks} the threats are tracked against.
+     * @return The win condition masks.
+     */
+    public WinConditionMasks getWinConditionMasks() {
+        return winConditionMasks;
+    }
+}
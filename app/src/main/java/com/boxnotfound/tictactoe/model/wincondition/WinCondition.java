@@ -23,6 +23,11 @@ public class WinCondition {
      * win condition.
      */
     private List<TicTacToeTile> tiles;
+    /**
+     * The grid index of each tile in {@link #tiles}, in the same order, allowing the View to update
+     * only the tiles of a fulfilled win condition.
+     */
+    private int[] gridIndexes;
     /**
      * Indicates the type of win condition the particular object represents, given the current
      * game's rules implementation.
@@ -30,13 +35,19 @@ public class WinCondition {
     private WinConditionType type;
 
     /**
-     * Every win condition needs a non-empty list of {@link TicTacToeTile}s to monitor, and needs
-     * to have a {@link WinConditionType} defined.
+     * Every win condition needs a non-empty list of {@link TicTacToeTile}s to monitor, along with
+     * their grid indexes, and needs to have a {@link WinConditionType} defined.
      * @param tiles - The tile objects to be monitored.
+     * @param gridIndexes - The grid index of each tile object, in the same order.
      * @param type - The
      */
-    public WinCondition(@NonNull @Size(min = 1) final List<TicTacToeTile> tiles, @NonNull final WinConditionType type) {
+    public WinCondition(@NonNull @Size(min = 1) final List<TicTacToeTile> tiles,
+                        @NonNull final List<Integer> gridIndexes, @NonNull final WinConditionType type) {
         this.tiles = tiles;
+        this.gridIndexes = new int[gridIndexes.size()];
+        for (int i = 0; i < this.gridIndexes.length; i++) {
+            this.gridIndexes[i] = gridIndexes.get(i);
+        }
         this.type = type;
     }
 
@@ -48,6 +59,15 @@ public class WinCondition {
         return tiles;
     }
 
+    /**
+     * Returns the grid index of each {@link TicTacToeTile} object, in the same order as
+     * {@link #getTiles()}.  The returned array must not be modified.
+     * @return The grid indexes of the stored tile objects.
+     */
+    public int[] getGridIndexes() {
+        return gridIndexes;
+    }
+
     /**
      * Iterate through the stored list of the tiles, checking each tile's {@link TileStatus}.  If
      * any tile's status is set to {@link TileStatus#OPEN}, or if both players occupy a tile
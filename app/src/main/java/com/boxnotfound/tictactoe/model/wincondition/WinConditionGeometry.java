@@ -0,0 +1,101 @@
+package com.boxnotfound.tictactoe.model.wincondition;
+
+/**
+ * The single description of the tiles of every standard win condition, as grid indexes.
+ * {@link WinConditionUtils} builds its {@link WinCondition} objects from it, {@link RuleCompiler}
+ * its built-in masks, and the build's WinConditionTableGenerator the {@link WinConditionTables},
+ * so none of them can disagree on the shape or the order of a condition.
+ *
+ * The standard rules are the {@link WinConditionType}s in declaration order: rows, columns,
+ * diagonals, squares and finally corners.
+ *
+ * The build compiles this class on its own, together with {@link WinConditionType}, so it must
+ * not depend on anything else of the app, nor on Android.
+ */
+public final class WinConditionGeometry {
+
+    private WinConditionGeometry() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    /**
+     * Generate the tiles of every condition of the given type on a board with the given row size.
+     * @param type The win condition type.
+     * @param rowSize The number of tiles per row.
+     * @return The grid indexes of the tiles of each condition, with the conditions in the order
+     *         they are listed and the tiles of each in the order they are added.
+     */
+    public static int[][] generate(final WinConditionType type, final int rowSize) {
+        int last = rowSize - 1;
+        switch (type) {
+            case ROW: {
+                int[][] conditions = new int[rowSize][rowSize];
+                for (int row = 0; row < rowSize; row++) {
+                    for (int col = 0; col < rowSize; col++) {
+                        conditions[row][col] = gridIndex(rowSize, row, col);
+                    }
+                }
+                return conditions;
+            }
+            case COLUMN: {
+                int[][] conditions = new int[rowSize][rowSize];
+                for (int col = 0; col < rowSize; col++) {
+                    for (int row = 0; row < rowSize; row++) {
+                        conditions[col][row] = gridIndex(rowSize, row, col);
+                    }
+                }
+                return conditions;
+            }
+            case DIAGONAL: {
+                // top left to bottom right, then top right to bottom left
+                int[][] conditions = new int[2][rowSize];
+                for (int i = 0; i < rowSize; i++) {
+                    conditions[0][i] = gridIndex(rowSize, i, i);
+                    conditions[1][i] = gridIndex(rowSize, i, last - i);
+                }
+                return conditions;
+            }
+            case SQUARE: {
+                int[][] conditions = new int[last * last][];
+                for (int row = 0; row < last; row++) {
+                    for (int col = 0; col < last; col++) {
+                        conditions[row * last + col] = new int[] {
+                                gridIndex(rowSize, row, col), gridIndex(rowSize, row + 1, col),
+                                gridIndex(rowSize, row, col + 1), gridIndex(rowSize, row + 1, col + 1)};
+                    }
+                }
+                return conditions;
+            }
+            case CORNERS:
+                // upper left, upper right, bottom right and bottom left
+                return new int[][] {{gridIndex(rowSize, 0, 0), gridIndex(rowSize, 0, last),
+                        gridIndex(rowSize, last, last), gridIndex(rowSize, last, 0)}};
+            default:
+                throw new IllegalArgumentException("Unsupported win condition type " + type);
+        }
+    }
+
+    /**
+     * Convert the row and column index values from the game board to a single index value, based on
+     * the formula (rowSize * rowIndex) + columnIndex
+     *
+     * For example, a 4 x 4 game board represented two-dimensionally as:
+     *          {0, 0} {0, 1} {0, 2} {0, 3}
+     *          {1, 0} {1, 1} {1, 2} {1, 3}
+     *          {2, 0} {2, 1} {2, 2} {2, 3}
+     *          {3, 0} {3, 1} {3, 2} {3, 3}
+     * This would be translate into:
+     *          00  01  02  03
+     *          04  05  06  07
+     *          08  09  10  11
+     *          12  13  14  15
+     *
+     * @param rowSize The number of tiles per row.
+     * @param row The row index of the tile on the game board.
+     * @param col The column index of the tile on the game board.
+     * @return The converted index value.
+     */
+    public static int gridIndex(final int rowSize, final int row, final int col) {
+        return rowSize * row + col;
+    }
+}
@@ -0,0 +1,221 @@
+package com.boxnotfound.tictactoe.model.wincondition;
+
+import com.boxnotfound.tictactoe.model.GameState;
+
+import java.util.List;
+import java.util.Locale;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * The bit set counterpart of {@link WinConditionUtils}, for use with boards stored as one bit per
+ * grid index, such as {@link GameState}.  Each win condition is represented as a mask with a bit
+ * set for every tile it requires, so a player has met the condition when
+ * (playerTiles & mask) == mask.
+ *
+ * The conditions are generated in the same order as {@link WinConditionUtils} generates its
+ * {@link WinCondition} objects: rows, columns, diagonals, squares and finally corners.  The
+ * conditions affected by each tile are listed in that same order, so the first condition met
+ * after a move is always the same one {@link WinConditionUtils} would report.
+ *
+ * The masks follow the {@link RuleSet#STANDARD} rules, compiled by {@link RuleCompiler}, which
+ * also compiles the masks of any other {@link RuleSet}.  The standard masks of the row sizes the
+ * game offers are loaded from the {@link WinConditionTables} generated at build time instead.  The
+ * masks for each row size are generated once and cached, since they never change.
+ */
+public class WinConditionMasks {
+
+    /**
+     * The cached masks for each row size, indexed by row size.
+     */
+    private static final WinConditionMasks[] MASKS_BY_ROW_SIZE = new WinConditionMasks[GameState.MAX_ROW_SIZE + 1];
+
+    /**
+     * The number of tiles on a single row of the game board.
+     */
+    private final int rowSize;
+    /**
+     * Every win condition's mask, one bit per grid index.
+     */
+    private final long[] masks;
+    /**
+     * The {@link WinConditionType} of each mask in {@link #masks}.
+     */
+    private final WinConditionType[] types;
+    /**
+     * The name of the {@link WinRule} that generated each mask in {@link #masks}.
+     */
+    private final String[] ruleNames;
+    /**
+     * The indexes of the masks containing each tile, indexed by grid index.
+     */
+    private final int[][] tileConditions;
+
+    private WinConditionMasks(final int rowSize, @NonNull final long[] masks, @NonNull final WinConditionType[] types,
+                              @NonNull final String[] ruleNames, @NonNull final int[][] tileConditions) {
+        this.rowSize = rowSize;
+        this.masks = masks;
+        this.types = types;
+        this.ruleNames = ruleNames;
+        this.tileConditions = tileConditions;
+    }
+
+    WinConditionMasks(final int rowSize, @NonNull final List<Long> masks, @NonNull final List<WinConditionType> types,
+                      @NonNull final List<String> ruleNames) {
+        this.rowSize = rowSize;
+        this.masks = new long[masks.size()];
+        this.types = types.toArray(new WinConditionType[0]);
+        this.ruleNames = ruleNames.toArray(new String[0]);
+        for (int i = 0; i < this.masks.length; i++) {
+            this.masks[i] = masks.get(i);
+        }
+
+        int gameBoardSize = rowSize * rowSize;
+        tileConditions = new int[gameBoardSize][];
+        for (int gridIndex = 0; gridIndex < gameBoardSize; gridIndex++) {
+            long tile = 1L << gridIndex;
+            int count = 0;
+            for (long mask : this.masks) {
+                if ((mask & tile) != 0) {
+                    count++;
+                }
+            }
+            tileConditions[gridIndex] = new int[count];
+            count = 0;
+            for (int i = 0; i < this.masks.length; i++) {
+                if ((this.masks[i] & tile) != 0) {
+                    tileConditions[gridIndex][count++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Load the standard win condition masks of the given row size from the
+     * {@link WinConditionTables} generated at build time, without generating anything.
+     * @param rowSize The number of tiles per row, between {@link WinConditionTables#MIN_ROW_SIZE}
+     *                and {@link WinConditionTables#MAX_ROW_SIZE}.
+     * @return The win condition masks.
+     */
+    static WinConditionMasks fromTables(final int rowSize) {
+        WinConditionType[] types = WinConditionTables.TYPES[rowSize];
+        String[] ruleNames = new String[types.length];
+        for (int condition = 0; condition < types.length; condition++) {
+            ruleNames[condition] = types[condition].name().toLowerCase(Locale.ROOT);
+        }
+        short[] tileConditionsTable = WinConditionTables.TILE_CONDITIONS[rowSize];
+        short[] offsets = WinConditionTables.TILE_CONDITION_OFFSETS[rowSize];
+        int[][] tileConditions = new int[rowSize * rowSize][];
+        for (int gridIndex = 0; gridIndex < tileConditions.length; gridIndex++) {
+            tileConditions[gridIndex] = new int[offsets[gridIndex + 1] - offsets[gridIndex]];
+            for (int i = 0; i < tileConditions[gridIndex].length; i++) {
+                tileConditions[gridIndex][i] = tileConditionsTable[offsets[gridIndex] + i];
+            }
+        }
+        return new WinConditionMasks(rowSize, WinConditionTables.MASKS[rowSize], types, ruleNames, tileConditions);
+    }
+
+    /**
+     * Retrieve the standard win condition masks of a game board with the given row size, generating
+     * them on first use.
+     * @param rowSize The number of tiles per row.
+     * @return The win condition masks.
+     */
+    public static synchronized WinConditionMasks forRowSize(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize) {
+        WinConditionMasks winConditionMasks = MASKS_BY_ROW_SIZE[rowSize];
+        if (winConditionMasks == null) {
+            winConditionMasks = RuleCompiler.compile(RuleSet.STANDARD, rowSize);
+            MASKS_BY_ROW_SIZE[rowSize] = winConditionMasks;
+        }
+        return winConditionMasks;
+    }
+
+    /**
+     * Find the first win condition containing the given tile that the given player's tiles meet.
+     * Only the conditions affected by the tile are checked, mirroring how the
+     * {@link com.boxnotfound.tictactoe.game.GamePresenter} checks the conditions after a move.
+     * @param playerTiles The tiles controlled by the player, one bit per grid index.
+     * @param gridIndex The index of the tile selected by the player's last move.
+     * @return The index of the condition met, or -1 if none are met.
+     */
+    public int findMetCondition(final long playerTiles, final int gridIndex) {
+        int[] conditions = tileConditions[gridIndex];
+        for (int condition : conditions) {
+            long mask = masks[condition];
+            if ((playerTiles & mask) == mask) {
+                return condition;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first win condition the given player's tiles meet, regardless of which tile was
+     * selected last.
+     * @param playerTiles The tiles controlled by the player, one bit per grid index.
+     * @return The index of the condition met, or -1 if none are met.
+     */
+    public int findMetCondition(final long playerTiles) {
+        for (int i = 0; i < masks.length; i++) {
+            if ((playerTiles & masks[i]) == masks[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieve the number of tiles on a single row of the game board.
+     * @return The row size.
+     */
+    public int getRowSize() {
+        return rowSize;
+    }
+
+    /**
+     * Retrieve the total number of win conditions.
+     * @return The number of masks.
+     */
+    public int getConditionCount() {
+        return masks.length;
+    }
+
+    /**
+     * Retrieve the mask of the given win condition.
+     * @param condition The index of the condition.
+     * @return The mask, one bit per grid index.
+     */
+    public long getMask(final int condition) {
+        return masks[condition];
+    }
+
+    /**
+     * Retrieve the {@link WinConditionType} of the given win condition.
+     * @param condition The index of the condition.
+     * @return The condition's type, or null for a condition of a custom shape.
+     */
+    public WinConditionType getType(final int condition) {
+        return types[condition];
+    }
+
+    /**
+     * Retrieve the name of the {@link WinRule} that generated the given win condition.
+     * @param condition The index of the condition.
+     * @return The rule name.
+     */
+    @NonNull
+    public String getRuleName(final int condition) {
+        return ruleNames[condition];
+    }
+
+    /**
+     * Retrieve the indexes of the win conditions containing the given tile.  The returned array
+     * must not be modified.
+     * @param gridIndex The index of the tile.
+     * @return The condition indexes, in generation order.
+     */
+    public int[] getConditionsForTile(final int gridIndex) {
+        return tileConditions[gridIndex];
+    }
+}
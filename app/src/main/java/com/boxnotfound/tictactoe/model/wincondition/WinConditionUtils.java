@@ -1,6 +1,7 @@
 package com.boxnotfound.tictactoe.model.wincondition;
 
 
+import com.boxnotfound.tictactoe.metrics.Metrics;
 import com.boxnotfound.tictactoe.model.TicTacToeTile;
 
 import java.util.ArrayList;
@@ -18,6 +19,8 @@ import androidx.collection.SparseArrayCompat;
  * {@link WinConditionType#DIAGONAL}: When a player controls all tiles in one of the two diagonal lines
  * {@link WinConditionType#SQUARE}: When a player controls four tiles forming a 2x2 square shape
  * {@link WinConditionType#CORNERS}: When a player controls the tiles in the four corners of the board
+ *
+ * The tiles of each condition are described by the {@link WinConditionGeometry}.
  */
 public class WinConditionUtils {
 
@@ -35,219 +38,101 @@ public class WinConditionUtils {
     }
 
     /**
-     * Instantiates the map and populates it by calling the various setup methods for the different
-     * win condition types.
+     * Instantiates the map and populates it from the {@link WinConditionTables} generated at build
+     * time, or for a board size without tables, by computing the conditions as
+     * {@link #computeWinConditionsFromTicTacToeBoard(TicTacToeTile[][])} does.
      * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
      * @return The fully populated map of {@link WinCondition} lists.
      */
     public static SparseArrayCompat<List<WinCondition>> generateWinConditionsFromTicTacToeBoard(@NonNull final TicTacToeTile[][] gameBoard) {
-        if (winConditionMap == null) {
-            winConditionMap = new SparseArrayCompat<>();
+        long startNanos = Metrics.GENERATE_WIN_CONDITIONS.start();
+        if (gameBoard.length < WinConditionTables.MIN_ROW_SIZE || gameBoard.length > WinConditionTables.MAX_ROW_SIZE) {
+            computeWinConditionsFromTicTacToeBoard(gameBoard);
         } else {
-            winConditionMap.clear();
+            setupWinConditionMap(gameBoard);
+            setupWinConditionsFromTables(gameBoard);
         }
-
-        gameBoardRowSize = gameBoard.length;
-
-        setupWinConditionMap();
-        setupRowWinConditions(gameBoard);
-        setupColumnWinConditions(gameBoard);
-        setupDiagonalWinConditions(gameBoard);
-        setupSquareWinConditions(gameBoard);
-        setupCornersWinConditions(gameBoard);
-
+        Metrics.GENERATE_WIN_CONDITIONS.stop(startNanos);
         return winConditionMap;
     }
 
     /**
-     * Add a blank ArrayList to each index of the map, based on the size of the game board.
-     */
-    private static void setupWinConditionMap() {
-        int gameBoardSize = gameBoardRowSize * gameBoardRowSize;
-        for (int i = 0; i < gameBoardSize; i++) {
-            winConditionMap.put(i, new ArrayList<WinCondition>());
-        }
-    }
-
-    /**
-     * Generates all {@link WinCondition} objects with {@link WinConditionType#ROW} properties.
+     * Instantiates the map and populates it with the conditions of every
+     * {@link WinConditionType}, as described by the {@link WinConditionGeometry}, regardless of any
+     * generated tables.
      * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
+     * @return The fully populated map of {@link WinCondition} lists.
      */
-    private static void setupRowWinConditions(@NonNull final TicTacToeTile[][] gameBoard) {
-
-        WinConditionType type = WinConditionType.ROW;
-
-        for (int row = 0; row < gameBoardRowSize; row++) {
-            ArrayList<Integer> sparseArrayKeyValues = new ArrayList<>();
-            ArrayList<TicTacToeTile> tiles = new ArrayList<>();
-            for (int col = 0; col < gameBoardRowSize; col++) {
-                addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
+    public static SparseArrayCompat<List<WinCondition>> computeWinConditionsFromTicTacToeBoard(@NonNull final TicTacToeTile[][] gameBoard) {
+        setupWinConditionMap(gameBoard);
+        for (WinConditionType type : WinConditionType.values()) {
+            for (int[] gridIndexes : WinConditionGeometry.generate(type, gameBoardRowSize)) {
+                addWinConditionToMap(gameBoard, gridIndexes, type);
             }
-            WinCondition rowWinCondition = new WinCondition(tiles, type);
-            addWinConditionToMap(rowWinCondition, sparseArrayKeyValues);
         }
-    }
-
-    /**
-     * Generates all {@link WinCondition} objects with {@link WinConditionType#COLUMN} properties.
-     * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
-     */
-    private static void setupColumnWinConditions(@NonNull final TicTacToeTile[][] gameBoard) {
 
-        WinConditionType type = WinConditionType.COLUMN;
-
-        for (int col = 0; col < gameBoardRowSize; col++) {
-            ArrayList<Integer> sparseArrayKeyValues = new ArrayList<>();
-            ArrayList<TicTacToeTile> tiles = new ArrayList<>();
-            for (int row = 0; row < gameBoardRowSize; row++) {
-                addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
-            }
-
-            WinCondition colWinCondition = new WinCondition(tiles, type);
-            addWinConditionToMap(colWinCondition, sparseArrayKeyValues);
-        }
+        return winConditionMap;
     }
 
     /**
-     * Generates all {@link WinCondition} objects with {@link WinConditionType#DIAGONAL} properties.
+     * Instantiate or clear the map, and add a blank ArrayList to each index of the map, based on the
+     * size of the game board.
      * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
      */
-    private static void setupDiagonalWinConditions(@NonNull final TicTacToeTile[][] gameBoard) {
-
-        WinConditionType type = WinConditionType.DIAGONAL;
-
-        // top left to bottom right diagonal
-        int row = 0;
-        int col = 0;
-        ArrayList<Integer> sparseArrayKeyValues = new ArrayList<>();
-        ArrayList<TicTacToeTile> tiles = new ArrayList<>();
-        for (; row < gameBoardRowSize && col < gameBoardRowSize; row++, col++) {
-            addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
+    private static void setupWinConditionMap(@NonNull final TicTacToeTile[][] gameBoard) {
+        if (winConditionMap == null) {
+            winConditionMap = new SparseArrayCompat<>();
+        } else {
+            winConditionMap.clear();
         }
 
-        WinCondition diagonalWinCondition = new WinCondition(tiles, type);
-        addWinConditionToMap(diagonalWinCondition, sparseArrayKeyValues);
+        gameBoardRowSize = gameBoard.length;
 
-        // top right to bottom left diagonal
-        row = 0;
-        col = gameBoardRowSize - 1;
-        sparseArrayKeyValues = new ArrayList<>();
-        tiles = new ArrayList<>();
-        for (; row < gameBoardRowSize && col >= 0; row++, col--) {
-            addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
+        int gameBoardSize = gameBoardRowSize * gameBoardRowSize;
+        for (int i = 0; i < gameBoardSize; i++) {
+            winConditionMap.put(i, new ArrayList<WinCondition>());
         }
-
-        diagonalWinCondition = new WinCondition(tiles, type);
-        addWinConditionToMap(diagonalWinCondition, sparseArrayKeyValues);
     }
 
     /**
-     * Generates all {@link WinCondition} objects with {@link WinConditionType#SQUARE} properties.
+     * Generates every {@link WinCondition} object from the grid indexes and types listed by the
+     * {@link WinConditionTables}, without computing any of them.
      * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
      */
-    private static void setupSquareWinConditions(@NonNull final TicTacToeTile[][] gameBoard) {
+    private static void setupWinConditionsFromTables(@NonNull final TicTacToeTile[][] gameBoard) {
 
-        WinConditionType type = WinConditionType.SQUARE;
+        WinConditionType[] types = WinConditionTables.TYPES[gameBoardRowSize];
+        byte[] conditionTiles = WinConditionTables.CONDITION_TILES[gameBoardRowSize];
+        short[] offsets = WinConditionTables.CONDITION_TILE_OFFSETS[gameBoardRowSize];
 
-        for (int row = 0; row < gameBoardRowSize - 1; row++) {
-            for (int col = 0; col < gameBoardRowSize - 1; col++) {
-                ArrayList<Integer> sparseArrayKeyValues = new ArrayList<>();
-                ArrayList<TicTacToeTile> tiles = new ArrayList<>();
-                addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
-                addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row + 1, col);
-                addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col + 1);
-                addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row + 1, col + 1);
-                WinCondition squareWinCondition = new WinCondition(tiles, type);
-                addWinConditionToMap(squareWinCondition, sparseArrayKeyValues);
+        for (int condition = 0; condition < types.length; condition++) {
+            int[] gridIndexes = new int[offsets[condition + 1] - offsets[condition]];
+            for (int i = 0; i < gridIndexes.length; i++) {
+                gridIndexes[i] = conditionTiles[offsets[condition] + i];
             }
+            addWinConditionToMap(gameBoard, gridIndexes, types[condition]);
         }
     }
 
     /**
-     * Generates all {@link WinCondition} objects with {@link WinConditionType#CORNERS} properties.
+     * Creates a {@link WinCondition} object monitoring the tiles at the given grid indexes, and
+     * inserts it into the associated index values of the {@link #winConditionMap}.
      * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
+     * @param gridIndexes The grid indexes of the tiles of the condition.
+     * @param type The type of the condition.
      */
-    private static void setupCornersWinConditions(@NonNull final TicTacToeTile[][] gameBoard) {
-
-        WinConditionType type = WinConditionType.CORNERS;
+    private static void addWinConditionToMap(@NonNull final TicTacToeTile[][] gameBoard, @NonNull final int[] gridIndexes,
+                                             @NonNull final WinConditionType type) {
 
         ArrayList<Integer> sparseArrayKeyValues = new ArrayList<>();
         ArrayList<TicTacToeTile> tiles = new ArrayList<>();
+        for (int gridIndex : gridIndexes) {
+            tiles.add(gameBoard[gridIndex / gameBoardRowSize][gridIndex % gameBoardRowSize]);
+            sparseArrayKeyValues.add(gridIndex);
+        }
+        WinCondition winCondition = new WinCondition(tiles, sparseArrayKeyValues, type);
 
-        //upper left corner
-        int row = 0;
-        int col = 0;
-        addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
-
-        //upper right corner
-        col = gameBoardRowSize - 1;
-        addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
-
-        //bottom right corner
-        row = gameBoardRowSize - 1;
-        addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
-
-        //bottom left corner
-        col = 0;
-        addTileDataToLists(gameBoard, tiles, sparseArrayKeyValues, row, col);
-
-        WinCondition cornersWinCondition = new WinCondition(tiles, type);
-        addWinConditionToMap(cornersWinCondition, sparseArrayKeyValues);
-    }
-
-    /**
-     * Helper method for adding tile object data to each {@link WinCondition} object's tile list,
-     * along with converting and adding the associated tile index to a key list to be used later
-     * to add the resulting {@link WinCondition} object to the {@link #winConditionMap}.
-     *
-     * @param gameBoard The collection of {@link TicTacToeTile} objects representing the game board.
-     * @param tiles The list of tiles that will be used to create the new {@link WinCondition}
-     *              object.
-     * @param sparseArrayKeyValues The list of index values of the tiles stored in the tiles param.
-     * @param row The row index of the tile on the game board.
-     * @param col The column index of the tile on the game board.
-     */
-    private static void addTileDataToLists(@NonNull final TicTacToeTile[][] gameBoard,
-                                           @NonNull final ArrayList<TicTacToeTile> tiles,
-                                           @NonNull final ArrayList<Integer> sparseArrayKeyValues,
-                                           final int row, final int col) {
-
-        TicTacToeTile tile = gameBoard[row][col];
-        int sparseArrayKeyValue = calculateSparseArrayKeyValue(row, col);
-        sparseArrayKeyValues.add(sparseArrayKeyValue);
-        tiles.add(tile);
-    }
-
-    /**
-     * Convert the row and column index values from the game board to a single index value, based on
-     * the formula (rowSize * rowIndex) + columnIndex
-     *
-     * For example, a 4 x 4 game board represented two-dimensionally as:
-     *          {0, 0} {0, 1} {0, 2} {0, 3}
-     *          {1, 0} {1, 1} {1, 2} {1, 3}
-     *          {2, 0} {2, 1} {2, 2} {2, 3}
-     *          {3, 0} {3, 1} {3, 2} {3, 3}
-     * This would be translate into:
-     *          00  01  02  03
-     *          04  05  06  07
-     *          08  09  10  11
-     *          12  13  14  15
-     *
-     * @param row The row index of the tile on the game board.
-     * @param col The column index of the tile on the game board.
-     * @return The converted index value.
-     */
-    private static int calculateSparseArrayKeyValue(final int row, final int col) {
-        return gameBoardRowSize * row + col;
-    }
-
-    /**
-     * Inserts the {@link WinCondition} object into the associated index values of the
-     * {@link #winConditionMap}.
-     * @param winCondition The {@link WinCondition} object to store.
-     * @param sparseArrayKeyValues The map index values to insert the winCondition parameter into.
-     */
-    private static void addWinConditionToMap(@NonNull final WinCondition winCondition, @NonNull final List<Integer> sparseArrayKeyValues) {
+        Metrics.WIN_CONDITIONS_CREATED.increment();
 
         for (int keyValue : sparseArrayKeyValues) {
             winConditionMap.get(keyValue).add(winCondition);
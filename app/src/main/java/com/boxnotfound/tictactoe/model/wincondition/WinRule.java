@@ -0,0 +1,246 @@
+package com.boxnotfound.tictactoe.model.wincondition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A single rule of a {@link RuleSet}, describing a family of win conditions.  A rule is either one
+ * of the built-in {@link WinConditionType}s, whose conditions depend on the size of the board, or
+ * a set of shapes, each met wherever it fits on the board.
+ *
+ * A shape is a pattern of tiles, stored as the row and column offsets of each tile from the top
+ * left of the pattern.  A rule may hold several shapes, such as the rotations of an L or the four
+ * directions of a line, whose placements are generated one shape after the other.
+ */
+public class WinRule {
+
+    private final String name;
+    /** The built-in type of the rule, null for a rule made of shapes. */
+    private final WinConditionType builtInType;
+    /** The row offsets of the tiles of each shape, indexed by shape. */
+    private final int[][] shapeRows;
+    /** The column offsets of the tiles of each shape, indexed by shape. */
+    private final int[][] shapeColumns;
+    /** The type reported for the conditions of each shape, null for a custom shape. */
+    private final WinConditionType[] shapeTypes;
+
+    private WinRule(@NonNull final String name, @Nullable final WinConditionType builtInType,
+                    @NonNull final int[][] shapeRows, @NonNull final int[][] shapeColumns,
+                    @NonNull final WinConditionType[] shapeTypes) {
+        this.name = name;
+        this.builtInType = builtInType;
+        this.shapeRows = shapeRows;
+        this.shapeColumns = shapeColumns;
+        this.shapeTypes = shapeTypes;
+    }
+
+    /**
+     * Create the rule of a built-in win condition type, with the same conditions as
+     * {@link WinConditionUtils}.
+     * @param type The win condition type.
+     * @return The rule.
+     */
+    public static WinRule builtIn(@NonNull final WinConditionType type) {
+        if (type == WinConditionType.SQUARE) {
+            // a square is the one built-in rule that is a plain shape
+            return new WinRule("square", null, new int[][] {{0, 0, 1, 1}}, new int[][] {{0, 1, 0, 1}},
+                    new WinConditionType[] {WinConditionType.SQUARE});
+        }
+        return new WinRule(type.name().toLowerCase(Locale.ROOT), type, new int[0][], new int[0][], new WinConditionType[0]);
+    }
+
+    /**
+     * Create the rule of a given number of tiles in a row, horizontally, vertically or diagonally,
+     * anywhere on the board.  The horizontal lines are reported as {@link WinConditionType#ROW},
+     * the vertical lines as {@link WinConditionType#COLUMN} and both diagonals as
+     * {@link WinConditionType#DIAGONAL}, so a line as long as the row size has the same conditions
+     * as the built-in rows, columns and diagonals, in the same order.
+     * @param length The number of tiles in the line.
+     * @return The rule.
+     */
+    public static WinRule line(final int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Unsupported line length " + length);
+        }
+        int[][] rows = new int[4][length];
+        int[][] columns = new int[4][length];
+        for (int i = 0; i < length; i++) {
+            // horizontal
+            columns[0][i] = i;
+            // vertical
+            rows[1][i] = i;
+            // top left to bottom right
+            rows[2][i] = i;
+            columns[2][i] = i;
+            // top right to bottom left
+            rows[3][i] = i;
+            columns[3][i] = length - 1 - i;
+        }
+        return new WinRule("line " + length, null, rows, columns, new WinConditionType[] {
+                WinConditionType.ROW, WinConditionType.COLUMN, WinConditionType.DIAGONAL, WinConditionType.DIAGONAL});
+    }
+
+    /**
+     * Create the rule of a custom shape, drawn as rows of equal length, with an X for each tile of
+     * the shape and a dot for every other tile.
+     * @param name The name of the rule.
+     * @param pattern The rows of the shape, from top to bottom.
+     * @param rotate Whether or not every distinct rotation and reflection of the shape also meets
+     *               the rule.
+     * @return The rule.
+     */
+    public static WinRule shape(@NonNull final String name, @NonNull final List<String> pattern, final boolean rotate) {
+        List<Integer> rows = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        for (int row = 0; row < pattern.size(); row++) {
+            String line = pattern.get(row);
+            if (line.length() != pattern.get(0).length()) {
+                throw new IllegalArgumentException("Rows of shape " + name + " differ in length");
+            }
+            for (int col = 0; col < line.length(); col++) {
+                char c = line.charAt(col);
+                if (c == 'X') {
+                    rows.add(row);
+                    columns.add(col);
+                } else if (c != '.') {
+                    throw new IllegalArgumentException("Unexpected '" + c + "' in shape " + name);
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Shape " + name + " has no tiles");
+        }
+
+        List<int[]> shapeRows = new ArrayList<>();
+        List<int[]> shapeColumns = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+        // the identity, then the three rotations, then the reflection of each
+        for (int symmetry = 0; symmetry < (rotate ? 8 : 1); symmetry++) {
+            int[] r = new int[rows.size()];
+            int[] c = new int[rows.size()];
+            for (int i = 0; i < r.length; i++) {
+                int row = rows.get(i);
+                int col = symmetry >= 4 ? -columns.get(i) : columns.get(i);
+                for (int turn = 0; turn < symmetry % 4; turn++) {
+                    int turned = col;
+                    col = -row;
+                    row = turned;
+                }
+                r[i] = row;
+                c[i] = col;
+            }
+            normalise(r, c);
+            String key = describe(r, c);
+            if (!seen.contains(key)) {
+                seen.add(key);
+                shapeRows.add(r);
+                shapeColumns.add(c);
+            }
+        }
+        return new WinRule(name, null, shapeRows.toArray(new int[0][]), shapeColumns.toArray(new int[0][]),
+                new WinConditionType[shapeRows.size()]);
+    }
+
+    /**
+     * Shift the offsets so the topmost row and leftmost column of the shape are 0.
+     */
+    private static void normalise(final int[] rows, final int[] columns) {
+        int minRow = Integer.MAX_VALUE;
+        int minCol = Integer.MAX_VALUE;
+        for (int i = 0; i < rows.length; i++) {
+            minRow = Math.min(minRow, rows[i]);
+            minCol = Math.min(minCol, columns[i]);
+        }
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] -= minRow;
+            columns[i] -= minCol;
+        }
+    }
+
+    /**
+     * Describe the tiles of a normalised shape regardless of the order they are listed in.
+     */
+    private static String describe(final int[] rows, final int[] columns) {
+        long[] tiles = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            tiles[i] = ((long) rows[i] << 32) | columns[i];
+        }
+        Arrays.sort(tiles);
+        return Arrays.toString(tiles);
+    }
+
+    /**
+     * Retrieve the name of the rule, as given in its definition.
+     * @return The name.
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieve the built-in type of the rule.
+     * @return The type, or null if the rule is made of shapes.
+     */
+    @Nullable
+    public WinConditionType getBuiltInType() {
+        return builtInType;
+    }
+
+    /**
+     * Retrieve the number of shapes of the rule.
+     * @return The shape count, 0 for a built-in type other than {@link WinConditionType#SQUARE}.
+     */
+    public int getShapeCount() {
+        return shapeRows.length;
+    }
+
+    /**
+     * Retrieve the row offsets of the tiles of the given shape.  The returned array must not be
+     * modified.
+     * @param shape The index of the shape.
+     * @return The row offsets, the topmost being 0.
+     */
+    public int[] getShapeRows(final int shape) {
+        return shapeRows[shape];
+    }
+
+    /**
+     * Retrieve the column offsets of the tiles of the given shape.  The returned array must not be
+     * modified.
+     * @param shape The index of the shape.
+     * @return The column offsets, the leftmost being 0.
+     */
+    public int[] getShapeColumns(final int shape) {
+        return shapeColumns[shape];
+    }
+
+    /**
+     * Retrieve the type reported for the conditions of the given shape.
+     * @param shape The index of the shape.
+     * @return The type, or null for a custom shape.
+     */
+    @Nullable
+    public WinConditionType getShapeType(final int shape) {
+        return shapeTypes[shape];
+    }
+
+    /**
+     * Retrieve the shapes of the rule, for display and debugging.
+     * @return The offsets of every shape.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        List<String> shapes = new ArrayList<>();
+        for (int shape = 0; shape < shapeRows.length; shape++) {
+            shapes.add(describe(shapeRows[shape], shapeColumns[shape]));
+        }
+        return shapes.isEmpty() ? name : name + " " + shapes;
+    }
+}
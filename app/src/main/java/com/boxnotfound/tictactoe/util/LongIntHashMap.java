@@ -0,0 +1,193 @@
+package com.boxnotfound.tictactoe.util;
+
+import java.util.Arrays;
+
+/**
+ * A map of primitive long keys to primitive int values, using open addressing with linear probing
+ * so that neither the keys nor the values are ever boxed, and no object is allocated per entry.
+ * The map is not thread safe.
+ */
+public class LongIntHashMap {
+
+    /** Marks an unused slot in {@link #keys}.  Entries using this key are stored separately. */
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    /** The number of entries stored in {@link #keys}, excluding the {@link #EMPTY_KEY} entry. */
+    private int size;
+    /** Whether or not an entry using the {@link #EMPTY_KEY} key exists. */
+    private boolean hasEmptyKeyEntry;
+    private int emptyKeyValue;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize The number of entries the map should hold without needing to grow.
+     */
+    public LongIntHashMap(final int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    /**
+     * Retrieve the value mapped to the given key.
+     * @param key The key to look up.
+     * @param missingValue The value to return if the key is not mapped.
+     * @return The mapped value, or missingValue if there is none.
+     */
+    public int get(final long key, final int missingValue) {
+        if (key == EMPTY_KEY) {
+            return hasEmptyKeyEntry ? emptyKeyValue : missingValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                return values[slot];
+            } else if (slotKey == EMPTY_KEY) {
+                return missingValue;
+            }
+        }
+    }
+
+    /**
+     * Check whether or not the given key is mapped.
+     * @param key The key to look up.
+     * @return True if the key is mapped.
+     */
+    public boolean containsKey(final long key) {
+        if (key == EMPTY_KEY) {
+            return hasEmptyKeyEntry;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            long slotKey = keys[slot];
+            if (slotKey == key) {
+                return true;
+            } else if (slotKey == EMPTY_KEY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Map the given key to the given value, replacing any previous value.
+     * @param key The key to map.
+     * @param value The value to map the key to.
+     */
+    public void put(final long key, final int value) {
+        if (key == EMPTY_KEY) {
+            hasEmptyKeyEntry = true;
+            emptyKeyValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Remove the mapping of the given key, if there is one.
+     * @param key The key to remove.
+     * @param missingValue The value to return if the key is not mapped.
+     * @return The previously mapped value, or missingValue if there was none.
+     */
+    public int remove(final long key, final int missingValue) {
+        if (key == EMPTY_KEY) {
+            if (!hasEmptyKeyEntry) {
+                return missingValue;
+            }
+            hasEmptyKeyEntry = false;
+            return emptyKeyValue;
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY_KEY) {
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removedValue = values[slot];
+        size--;
+        // shift back any following entries whose probe sequence passes through the removed slot
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY_KEY;
+        return removedValue;
+    }
+
+    /**
+     * Retrieve the number of mapped keys.
+     * @return The size of the map.
+     */
+    public int size() {
+        return hasEmptyKeyEntry ? size + 1 : size;
+    }
+
+    /**
+     * Remove every mapping, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+        hasEmptyKeyEntry = false;
+    }
+
+    private void rehash(final int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spread the bits of the key so that sequential keys do not cluster in adjacent slots.
+     */
+    private static int hash(final long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
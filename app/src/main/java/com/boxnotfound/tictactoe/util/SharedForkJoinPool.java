@@ -0,0 +1,36 @@
+package com.boxnotfound.tictactoe.util;
+
+import java.util.concurrent.ForkJoinPool;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The {@link ForkJoinPool} shared by every parallel tool that is not handed a pool of its own,
+ * such as {@link com.boxnotfound.tictactoe.model.perft.Perft},
+ * {@link com.boxnotfound.tictactoe.model.arena.GameArena} and
+ * {@link com.boxnotfound.tictactoe.model.archive.GameArchiveScanner}, so running several of them
+ * never starts more than one set of workers.  This stands in for {@link ForkJoinPool#commonPool()},
+ * which is not available on every supported API level.
+ */
+public class SharedForkJoinPool {
+
+    private SharedForkJoinPool() {
+        // prevent instantiation to limit usage to static methods
+    }
+
+    /**
+     * Retrieve the shared pool, creating it on first use with a worker per available core.
+     * @return The shared pool.
+     */
+    @NonNull
+    public static ForkJoinPool get() {
+        return Holder.POOL;
+    }
+
+    /**
+     * Creates the pool the first time it is retrieved.
+     */
+    private static class Holder {
+        private static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
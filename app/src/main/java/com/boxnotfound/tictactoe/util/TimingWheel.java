@@ -0,0 +1,261 @@
+package com.boxnotfound.tictactoe.util;
+
+import java.util.Arrays;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * A hierarchical hashed timing wheel, able to track a very large number of timeouts with constant
+ * time scheduling and cancellation.
+ *
+ * Time is divided into ticks of a fixed length.  The wheel consists of {@link #LEVELS} levels of
+ * {@link #SLOTS_PER_LEVEL} slots each: level 0 holds the timers expiring within the next
+ * {@link #SLOTS_PER_LEVEL} ticks, one slot per tick, and every further level covers
+ * {@link #SLOTS_PER_LEVEL} times the range of the level below it.  Whenever a lower level completes
+ * a full rotation, the next slot of the level above is cascaded down, so every timer is eventually
+ * moved into level 0 and expired on the tick it is due.
+ *
+ * Timers are referred to by int handles rather than objects.  Every timer's state lives in parallel
+ * primitive arrays, with the timers of each slot linked through the {@link #next} and
+ * {@link #previous} arrays, so scheduling, cancelling and ticking never allocate.  A timer handle is
+ * created once per tracked item with {@link #newTimer(long)} and can be rescheduled any number of
+ * times until it is {@link #releaseTimer(int) released}.
+ *
+ * The wheel is not thread safe, and is driven entirely by calls to {@link #advanceTo(long)}.
+ */
+public class TimingWheel {
+
+    /**
+     * Receives the timers that have expired.
+     */
+    public interface ExpiryListener {
+
+        /**
+         * Called when a timer's deadline has passed.  The timer is no longer scheduled, and may be
+         * rescheduled or released from within this call.
+         * @param timer The handle of the expired timer.
+         * @param payload The value the timer was created with.
+         */
+        void onTimerExpired(final int timer, final long payload);
+    }
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVELS = 4;
+    /** The furthest number of ticks into the future a timer can be scheduled. */
+    private static final long MAX_DELAY_TICKS = (1L << (SLOT_BITS * LEVELS)) - 1;
+    /** Marks the end of a linked slot, or a timer that is not scheduled. */
+    private static final int NONE = -1;
+
+    private final ExpiryListener listener;
+    private final long tickMillis;
+    private final long startMillis;
+    /** The number of ticks that have been processed. */
+    private long currentTick;
+
+    /** The first timer of each slot, indexed by level * {@link #SLOTS_PER_LEVEL} + slot. */
+    private final int[] slotHeads = new int[LEVELS * SLOTS_PER_LEVEL];
+    /** The value each timer was created with. */
+    private long[] payloads;
+    /** The tick each scheduled timer expires on. */
+    private long[] expiryTicks;
+    /** The next timer in the same slot, or the next free handle for released timers. */
+    private int[] next;
+    /** The previous timer in the same slot. */
+    private int[] previous;
+    /** The slot each timer is linked into, or {@link #NONE} if it is not scheduled. */
+    private int[] slots;
+    /** The first released handle available for reuse. */
+    private int freeTimer = NONE;
+    /** The number of handles that have ever been created. */
+    private int createdTimers;
+    /** The number of timers currently scheduled. */
+    private int scheduledTimers;
+
+    /**
+     * @param tickMillis The length of a single tick, which is the resolution of every deadline.
+     * @param startMillis The current time, from which ticks are counted.
+     * @param listener Receives the timers that have expired.
+     */
+    public TimingWheel(@IntRange(from = 1) final long tickMillis, final long startMillis, @NonNull final ExpiryListener listener) {
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.listener = listener;
+        Arrays.fill(slotHeads, NONE);
+        int capacity = 64;
+        payloads = new long[capacity];
+        expiryTicks = new long[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+        slots = new int[capacity];
+    }
+
+    /**
+     * Create a new, unscheduled timer.
+     * @param payload A value identifying the tracked item, passed to the {@link ExpiryListener}.
+     * @return The handle of the new timer.
+     */
+    public int newTimer(final long payload) {
+        int timer;
+        if (freeTimer != NONE) {
+            timer = freeTimer;
+            freeTimer = next[timer];
+        } else {
+            timer = createdTimers++;
+            if (timer == payloads.length) {
+                int capacity = timer * 2;
+                payloads = Arrays.copyOf(payloads, capacity);
+                expiryTicks = Arrays.copyOf(expiryTicks, capacity);
+                next = Arrays.copyOf(next, capacity);
+                previous = Arrays.copyOf(previous, capacity);
+                slots = Arrays.copyOf(slots, capacity);
+            }
+        }
+        payloads[timer] = payload;
+        slots[timer] = NONE;
+        return timer;
+    }
+
+    /**
+     * Cancel the timer, if scheduled, and release its handle for reuse.  The handle must not be used
+     * afterwards.
+     * @param timer The handle of the timer.
+     */
+    public void releaseTimer(final int timer) {
+        cancel(timer);
+        next[timer] = freeTimer;
+        freeTimer = timer;
+    }
+
+    /**
+     * Schedule the timer to expire after the given delay, replacing any deadline it already had.
+     * The deadline is rounded up to the next tick, and limited to the range the wheel can represent.
+     * @param timer The handle of the timer.
+     * @param delayMillis The time from now until the timer should expire.
+     */
+    public void schedule(final int timer, final long delayMillis) {
+        cancel(timer);
+        // rounded up without adding to the delay first, which would overflow for the largest delays
+        long delayTicks = Math.max(1, delayMillis / tickMillis + (delayMillis % tickMillis > 0 ? 1 : 0));
+        expiryTicks[timer] = currentTick + Math.min(delayTicks, MAX_DELAY_TICKS);
+        place(timer);
+        scheduledTimers++;
+    }
+
+    /**
+     * Stop the timer from expiring.  Cancelling a timer that is not scheduled has no effect.
+     * @param timer The handle of the timer.
+     */
+    public void cancel(final int timer) {
+        if (slots[timer] != NONE) {
+            unlink(timer);
+            scheduledTimers--;
+        }
+    }
+
+    /**
+     * Check whether or not the timer is scheduled to expire.
+     * @param timer The handle of the timer.
+     * @return True if the timer is scheduled.
+     */
+    public boolean isScheduled(final int timer) {
+        return slots[timer] != NONE;
+    }
+
+    /**
+     * Retrieve the number of timers currently scheduled.
+     * @return The number of scheduled timers.
+     */
+    public int getScheduledTimerCount() {
+        return scheduledTimers;
+    }
+
+    /**
+     * Process every tick up to the given time, expiring the timers that are due.
+     * @param nowMillis The current time.
+     */
+    public void advanceTo(final long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while (currentTick < targetTick) {
+            tick();
+        }
+    }
+
+    /**
+     * Move the wheel forward by a single tick, cascading any higher level slots that are now due
+     * and expiring the timers of the current level 0 slot.
+     */
+    private void tick() {
+        currentTick++;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            int slot = level * SLOTS_PER_LEVEL + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            while (slotHeads[slot] != NONE) {
+                int timer = slotHeads[slot];
+                unlink(timer);
+                place(timer);
+            }
+        }
+
+        int slot = (int) (currentTick & SLOT_MASK);
+        while (slotHeads[slot] != NONE) {
+            int timer = slotHeads[slot];
+            unlink(timer);
+            if (expiryTicks[timer] <= currentTick) {
+                scheduledTimers--;
+                listener.onTimerExpired(timer, payloads[timer]);
+            } else {
+                place(timer);
+            }
+        }
+    }
+
+    /**
+     * Link the timer into the slot matching its expiry tick, choosing the lowest level whose range
+     * covers the remaining delay.
+     */
+    private void place(final int timer) {
+        long expiryTick = expiryTicks[timer];
+        long delay = expiryTick - currentTick;
+        if (delay <= 0) {
+            // timers cascaded on the tick they are due go into the level 0 slot processed next
+            expiryTick = currentTick;
+            delay = 0;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = level * SLOTS_PER_LEVEL + (int) ((expiryTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        int head = slotHeads[slot];
+        next[timer] = head;
+        previous[timer] = NONE;
+        if (head != NONE) {
+            previous[head] = timer;
+        }
+        slotHeads[slot] = timer;
+        slots[timer] = slot;
+    }
+
+    /**
+     * Remove the timer from the slot it is linked into.
+     */
+    private void unlink(final int timer) {
+        int slot = slots[timer];
+        int nextTimer = next[timer];
+        int previousTimer = previous[timer];
+        if (previousTimer == NONE) {
+            slotHeads[slot] = nextTimer;
+        } else {
+            next[previousTimer] = nextTimer;
+        }
+        if (nextTimer != NONE) {
+            previous[nextTimer] = previousTimer;
+        }
+        slots[timer] = NONE;
+    }
+}
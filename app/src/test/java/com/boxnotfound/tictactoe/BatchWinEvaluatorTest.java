@@ -0,0 +1,73 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.arena.GameArena;
+import com.boxnotfound.tictactoe.model.wincondition.BatchWinEvaluator;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class BatchWinEvaluatorTest {
+
+    private static final int POSITION_COUNT = 20000;
+
+    @Test
+    public void batchAndPerPositionResultsMatch() {
+        for (int rowSize = 4; rowSize <= 8; rowSize++) {
+            BatchWinEvaluator evaluator = new BatchWinEvaluator(rowSize);
+            long[] xTiles = new long[POSITION_COUNT];
+            long[] oTiles = new long[POSITION_COUNT];
+            randomPositions(new Random(rowSize), rowSize, xTiles, oTiles);
+
+            byte[] batchResults = new byte[POSITION_COUNT];
+            short[] batchConditions = new short[POSITION_COUNT];
+            byte[] results = new byte[POSITION_COUNT];
+            short[] conditions = new short[POSITION_COUNT];
+            evaluator.evaluate(xTiles, oTiles, POSITION_COUNT, batchResults, batchConditions);
+            evaluator.evaluatePerPosition(xTiles, oTiles, POSITION_COUNT, results, conditions);
+
+            for (int position = 0; position < POSITION_COUNT; position++) {
+                assertThat(batchResults[position], is(results[position]));
+                assertThat(batchConditions[position], is(conditions[position]));
+            }
+        }
+    }
+
+    @Test
+    public void batchReportsWinnerAndType() {
+        BatchWinEvaluator evaluator = new BatchWinEvaluator(4);
+        long[] xTiles = {0b1111L, 0b100001L, 0b1L | 1L << 3 | 1L << 12 | 1L << 15};
+        long[] oTiles = {0b110000L, 0b1100110000L << 4, 0};
+        byte[] results = new byte[3];
+        short[] conditions = new short[3];
+        evaluator.evaluate(xTiles, oTiles, 3, results, conditions);
+
+        assertThat(results[0], is(GameArena.X_WON));
+        assertThat(evaluator.getWinConditionMasks().getType(conditions[0]), is(WinConditionType.ROW));
+        assertThat(results[1], is(GameArena.O_WON));
+        assertThat(evaluator.getWinConditionMasks().getType(conditions[1]), is(WinConditionType.SQUARE));
+        assertThat(results[2], is(GameArena.X_WON));
+        assertThat(evaluator.getWinConditionMasks().getType(conditions[2]), is(WinConditionType.CORNERS));
+    }
+
+    private static void randomPositions(Random random, int rowSize, long[] xTiles, long[] oTiles) {
+        int gameBoardSize = rowSize * rowSize;
+        for (int position = 0; position < xTiles.length; position++) {
+            int moves = random.nextInt(gameBoardSize + 1);
+            for (int move = 0; move < moves; move++) {
+                long tile = 1L << random.nextInt(gameBoardSize);
+                if (((xTiles[position] | oTiles[position]) & tile) == 0) {
+                    if (move % 2 == 0) {
+                        xTiles[position] |= tile;
+                    } else {
+                        oTiles[position] |= tile;
+                    }
+                }
+            }
+        }
+    }
+}
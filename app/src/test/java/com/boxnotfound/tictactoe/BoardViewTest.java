@@ -0,0 +1,132 @@
+package com.boxnotfound.tictactoe;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import com.boxnotfound.tictactoe.game.BoardView;
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.TileStatus;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+import org.robolectric.shadows.ShadowCanvas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static android.view.View.MeasureSpec.EXACTLY;
+import static android.view.View.MeasureSpec.UNSPECIFIED;
+import static android.view.View.MeasureSpec.makeMeasureSpec;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(RobolectricTestRunner.class)
+public class BoardViewTest {
+
+    private static final int BOARD_SIZE = 800;
+    private BoardView boardView;
+
+    @Before
+    public void setup() {
+        boardView = new BoardView(RuntimeEnvironment.application);
+    }
+
+    private static List<TicTacToeTile> createTiles(final int rowSize) {
+        List<TicTacToeTile> tiles = new ArrayList<>();
+        for (int i = 0; i < rowSize * rowSize; i++) {
+            tiles.add(new TicTacToeTile());
+        }
+        return tiles;
+    }
+
+    private void layoutBoard(final int rowSize) {
+        boardView.setTiles(createTiles(rowSize), rowSize);
+        boardView.measure(makeMeasureSpec(BOARD_SIZE, EXACTLY), makeMeasureSpec(0, UNSPECIFIED));
+        boardView.layout(0, 0, boardView.getMeasuredWidth(), boardView.getMeasuredHeight());
+    }
+
+    @Test
+    public void boardIsMeasuredAsSquare() {
+        layoutBoard(4);
+        assertThat(boardView.getMeasuredWidth(), is(BOARD_SIZE));
+        assertThat(boardView.getMeasuredHeight(), is(BOARD_SIZE));
+    }
+
+    @Test
+    public void coordinatesMapToGridIndex() {
+        layoutBoard(4);
+        assertThat(boardView.getGridIndexAt(0, 0), is(0));
+        assertThat(boardView.getGridIndexAt(BOARD_SIZE - 1, 0), is(3));
+        assertThat(boardView.getGridIndexAt(0, BOARD_SIZE - 1), is(12));
+        assertThat(boardView.getGridIndexAt(250, 450), is(9));
+        assertThat(boardView.getGridIndexAt(BOARD_SIZE, 0), is(-1));
+        assertThat(boardView.getGridIndexAt(-1, 0), is(-1));
+    }
+
+    @Test
+    public void touchSelectsTile() {
+        layoutBoard(8);
+        final int[] selected = {-1};
+        boardView.setOnTileSelectedListener(gridIndex -> selected[0] = gridIndex);
+
+        long now = SystemClock.uptimeMillis();
+        boardView.dispatchTouchEvent(MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, 150, 550, 0));
+        boardView.dispatchTouchEvent(MotionEvent.obtain(now, now, MotionEvent.ACTION_UP, 150, 550, 0));
+        assertThat(selected[0], is(5 * 8 + 1));
+    }
+
+    @Test
+    public void largeBoardDraws() {
+        int rowSize = 64;
+        List<TicTacToeTile> tiles = createTiles(rowSize);
+        for (int i = 0; i < tiles.size(); i += 3) {
+            tiles.get(i).setCurrentState(i % 2 == 0 ? TileStatus.PLAYER_X : TileStatus.PLAYER_O);
+        }
+        boardView.setTiles(tiles, rowSize);
+        boardView.measure(makeMeasureSpec(BOARD_SIZE, EXACTLY), makeMeasureSpec(BOARD_SIZE, EXACTLY));
+        boardView.layout(0, 0, BOARD_SIZE, BOARD_SIZE);
+
+        Bitmap bitmap = Bitmap.createBitmap(BOARD_SIZE, BOARD_SIZE, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        boardView.draw(canvas);
+        // every tile is drawn, the last one filling the bottom right corner of the board
+        ShadowCanvas shadowCanvas = Shadows.shadowOf(canvas);
+        assertThat(shadowCanvas.getRectPaintHistoryCount(), is(rowSize * rowSize));
+        ShadowCanvas.RectPaintHistoryEvent lastTile = shadowCanvas.getLastDrawnRect();
+        assertThat(lastTile.right <= BOARD_SIZE && lastTile.right > BOARD_SIZE - (float) BOARD_SIZE / rowSize, is(true));
+        assertThat(lastTile.bottom <= BOARD_SIZE && lastTile.bottom > BOARD_SIZE - (float) BOARD_SIZE / rowSize, is(true));
+        assertThat(boardView.getGridIndexAt(BOARD_SIZE - 1, BOARD_SIZE - 1), is(rowSize * rowSize - 1));
+    }
+
+    @Test
+    public void invalidateTileOnlyInvalidatesTheTile() {
+        final Rect dirty = new Rect();
+        final boolean[] wholeBoardInvalidated = {false};
+        boardView = new BoardView(RuntimeEnvironment.application) {
+            @Override
+            public void invalidate() {
+                wholeBoardInvalidated[0] = true;
+                super.invalidate();
+            }
+
+            @Override
+            public void invalidate(int l, int t, int r, int b) {
+                dirty.set(l, t, r, b);
+                super.invalidate(l, t, r, b);
+            }
+        };
+        layoutBoard(4);
+        wholeBoardInvalidated[0] = false;
+
+        boardView.invalidateTile(9);
+        assertThat(wholeBoardInvalidated[0], is(false));
+        assertThat(dirty, is(new Rect(200, 400, 400, 600)));
+    }
+}
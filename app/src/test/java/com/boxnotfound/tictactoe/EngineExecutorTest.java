@@ -0,0 +1,194 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.engine.EngineExecutor;
+import com.boxnotfound.tictactoe.engine.MoveEngine;
+import com.boxnotfound.tictactoe.engine.NegamaxEngine;
+import com.boxnotfound.tictactoe.engine.PonderPolicy;
+import com.boxnotfound.tictactoe.engine.SearchControl;
+import com.boxnotfound.tictactoe.model.GameState;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class EngineExecutorTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+    /** Holds the callbacks posted to the "main thread", which the test runs itself. */
+    private final BlockingQueue<Runnable> mainThread = new LinkedBlockingQueue<>();
+    private final List<Integer> chosenMoves = new ArrayList<>();
+    private final List<Integer> progressDepths = new ArrayList<>();
+    private EngineExecutor engineExecutor;
+
+    private final EngineExecutor.Callback callback = new EngineExecutor.Callback() {
+        @Override
+        public void onSearchProgress(int bestMove, int depth) {
+            progressDepths.add(depth);
+        }
+
+        @Override
+        public void onMoveChosen(int gridIndex) {
+            chosenMoves.add(gridIndex);
+        }
+    };
+
+    @After
+    public void cleanup() {
+        if (engineExecutor != null) {
+            engineExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Run the callbacks posted to the main thread until a move has been chosen.
+     */
+    private void runMainThreadUntilMoveChosen() throws InterruptedException {
+        while (chosenMoves.isEmpty()) {
+            Runnable runnable = mainThread.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (runnable == null) {
+                throw new AssertionError("No move chosen");
+            }
+            runnable.run();
+        }
+    }
+
+    @Test
+    public void moveIsDeliveredOnMainThread() throws InterruptedException {
+        engineExecutor = new EngineExecutor(new NegamaxEngine(), mainThread::add, TIMEOUT_MILLIS);
+        GameState position = new GameState(4);
+        int[] moves = {0, 4, 1, 5, 2, 6};
+        for (int move : moves) {
+            position.applyMove(move);
+        }
+        engineExecutor.requestMove(position, callback);
+        assertThat(engineExecutor.isSearching(), is(true));
+
+        runMainThreadUntilMoveChosen();
+        assertThat(chosenMoves.get(0), is(3));
+        assertThat(progressDepths.isEmpty(), is(false));
+        assertThat(engineExecutor.isSearching(), is(false));
+    }
+
+    @Test
+    public void deadlineStopsSearch() throws InterruptedException {
+        // an engine that never finishes on its own
+        MoveEngine engine = (position, control) -> {
+            control.reportProgress(7, 1);
+            while (!control.shouldStop()) {
+                Thread.yield();
+            }
+            return control.getBestMove();
+        };
+        engineExecutor = new EngineExecutor(engine, mainThread::add, 50);
+        long start = System.nanoTime();
+        engineExecutor.requestMove(new GameState(4), callback);
+        runMainThreadUntilMoveChosen();
+        assertThat(chosenMoves.get(0), is(7));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < TIMEOUT_MILLIS, is(true));
+    }
+
+    @Test
+    public void cancelledSearchIsNotDelivered() throws InterruptedException {
+        final CountDownLatch searchStarted = new CountDownLatch(1);
+        final CountDownLatch searchStopped = new CountDownLatch(1);
+        MoveEngine engine = (position, control) -> {
+            searchStarted.countDown();
+            while (!control.shouldStop()) {
+                Thread.yield();
+            }
+            searchStopped.countDown();
+            return 0;
+        };
+        engineExecutor = new EngineExecutor(engine, mainThread::add, TIMEOUT_MILLIS);
+        engineExecutor.requestMove(new GameState(4), callback);
+        assertThat(searchStarted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+        engineExecutor.cancel();
+        assertThat(searchStopped.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+
+        Runnable runnable;
+        while ((runnable = mainThread.poll(100, TimeUnit.MILLISECONDS)) != null) {
+            runnable.run();
+        }
+        assertThat(chosenMoves.isEmpty(), is(true));
+        assertThat(engineExecutor.isSearching(), is(false));
+    }
+
+    @Test
+    public void newRequestSupersedesStaleSearch() throws InterruptedException {
+        MoveEngine engine = (position, control) -> {
+            // the first request searches an empty board until it is cancelled
+            while (position.getMoveCount() == 0 && !control.shouldStop()) {
+                Thread.yield();
+            }
+            return position.getMoveCount();
+        };
+        engineExecutor = new EngineExecutor(engine, mainThread::add, TIMEOUT_MILLIS);
+        GameState position = new GameState(4);
+        engineExecutor.requestMove(position, callback);
+        position.applyMove(0);
+        position.applyMove(1);
+        engineExecutor.requestMove(position, callback);
+
+        runMainThreadUntilMoveChosen();
+        assertThat(chosenMoves.size(), is(1));
+        assertThat(chosenMoves.get(0), is(2));
+    }
+
+    @Test
+    public void searchControlStopsAtDeadline() {
+        SearchControl control = new SearchControl(0);
+        assertThat(control.shouldStop(), is(true));
+        control = new SearchControl(TIMEOUT_MILLIS);
+        assertThat(control.shouldStop(), is(false));
+        control.cancel();
+        assertThat(control.shouldStop(), is(true));
+    }
+
+    @Test
+    public void pondersAfterMoveUntilReply() throws InterruptedException {
+        final CountDownLatch ponderStarted = new CountDownLatch(1);
+        final GameState[] ponderedPosition = new GameState[1];
+        MoveEngine engine = (position, control) -> {
+            if (position.getMoveCount() == 0) {
+                return 14;
+            }
+            ponderedPosition[0] = position;
+            ponderStarted.countDown();
+            while (!control.shouldStop()) {
+                Thread.yield();
+            }
+            return -1;
+        };
+        engineExecutor = new EngineExecutor(engine, mainThread::add, TIMEOUT_MILLIS);
+        engineExecutor.setPonderPolicy(new PonderPolicy(TIMEOUT_MILLIS, 50, 6));
+        engineExecutor.requestMove(new GameState(6), callback);
+        runMainThreadUntilMoveChosen();
+
+        assertThat(engineExecutor.isPondering(), is(true));
+        assertThat(ponderStarted.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+        assertThat(ponderedPosition[0].getMoveCount(), is(1));
+        assertThat(ponderedPosition[0].getLastMoveIndex(), is(14));
+
+        // the reply has arrived
+        engineExecutor.cancel();
+        assertThat(engineExecutor.isPondering(), is(false));
+    }
+
+    @Test
+    public void smallBoardsAreNotPondered() throws InterruptedException {
+        engineExecutor = new EngineExecutor((position, control) -> 0, mainThread::add, TIMEOUT_MILLIS);
+        engineExecutor.setPonderPolicy(new PonderPolicy(TIMEOUT_MILLIS, 50, 6));
+        engineExecutor.requestMove(new GameState(4), callback);
+        runMainThreadUntilMoveChosen();
+        assertThat(engineExecutor.isPondering(), is(false));
+    }
+}
@@ -0,0 +1,174 @@
+package com.boxnotfound.tictactoe;
+
+import android.view.Choreographer;
+
+import com.boxnotfound.tictactoe.game.FrameBatchingView;
+import com.boxnotfound.tictactoe.game.GameContract;
+import com.boxnotfound.tictactoe.game.GamePresenter;
+import com.boxnotfound.tictactoe.game.GameRenderState;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class FrameBatchingViewTest {
+
+    private final List<Choreographer.FrameCallback> pendingFrames = new ArrayList<>();
+    private final List<String> renderedFrames = new ArrayList<>();
+    private FrameBatchingView batchingView;
+    private GamePresenter presenter;
+
+    @Before
+    public void setup() {
+        // the presenter keeps its game across instances, so every test starts from a fresh launch
+        GamePresenter.resetGameState();
+        pendingFrames.clear();
+        renderedFrames.clear();
+        batchingView = new FrameBatchingView(new GameContract.RenderTarget() {
+            @Override
+            public void renderFrame(@NonNull GameRenderState renderState) {
+                renderedFrames.add(describe(renderState));
+            }
+
+            @Override
+            public void setPresenter(@NonNull GameContract.Presenter presenter) {
+            }
+        }, new FrameBatchingView.FrameScheduler() {
+            @Override
+            public void postFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+                pendingFrames.add(frameCallback);
+            }
+
+            @Override
+            public void removeFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+                pendingFrames.remove(frameCallback);
+            }
+        });
+        presenter = new GamePresenter(batchingView);
+    }
+
+    private static String describe(final GameRenderState renderState) {
+        StringBuilder description = new StringBuilder();
+        if (renderState.getNewGameTiles() != null) {
+            description.append("new ").append(renderState.getNewGameRowSize()).append(' ');
+        }
+        description.append("tiles");
+        for (int i = 0; i < renderState.getChangedTileCount(); i++) {
+            description.append(' ').append(renderState.getChangedTile(i));
+        }
+        description.append(" status ").append(renderState.getStatus())
+                .append(' ').append(renderState.getStatusPlayer());
+        return description.toString();
+    }
+
+    /**
+     * Run the pending frame callbacks, as the start of the next frame would.
+     */
+    private void runFrame() {
+        List<Choreographer.FrameCallback> frames = new ArrayList<>(pendingFrames);
+        pendingFrames.clear();
+        for (Choreographer.FrameCallback frame : frames) {
+            frame.doFrame(0);
+        }
+    }
+
+    @Test
+    public void newGameIsRenderedInOneFrame() {
+        presenter.launchNewTicTacToeGame(true);
+        assertThat(pendingFrames.size(), is(1));
+        assertThat(renderedFrames.size(), is(0));
+
+        runFrame();
+        assertThat(renderedFrames.size(), is(1));
+        assertThat(renderedFrames.get(0), is("new 4 tiles status 1 PLAYER_X"));
+        assertThat(batchingView.getFrameCount(), is(1L));
+        assertThat(batchingView.getUpdateCount(), is(2L));
+    }
+
+    @Test
+    public void movesBetweenFramesAreRenderedTogether() {
+        presenter.launchNewTicTacToeGame(true);
+        runFrame();
+
+        presenter.setPlayerMove(0);
+        presenter.setPlayerMove(5);
+        presenter.setPlayerMove(1);
+        assertThat(pendingFrames.size(), is(1));
+
+        runFrame();
+        assertThat(renderedFrames.size(), is(2));
+        assertThat(renderedFrames.get(1), is("tiles 0 5 1 status 1 PLAYER_O"));
+        // three moves, each reporting the move and the next player's turn
+        assertThat(batchingView.getUpdateCount(), is(2L + 6L));
+        assertThat(batchingView.getFrameCount(), is(2L));
+    }
+
+    @Test
+    public void winIsRenderedWithItsMove() {
+        presenter.launchNewTicTacToeGame(true);
+        runFrame();
+
+        int[] moves = {0, 4, 1, 5, 2, 6, 3};
+        for (int move : moves) {
+            presenter.setPlayerMove(move);
+            runFrame();
+        }
+        assertThat(renderedFrames.size(), is(1 + moves.length));
+        assertThat(renderedFrames.get(moves.length), is("tiles 3 6 0 1 2 status 2 PLAYER_X"));
+    }
+
+    @Test
+    public void emptyFrameIsNotRendered() {
+        GameRenderState renderState = new GameRenderState();
+        assertThat(renderState.hasChanges(), is(false));
+        assertThat(renderState.getNewGameTiles(), nullValue());
+
+        presenter.launchNewTicTacToeGame(true);
+        runFrame();
+        runFrame();
+        assertThat(batchingView.getFrameCount(), is(1L));
+        assertThat(pendingFrames.size(), is(0));
+    }
+
+    @Test
+    public void newGameReplacesPendingTileChanges() {
+        presenter.launchNewTicTacToeGame(true);
+        runFrame();
+        presenter.setPlayerMove(0);
+        presenter.launchNewTicTacToeGame(true);
+        runFrame();
+        assertThat(renderedFrames.get(1), is("new 4 tiles status 1 PLAYER_X"));
+    }
+
+    @Test
+    public void releaseRemovesThePendingFrame() {
+        presenter.launchNewTicTacToeGame(true);
+        assertThat(pendingFrames.size(), is(1));
+        batchingView.release();
+        assertThat(pendingFrames.size(), is(0));
+
+        // later updates schedule a new frame, holding only the changes made since
+        presenter.setPlayerMove(0);
+        runFrame();
+        assertThat(renderedFrames.size(), is(1));
+        assertThat(renderedFrames.get(0), is("tiles 0 status 1 PLAYER_O"));
+    }
+
+    @Test
+    public void resetGameStateStartsAtTheDefaultSize() {
+        presenter.launchNewTicTacToeGame(true);
+        presenter.incrementBoardSize();
+        GamePresenter.resetGameState();
+        presenter.start();
+        runFrame();
+        assertThat(renderedFrames.get(renderedFrames.size() - 1), is("new 4 tiles status 1 PLAYER_X"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.archive.ArchiveStatistics;
+import com.boxnotfound.tictactoe.model.archive.GameArchiveScanner;
+import com.boxnotfound.tictactoe.model.archive.GameArchiveWriter;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GameArchiveScannerTest {
+
+    /** Enough games to fill several times the blocks scanned by a single task. */
+    private static final int GAME_COUNT = 200000;
+
+    private File archive;
+
+    @Before
+    public void setup() throws IOException {
+        archive = File.createTempFile("games", ".archive");
+    }
+
+    @After
+    public void cleanup() {
+        archive.delete();
+    }
+
+    @Test
+    public void statisticsMatchTheGamesWritten() throws IOException {
+        Random random = new Random(49);
+        long[] games = new long[GameState.MAX_ROW_SIZE + 1];
+        long[] xWins = new long[GameState.MAX_ROW_SIZE + 1];
+        long[] oWins = new long[GameState.MAX_ROW_SIZE + 1];
+        long[] draws = new long[GameState.MAX_ROW_SIZE + 1];
+        long[] moves = new long[GameState.MAX_ROW_SIZE + 1];
+        long[] winTypes = new long[WinConditionType.values().length];
+        byte[] gameMoves = new byte[GameState.MAX_ROW_SIZE * GameState.MAX_ROW_SIZE];
+
+        try (GameArchiveWriter writer = GameArchiveWriter.create(archive)) {
+            for (int game = 0; game < GAME_COUNT; game++) {
+                int rowSize = 4 + random.nextInt(GameState.MAX_ROW_SIZE - 3);
+                WinConditionMasks masks = WinConditionMasks.forRowSize(rowSize);
+                GameState gameState = new GameState(rowSize);
+                int moveCount = 0;
+                // some games are abandoned part way through
+                int abandonAfter = random.nextInt(10) == 0 ? random.nextInt(rowSize * rowSize) : Integer.MAX_VALUE;
+                while (!gameState.isGameOver() && moveCount < abandonAfter) {
+                    int gridIndex;
+                    do {
+                        gridIndex = random.nextInt(rowSize * rowSize);
+                    } while (gameState.getTileStatus(gridIndex) != TileStatus.OPEN);
+                    boolean xMoved = moveCount % 2 == 0;
+                    gameState.applyMove(gridIndex);
+                    gameMoves[moveCount++] = (byte) gridIndex;
+                    int condition = masks.findMetCondition(xMoved ? gameState.getXTiles() : gameState.getOTiles(),
+                            gridIndex);
+                    if (condition != -1) {
+                        gameState.setGameOver(xMoved ? TileStatus.PLAYER_X : TileStatus.PLAYER_O);
+                        (xMoved ? xWins : oWins)[rowSize]++;
+                        winTypes[masks.getType(condition).ordinal()]++;
+                    } else if (moveCount == rowSize * rowSize) {
+                        gameState.setGameOver(TileStatus.OPEN);
+                        draws[rowSize]++;
+                    }
+                }
+                games[rowSize]++;
+                moves[rowSize] += moveCount;
+                writer.append(rowSize, gameMoves, moveCount);
+            }
+            assertThat(writer.getGameCount(), is((long) GAME_COUNT));
+        }
+        assertThat(archive.length() > 20L * 64 * 1024, is(true));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ArchiveStatistics statistics = GameArchiveScanner.scan(archive, pool);
+        pool.shutdown();
+        assertThat(statistics.getGameCount(), is((long) GAME_COUNT));
+        long wins = 0;
+        for (int rowSize = 4; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            assertThat(statistics.getGameCount(rowSize), is(games[rowSize]));
+            assertThat(statistics.getXWinCount(rowSize), is(xWins[rowSize]));
+            assertThat(statistics.getOWinCount(rowSize), is(oWins[rowSize]));
+            assertThat(statistics.getDrawCount(rowSize), is(draws[rowSize]));
+            assertThat(statistics.getAverageMoveCount(rowSize), is((double) moves[rowSize] / games[rowSize]));
+            assertThat(statistics.getFirstMoveAdvantage(rowSize),
+                    is((double) (xWins[rowSize] - oWins[rowSize]) / games[rowSize]));
+            wins += xWins[rowSize] + oWins[rowSize];
+        }
+        for (WinConditionType type : WinConditionType.values()) {
+            assertThat(statistics.getWinCount(type), is(winTypes[type.ordinal()]));
+            assertThat(statistics.getWinShare(type), is((double) winTypes[type.ordinal()] / wins));
+        }
+        assertThat(statistics.getWinCount(WinConditionType.SQUARE) > 0, is(true));
+        assertThat(statistics.getGameCount(3), is(0L));
+    }
+
+    @Test
+    public void emptyArchiveHasNoGames() throws IOException {
+        GameArchiveWriter.create(archive).close();
+        ArchiveStatistics statistics = GameArchiveScanner.scan(archive);
+        assertThat(statistics.getGameCount(), is(0L));
+        assertThat(statistics.getAverageMoveCount(4), is(0.0));
+        assertThat(statistics.getWinShare(WinConditionType.CORNERS), is(0.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void movesOnClaimedTilesAreRejected() throws IOException {
+        try (GameArchiveWriter writer = GameArchiveWriter.create(archive)) {
+            writer.append(4, new byte[]{0, 5, 0}, 3);
+        }
+        GameArchiveScanner.scan(archive);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(archive, "rw")) {
+            file.writeLong(42);
+        }
+        GameArchiveScanner.scan(archive);
+    }
+}
@@ -0,0 +1,80 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.arena.GameArena;
+import com.boxnotfound.tictactoe.model.session.GameSessions;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GameArenaTest {
+
+    private static final int GAME_COUNT = 50000;
+
+    @Test
+    public void arenaMatchesSequentialGames() {
+        for (int rowSize = 4; rowSize <= 8; rowSize++) {
+            int gameBoardSize = rowSize * rowSize;
+            GameArena arena = new GameArena(GAME_COUNT, rowSize);
+            GameSessions gameSessions = new GameSessions(Long.MAX_VALUE, Long.MAX_VALUE, 1000, 64, 0);
+            for (long gameId = 0; gameId < GAME_COUNT; gameId++) {
+                gameSessions.launchNewTicTacToeGame(gameId, rowSize);
+            }
+
+            Random random = new Random(rowSize);
+            byte[] moves = new byte[GAME_COUNT];
+            for (int step = 0; step < gameBoardSize; step++) {
+                for (int game = 0; game < GAME_COUNT; game++) {
+                    // include occupied tiles and skipped games to exercise the ignored moves
+                    moves[game] = random.nextInt(10) == 0 ? GameArena.NO_MOVE : (byte) random.nextInt(gameBoardSize);
+                    if (moves[game] != GameArena.NO_MOVE) {
+                        gameSessions.setPlayerMove(game, moves[game]);
+                    }
+                }
+                arena.step(moves);
+            }
+
+            for (int game = 0; game < GAME_COUNT; game++) {
+                GameState gameState = gameSessions.getGame(game);
+                assertThat(arena.getXTiles(game), is(gameState.getXTiles()));
+                assertThat(arena.getOTiles(game), is(gameState.getOTiles()));
+                assertThat(arena.getMoveCount(game), is(gameState.getMoveCount()));
+                assertThat(arena.getCurrentPlayer(game), is(gameState.getCurrentPlayer()));
+                assertThat(arena.getStatus(game), is(toArenaStatus(gameState)));
+            }
+        }
+    }
+
+    @Test
+    public void movesOffTheBoardAreIgnored() {
+        GameArena arena = new GameArena(3, 4);
+        arena.step(new byte[]{16, 63, 5});
+        arena.step(new byte[]{(byte) 64, 0, 17});
+        assertThat(arena.getXTiles(0), is(0L));
+        assertThat(arena.getMoveCount(0), is(0));
+        assertThat(arena.getCurrentPlayer(0), is(TileStatus.PLAYER_X));
+        assertThat(arena.getXTiles(1), is(1L));
+        assertThat(arena.getMoveCount(1), is(1));
+        assertThat(arena.getXTiles(2), is(1L << 5));
+        assertThat(arena.getOTiles(2), is(0L));
+        assertThat(arena.getCurrentPlayer(2), is(TileStatus.PLAYER_O));
+        assertThat(arena.getStatus(2), is(GameArena.IN_PROGRESS));
+    }
+
+    private static byte toArenaStatus(GameState gameState) {
+        if (!gameState.isGameOver()) {
+            return GameArena.IN_PROGRESS;
+        } else if (gameState.getWinningPlayer() == TileStatus.PLAYER_X) {
+            return GameArena.X_WON;
+        } else if (gameState.getWinningPlayer() == TileStatus.PLAYER_O) {
+            return GameArena.O_WON;
+        } else {
+            return GameArena.DRAW;
+        }
+    }
+}
@@ -71,6 +71,30 @@ public class GameBoardTest {
         }
     }
 
+    @Test
+    public void checkTileListMapsGridIndexToTile() {
+        List<TicTacToeTile> tiles = TicTacToeBoard.getTileList();
+        assertThat(tiles.size(), is(ROW_SIZE * ROW_SIZE));
+        for (int gridIndex = 0; gridIndex < tiles.size(); gridIndex++) {
+            assertThat(tiles.get(gridIndex) == gameBoard[gridIndex / ROW_SIZE][gridIndex % ROW_SIZE], is(true));
+        }
+    }
+
+    @Test
+    public void checkTileListReflectsBoardState() {
+        List<TicTacToeTile> tiles = TicTacToeBoard.getTileList();
+        gameBoard[2][1].setCurrentState(TileStatus.PLAYER_O);
+        assertThat(tiles.get(2 * ROW_SIZE + 1).getCurrentState(), is(TileStatus.PLAYER_O));
+        // resuming the same game reuses the same list
+        TicTacToeBoard.setupTicTacToeBoard(ROW_SIZE, false);
+        assertThat(TicTacToeBoard.getTileList() == tiles, is(true));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void checkTileListIsReadOnly() {
+        TicTacToeBoard.getTileList().set(0, new TicTacToeTile());
+    }
+
     @After
     public void cleanup() {
         gameBoard = null;
@@ -0,0 +1,243 @@
+package com.boxnotfound.tictactoe;
+
+import android.view.Choreographer;
+
+import com.boxnotfound.tictactoe.engine.NegamaxEngine;
+import com.boxnotfound.tictactoe.engine.ProofNumberSearch;
+import com.boxnotfound.tictactoe.engine.ProofResult;
+import com.boxnotfound.tictactoe.engine.SearchControl;
+import com.boxnotfound.tictactoe.game.FrameBatchingView;
+import com.boxnotfound.tictactoe.game.GameContract;
+import com.boxnotfound.tictactoe.game.GamePresenter;
+import com.boxnotfound.tictactoe.game.GameRenderState;
+import com.boxnotfound.tictactoe.metrics.GameEventListener;
+import com.boxnotfound.tictactoe.metrics.GameEvents;
+import com.boxnotfound.tictactoe.metrics.Metrics;
+import com.boxnotfound.tictactoe.metrics.MetricsSnapshot;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.journal.MoveJournal;
+import com.boxnotfound.tictactoe.model.session.GameSessions;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GameEventsTest {
+
+    private static final long MAX_SEARCH_MILLIS = 5000;
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @After
+    public void tearDown() {
+        GameEvents.setListener(null, 0);
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void gameEventsAreDeliveredInOrder() {
+        GameEvents.setListener(listener, GameEvents.ALL);
+        playGame(7);
+        assertThat(listener.events.size(), is(9));
+        assertThat(listener.events.get(0), is("created 7 4"));
+        assertThat(listener.events.get(1).startsWith("move 7 0 PLAYER_X "), is(true));
+        assertThat(listener.events.get(2).startsWith("move 7 4 PLAYER_O "), is(true));
+        assertThat(listener.events.get(7).startsWith("move 7 3 PLAYER_X "), is(true));
+        assertThat(listener.events.get(8), is("over 7 PLAYER_X ROW"));
+    }
+
+    @Test
+    public void onlyEnabledEventsAreDelivered() {
+        playGame(1);
+        assertThat(listener.events.isEmpty(), is(true));
+
+        GameEvents.setListener(listener, GameEvents.GAME_CREATED | GameEvents.GAME_OVER);
+        playGame(2);
+        assertThat(listener.events.size(), is(2));
+        assertThat(listener.events.get(1), is("over 2 PLAYER_X ROW"));
+        assertThat(GameEvents.isEnabled(GameEvents.MOVE), is(false));
+        assertThat(GameEvents.start(GameEvents.SEARCH), is(GameEvents.NOT_TIMED));
+    }
+
+    @Test
+    public void profilesEnableEventTypes() {
+        String profile = "# game timeline\n"
+                + "gameCreated.enabled=true\n"
+                + "move.enabled = true\n"
+                + "\n"
+                + "gameOver.enabled=false  # results are logged elsewhere\n"
+                + "search.enabled=true\n";
+        assertThat(GameEvents.parseProfile(profile),
+                is(GameEvents.GAME_CREATED | GameEvents.MOVE | GameEvents.SEARCH));
+        assertThat(GameEvents.parseProfile(""), is(0));
+        assertThat(GameEvents.parseProfile("move.enabled=true\nmove.enabled=false"), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedProfileIsRejected() {
+        GameEvents.parseProfile("moves.enabled=true");
+    }
+
+    @Test
+    public void searchesAreTimed() {
+        GameEvents.setListener(listener, GameEvents.SEARCH);
+        GameState position = new GameState(4);
+        position.applyMove(0);
+        int move = new NegamaxEngine().chooseMove(position, new SearchControl(MAX_SEARCH_MILLIS));
+        assertThat(move >= 0, is(true));
+        assertThat(listener.events.size(), is(1));
+        assertThat(listener.events.get(0).startsWith("search negamax 4 1 "), is(true));
+
+        ProofResult result = new ProofNumberSearch(16).prove(position, 1000, new SearchControl(MAX_SEARCH_MILLIS));
+        assertThat(listener.events.size(), is(2));
+        assertThat(listener.events.get(1).startsWith("search proofNumber 4 1 " + result.getNodeCount() + " "),
+                is(true));
+    }
+
+    @Test
+    public void journalReplayIsNotEmittedAgain() throws IOException {
+        File journalDirectory = File.createTempFile("journal", "");
+        journalDirectory.delete();
+        MoveJournal journal = MoveJournal.open(journalDirectory, 1);
+        try {
+            // the presenter journals its single game under id 0
+            journal.recordNewGame(0, 4);
+            for (int move : new int[]{0, 4, 1, 5, 2, 6, 3}) {
+                journal.recordMove(0, move);
+            }
+
+            GameEvents.setListener(listener, GameEvents.ALL);
+            Metrics.setEnabled(true);
+            GamePresenter.resetGameState();
+            GamePresenter presenter = createPresenter();
+            presenter.start();
+            // the journal opens after the first game has started, which it then replaces
+            presenter.attachMoveJournal(journal);
+
+            // only the game started before the journal opened was created, the restored one was not
+            assertThat(listener.events.size(), is(1));
+            assertThat(listener.events.get(0), is("created 0 4"));
+            MetricsSnapshot snapshot = Metrics.snapshot();
+            assertThat(snapshot.getCount("presenter.moves"), is(0L));
+            assertThat(snapshot.getCount("presenter.gamesWon"), is(0L));
+            assertThat(Metrics.PRESENTER_CHECK_WIN_CONDITIONS.snapshot().getCount(), is(0L));
+
+            // moves played after the replay are emitted as usual
+            presenter.launchNewTicTacToeGame(true);
+            presenter.setPlayerMove(5);
+            assertThat(listener.events.size(), is(3));
+            assertThat(listener.events.get(1), is("created 0 4"));
+            assertThat(listener.events.get(2).startsWith("move 0 5 PLAYER_X "), is(true));
+            assertThat(Metrics.snapshot().getCount("presenter.moves"), is(1L));
+        } finally {
+            journal.close();
+            File[] files = journalDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            journalDirectory.delete();
+        }
+    }
+
+    @Test
+    public void freshGameIsCreatedOnce() throws IOException {
+        File journalDirectory = File.createTempFile("journal", "");
+        journalDirectory.delete();
+        MoveJournal journal = MoveJournal.open(journalDirectory, 1);
+        try {
+            GameEvents.setListener(listener, GameEvents.ALL);
+            GamePresenter.resetGameState();
+            GamePresenter presenter = createPresenter();
+            presenter.start();
+            // an empty journal records the game already started rather than starting another
+            presenter.attachMoveJournal(journal);
+
+            assertThat(listener.events.size(), is(1));
+            assertThat(listener.events.get(0), is("created 0 4"));
+            assertThat(journal.getGame(0).getRowSize(), is(4));
+        } finally {
+            journal.close();
+            File[] files = journalDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            journalDirectory.delete();
+        }
+    }
+
+    private static GamePresenter createPresenter() {
+        return new GamePresenter(new FrameBatchingView(new GameContract.RenderTarget() {
+            @Override
+            public void renderFrame(@NonNull GameRenderState renderState) {
+            }
+
+            @Override
+            public void setPresenter(@NonNull GameContract.Presenter presenter) {
+            }
+        }, new FrameBatchingView.FrameScheduler() {
+            @Override
+            public void postFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+            }
+
+            @Override
+            public void removeFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+            }
+        }));
+    }
+
+    private static void playGame(final long gameId) {
+        GameSessions gameSessions = new GameSessions(Long.MAX_VALUE, Long.MAX_VALUE, 1000, 16, 0);
+        gameSessions.launchNewTicTacToeGame(gameId, 4);
+        // X claims the top row of a 4 x 4 board while O claims the row below
+        int[] moves = {0, 4, 1, 5, 2, 6, 3};
+        for (int move : moves) {
+            gameSessions.setPlayerMove(gameId, move);
+        }
+    }
+
+    private static class RecordingListener implements GameEventListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onGameCreated(final long gameId, final int rowSize) {
+            events.add("created " + gameId + " " + rowSize);
+        }
+
+        @Override
+        public void onMove(final long gameId, final int gridIndex, final TileStatus player, final long winCheckNanos,
+                           final int conditionsExamined) {
+            assertThat(winCheckNanos >= 0, is(true));
+            assertThat(conditionsExamined > 0, is(true));
+            events.add("move " + gameId + " " + gridIndex + " " + player + " " + conditionsExamined);
+        }
+
+        @Override
+        public void onGameOver(final long gameId, final TileStatus winningPlayer, final WinConditionType winningType) {
+            events.add("over " + gameId + " " + winningPlayer + " " + winningType);
+        }
+
+        @Override
+        public void onSearch(final String searcher, final int rowSize, final int moveCount, final long nodeCount,
+                             final long durationNanos) {
+            assertThat(durationNanos > 0, is(true));
+            events.add("search " + searcher + " " + rowSize + " " + moveCount + " " + nodeCount + " " + durationNanos);
+        }
+    }
+}
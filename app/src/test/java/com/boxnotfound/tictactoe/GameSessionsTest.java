@@ -0,0 +1,89 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.session.GameSessions;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GameSessionsTest {
+
+    private static final long TICK_MILLIS = 100;
+    private static final long TURN_TIMEOUT_MILLIS = 10 * 60 * 1000;
+    private static final long IDLE_TIMEOUT_MILLIS = 60 * 60 * 1000;
+    private GameSessions gameSessions;
+
+    @Before
+    public void setup() {
+        gameSessions = new GameSessions(TURN_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, TICK_MILLIS, 16, 0);
+    }
+
+    @Test
+    public void rowWinEndsGame() {
+        gameSessions.launchNewTicTacToeGame(1, 4);
+        int[] moves = {0, 4, 1, 5, 2, 6, 3};
+        for (int move : moves) {
+            assertThat(gameSessions.setPlayerMove(1, move), is(true));
+        }
+        GameState gameState = gameSessions.getGame(1);
+        assertThat(gameState.isGameOver(), is(true));
+        assertThat(gameState.getWinningPlayer(), is(TileStatus.PLAYER_X));
+        assertThat(gameSessions.setPlayerMove(1, 7), is(false));
+    }
+
+    @Test
+    public void turnTimeoutForfeitsGame() {
+        gameSessions.launchNewTicTacToeGame(1, 4);
+        gameSessions.setPlayerMove(1, 0);
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS - TICK_MILLIS);
+        assertThat(gameSessions.getGame(1).isGameOver(), is(false));
+
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS);
+        GameState gameState = gameSessions.getGame(1);
+        assertThat(gameState.isGameOver(), is(true));
+        assertThat(gameState.getWinningPlayer(), is(TileStatus.PLAYER_X));
+    }
+
+    @Test
+    public void moveResetsTurnTimeout() {
+        gameSessions.launchNewTicTacToeGame(1, 4);
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS / 2);
+        gameSessions.setPlayerMove(1, 0);
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS);
+        assertThat(gameSessions.getGame(1).isGameOver(), is(false));
+
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS / 2 + TURN_TIMEOUT_MILLIS);
+        assertThat(gameSessions.getGame(1).isGameOver(), is(true));
+    }
+
+    @Test
+    public void abandonedGameIsDrawnThenEvicted() {
+        gameSessions.launchNewTicTacToeGame(1, 4);
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS);
+        assertThat(gameSessions.getGame(1).getWinningPlayer(), is(TileStatus.OPEN));
+        assertThat(gameSessions.getExpiredGameCount(), is(1L));
+
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS + IDLE_TIMEOUT_MILLIS);
+        assertThat(gameSessions.getGame(1), nullValue());
+        assertThat(gameSessions.getGameCount(), is(0));
+    }
+
+    @Test
+    public void manyGamesExpireAtTheirOwnDeadlines() {
+        int gameCount = 4000;
+        for (long gameId = 0; gameId < gameCount; gameId++) {
+            gameSessions.advanceTo(gameId * TICK_MILLIS);
+            gameSessions.launchNewTicTacToeGame(gameId, 4 + (int) (gameId % 5));
+        }
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS + (gameCount / 2) * TICK_MILLIS);
+        assertThat(gameSessions.getExpiredGameCount(), is((long) gameCount / 2 + 1));
+
+        gameSessions.advanceTo(TURN_TIMEOUT_MILLIS + IDLE_TIMEOUT_MILLIS + gameCount * TICK_MILLIS);
+        assertThat(gameSessions.getGameCount(), is(0));
+    }
+}
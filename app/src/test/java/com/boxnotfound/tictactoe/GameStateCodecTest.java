@@ -0,0 +1,172 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.GameStateCodec;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class GameStateCodecTest {
+
+    private static final int GAMES_PER_ROW_SIZE = 2000;
+
+    /**
+     * Every position of random games, including won, drawn and forfeited ones, decodes to exactly
+     * the state and winning condition it was encoded from.
+     */
+    @Test
+    public void randomGamesRoundTrip() {
+        Random random = new Random(48);
+        byte[] buffer = new byte[GameStateCodec.MAX_ENCODED_LENGTH + 3];
+        GameState decoded = new GameState(4);
+        for (int rowSize = 4; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            WinConditionMasks masks = WinConditionMasks.forRowSize(rowSize);
+            for (int game = 0; game < GAMES_PER_ROW_SIZE; game++) {
+                GameState gameState = new GameState(rowSize);
+                int winningCondition = GameStateCodec.NO_WINNING_CONDITION;
+                assertRoundTrip(gameState, winningCondition, buffer, random.nextInt(4), decoded);
+                while (!gameState.isGameOver()) {
+                    int gridIndex;
+                    do {
+                        gridIndex = random.nextInt(rowSize * rowSize);
+                    } while (gameState.getTileStatus(gridIndex) != TileStatus.OPEN);
+                    gameState.applyMove(gridIndex);
+                    TileStatus movingPlayer = gameState.getCurrentPlayer() == TileStatus.PLAYER_X
+                            ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+                    long movingPlayerTiles = movingPlayer == TileStatus.PLAYER_X
+                            ? gameState.getXTiles() : gameState.getOTiles();
+                    winningCondition = masks.findMetCondition(movingPlayerTiles, gridIndex);
+                    if (winningCondition != -1) {
+                        gameState.setGameOver(movingPlayer);
+                    } else if (gameState.getMoveCount() == rowSize * rowSize) {
+                        gameState.setGameOver(TileStatus.OPEN);
+                    } else if (random.nextInt(100) == 0) {
+                        // the player to move forfeits
+                        gameState.setGameOver(movingPlayer);
+                    }
+                    assertRoundTrip(gameState, winningCondition, buffer, random.nextInt(4), decoded);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void encodingsAreCompact() {
+        GameState gameState = new GameState(4);
+        assertThat(GameStateCodec.getEncodedLength(gameState), is(7));
+        gameState.reset(8);
+        assertThat(GameStateCodec.getEncodedLength(gameState), is(13));
+        for (int gridIndex = 0; gridIndex < 64; gridIndex++) {
+            gameState.applyMove(gridIndex);
+        }
+        assertThat(GameStateCodec.getEncodedLength(gameState), is(GameStateCodec.MAX_ENCODED_LENGTH));
+        assertThat(GameStateCodec.MAX_ENCODED_LENGTH, is(21));
+    }
+
+    @Test
+    public void consecutiveEncodingsCanBeWalked() {
+        byte[] buffer = new byte[3 * GameStateCodec.MAX_ENCODED_LENGTH];
+        GameState gameState = new GameState(5);
+        int offset = 0;
+        for (int gridIndex = 0; gridIndex < 3; gridIndex++) {
+            gameState.applyMove(gridIndex * 6);
+            offset += GameStateCodec.encode(gameState, GameStateCodec.NO_WINNING_CONDITION, buffer, offset);
+        }
+        GameState decoded = new GameState(4);
+        offset = 0;
+        for (int moveCount = 1; moveCount <= 3; moveCount++) {
+            GameStateCodec.decode(buffer, offset, decoded);
+            assertThat(decoded.getMoveCount(), is(moveCount));
+            assertThat(decoded.getLastMoveIndex(), is((moveCount - 1) * 6));
+            offset += GameStateCodec.getEncodedLength(buffer, offset);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownVersionIsRejected() {
+        byte[] buffer = new byte[GameStateCodec.MAX_ENCODED_LENGTH];
+        GameStateCodec.encode(new GameState(4), GameStateCodec.NO_WINNING_CONDITION, buffer, 0);
+        buffer[0] = GameStateCodec.VERSION + 1;
+        GameStateCodec.decode(buffer, 0, new GameState(4));
+    }
+
+    @Test
+    public void corruptedEncodingsAreRejected() {
+        byte[] buffer = new byte[GameStateCodec.MAX_ENCODED_LENGTH];
+        GameState gameState = new GameState(4);
+        for (int gridIndex : new int[]{0, 4, 1, 5, 2, 6, 3}) {
+            gameState.applyMove(gridIndex);
+        }
+        gameState.setGameOver(TileStatus.PLAYER_X);
+        int length = GameStateCodec.encode(gameState, 0, buffer, 0);
+        GameState decoded = new GameState(6);
+
+        // flipping an occupied tile breaks the move count, flipping a winning tile's owner breaks the win
+        int ownersBit = (5 + 2) * Byte.SIZE;
+        for (int bit = 5 * Byte.SIZE; bit <= ownersBit; bit++) {
+            byte[] corrupted = buffer.clone();
+            corrupted[bit / Byte.SIZE] ^= 1 << (bit % Byte.SIZE);
+            assertRejected(corrupted, decoded);
+        }
+        assertRejected(Arrays.copyOf(buffer, length - 1), decoded);
+        assertThat(decoded.getRowSize(), is(6));
+    }
+
+    @Test
+    public void unheldWinningConditionIsNotEncoded() {
+        byte[] buffer = new byte[GameStateCodec.MAX_ENCODED_LENGTH];
+        GameState gameState = new GameState(4);
+        for (int gridIndex : new int[]{0, 4, 1, 5, 2, 6, 3}) {
+            gameState.applyMove(gridIndex);
+        }
+        gameState.setGameOver(TileStatus.PLAYER_X);
+        // the second row is held by O, not by the winner, so its encoding could never be decoded
+        for (int winningCondition : new int[]{1, -2, WinConditionMasks.forRowSize(4).getConditionCount()}) {
+            try {
+                GameStateCodec.encode(gameState, winningCondition, buffer, 0);
+                assertThat("invalid win condition " + winningCondition + " encoded", false, is(true));
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        gameState.setGameOver(TileStatus.OPEN);
+        try {
+            GameStateCodec.encode(gameState, 0, buffer, 0);
+            assertThat("win condition of a draw encoded", false, is(true));
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertRejected(byte[] buffer, GameState decoded) {
+        try {
+            GameStateCodec.decode(buffer, 0, decoded);
+            assertThat("corrupted game decoded", false, is(true));
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertRoundTrip(GameState gameState, int winningCondition, byte[] buffer, int offset,
+                                        GameState decoded) {
+        int length = GameStateCodec.encode(gameState, winningCondition, buffer, offset);
+        assertThat(length, is(GameStateCodec.getEncodedLength(gameState)));
+        assertThat(GameStateCodec.getEncodedLength(buffer, offset), is(length));
+        assertThat(GameStateCodec.decode(buffer, offset, decoded), is(winningCondition));
+        assertThat(decoded.getRowSize(), is(gameState.getRowSize()));
+        assertThat(decoded.getXTiles(), is(gameState.getXTiles()));
+        assertThat(decoded.getOTiles(), is(gameState.getOTiles()));
+        assertThat(decoded.getLastMoveIndex(), is(gameState.getLastMoveIndex()));
+        assertThat(decoded.getMoveCount(), is(gameState.getMoveCount()));
+        assertThat(decoded.getCurrentPlayer(), is(gameState.getCurrentPlayer()));
+        assertThat(decoded.getWinningPlayer(), is(gameState.getWinningPlayer()));
+        assertThat(decoded.isGameOver(), is(gameState.isGameOver()));
+    }
+}
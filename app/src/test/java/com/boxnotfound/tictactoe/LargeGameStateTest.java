@@ -0,0 +1,129 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.LargeGameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LargeGameStateTest {
+
+    private static final int GAMES_PER_ROW_SIZE = 500;
+
+    @Test
+    public void resultsMatchWinConditionMasks() {
+        Random random = new Random(41);
+        for (int rowSize = 4; rowSize <= 8; rowSize++) {
+            WinConditionMasks masks = WinConditionMasks.forRowSize(rowSize);
+            int gameBoardSize = rowSize * rowSize;
+            for (int game = 0; game < GAMES_PER_ROW_SIZE; game++) {
+                LargeGameState state = new LargeGameState(rowSize);
+                long xTiles = 0;
+                long oTiles = 0;
+                int condition = -1;
+                while (!state.isGameOver()) {
+                    int gridIndex = random.nextInt(gameBoardSize);
+                    TileStatus player = state.getCurrentPlayer();
+                    if (!state.applyMove(gridIndex)) {
+                        continue;
+                    }
+                    long playerTiles;
+                    if (player == TileStatus.PLAYER_X) {
+                        playerTiles = xTiles |= 1L << gridIndex;
+                    } else {
+                        playerTiles = oTiles |= 1L << gridIndex;
+                    }
+                    condition = masks.findMetCondition(playerTiles, gridIndex);
+                    assertThat(state.isGameOver(), is(condition != -1 || state.getMoveCount() == gameBoardSize));
+                }
+
+                if (condition == -1) {
+                    assertThat(state.getWinningPlayer(), is(TileStatus.OPEN));
+                    assertThat(state.getWinningType(), nullValue());
+                    assertThat(state.getWinningGridIndexes().length, is(0));
+                } else {
+                    assertThat(state.getWinningType(), is(masks.getType(condition)));
+                    long winningTiles = 0;
+                    for (int gridIndex : state.getWinningGridIndexes()) {
+                        winningTiles |= 1L << gridIndex;
+                    }
+                    assertThat(winningTiles, is(masks.getMask(condition)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void largestBoardIsWonByRow() {
+        int rowSize = LargeGameState.MAX_ROW_SIZE;
+        LargeGameState state = new LargeGameState(rowSize);
+        for (int col = 0; col < rowSize; col++) {
+            assertThat(state.applyMove(500 * rowSize + col), is(true));
+            if (col < rowSize - 1) {
+                // O fills the top row, one tile short of it
+                assertThat(state.applyMove(col), is(true));
+            }
+        }
+        assertThat(state.isGameOver(), is(true));
+        assertThat(state.getWinningPlayer(), is(TileStatus.PLAYER_X));
+        assertThat(state.getWinningType(), is(WinConditionType.ROW));
+        int[] gridIndexes = state.getWinningGridIndexes();
+        assertThat(gridIndexes.length, is(rowSize));
+        assertThat(gridIndexes[rowSize - 1], is(500 * rowSize + rowSize - 1));
+    }
+
+    @Test
+    public void largestBoardIsWonBySquareAndCorners() {
+        int rowSize = LargeGameState.MAX_ROW_SIZE;
+        int last = rowSize - 1;
+        LargeGameState state = new LargeGameState(rowSize);
+        // X completes the square at 700, 700 with its last move on the top left tile
+        int topLeft = 700 * rowSize + 700;
+        int[] xMoves = {topLeft + 1, topLeft + rowSize, topLeft + rowSize + 1, topLeft};
+        int[] oMoves = {0, last, last * rowSize};
+        for (int i = 0; i < xMoves.length; i++) {
+            state.applyMove(xMoves[i]);
+            if (i < oMoves.length) {
+                state.applyMove(oMoves[i]);
+            }
+        }
+        assertThat(state.getWinningType(), is(WinConditionType.SQUARE));
+        assertThat(state.getWinningGridIndexes()[0], is(topLeft));
+        assertThat(state.applyMove(last * rowSize + last), is(false));
+
+        state = new LargeGameState(rowSize);
+        int[] cornerMoves = {0, 5, last, 6, last * rowSize, 7, last * rowSize + last};
+        for (int move : cornerMoves) {
+            state.applyMove(move);
+        }
+        assertThat(state.getWinningType(), is(WinConditionType.CORNERS));
+        assertThat(state.getWinningPlayer(), is(TileStatus.PLAYER_X));
+    }
+
+    @Test
+    public void claimedTilesCannotBeClaimedAgain() {
+        LargeGameState state = new LargeGameState(100);
+        assertThat(state.applyMove(4321), is(true));
+        assertThat(state.applyMove(4321), is(false));
+        assertThat(state.getTileStatus(4321), is(TileStatus.PLAYER_X));
+        assertThat(state.getTileStatus(4322), is(TileStatus.OPEN));
+        assertThat(state.getCurrentPlayer(), is(TileStatus.PLAYER_O));
+    }
+
+    @Test
+    public void movesOffTheBoardAreRejected() {
+        LargeGameState state = new LargeGameState(100);
+        assertThat(state.applyMove(-1), is(false));
+        assertThat(state.applyMove(100 * 100), is(false));
+        assertThat(state.applyMove(Integer.MAX_VALUE), is(false));
+        assertThat(state.getMoveCount(), is(0));
+        assertThat(state.getCurrentPlayer(), is(TileStatus.PLAYER_X));
+    }
+}
@@ -0,0 +1,112 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.load.LoadGenerator;
+import com.boxnotfound.tictactoe.load.LoadReport;
+import com.boxnotfound.tictactoe.metrics.LatencyHistogram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void playersPlayFullGames() throws InterruptedException {
+        AtomicInteger thinkCount = new AtomicInteger();
+        LoadGenerator loadGenerator = new LoadGenerator(4, 0, 0, 47, nanos -> thinkCount.incrementAndGet());
+        LoadReport report = loadGenerator.run(4, 20, 200);
+        assertThat(report.getPlayerCount(), is(4));
+        // a 4 x 4 game cannot take fewer than 7 moves or more than 16, and each player may be
+        // part way through a game when measuring starts and stops
+        assertThat(report.getGameCount() * 7 <= report.getMoveCount() + 4 * 16, is(true));
+        assertThat(report.getGameCount() * 16 + 4 * 16 >= report.getMoveCount(), is(true));
+        assertThat(report.getMoveLatency().getCount(), is(report.getMoveCount()));
+        assertThat(report.getCorrectedMoveLatency().getCount() >= report.getMoveCount(), is(true));
+        assertThat(report.getMovesPerSecond(), is(report.getMoveCount() * 1e9 / report.getDurationNanos()));
+        assertThat(report.toString().startsWith("players=4 moves/s="), is(true));
+        // players without a think time never wait
+        assertThat(thinkCount.get(), is(0));
+    }
+
+    @Test
+    public void thinkTimeIsTakenBeforeEveryMove() throws InterruptedException {
+        long medianThinkNanos = TimeUnit.MILLISECONDS.toNanos(5);
+        Map<String, List<Long>> thinkTimes = new HashMap<>();
+        LoadGenerator loadGenerator = new LoadGenerator(4, medianThinkNanos, 0.5, 47, nanos -> {
+            // the think times are recorded rather than waited out, so the run does not depend on the clock
+            synchronized (thinkTimes) {
+                String player = Thread.currentThread().getName();
+                if (!thinkTimes.containsKey(player)) {
+                    thinkTimes.put(player, new ArrayList<>());
+                }
+                thinkTimes.get(player).add(nanos);
+            }
+        });
+        LoadReport report = loadGenerator.run(2, 20, 100);
+
+        long thinkCount = 0;
+        synchronized (thinkTimes) {
+            for (List<Long> times : thinkTimes.values()) {
+                thinkCount += times.size();
+            }
+            assertThat(thinkCount >= report.getMoveCount(), is(true));
+
+            // the first player, with game id 1, draws its think times and moves from the seed 47,
+            // a think time before each move, and the first 7 moves of its first game choose among
+            // 16, 15, 14 and so on open tiles, whatever the timing of the run
+            List<Long> times = thinkTimes.get("LoadGenerator-player-1");
+            Random random = new Random(47);
+            for (int move = 0; move < 7 && move < times.size(); move++) {
+                long expected = (long) (medianThinkNanos * Math.exp(0.5 * random.nextGaussian()));
+                random.nextInt(16 - move);
+                assertThat(times.get(move), is(expected));
+            }
+        }
+    }
+
+    @Test
+    public void stallsAreCorrectedForCoordinatedOmission() {
+        LatencyHistogram uncorrected = new LatencyHistogram("uncorrected");
+        LatencyHistogram corrected = new LatencyHistogram("corrected");
+        long interval = TimeUnit.MILLISECONDS.toNanos(1);
+        // 99 fast moves, then a single stall of 100 intervals, during which 99 moves were held up
+        for (int i = 0; i < 99; i++) {
+            uncorrected.recordValue(interval / 10);
+            corrected.recordValueWithExpectedInterval(interval / 10, interval);
+        }
+        uncorrected.recordValue(100 * interval);
+        corrected.recordValueWithExpectedInterval(100 * interval, interval);
+
+        assertThat(uncorrected.snapshot().getCount(), is(100L));
+        assertThat(uncorrected.snapshot().getValueAtPercentile(90) < interval, is(true));
+        assertThat(corrected.snapshot().getCount(), is(199L));
+        assertThat(corrected.snapshot().getValueAtPercentile(90) > 50 * interval, is(true));
+        assertThat(corrected.snapshot().getMaxNanos(), is(100 * interval));
+    }
+
+    @Test
+    public void rampStopsAtTheLatencyLimit() throws InterruptedException {
+        LoadGenerator loadGenerator = new LoadGenerator(4, 0, 0, 47);
+        List<LoadReport> reports = loadGenerator.ramp(1, 8, 10, 50, Long.MAX_VALUE);
+        assertThat(reports.size(), is(4));
+        assertThat(reports.get(3).getPlayerCount(), is(8));
+
+        // no run can stay within a limit of 0, so the ramp stops after the first
+        reports = loadGenerator.ramp(1, 8, 10, 50, 0);
+        assertThat(reports.size(), is(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeThinkTimeIsRejected() {
+        new LoadGenerator(4, -1, 0, 47);
+    }
+}
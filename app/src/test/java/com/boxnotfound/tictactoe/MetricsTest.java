@@ -0,0 +1,150 @@
+package com.boxnotfound.tictactoe;
+
+import android.view.Choreographer;
+
+import com.boxnotfound.tictactoe.game.FrameBatchingView;
+import com.boxnotfound.tictactoe.game.GameContract;
+import com.boxnotfound.tictactoe.game.GamePresenter;
+import com.boxnotfound.tictactoe.game.GameRenderState;
+import com.boxnotfound.tictactoe.metrics.LatencyHistogram;
+import com.boxnotfound.tictactoe.metrics.Metrics;
+import com.boxnotfound.tictactoe.metrics.MetricsSnapshot;
+import com.boxnotfound.tictactoe.model.TicTacToeBoard;
+import com.boxnotfound.tictactoe.model.session.GameSessions;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import androidx.annotation.NonNull;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MetricsTest {
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void gamesAreRecordedOnlyWhileEnabled() {
+        playGame();
+        MetricsSnapshot snapshot = Metrics.snapshot();
+        assertThat(snapshot.getCount("sessions.moves"), is(0L));
+        assertThat(Metrics.SESSIONS_SET_PLAYER_MOVE.snapshot().getCount(), is(0L));
+
+        Metrics.setEnabled(true);
+        playGame();
+        snapshot = Metrics.snapshot();
+        // X claims the top row of a 4 x 4 board while O claims the row below
+        assertThat(snapshot.getCount("sessions.moves"), is(7L));
+        assertThat(snapshot.getCount("sessions.gamesWon"), is(1L));
+        // neither creates win condition objects, both check the masks loaded once per row size
+        assertThat(snapshot.getCount("winConditionsCreated"), is(0L));
+        assertThat(snapshot.getCount("sessions.gamesDrawn"), is(0L));
+        assertThat(snapshot.getCount("sessions.conditionsExamined") > 7, is(true));
+        assertThat(Metrics.SESSIONS_SET_PLAYER_MOVE.snapshot().getCount(), is(7L));
+        assertThat(Metrics.SESSIONS_CHECK_WIN_CONDITIONS.snapshot().getCount(), is(7L));
+        assertThat(Metrics.SESSIONS_LAUNCH_NEW_GAME.snapshot().getCount(), is(1L));
+
+        WinConditionUtils.generateWinConditionsFromTicTacToeBoard(TicTacToeBoard.setupTicTacToeBoard(4, true));
+        assertThat(Metrics.GENERATE_WIN_CONDITIONS.snapshot().getCount(), is(1L));
+        assertThat(Metrics.snapshot().getCount("winConditionsCreated"),
+                is((long) WinConditionMasks.forRowSize(4).getConditionCount()));
+    }
+
+    @Test
+    public void presenterAndSessionsAreRecordedSeparately() {
+        Metrics.setEnabled(true);
+        playGame();
+        GamePresenter.resetGameState();
+        GamePresenter presenter = new GamePresenter(new FrameBatchingView(new GameContract.RenderTarget() {
+            @Override
+            public void renderFrame(@NonNull GameRenderState renderState) {
+            }
+
+            @Override
+            public void setPresenter(@NonNull GameContract.Presenter presenter) {
+            }
+        }, new FrameBatchingView.FrameScheduler() {
+            @Override
+            public void postFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+            }
+
+            @Override
+            public void removeFrameCallback(@NonNull Choreographer.FrameCallback frameCallback) {
+            }
+        }));
+        presenter.launchNewTicTacToeGame(true);
+        presenter.setPlayerMove(0);
+        presenter.setPlayerMove(4);
+        // showing the same game again, as after a rotation, is not a new game
+        presenter.start();
+
+        MetricsSnapshot snapshot = Metrics.snapshot();
+        assertThat(snapshot.getCount("presenter.moves"), is(2L));
+        assertThat(snapshot.getCount("presenter.gamesWon"), is(0L));
+        assertThat(snapshot.getCount("sessions.moves"), is(7L));
+        assertThat(snapshot.getCount("sessions.gamesWon"), is(1L));
+        assertThat(Metrics.PRESENTER_SET_PLAYER_MOVE.snapshot().getCount(), is(2L));
+        assertThat(Metrics.PRESENTER_CHECK_WIN_CONDITIONS.snapshot().getCount(), is(2L));
+        assertThat(Metrics.PRESENTER_LAUNCH_NEW_GAME.snapshot().getCount(), is(1L));
+        assertThat(Metrics.SESSIONS_SET_PLAYER_MOVE.snapshot().getCount(), is(7L));
+        assertThat(Metrics.PRESENTER_MOVE_HEATMAP.snapshot(60 * 1000).getMoveCount(4), is(2L));
+        assertThat(Metrics.PRESENTER_MOVE_HEATMAP.snapshot(60 * 1000).getCount(4, 1, 4), is(1L));
+        assertThat(Metrics.SESSIONS_MOVE_HEATMAP.snapshot(60 * 1000).getMoveCount(4), is(7L));
+    }
+
+    @Test
+    public void percentilesAreWithinHistogramPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long value = 1; value <= 100000; value++) {
+            histogram.recordValue(value);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount(), is(100000L));
+        assertThat(snapshot.getMaxNanos(), is(100000L));
+        assertWithinPrecision(snapshot.getValueAtPercentile(50), 50000);
+        assertWithinPrecision(snapshot.getValueAtPercentile(99), 99000);
+        assertWithinPrecision(snapshot.getValueAtPercentile(99.9), 99900);
+        assertThat(snapshot.getValueAtPercentile(100), is(100000L));
+        assertThat(histogram.snapshot().getValueAtPercentile(0), is(1L));
+        histogram.recordValue(Long.MAX_VALUE);
+        assertThat(histogram.snapshot().getValueAtPercentile(100), is(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void snapshotsExportAsTextAndJson() {
+        Metrics.setEnabled(true);
+        playGame();
+        MetricsSnapshot snapshot = Metrics.snapshot();
+        String json = snapshot.toJson();
+        assertThat(json.startsWith("{\"histograms\":{\"presenter.setPlayerMove\":{\"count\":0,"), is(true));
+        assertThat(json.contains("\"sessions.setPlayerMove\":{\"count\":7,"), is(true));
+        assertThat(json.contains("\"counters\":{\"presenter.moves\":0,"), is(true));
+        assertThat(json.contains("\"sessions.moves\":7,"), is(true));
+        assertThat(json.contains("\"p999\":"), is(true));
+        assertThat(json.endsWith("}}"), is(true));
+        String text = snapshot.toString();
+        assertThat(text.contains("sessions.checkWinConditions"), is(true));
+        // a line per histogram, then a line per counter
+        assertThat(text.split("\n").length, is(snapshot.getHistograms().size() + 9));
+    }
+
+    private static void assertWithinPrecision(long actual, long expected) {
+        assertThat(actual + " vs " + expected, Math.abs(actual - expected) <= expected / 16, is(true));
+    }
+
+    private static void playGame() {
+        GameSessions gameSessions = new GameSessions(Long.MAX_VALUE, Long.MAX_VALUE, 1000, 16, 0);
+        gameSessions.launchNewTicTacToeGame(0, 4);
+        int[] moves = {0, 4, 1, 5, 2, 6, 3};
+        for (int move : moves) {
+            gameSessions.setPlayerMove(0, move);
+        }
+    }
+}
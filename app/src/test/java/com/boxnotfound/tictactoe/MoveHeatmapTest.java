@@ -0,0 +1,144 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.metrics.Metrics;
+import com.boxnotfound.tictactoe.metrics.MoveHeatmap;
+import com.boxnotfound.tictactoe.model.session.GameSessions;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MoveHeatmapTest {
+
+    private static final long SLOT_MILLIS = 1000;
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void sessionMovesAreCountedPerMoveNumber() {
+        Metrics.setEnabled(true);
+        GameSessions gameSessions = new GameSessions(Long.MAX_VALUE, Long.MAX_VALUE, 1000, 16, 0);
+        gameSessions.launchNewTicTacToeGame(0, 4);
+        gameSessions.launchNewTicTacToeGame(1, 5);
+        for (int move : new int[]{0, 4, 1, 5, 2, 6, 3}) {
+            gameSessions.setPlayerMove(0, move);
+        }
+        gameSessions.setPlayerMove(1, 12);
+        // an invalid move is not counted
+        gameSessions.setPlayerMove(1, 12);
+
+        MoveHeatmap.Snapshot snapshot = Metrics.SESSIONS_MOVE_HEATMAP.snapshot(60 * 1000);
+        assertThat(snapshot.getMoveCount(4), is(7L));
+        assertThat(snapshot.getMoveCount(5), is(1L));
+        assertThat(snapshot.getMoveCount(6), is(0L));
+        assertThat(snapshot.getCount(4, 0, 0), is(1L));
+        assertThat(snapshot.getCount(4, 1, 4), is(1L));
+        assertThat(snapshot.getCount(4, 1, 0), is(0L));
+        assertThat(snapshot.getCount(5, 0, 12), is(1L));
+        assertThat(snapshot.getTileCounts(4, 6)[3], is(1L));
+        assertThat(snapshot.getTileCounts(4, -1)[5], is(1L));
+        // the presenter's moves are counted on a clock of their own
+        assertThat(Metrics.PRESENTER_MOVE_HEATMAP.snapshot(60 * 1000).getMoveCount(4), is(0L));
+    }
+
+    @Test
+    public void movesAreDroppedWithoutMetrics() {
+        GameSessions gameSessions = new GameSessions(Long.MAX_VALUE, Long.MAX_VALUE, 1000, 16, 0);
+        gameSessions.launchNewTicTacToeGame(0, 4);
+        gameSessions.setPlayerMove(0, 0);
+        assertThat(Metrics.SESSIONS_MOVE_HEATMAP.snapshot(60 * 1000).getMoveCount(4), is(0L));
+    }
+
+    @Test
+    public void snapshotsAreTakenRelativeToTheirTime() {
+        MoveHeatmap heatmap = new MoveHeatmap(SLOT_MILLIS, 5);
+        heatmap.advanceTo(10 * SLOT_MILLIS);
+        heatmap.recordMove(4, 0, 0);
+        assertThat(heatmap.getSlotMillis(), is(SLOT_MILLIS));
+
+        // the tick has not moved the slot on yet, but a window ending later leaves the move out
+        assertThat(heatmap.snapshot(10 * SLOT_MILLIS + 10, SLOT_MILLIS).getMoveCount(4), is(1L));
+        assertThat(heatmap.snapshot(11 * SLOT_MILLIS + 10, 2 * SLOT_MILLIS).getMoveCount(4), is(1L));
+        assertThat(heatmap.snapshot(11 * SLOT_MILLIS + 10, SLOT_MILLIS).getMoveCount(4), is(0L));
+        assertThat(heatmap.snapshot(20 * SLOT_MILLIS, Long.MAX_VALUE).getMoveCount(4), is(0L));
+        // nor does a window ending before the move include it
+        assertThat(heatmap.snapshot(9 * SLOT_MILLIS, Long.MAX_VALUE).getMoveCount(4), is(0L));
+    }
+
+    @Test
+    public void windowsSlideWithTime() {
+        MoveHeatmap heatmap = new MoveHeatmap(SLOT_MILLIS, 5);
+        heatmap.recordMove(4, 0, 0);
+        heatmap.advanceTo(SLOT_MILLIS);
+        heatmap.recordMove(4, 0, 1);
+        heatmap.recordMove(4, 0, 1);
+        heatmap.advanceTo(3 * SLOT_MILLIS + 10);
+        heatmap.recordMove(4, 0, 2);
+
+        assertThat(heatmap.snapshot(SLOT_MILLIS).getMoveCount(4), is(1L));
+        assertThat(heatmap.snapshot(3 * SLOT_MILLIS).getMoveCount(4), is(3L));
+        assertThat(heatmap.snapshot(Long.MAX_VALUE).getMoveCount(4), is(4L));
+        assertThat(heatmap.snapshot(Long.MAX_VALUE).getWindowMillis(), is(5 * SLOT_MILLIS));
+
+        // time never moves backwards
+        heatmap.advanceTo(0);
+        assertThat(heatmap.snapshot(SLOT_MILLIS).getCount(4, 0, 2), is(1L));
+
+        // once the ring comes around, the oldest slot is reused and its moves are gone
+        heatmap.advanceTo(5 * SLOT_MILLIS);
+        heatmap.recordMove(4, 0, 3);
+        MoveHeatmap.Snapshot snapshot = heatmap.snapshot(Long.MAX_VALUE);
+        assertThat(snapshot.getCount(4, 0, 0), is(0L));
+        assertThat(snapshot.getMoveCount(4), is(4L));
+
+        heatmap.reset();
+        assertThat(heatmap.snapshot(Long.MAX_VALUE).getMoveCount(4), is(0L));
+        heatmap.recordMove(4, 0, 3);
+        assertThat(heatmap.snapshot(Long.MAX_VALUE).getMoveCount(4), is(1L));
+    }
+
+    @Test
+    public void concurrentWritersAreMergedOnRead() throws InterruptedException {
+        final MoveHeatmap heatmap = new MoveHeatmap(SLOT_MILLIS, 5);
+        final int threadCount = 4;
+        final int movesPerThread = 200000;
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final int rowSize = 5 + t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < movesPerThread; i++) {
+                        heatmap.recordMove(rowSize, i % (rowSize * rowSize), i % rowSize);
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        // snapshots never stop the writers, and never see more than has been written
+        while (done.getCount() > 0) {
+            MoveHeatmap.Snapshot snapshot = heatmap.snapshot(Long.MAX_VALUE);
+            assertThat(snapshot.getMoveCount(5) <= movesPerThread, is(true));
+        }
+        MoveHeatmap.Snapshot snapshot = heatmap.snapshot(Long.MAX_VALUE);
+        for (int rowSize = 5; rowSize < 5 + threadCount; rowSize++) {
+            assertThat(snapshot.getMoveCount(rowSize), is((long) movesPerThread));
+        }
+    }
+
+    @Test
+    public void snapshotsExportAsJson() {
+        MoveHeatmap heatmap = new MoveHeatmap(SLOT_MILLIS, 5);
+        heatmap.recordMove(2, 1, 3);
+        String json = heatmap.snapshot(SLOT_MILLIS).toJson();
+        assertThat(json, is("{\"windowMillis\":1000,\"rowSizes\":{\"2\":[[0,0,0,0],[0,0,0,1],[0,0,0,0],[0,0,0,0]]}}"));
+    }
+}
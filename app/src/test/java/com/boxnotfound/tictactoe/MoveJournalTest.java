@@ -0,0 +1,154 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.journal.JournaledGame;
+import com.boxnotfound.tictactoe.model.journal.MoveJournal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MoveJournalTest {
+
+    private static final int SHARD_COUNT = 4;
+    private File journalDirectory;
+    private MoveJournal journal;
+
+    @Before
+    public void setup() throws IOException {
+        journalDirectory = File.createTempFile("journal", "");
+        journalDirectory.delete();
+        journal = MoveJournal.open(journalDirectory, SHARD_COUNT);
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        journal.close();
+        File[] files = journalDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        journalDirectory.delete();
+    }
+
+    private void reopen() throws IOException {
+        journal.close();
+        journal = MoveJournal.open(journalDirectory, SHARD_COUNT);
+    }
+
+    @Test
+    public void recoverGameFromJournal() throws IOException {
+        journal.recordNewGame(7, 5);
+        journal.recordMove(7, 12);
+        journal.recordMove(7, 0);
+        reopen();
+
+        JournaledGame game = journal.getGame(7);
+        assertThat(game, notNullValue());
+        assertThat(game.getRowSize(), is(5));
+        assertThat(game.getMoveCount(), is(2));
+        assertThat(game.getMove(0), is(12));
+        assertThat(game.getMove(1), is(0));
+    }
+
+    @Test
+    public void recoverGameFromSnapshotAndJournal() throws IOException {
+        journal.recordNewGame(1, 4);
+        journal.recordMove(1, 3);
+        journal.snapshot();
+        journal.recordMove(1, 9);
+        reopen();
+
+        JournaledGame game = journal.getGame(1);
+        assertThat(game.getMoveCount(), is(2));
+        assertThat(game.getMove(0), is(3));
+        assertThat(game.getMove(1), is(9));
+    }
+
+    @Test
+    public void newGameReplacesPreviousGame() throws IOException {
+        journal.recordNewGame(1, 4);
+        journal.recordMove(1, 3);
+        journal.recordNewGame(1, 6);
+        reopen();
+
+        JournaledGame game = journal.getGame(1);
+        assertThat(game.getRowSize(), is(6));
+        assertThat(game.getMoveCount(), is(0));
+    }
+
+    @Test
+    public void endedGameIsNotRecovered() throws IOException {
+        journal.recordNewGame(2, 4);
+        journal.recordMove(2, 3);
+        journal.recordGameEnded(2);
+        reopen();
+
+        assertThat(journal.getGame(2), nullValue());
+        assertThat(journal.getActiveGames().size(), is(0));
+    }
+
+    @Test
+    public void corruptedGamesAreDropped() throws IOException {
+        journal.recordNewGame(1, 4);
+        journal.recordMove(1, 3);
+        journal.recordNewGame(2, 4);
+        journal.recordMove(2, 3);
+        journal.recordMove(2, 3);
+        journal.recordNewGame(3, 4);
+        journal.recordMove(3, 16);
+        journal.recordNewGame(4, -4);
+        journal.recordNewGame(5, 9);
+        journal.snapshot();
+        reopen();
+
+        assertThat(journal.getActiveGames().size(), is(1));
+        assertThat(journal.getGame(1).getMove(0), is(3));
+        journal.recordMove(1, -1);
+        assertThat(journal.getGame(1), nullValue());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedSnapshotIsRejected() throws IOException {
+        journal.recordNewGame(1, 4);
+        journal.recordMove(1, 3);
+        journal.snapshot();
+        journal.close();
+        try (RandomAccessFile snapshot = new RandomAccessFile(new File(journalDirectory, "snapshot"), "rw")) {
+            snapshot.setLength(snapshot.length() - 1);
+        }
+        journal = MoveJournal.open(journalDirectory, SHARD_COUNT);
+    }
+
+    @Test
+    public void recoverManyGamesAcrossAutomaticSnapshots() throws IOException {
+        // about 80000 records per shard, enough to fill every shard once
+        int gameCount = 60000;
+        for (long gameId = 0; gameId < gameCount; gameId++) {
+            journal.recordNewGame(gameId, 8);
+            for (int move = 0; move < 4; move++) {
+                journal.recordMove(gameId, (int) ((gameId + move) % 64));
+            }
+            if (gameId % 3 == 0) {
+                journal.recordGameEnded(gameId);
+            }
+        }
+        assertThat(new File(journalDirectory, "snapshot").isFile(), is(true));
+        reopen();
+
+        assertThat(journal.getActiveGames().size(), is(gameCount - (gameCount + 2) / 3));
+        JournaledGame game = journal.getGame(gameCount - 2);
+        assertThat(game.getMoveCount(), is(4));
+        assertThat(game.getMove(3), is((gameCount + 1) % 64));
+    }
+}
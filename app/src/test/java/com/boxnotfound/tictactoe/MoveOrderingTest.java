@@ -0,0 +1,144 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.engine.GridMoveOrdering;
+import com.boxnotfound.tictactoe.engine.HeuristicMoveOrdering;
+import com.boxnotfound.tictactoe.engine.MoveOrdering;
+import com.boxnotfound.tictactoe.engine.NegamaxEngine;
+import com.boxnotfound.tictactoe.engine.SearchControl;
+import com.boxnotfound.tictactoe.engine.TranspositionTable;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import org.junit.Test;
+
+import java.util.function.Supplier;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MoveOrderingTest {
+
+    /** The openings of the benchmark games, each played out by the engine against itself. */
+    private static final int[][] BENCHMARK_OPENINGS = {
+            {5, 10},
+            {0, 15},
+            {6},
+    };
+
+    /**
+     * Create a search control without a deadline, so every search runs to completion and the node
+     * counts do not depend on the speed of the machine.
+     */
+    private static SearchControl unlimitedSearch() {
+        return new SearchControl(0) {
+            @Override
+            public boolean shouldStop() {
+                return false;
+            }
+        };
+    }
+
+    private static GameState createPosition(final int rowSize, final int... moves) {
+        GameState position = new GameState(rowSize);
+        for (int move : moves) {
+            position.applyMove(move);
+        }
+        return position;
+    }
+
+    /**
+     * Play every benchmark game to its end, with one engine making every move.
+     * @return The total number of nodes searched.
+     */
+    private static long countNodes(final Supplier<MoveOrdering> moveOrderingSupplier) {
+        WinConditionMasks masks = WinConditionMasks.forRowSize(4);
+        long nodeCount = 0;
+        for (int[] opening : BENCHMARK_OPENINGS) {
+            NegamaxEngine engine = new NegamaxEngine(new TranspositionTable(18), moveOrderingSupplier.get());
+            GameState position = createPosition(4, opening);
+            while (!position.isGameOver()) {
+                TileStatus player = position.getCurrentPlayer();
+                int move = engine.chooseMove(position, unlimitedSearch());
+                nodeCount += engine.getNodeCount();
+                position.applyMove(move);
+                long playerTiles = player == TileStatus.PLAYER_X ? position.getXTiles() : position.getOTiles();
+                if (masks.findMetCondition(playerTiles, move) != -1) {
+                    position.setGameOver(player);
+                } else if (position.getMoveCount() == 16) {
+                    position.setGameOver(TileStatus.OPEN);
+                }
+            }
+        }
+        return nodeCount;
+    }
+
+    @Test
+    public void heuristicOrderingSearchesFewerNodes() {
+        long gridNodeCount = countNodes(GridMoveOrdering::new);
+        long heuristicNodeCount = countNodes(HeuristicMoveOrdering::new);
+        // 431375 against 777445 nodes at the time of writing, about 45% fewer; at least 40% fewer
+        assertThat(heuristicNodeCount * 5 < gridNodeCount * 3, is(true));
+    }
+
+    @Test
+    public void hashMoveWinsAndBlocksComeFirst() {
+        ThreatIndex threatIndex = new ThreatIndex(4);
+        // X threatens 3 through the top row, O threatens 7 through the second row
+        long xTiles = 1L | 1L << 1 | 1L << 2;
+        long oTiles = 1L << 4 | 1L << 5 | 1L << 6;
+        threatIndex.set(xTiles, oTiles);
+        long openTiles = ~(xTiles | oTiles) & 0xFFFFL;
+
+        int[] moves = new int[16];
+        HeuristicMoveOrdering moveOrdering = new HeuristicMoveOrdering();
+        moveOrdering.newSearch(4);
+        int count = moveOrdering.orderMoves(moves, openTiles, 12, TileStatus.PLAYER_X, threatIndex, 0);
+        assertThat(count, is(10));
+        assertThat(moves[0], is(12));
+        assertThat(moves[1], is(3));
+        assertThat(moves[2], is(7));
+    }
+
+    @Test
+    public void historyFollowsCutoffs() {
+        ThreatIndex threatIndex = new ThreatIndex(4);
+        int[] moves = new int[16];
+        HeuristicMoveOrdering moveOrdering = new HeuristicMoveOrdering();
+        moveOrdering.newSearch(4);
+        moveOrdering.onCutoff(9, TileStatus.PLAYER_O, 3, 8);
+        moveOrdering.onCutoff(14, TileStatus.PLAYER_O, 5, 6);
+
+        // 9 has the better history, and 14 is still ahead of the central tiles
+        moveOrdering.orderMoves(moves, 0xFFFFL, -1, TileStatus.PLAYER_O, threatIndex, 3);
+        assertThat(moves[0], is(9));
+        assertThat(moves[1], is(14));
+
+        // history is kept per player, so X ranks the central tiles first, in grid order
+        moveOrdering.orderMoves(moves, 0xFFFFL, -1, TileStatus.PLAYER_X, threatIndex, 4);
+        assertThat(moves[0], is(5));
+        assertThat(moves[1], is(6));
+
+        // aged history still ranks 9 and 14 first
+        moveOrdering.newSearch(4);
+        moveOrdering.orderMoves(moves, 0xFFFFL, -1, TileStatus.PLAYER_O, threatIndex, 5);
+        assertThat(moves[0], is(9));
+        assertThat(moves[1], is(14));
+    }
+
+    @Test
+    public void orderingsChooseEquallyGoodMoves() {
+        int[][] games = {{5, 10}, {0, 15, 5}, {5, 6, 9}, {0, 5, 10, 15}, {1, 6, 11, 4}, {3, 12, 6, 9, 0}};
+        for (int[] moves : games) {
+            GameState position = createPosition(4, moves);
+            NegamaxEngine gridEngine = new NegamaxEngine(new TranspositionTable(16), new GridMoveOrdering());
+            int gridMove = gridEngine.chooseMove(position, unlimitedSearch());
+            NegamaxEngine heuristicEngine = new NegamaxEngine(new TranspositionTable(16), new HeuristicMoveOrdering());
+            int heuristicMove = heuristicEngine.chooseMove(position, unlimitedSearch());
+            assertThat(gridEngine.getScore(), is(heuristicEngine.getScore()));
+            assertThat(gridMove >= 0, is(true));
+            assertThat(heuristicMove >= 0, is(true));
+        }
+    }
+}
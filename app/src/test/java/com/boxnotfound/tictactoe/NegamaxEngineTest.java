@@ -0,0 +1,105 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.engine.NegamaxEngine;
+import com.boxnotfound.tictactoe.engine.SearchControl;
+import com.boxnotfound.tictactoe.engine.TranspositionTable;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NegamaxEngineTest {
+
+    private static final long MAX_SEARCH_MILLIS = 5000;
+    private NegamaxEngine engine;
+
+    @Before
+    public void setup() {
+        engine = new NegamaxEngine();
+    }
+
+    private static GameState createPosition(final int rowSize, final int... moves) {
+        GameState position = new GameState(rowSize);
+        for (int move : moves) {
+            position.applyMove(move);
+        }
+        return position;
+    }
+
+    @Test
+    public void takesWinningMove() {
+        // X holds 0, 1 and 2 of the top row
+        GameState position = createPosition(4, 0, 8, 1, 9, 2, 15);
+        assertThat(engine.chooseMove(position, new SearchControl(MAX_SEARCH_MILLIS)), is(3));
+    }
+
+    @Test
+    public void blocksLosingMove() {
+        // O holds 4, 5 and 6 of the second row, and X has no win of its own
+        GameState position = createPosition(4, 0, 4, 15, 5, 10, 6);
+        assertThat(engine.chooseMove(position, new SearchControl(MAX_SEARCH_MILLIS)), is(7));
+    }
+
+    @Test
+    public void completesSquare() {
+        // O holds 5, 6 and 9 of the square 5, 6, 9, 10, while X holds three corners and meets no
+        // condition, so O must win now rather than block the last corner
+        GameState position = createPosition(4, 0, 5, 3, 6, 14, 9, 12);
+        WinConditionMasks masks = WinConditionMasks.forRowSize(4);
+        for (int gridIndex : new int[]{0, 3, 14, 12}) {
+            assertThat(masks.findMetCondition(position.getXTiles(), gridIndex), is(-1));
+        }
+        assertThat(engine.chooseMove(position, new SearchControl(MAX_SEARCH_MILLIS)), is(10));
+    }
+
+    @Test
+    public void stoppedSearchStillChoosesMove() {
+        GameState position = createPosition(4);
+        int move = engine.chooseMove(position, new SearchControl(0));
+        assertThat(move >= 0 && move < 16, is(true));
+    }
+
+    @Test
+    public void finishedGameHasNoMove() {
+        GameState position = createPosition(4);
+        position.setGameOver(TileStatus.OPEN);
+        assertThat(engine.chooseMove(position, new SearchControl(MAX_SEARCH_MILLIS)), is(-1));
+    }
+
+    @Test
+    public void ponderedSearchIsReused() {
+        // the engine ponders the position after its own move, then the expected reply arrives
+        GameState pondered = createPosition(4, 0, 5, 10, 15);
+        int expectedReply = engine.chooseMove(pondered, new SearchControl(MAX_SEARCH_MILLIS));
+
+        GameState afterReply = createPosition(4, 0, 5, 10, 15, expectedReply);
+        int warmMove = engine.chooseMove(afterReply, new SearchControl(MAX_SEARCH_MILLIS));
+        long warmNodeCount = engine.getNodeCount();
+
+        NegamaxEngine coldEngine = new NegamaxEngine();
+        int coldMove = coldEngine.chooseMove(afterReply, new SearchControl(MAX_SEARCH_MILLIS));
+        long coldNodeCount = coldEngine.getNodeCount();
+
+        assertThat(warmMove, is(coldMove));
+        assertThat(warmNodeCount * 4 < coldNodeCount, is(true));
+    }
+
+    @Test
+    public void unreachablePositionsAreDiscarded() {
+        TranspositionTable table = new TranspositionTable(4);
+        // X to move with X holding tile 0 and O holding tile 1
+        table.store(1L, 2L, 1, 0, TranspositionTable.EXACT, 2);
+        // O to move after X also claimed tile 4
+        table.store(2L, 1L | 16L, 1, 0, TranspositionTable.EXACT, 3);
+        assertThat(table.retainDescendants(1L, 2L), is(2));
+        assertThat(table.retainDescendants(1L | 16L, 2L), is(1));
+        assertThat(table.probe(2L, 1L | 16L), is(true));
+        assertThat(table.getBestMove(), is(3));
+        assertThat(table.retainDescendants(1L | 32L, 2L), is(0));
+    }
+}
@@ -0,0 +1,223 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.perft.Perft;
+import com.boxnotfound.tictactoe.model.perft.PerftResult;
+import com.boxnotfound.tictactoe.model.wincondition.RuleCompiler;
+import com.boxnotfound.tictactoe.model.wincondition.RuleSet;
+import com.boxnotfound.tictactoe.model.wincondition.WinCondition;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import androidx.collection.SparseArrayCompat;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PerftTest {
+
+    private static final WinConditionType[] TYPES = WinConditionType.values();
+
+    /**
+     * The counts at each depth, as nodes, then wins by {@link WinConditionType} in declaration
+     * order, then draws.
+     */
+    private static final long[][] GOLDEN_3X3 = {
+            {},
+            {9L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {72L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {504L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {3024L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {15120L, 540L, 540L, 360L, 0L, 0L, 0L},
+            {54720L, 1944L, 1944L, 1440L, 0L, 0L, 0L},
+            {148176L, 17496L, 17496L, 12960L, 4608L, 1152L, 0L},
+            {188928L, 19008L, 19008L, 25920L, 2304L, 576L, 0L},
+            {122112L, 26496L, 24192L, 25344L, 0L, 0L, 46080L},
+    };
+    private static final long[][] GOLDEN_4X4 = {
+            {},
+            {16L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {240L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {3360L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {43680L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {524160L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {5765760L, 0L, 0L, 0L, 0L, 0L, 0L},
+            {57657600L, 126720L, 126720L, 63360L, 285120L, 31680L, 0L},
+    };
+
+    @Test
+    public void smallestBoardMatchesGoldenCounts() {
+        PerftResult result = new Perft(2).run(4);
+        // the second tile of Player X always meets a row, column or diagonal
+        assertThat(result.getNodes(1), is(4L));
+        assertThat(result.getNodes(2), is(12L));
+        assertThat(result.getNodes(3), is(24L));
+        assertThat(result.getWins(3, WinConditionType.ROW), is(8L));
+        assertThat(result.getWins(3, WinConditionType.COLUMN), is(8L));
+        assertThat(result.getWins(3, WinConditionType.DIAGONAL), is(8L));
+        assertThat(result.getNodes(4), is(0L));
+        assertThat(result.getTotalNodes(), is(40L));
+    }
+
+    @Test
+    public void threeByThreeMatchesGoldenCounts() {
+        PerftResult result = new Perft(3).run(9);
+        assertGolden(result, GOLDEN_3X3);
+    }
+
+    @Test
+    public void fourByFourMatchesGoldenCounts() {
+        PerftResult result = new Perft(4).run(7);
+        assertGolden(result, GOLDEN_4X4);
+    }
+
+    @Test
+    public void countsMatchWinConditionObjects() {
+        assertMatchesReference(position(3), 9);
+        // start part way into larger games, so their later wins and draws are reached quickly
+        assertMatchesReference(position(4, 5, 0, 10, 3, 6, 15), 10);
+        assertMatchesReference(position(5, 6, 0, 8, 4, 12, 20, 16, 23, 18, 2, 1, 22), 6);
+    }
+
+    @Test
+    public void runFromPositionCountsItsSubtree() {
+        GameState position = new GameState(3);
+        position.applyMove(4);
+        PerftResult fromCenter = new Perft(3).run(position, 8);
+        PerftResult fromStart = new Perft(3).run(9);
+        assertThat(fromCenter.getNodes(1), is(8L));
+        long total = 0;
+        for (int depth = 1; depth <= 8; depth++) {
+            total += fromCenter.getNodes(depth);
+        }
+        assertThat(fromCenter.getTotalNodes(), is(total));
+        assertThat(fromCenter.getTotalNodes() < fromStart.getTotalNodes(), is(true));
+        assertThat(fromCenter.getElapsedNanos() > 0, is(true));
+    }
+
+    @Test
+    public void customRulesAreCountedAsCustomWins() {
+        WinConditionMasks rows = RuleCompiler.compile(RuleSet.parse("row"), 3);
+        // the cross holds no full row, so it is only ever credited as a custom win
+        WinConditionMasks rowsAndCross = RuleCompiler.compile(RuleSet.parse("row\nshape cross\nX.X\n.X.\nX.X\nend"), 3);
+        PerftResult rowsOnly = new Perft(rows).run(9);
+        PerftResult result = new Perft(rowsAndCross).run(9);
+
+        // X holds five tiles, enough for the cross, only once the board is full
+        for (int depth = 1; depth < 9; depth++) {
+            assertThat(result.getNodes(depth), is(rowsOnly.getNodes(depth)));
+            assertThat(result.getWins(depth, WinConditionType.ROW), is(rowsOnly.getWins(depth, WinConditionType.ROW)));
+            assertThat(result.getCustomWins(depth), is(0L));
+        }
+        assertThat(result.getCustomWins(9) > 0, is(true));
+        assertThat(result.getWins(9), is(result.getWins(9, WinConditionType.ROW) + result.getCustomWins(9)));
+        assertThat(result.getWins(9) + result.getDraws(9), is(result.getNodes(9)));
+        assertThat(result.getDraws(9), is(rowsOnly.getDraws(9) - result.getCustomWins(9)));
+        assertThat(result.toString().contains("custom"), is(true));
+        assertThat(rowsOnly.toString().contains("custom"), is(false));
+    }
+
+    private static GameState position(int rowSize, int... moves) {
+        GameState position = new GameState(rowSize);
+        for (int gridIndex : moves) {
+            position.applyMove(gridIndex);
+        }
+        return position;
+    }
+
+    private static void assertMatchesReference(GameState position, int maxDepth) {
+        PerftResult result = new Perft(position.getRowSize()).run(position, maxDepth);
+        ReferencePerft expected = ReferencePerft.run(position, maxDepth);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            assertThat(result.getNodes(depth), is(expected.nodes[depth]));
+            assertThat(result.getDraws(depth), is(expected.draws[depth]));
+            for (WinConditionType type : TYPES) {
+                assertThat(result.getWins(depth, type), is(expected.wins[depth][type.ordinal()]));
+            }
+        }
+    }
+
+    private static void assertGolden(PerftResult result, long[][] golden) {
+        for (int depth = 1; depth < golden.length; depth++) {
+            assertThat(result.getNodes(depth), is(golden[depth][0]));
+            for (int type = 0; type < TYPES.length; type++) {
+                assertThat(result.getWins(depth, TYPES[type]), is(golden[depth][type + 1]));
+            }
+            assertThat(result.getDraws(depth), is(golden[depth][TYPES.length + 1]));
+        }
+    }
+
+    /**
+     * Counts the same move sequences as {@link Perft} on a board of {@link TicTacToeTile} objects,
+     * checking every {@link WinCondition} of the moved tile with
+     * {@link WinCondition#winConditionMet()}.
+     */
+    private static class ReferencePerft {
+
+        private final TicTacToeTile[] tiles;
+        private final SparseArrayCompat<List<WinCondition>> winConditionMap;
+        private final long[] nodes;
+        private final long[][] wins;
+        private final long[] draws;
+
+        private ReferencePerft(int rowSize, int maxDepth) {
+            TicTacToeTile[][] gameBoard = new TicTacToeTile[rowSize][rowSize];
+            tiles = new TicTacToeTile[rowSize * rowSize];
+            for (int i = 0; i < tiles.length; i++) {
+                tiles[i] = new TicTacToeTile();
+                gameBoard[i / rowSize][i % rowSize] = tiles[i];
+            }
+            winConditionMap = WinConditionUtils.generateWinConditionsFromTicTacToeBoard(gameBoard);
+            nodes = new long[maxDepth + 1];
+            wins = new long[maxDepth + 1][TYPES.length];
+            draws = new long[maxDepth + 1];
+        }
+
+        static ReferencePerft run(GameState position, int maxDepth) {
+            ReferencePerft reference = new ReferencePerft(position.getRowSize(), maxDepth);
+            for (int gridIndex = 0; gridIndex < reference.tiles.length; gridIndex++) {
+                reference.tiles[gridIndex].setCurrentState(position.getTileStatus(gridIndex));
+            }
+            for (int gridIndex = 0; gridIndex < reference.tiles.length; gridIndex++) {
+                for (WinCondition winCondition : reference.winConditionMap.get(gridIndex)) {
+                    assertThat(winCondition.winConditionMet(), is(false));
+                }
+            }
+            reference.count(position.getCurrentPlayer(), 1, position.getMoveCount(), maxDepth);
+            return reference;
+        }
+
+        private void count(TileStatus player, int depth, int moveCount, int maxDepth) {
+            for (int gridIndex = 0; gridIndex < tiles.length; gridIndex++) {
+                if (tiles[gridIndex].getCurrentState() != TileStatus.OPEN) {
+                    continue;
+                }
+                tiles[gridIndex].setCurrentState(player);
+                nodes[depth]++;
+                WinCondition met = null;
+                for (WinCondition winCondition : winConditionMap.get(gridIndex)) {
+                    if (winCondition.winConditionMet()) {
+                        met = winCondition;
+                        break;
+                    }
+                }
+                if (met != null) {
+                    wins[depth][met.getType().ordinal()]++;
+                } else if (moveCount + depth == tiles.length) {
+                    draws[depth]++;
+                } else if (depth < maxDepth) {
+                    TileStatus opponent = player == TileStatus.PLAYER_X ? TileStatus.PLAYER_O : TileStatus.PLAYER_X;
+                    count(opponent, depth + 1, moveCount, maxDepth);
+                }
+                tiles[gridIndex].setCurrentState(TileStatus.OPEN);
+            }
+        }
+    }
+}
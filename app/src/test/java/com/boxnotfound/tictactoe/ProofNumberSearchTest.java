@@ -0,0 +1,183 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.engine.ProofNumberSearch;
+import com.boxnotfound.tictactoe.engine.ProofResult;
+import com.boxnotfound.tictactoe.engine.SearchControl;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ProofNumberSearchTest {
+
+    private static final long MAX_SEARCH_MILLIS = 10000;
+    private static final long MAX_NODES = 5000000;
+    private ProofNumberSearch search;
+
+    @Before
+    public void setup() {
+        search = new ProofNumberSearch(16);
+    }
+
+    private static GameState createPosition(final int rowSize, final int... moves) {
+        GameState position = new GameState(rowSize);
+        for (int move : moves) {
+            position.applyMove(move);
+        }
+        return position;
+    }
+
+    @Test
+    public void provesSquareFork() {
+        // X holds 14, 16 and 21, so claiming 15 threatens both 20 and 22 through squares
+        GameState position = createPosition(6, 14, 0, 16, 1, 21, 35);
+        ProofResult result = search.prove(position, MAX_NODES, new SearchControl(MAX_SEARCH_MILLIS));
+        assertThat(result.getStatus(), is(ProofResult.PROVEN));
+        assertWinningLine(position, result.getWinningLine());
+        assertThat(result.getWinningLine().length, is(3));
+    }
+
+    @Test
+    public void disprovesPositionFacingFork() {
+        // O to move, facing X's threats at 20 and 22
+        GameState position = createPosition(6, 14, 0, 16, 1, 21, 35, 15);
+        ProofResult result = search.prove(position, MAX_NODES, new SearchControl(MAX_SEARCH_MILLIS));
+        assertThat(result.getStatus(), is(ProofResult.DISPROVEN));
+        assertThat(result.getWinningLine().length, is(0));
+    }
+
+    @Test
+    public void nodeLimitLeavesResultUnknown() {
+        GameState position = createPosition(8);
+        ProofResult result = search.prove(position, 100, new SearchControl(MAX_SEARCH_MILLIS));
+        assertThat(result.getStatus(), is(ProofResult.UNKNOWN));
+        assertThat(result.getNodeCount(), is(100L));
+    }
+
+    @Test
+    public void cancelledSearchLeavesResultUnknown() {
+        SearchControl control = new SearchControl(MAX_SEARCH_MILLIS);
+        control.cancel();
+        ProofResult result = search.prove(createPosition(8), Long.MAX_VALUE, control);
+        assertThat(result.getStatus(), is(ProofResult.UNKNOWN));
+    }
+
+    @Test
+    public void resultsMatchExhaustiveSearch() {
+        Random random = new Random(39);
+        int provenCount = 0;
+        for (int trial = 0; trial < 60; trial++) {
+            int rowSize = trial < 20 ? 3 : 4;
+            GameState position = randomPosition(random, rowSize, rowSize == 3 ? trial % 5 : 6 + trial % 4);
+            if (position == null) {
+                continue;
+            }
+            ProofResult result = search.prove(position, MAX_NODES, new SearchControl(MAX_SEARCH_MILLIS));
+            boolean expected = new ExhaustiveSearch(rowSize).canWin(position);
+            assertThat(result.getStatus(), is(expected ? ProofResult.PROVEN : ProofResult.DISPROVEN));
+            if (expected) {
+                assertWinningLine(position, result.getWinningLine());
+                provenCount++;
+            }
+        }
+        assertThat(provenCount > 0, is(true));
+    }
+
+    /**
+     * Play random moves, returning null if the game ends before the given number of moves.
+     */
+    private static GameState randomPosition(final Random random, final int rowSize, final int moveCount) {
+        WinConditionMasks masks = WinConditionMasks.forRowSize(rowSize);
+        GameState position = new GameState(rowSize);
+        while (position.getMoveCount() < moveCount) {
+            int gridIndex = random.nextInt(rowSize * rowSize);
+            TileStatus player = position.getCurrentPlayer();
+            if (!position.applyMove(gridIndex)) {
+                continue;
+            }
+            long tiles = player == TileStatus.PLAYER_X ? position.getXTiles() : position.getOTiles();
+            if (masks.findMetCondition(tiles, gridIndex) != -1) {
+                return null;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Replay the line from the given position, checking that only its last move wins, and that it
+     * wins for the player to move at the position.
+     */
+    private static void assertWinningLine(final GameState position, final int[] line) {
+        WinConditionMasks masks = WinConditionMasks.forRowSize(position.getRowSize());
+        GameState replay = createPosition(position.getRowSize());
+        replay.set(position.getRowSize(), position.getXTiles(), position.getOTiles(), position.getLastMoveIndex(),
+                position.getMoveCount(), position.getCurrentPlayer(), TileStatus.OPEN, false);
+        assertThat(line.length % 2, is(1));
+        for (int i = 0; i < line.length; i++) {
+            TileStatus player = replay.getCurrentPlayer();
+            assertThat(replay.applyMove(line[i]), is(true));
+            long tiles = player == TileStatus.PLAYER_X ? replay.getXTiles() : replay.getOTiles();
+            boolean won = masks.findMetCondition(tiles, line[i]) != -1;
+            assertThat(won, is(i == line.length - 1));
+        }
+    }
+
+    /**
+     * Decides whether the player to move can force a win by searching every move.
+     */
+    private static class ExhaustiveSearch {
+
+        private final WinConditionMasks masks;
+        private final long boardMask;
+        private final Map<String, Boolean> results = new HashMap<>();
+
+        ExhaustiveSearch(final int rowSize) {
+            masks = WinConditionMasks.forRowSize(rowSize);
+            boardMask = (1L << (rowSize * rowSize)) - 1;
+        }
+
+        boolean canWin(final GameState position) {
+            boolean xToMove = position.getCurrentPlayer() == TileStatus.PLAYER_X;
+            long playerTiles = xToMove ? position.getXTiles() : position.getOTiles();
+            long opponentTiles = xToMove ? position.getOTiles() : position.getXTiles();
+            return outcome(playerTiles, opponentTiles) == 1;
+        }
+
+        /**
+         * @return 1 if the player to move wins, 0 for a draw and -1 if they lose.
+         */
+        private int outcome(final long playerTiles, final long opponentTiles) {
+            String key = playerTiles + ":" + opponentTiles;
+            Boolean cached = results.get(key + "w");
+            if (cached != null) {
+                return cached ? 1 : results.get(key + "d") ? 0 : -1;
+            }
+            int best = -1;
+            long openTiles = ~(playerTiles | opponentTiles) & boardMask;
+            if (openTiles == 0) {
+                best = 0;
+            }
+            while (openTiles != 0 && best < 1) {
+                long tile = openTiles & -openTiles;
+                openTiles ^= tile;
+                if (masks.findMetCondition(playerTiles | tile, Long.numberOfTrailingZeros(tile)) != -1) {
+                    best = 1;
+                } else {
+                    best = Math.max(best, -outcome(opponentTiles, playerTiles | tile));
+                }
+            }
+            results.put(key + "w", best == 1);
+            results.put(key + "d", best == 0);
+            return best;
+        }
+    }
+}
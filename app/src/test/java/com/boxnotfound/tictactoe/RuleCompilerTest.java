@@ -0,0 +1,153 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.arena.GameArena;
+import com.boxnotfound.tictactoe.model.wincondition.RuleCompiler;
+import com.boxnotfound.tictactoe.model.wincondition.RuleSet;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RuleCompilerTest {
+
+    private static final String EVENT_RULES = "line 5\n"
+            + "shape plus\n"
+            + ".X.\n"
+            + "XXX\n"
+            + ".X.\n"
+            + "end\n"
+            + "shape L rotate  # any orientation\n"
+            + "X..\n"
+            + "X..\n"
+            + "XXX\n"
+            + "end\n"
+            + "shape big-square\n"
+            + "XXX\n"
+            + "XXX\n"
+            + "XXX\n"
+            + "end";
+
+    @Test
+    public void linesMatchBuiltInRules() {
+        for (int rowSize = 2; rowSize <= 8; rowSize++) {
+            WinConditionMasks builtIn = WinConditionMasks.forRowSize(rowSize);
+            WinConditionMasks compiled = RuleCompiler.compile(
+                    RuleSet.parse("line " + rowSize + "\n# squares and corners\n\nsquare\ncorners"), rowSize);
+            assertThat(compiled.getConditionCount(), is(builtIn.getConditionCount()));
+            for (int condition = 0; condition < builtIn.getConditionCount(); condition++) {
+                assertThat(compiled.getMask(condition), is(builtIn.getMask(condition)));
+                assertThat(compiled.getType(condition), is(builtIn.getType(condition)));
+            }
+        }
+    }
+
+    @Test
+    public void customShapesFitEveryPosition() {
+        RuleSet ruleSet = RuleSet.parse(EVENT_RULES);
+        WinConditionMasks masks = RuleCompiler.compile(ruleSet, 5);
+        int lines = 5 + 5 + 2;
+        int plusSigns = 3 * 3;
+        // the four rotations of the L, as reflecting it only swaps its arms
+        int lShapes = 4 * 3 * 3;
+        int bigSquares = 3 * 3;
+        assertThat(masks.getConditionCount(), is(lines + plusSigns + lShapes + bigSquares));
+        assertThat(masks.getRuleName(lines), is("plus"));
+        assertThat(masks.getType(lines), is(nullValue()));
+        assertThat(masks.getType(0), is(WinConditionType.ROW));
+
+        long plus = 1L << 7 | 1L << 11 | 1L << 12 | 1L << 13 | 1L << 17;
+        assertThat(masks.getRuleName(masks.findMetCondition(plus, 12)), is("plus"));
+        assertThat(masks.findMetCondition(plus & ~(1L << 17), 12), is(-1));
+        long mirroredL = 1L << 4 | 1L << 9 | 1L << 14 | 1L << 13 | 1L << 12;
+        assertThat(masks.getRuleName(masks.findMetCondition(mirroredL, 12)), is("L"));
+
+        // shapes that do not fit the board have no conditions
+        assertThat(RuleCompiler.compile(ruleSet, 2).getConditionCount(), is(0));
+    }
+
+    @Test
+    public void compiledRulesAreCachedPerRuleSetAndRowSize() {
+        WinConditionMasks masks = RuleCompiler.compile(RuleSet.parse(EVENT_RULES), 6);
+        assertThat(RuleCompiler.compile(RuleSet.parse(EVENT_RULES + "\n# same rules\n"), 6), is(sameInstance(masks)));
+        assertThat(RuleCompiler.compile(RuleSet.parse(EVENT_RULES), 7).getRowSize(), is(7));
+        assertThat(RuleCompiler.compile(RuleSet.STANDARD, 6), is(sameInstance(WinConditionMasks.forRowSize(6))));
+    }
+
+    @Test
+    public void malformedDefinitionsAreRejected() {
+        String[] definitions = {"triangle", "line", "line x", "row 2", "shape\nX\nend", "shape open\nXX",
+                "shape ragged\nXX\nX\nend", "shape empty\n..\nend", "shape bad\nXO\nend", "shape L flip\nX\nend"};
+        for (String definition : definitions) {
+            boolean rejected = false;
+            try {
+                RuleSet.parse(definition);
+            } catch (IllegalArgumentException e) {
+                rejected = true;
+            }
+            assertThat(definition, rejected, is(true));
+        }
+    }
+
+    @Test
+    public void rulesParseUnderAnyDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        // Turkish maps 'i' and 'I' onto dotted and dotless variants
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            WinConditionMasks masks = RuleCompiler.compile(RuleSet.parse("diagonal"), 5);
+            assertThat(masks.getType(0), is(WinConditionType.DIAGONAL));
+            assertThat(masks.getRuleName(0), is("diagonal"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void arenaPlaysCustomRules() {
+        WinConditionMasks masks = RuleCompiler.compile(RuleSet.parse(EVENT_RULES), 5);
+        GameArena arena = new GameArena(1, masks, ForkJoinPool.commonPool());
+        byte[] xMoves = {7, 11, 12, 13, 17};
+        byte[] oMoves = {0, 4, 20, 24};
+        byte[] moves = new byte[1];
+        for (int i = 0; i < xMoves.length; i++) {
+            moves[0] = xMoves[i];
+            arena.step(moves);
+            if (i < oMoves.length) {
+                assertThat(arena.getStatus(0), is(GameArena.IN_PROGRESS));
+                moves[0] = oMoves[i];
+                arena.step(moves);
+            }
+        }
+        assertThat(arena.getStatus(0), is(GameArena.X_WON));
+        assertThat(masks.getRuleName(arena.getWinningCondition(0)), is("plus"));
+    }
+
+    /**
+     * Custom rules compile to plain masks, checked by the same code as the built-in rules, so a
+     * shape drawing a built-in condition compiles to exactly the built-in masks.
+     */
+    @Test
+    public void customShapesCompileToTheBuiltInMasks() {
+        for (int rowSize = 2; rowSize <= 8; rowSize++) {
+            WinConditionMasks builtIn = RuleCompiler.compile(RuleSet.parse("square"), rowSize);
+            WinConditionMasks custom = RuleCompiler.compile(RuleSet.parse("shape block\nXX\nXX\nend"), rowSize);
+            assertThat(custom.getConditionCount(), is(builtIn.getConditionCount()));
+            for (int condition = 0; condition < builtIn.getConditionCount(); condition++) {
+                assertThat(custom.getMask(condition), is(builtIn.getMask(condition)));
+            }
+            for (int gridIndex = 0; gridIndex < rowSize * rowSize; gridIndex++) {
+                assertThat(Arrays.equals(custom.getConditionsForTile(gridIndex), builtIn.getConditionsForTile(gridIndex)),
+                        is(true));
+            }
+        }
+    }
+}
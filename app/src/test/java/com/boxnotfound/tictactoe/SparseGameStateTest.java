@@ -0,0 +1,121 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.SparseGameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class SparseGameStateTest {
+
+    /**
+     * Play the given moves as x, y pairs, alternating between the players.
+     */
+    private static SparseGameState play(final int winLength, final int... coordinates) {
+        SparseGameState state = new SparseGameState(winLength);
+        for (int i = 0; i < coordinates.length; i += 2) {
+            assertThat(state.applyMove(coordinates[i], coordinates[i + 1]), is(true));
+        }
+        return state;
+    }
+
+    @Test
+    public void cellsPackAndUnpack() {
+        int[] values = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 123456, -987654};
+        for (int x : values) {
+            for (int y : values) {
+                long cell = SparseGameState.packCell(x, y);
+                assertThat(SparseGameState.cellX(cell), is(x));
+                assertThat(SparseGameState.cellY(cell), is(y));
+            }
+        }
+    }
+
+    @Test
+    public void fiveInARowWinsAcrossNegativeCoordinates() {
+        // X fills -2..2 along y = -7, finishing in the middle, while O plays far away
+        SparseGameState state = play(5, -2, -7, 100, 100, -1, -7, 100, 102, 1, -7, 100, 104, 2, -7, 100, 106, 0, -7);
+        assertThat(state.isGameOver(), is(true));
+        assertThat(state.getWinningPlayer(), is(TileStatus.PLAYER_X));
+        assertThat(state.getWinningType(), is(WinConditionType.ROW));
+        long[] cells = state.getWinningCells();
+        assertThat(cells.length, is(5));
+        assertThat(SparseGameState.cellX(cells[0]), is(-2));
+        assertThat(SparseGameState.cellX(cells[4]), is(2));
+        assertThat(state.getMoveCount(), is(9));
+    }
+
+    @Test
+    public void linesInEveryDirectionWin() {
+        SparseGameState column = play(3, 5, 0, 0, 50, 5, 1, 0, 52, 5, 2);
+        assertThat(column.getWinningType(), is(WinConditionType.COLUMN));
+
+        SparseGameState diagonal = play(3, 0, 0, 0, 50, 1, 1, 0, 52, 2, 2);
+        assertThat(diagonal.getWinningType(), is(WinConditionType.DIAGONAL));
+
+        SparseGameState antiDiagonal = play(3, 0, 0, 0, 50, 1, -1, 0, 52, -1, 1);
+        assertThat(antiDiagonal.getWinningType(), is(WinConditionType.DIAGONAL));
+        assertThat(antiDiagonal.getWinningCells().length, is(3));
+    }
+
+    @Test
+    public void blockedLineDoesNotWin() {
+        // O claims 2, 0 between X's tiles, so X's 4 tiles on y = 0 are not in a row
+        SparseGameState state = play(4, 0, 0, 2, 0, 1, 0, 30, 30, 3, 0, 40, 40, 4, 0);
+        assertThat(state.isGameOver(), is(false));
+        assertThat(state.getWinningType(), nullValue());
+        assertThat(state.getWinningCells().length, is(0));
+    }
+
+    @Test
+    public void squareWins() {
+        SparseGameState state = play(5, 10, 10, 0, 0, 11, 11, 0, 2, 10, 11, 0, 4, 11, 10);
+        assertThat(state.getWinningType(), is(WinConditionType.SQUARE));
+        assertThat(state.getWinningPlayer(), is(TileStatus.PLAYER_X));
+        assertThat(SparseGameState.cellX(state.getWinningCells()[0]), is(10));
+        assertThat(SparseGameState.cellY(state.getWinningCells()[0]), is(10));
+    }
+
+    @Test
+    public void finishedGameAndClaimedTilesRejectMoves() {
+        SparseGameState state = play(3, 0, 0, 1, 0);
+        assertThat(state.applyMove(1, 0), is(false));
+        assertThat(state.getTileStatus(1, 0), is(TileStatus.PLAYER_O));
+        assertThat(state.getTileStatus(2, 0), is(TileStatus.OPEN));
+
+        state = play(2, 0, 0, 5, 5, 1, 0);
+        assertThat(state.isGameOver(), is(true));
+        assertThat(state.applyMove(9, 9), is(false));
+    }
+
+    @Test
+    public void farApartMovesArePlayed() {
+        SparseGameState state = new SparseGameState(5);
+        for (int i = 0; i < 1000; i++) {
+            // far apart along a line no one can complete
+            assertThat(state.applyMove(i * 1000003, -i * 999983), is(true));
+        }
+        assertThat(state.getMoveCount(), is(1000));
+        assertThat(state.isGameOver(), is(false));
+    }
+
+    @Test
+    public void linesAndSquaresDoNotWrapAroundTheBoardEdges() {
+        int max = Integer.MAX_VALUE;
+        int min = Integer.MIN_VALUE;
+        // X's tiles at either end of the row y = 0 are not neighbours
+        SparseGameState line = play(2, max, 0, 0, 100, min, 0);
+        assertThat(line.isGameOver(), is(false));
+        line = play(2, min, min, 0, 100, max, max);
+        assertThat(line.isGameOver(), is(false));
+
+        // nor do the columns at either edge form a square
+        SparseGameState square = play(5, max, 0, 0, 100, max, 1, 0, 102, min, 0, 0, 104, min, 1);
+        assertThat(square.isGameOver(), is(false));
+        assertThat(square.getMoveCount(), is(7));
+    }
+}
@@ -0,0 +1,121 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.wincondition.ThreatIndex;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ThreatIndexTest {
+
+    private static final int GAMES_PER_ROW_SIZE = 200;
+
+    /**
+     * Find the winning tiles of a player by scanning every condition, as the index must match.
+     */
+    private static long scanWinningTiles(final WinConditionMasks masks, final long playerTiles, final long opponentTiles) {
+        long winningTiles = 0;
+        for (int condition = 0; condition < masks.getConditionCount(); condition++) {
+            long mask = masks.getMask(condition);
+            if ((mask & opponentTiles) == 0 && Long.bitCount(mask & ~playerTiles) == 1) {
+                winningTiles |= mask & ~playerTiles;
+            }
+        }
+        return winningTiles;
+    }
+
+    private static int scanThreatCount(final WinConditionMasks masks, final long playerTiles, final long opponentTiles) {
+        int threats = 0;
+        for (int condition = 0; condition < masks.getConditionCount(); condition++) {
+            long mask = masks.getMask(condition);
+            if ((mask & opponentTiles) == 0 && Long.bitCount(mask & ~playerTiles) == 1) {
+                threats++;
+            }
+        }
+        return threats;
+    }
+
+    private static void assertMatchesScan(final ThreatIndex index, final long xTiles, final long oTiles) {
+        WinConditionMasks masks = index.getWinConditionMasks();
+        assertThat(index.getWinningTiles(TileStatus.PLAYER_X), is(scanWinningTiles(masks, xTiles, oTiles)));
+        assertThat(index.getWinningTiles(TileStatus.PLAYER_O), is(scanWinningTiles(masks, oTiles, xTiles)));
+        assertThat(index.getMustBlockTiles(TileStatus.PLAYER_O), is(scanWinningTiles(masks, xTiles, oTiles)));
+        assertThat(index.getThreatCount(TileStatus.PLAYER_X), is(scanThreatCount(masks, xTiles, oTiles)));
+        assertThat(index.getThreatCount(TileStatus.PLAYER_O), is(scanThreatCount(masks, oTiles, xTiles)));
+    }
+
+    @Test
+    public void rowThreatIsDetected() {
+        ThreatIndex index = new ThreatIndex(4);
+        index.applyMove(0, TileStatus.PLAYER_X);
+        index.applyMove(1, TileStatus.PLAYER_X);
+        assertThat(index.getWinningTiles(TileStatus.PLAYER_X), is(0L));
+        index.applyMove(2, TileStatus.PLAYER_X);
+        // completes the top row, and the corners need two more tiles
+        assertThat(index.getWinningTiles(TileStatus.PLAYER_X), is(1L << 3));
+        assertThat(index.getMustBlockTiles(TileStatus.PLAYER_O), is(1L << 3));
+
+        index.applyMove(3, TileStatus.PLAYER_O);
+        assertThat(index.getWinningTiles(TileStatus.PLAYER_X), is(0L));
+        index.undoMove(3, TileStatus.PLAYER_O);
+        assertThat(index.getWinningTiles(TileStatus.PLAYER_X), is(1L << 3));
+    }
+
+    @Test
+    public void incrementalIndexMatchesScan() {
+        Random random = new Random(37);
+        for (int rowSize = 4; rowSize <= 8; rowSize++) {
+            int gameBoardSize = rowSize * rowSize;
+            ThreatIndex index = new ThreatIndex(rowSize);
+            for (int game = 0; game < GAMES_PER_ROW_SIZE; game++) {
+                index.reset();
+                int[] moves = new int[gameBoardSize];
+                for (int i = 0; i < gameBoardSize; i++) {
+                    moves[i] = i;
+                }
+                for (int i = gameBoardSize - 1; i > 0; i--) {
+                    int j = random.nextInt(i + 1);
+                    int swap = moves[i];
+                    moves[i] = moves[j];
+                    moves[j] = swap;
+                }
+
+                long xTiles = 0;
+                long oTiles = 0;
+                int moveCount = random.nextInt(gameBoardSize + 1);
+                for (int i = 0; i < moveCount; i++) {
+                    TileStatus player = i % 2 == 0 ? TileStatus.PLAYER_X : TileStatus.PLAYER_O;
+                    index.applyMove(moves[i], player);
+                    if (player == TileStatus.PLAYER_X) {
+                        xTiles |= 1L << moves[i];
+                    } else {
+                        oTiles |= 1L << moves[i];
+                    }
+                    assertMatchesScan(index, xTiles, oTiles);
+                }
+                for (int i = moveCount - 1; i >= 0; i--) {
+                    TileStatus player = i % 2 == 0 ? TileStatus.PLAYER_X : TileStatus.PLAYER_O;
+                    index.undoMove(moves[i], player);
+                    xTiles &= ~(1L << moves[i]);
+                    oTiles &= ~(1L << moves[i]);
+                    assertMatchesScan(index, xTiles, oTiles);
+                }
+                assertThat(index.getThreatCount(TileStatus.PLAYER_X), is(0));
+            }
+        }
+    }
+
+    @Test
+    public void setMatchesIncrementalMoves() {
+        ThreatIndex index = new ThreatIndex(5);
+        long xTiles = (1L) | (1L << 6) | (1L << 12) | (1L << 4);
+        long oTiles = (1L << 1) | (1L << 2) | (1L << 3) | (1L << 20);
+        index.set(xTiles, oTiles);
+        assertMatchesScan(index, xTiles, oTiles);
+    }
+}
@@ -0,0 +1,116 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.TileStatus;
+import com.boxnotfound.tictactoe.model.store.TieredGameStore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TieredGameStoreTest {
+
+    private static final int MAX_HEAP_GAMES = 8;
+    private static final int GAME_COUNT = 100000;
+    private TieredGameStore store;
+
+    @Before
+    public void setup() {
+        store = new TieredGameStore(MAX_HEAP_GAMES);
+    }
+
+    @Test
+    public void heapGameCountIsCapped() {
+        for (long gameId = 0; gameId < GAME_COUNT; gameId++) {
+            store.createGame(gameId, 4);
+        }
+        assertThat(store.getGameCount(), is(GAME_COUNT));
+        assertThat(store.getHeapGameCount(), is(MAX_HEAP_GAMES));
+    }
+
+    @Test
+    public void evictedGameStateIsRestored() {
+        for (long gameId = 0; gameId < GAME_COUNT; gameId++) {
+            GameState gameState = store.createGame(gameId, 4 + (int) (gameId % 5));
+            gameState.applyMove((int) (gameId % 16));
+            gameState.applyMove((int) ((gameId + 1) % 16));
+            if (gameId % 7 == 0) {
+                gameState.setGameOver(TileStatus.PLAYER_O);
+            }
+        }
+        for (long gameId = 0; gameId < GAME_COUNT; gameId++) {
+            GameState gameState = store.getGame(gameId);
+            assertThat(gameState.getRowSize(), is(4 + (int) (gameId % 5)));
+            assertThat(gameState.getMoveCount(), is(2));
+            assertThat(gameState.getLastMoveIndex(), is((int) ((gameId + 1) % 16)));
+            assertThat(gameState.getTileStatus((int) (gameId % 16)), is(TileStatus.PLAYER_X));
+            assertThat(gameState.getTileStatus((int) ((gameId + 1) % 16)), is(TileStatus.PLAYER_O));
+            assertThat(gameState.getCurrentPlayer(), is(TileStatus.PLAYER_X));
+            assertThat(gameState.isGameOver(), is(gameId % 7 == 0));
+            assertThat(gameState.getWinningPlayer(), is(gameId % 7 == 0 ? TileStatus.PLAYER_O : TileStatus.OPEN));
+        }
+    }
+
+    @Test
+    public void removedGameIsNotRetrievable() {
+        store.createGame(1, 4);
+        store.createGame(2, 4);
+        store.removeGame(1);
+        assertThat(store.getGame(1), nullValue());
+        assertThat(store.getGameCount(), is(1));
+        assertThat(store.getHeapGameCount(), is(1));
+    }
+
+    @Test
+    public void leastRecentlyUsedGameIsEvicted() {
+        GameState[] gameStates = new GameState[MAX_HEAP_GAMES];
+        for (int gameId = 0; gameId < MAX_HEAP_GAMES; gameId++) {
+            gameStates[gameId] = store.createGame(gameId, 4);
+        }
+        // game 0 becomes the most recently used, so game 1 is evicted and its state reused
+        store.getGame(0);
+        assertThat(store.createGame(MAX_HEAP_GAMES, 4) == gameStates[1], is(true));
+        assertThat(store.getHeapGameCount(), is(MAX_HEAP_GAMES));
+
+        // a removed game frees its state without evicting another game
+        store.removeGame(2);
+        assertThat(store.getHeapGameCount(), is(MAX_HEAP_GAMES - 1));
+        assertThat(store.createGame(MAX_HEAP_GAMES + 1, 4) == gameStates[2], is(true));
+        assertThat(store.getGame(3) == gameStates[3], is(true));
+        assertThat(store.getGame(0) == gameStates[0], is(true));
+        assertThat(store.getHeapGameCount(), is(MAX_HEAP_GAMES));
+    }
+
+    @Test
+    public void peekedGamesStayWhereTheyAre() {
+        GameState[] gameStates = new GameState[MAX_HEAP_GAMES];
+        for (int gameId = 0; gameId < MAX_HEAP_GAMES; gameId++) {
+            gameStates[gameId] = store.createGame(gameId, 4);
+        }
+        gameStates[0].applyMove(5);
+        // game 0 is packed off the heap
+        store.createGame(MAX_HEAP_GAMES, 4);
+
+        GameState peeked = new GameState(4);
+        assertThat(store.peekGame(0, peeked), is(true));
+        assertThat(peeked.getMoveCount(), is(1));
+        assertThat(peeked.getTileStatus(5), is(TileStatus.PLAYER_X));
+        store.setGameOver(0, TileStatus.PLAYER_O);
+        // peeking at game 1 does not make it the most recently used, so it is evicted next
+        assertThat(store.peekGame(1, peeked), is(true));
+        store.setGameOver(1, TileStatus.OPEN);
+        assertThat(store.createGame(MAX_HEAP_GAMES + 1, 4) == gameStates[1], is(true));
+        assertThat(store.getHeapGameCount(), is(MAX_HEAP_GAMES));
+        assertThat(store.peekGame(MAX_HEAP_GAMES + 2, peeked), is(false));
+
+        GameState gameState = store.getGame(0);
+        assertThat(gameState.isGameOver(), is(true));
+        assertThat(gameState.getWinningPlayer(), is(TileStatus.PLAYER_O));
+        assertThat(gameState.getTileStatus(5), is(TileStatus.PLAYER_X));
+        assertThat(store.getGame(1).getWinningPlayer(), is(TileStatus.OPEN));
+        assertThat(store.getGame(1).isGameOver(), is(true));
+    }
+}
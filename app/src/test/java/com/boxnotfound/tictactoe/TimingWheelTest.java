@@ -0,0 +1,46 @@
+package com.boxnotfound.tictactoe;
+
+import com.boxnotfound.tictactoe.util.TimingWheel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class TimingWheelTest {
+
+    private static final long TICK_MILLIS = 10;
+    private final List<Long> expired = new ArrayList<>();
+    private TimingWheel timingWheel;
+
+    @Before
+    public void setup() {
+        expired.clear();
+        timingWheel = new TimingWheel(TICK_MILLIS, 0, (timer, payload) -> expired.add(payload));
+    }
+
+    @Test
+    public void timerExpiresOnceItsDelayHasPassed() {
+        int timer = timingWheel.newTimer(7);
+        timingWheel.schedule(timer, 25);
+        timingWheel.advanceTo(20);
+        assertThat(expired.size(), is(0));
+        timingWheel.advanceTo(30);
+        assertThat(expired.size(), is(1));
+        assertThat(expired.get(0), is(7L));
+        assertThat(timingWheel.isScheduled(timer), is(false));
+    }
+
+    @Test
+    public void largestDelayDoesNotExpireImmediately() {
+        int timer = timingWheel.newTimer(1);
+        timingWheel.schedule(timer, Long.MAX_VALUE);
+        timingWheel.advanceTo(TICK_MILLIS);
+        assertThat(expired.size(), is(0));
+        assertThat(timingWheel.isScheduled(timer), is(true));
+    }
+}
@@ -0,0 +1,68 @@
+package com.boxnotfound.tictactoe;
+
+import androidx.collection.SparseArrayCompat;
+
+import com.boxnotfound.tictactoe.model.TicTacToeBoard;
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.wincondition.WinCondition;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class WinConditionMasksTest {
+
+    private static final int MIN_ROW_SIZE = 4;
+    private static final int MAX_ROW_SIZE = 8;
+
+    @Test
+    public void masksMatchGeneratedWinConditions() {
+        for (int rowSize = MIN_ROW_SIZE; rowSize <= MAX_ROW_SIZE; rowSize++) {
+            TicTacToeTile[][] gameBoard = TicTacToeBoard.setupTicTacToeBoard(rowSize, true);
+            SparseArrayCompat<List<WinCondition>> winConditionMap =
+                    WinConditionUtils.generateWinConditionsFromTicTacToeBoard(gameBoard);
+            WinConditionMasks winConditionMasks = WinConditionMasks.forRowSize(rowSize);
+
+            for (int gridIndex = 0; gridIndex < rowSize * rowSize; gridIndex++) {
+                List<WinCondition> winConditions = winConditionMap.get(gridIndex);
+                int[] conditions = winConditionMasks.getConditionsForTile(gridIndex);
+                assertThat(conditions.length, is(winConditions.size()));
+                for (int i = 0; i < conditions.length; i++) {
+                    WinCondition winCondition = winConditions.get(i);
+                    assertThat(winConditionMasks.getType(conditions[i]), is(winCondition.getType()));
+                    assertThat(winConditionMasks.getMask(conditions[i]), is(toMask(gameBoard, winCondition)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void conditionMetOnlyWhenAllTilesControlled() {
+        WinConditionMasks winConditionMasks = WinConditionMasks.forRowSize(MIN_ROW_SIZE);
+        long topRow = 0b1111L;
+        assertThat(winConditionMasks.findMetCondition(topRow, 0) != -1, is(true));
+        assertThat(winConditionMasks.findMetCondition(topRow & ~1L, 1), is(-1));
+        long square = 0b110011L;
+        assertThat(winConditionMasks.findMetCondition(square), is(winConditionMasks.findMetCondition(square, 5)));
+    }
+
+    private static long toMask(TicTacToeTile[][] gameBoard, WinCondition winCondition) {
+        long mask = 0;
+        int rowSize = gameBoard.length;
+        for (TicTacToeTile tile : winCondition.getTiles()) {
+            for (int row = 0; row < rowSize; row++) {
+                for (int col = 0; col < rowSize; col++) {
+                    if (gameBoard[row][col] == tile) {
+                        mask |= 1L << (rowSize * row + col);
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+}
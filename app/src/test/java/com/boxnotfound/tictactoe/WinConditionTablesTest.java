@@ -0,0 +1,95 @@
+package com.boxnotfound.tictactoe;
+
+import androidx.collection.SparseArrayCompat;
+
+import com.boxnotfound.tictactoe.model.TicTacToeBoard;
+import com.boxnotfound.tictactoe.model.TicTacToeTile;
+import com.boxnotfound.tictactoe.model.wincondition.RuleCompiler;
+import com.boxnotfound.tictactoe.model.wincondition.RuleSet;
+import com.boxnotfound.tictactoe.model.wincondition.WinCondition;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionUtils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the win condition tables generated at build time against the conditions computed at
+ * runtime, for every board size the game offers.
+ */
+public class WinConditionTablesTest {
+
+    private static final int MIN_ROW_SIZE = 4;
+    private static final int MAX_ROW_SIZE = 8;
+
+    @Test
+    public void tableConditionsMatchComputedConditions() {
+        for (int rowSize = MIN_ROW_SIZE; rowSize <= MAX_ROW_SIZE; rowSize++) {
+            TicTacToeTile[][] gameBoard = TicTacToeBoard.setupTicTacToeBoard(rowSize, true);
+            // the map is reused by every call, so the computed conditions are copied out first
+            List<List<WinCondition>> computed = copy(
+                    WinConditionUtils.computeWinConditionsFromTicTacToeBoard(gameBoard), rowSize);
+            List<List<WinCondition>> loaded = copy(
+                    WinConditionUtils.generateWinConditionsFromTicTacToeBoard(gameBoard), rowSize);
+
+            for (int gridIndex = 0; gridIndex < rowSize * rowSize; gridIndex++) {
+                List<WinCondition> expected = computed.get(gridIndex);
+                List<WinCondition> actual = loaded.get(gridIndex);
+                assertThat(actual.size(), is(expected.size()));
+                for (int i = 0; i < expected.size(); i++) {
+                    assertThat(actual.get(i).getType(), is(expected.get(i).getType()));
+                    assertThat(Arrays.toString(actual.get(i).getGridIndexes()),
+                            is(Arrays.toString(expected.get(i).getGridIndexes())));
+                    List<TicTacToeTile> expectedTiles = expected.get(i).getTiles();
+                    List<TicTacToeTile> actualTiles = actual.get(i).getTiles();
+                    assertThat(actualTiles.size(), is(expectedTiles.size()));
+                    for (int tile = 0; tile < expectedTiles.size(); tile++) {
+                        assertThat(actualTiles.get(tile), is(sameInstance(expectedTiles.get(tile))));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tableMasksMatchCompiledMasks() {
+        for (int rowSize = MIN_ROW_SIZE; rowSize <= MAX_ROW_SIZE; rowSize++) {
+            WinConditionMasks loaded = WinConditionMasks.forRowSize(rowSize);
+            // the same conditions as the standard rules, but compiled rather than loaded
+            WinConditionMasks compiled = RuleCompiler.compile(RuleSet.parse("line " + rowSize + "\nsquare\ncorners"), rowSize);
+            assertThat(loaded.getConditionCount(), is(compiled.getConditionCount()));
+            for (int condition = 0; condition < compiled.getConditionCount(); condition++) {
+                assertThat(loaded.getMask(condition), is(compiled.getMask(condition)));
+                assertThat(loaded.getType(condition), is(compiled.getType(condition)));
+                assertThat(loaded.getRuleName(condition), is(loaded.getType(condition).name().toLowerCase()));
+            }
+            for (int gridIndex = 0; gridIndex < rowSize * rowSize; gridIndex++) {
+                assertThat(Arrays.toString(loaded.getConditionsForTile(gridIndex)),
+                        is(Arrays.toString(compiled.getConditionsForTile(gridIndex))));
+            }
+        }
+    }
+
+    @Test
+    public void sizesWithoutTablesAreComputed() {
+        WinConditionMasks masks = WinConditionMasks.forRowSize(3);
+        assertThat(masks.getConditionCount(), is(3 + 3 + 2 + 4 + 1));
+        TicTacToeTile[][] gameBoard = TicTacToeBoard.setupTicTacToeBoard(3, true);
+        assertThat(WinConditionUtils.generateWinConditionsFromTicTacToeBoard(gameBoard).get(4).size(), is(1 + 1 + 2 + 4));
+    }
+
+    private static List<List<WinCondition>> copy(SparseArrayCompat<List<WinCondition>> winConditionMap, int rowSize) {
+        List<List<WinCondition>> copy = new ArrayList<>();
+        for (int gridIndex = 0; gridIndex < rowSize * rowSize; gridIndex++) {
+            copy.add(new ArrayList<>(winConditionMap.get(gridIndex)));
+        }
+        return copy;
+    }
+}
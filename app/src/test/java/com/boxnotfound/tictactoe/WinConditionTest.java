@@ -58,6 +58,21 @@ public class WinConditionTest {
         }
     }
 
+    @Test
+    public void ensureWinConditionGridIndexesMatchTiles() {
+        for (int gridIndex = 0; gridIndex < ROW_SIZE * ROW_SIZE; gridIndex++) {
+            for (WinCondition winCondition : winConditionMap.get(gridIndex)) {
+                List<TicTacToeTile> tiles = winCondition.getTiles();
+                int[] gridIndexes = winCondition.getGridIndexes();
+                assertThat(gridIndexes.length, is(tiles.size()));
+                for (int i = 0; i < gridIndexes.length; i++) {
+                    TicTacToeTile tile = gameBoard[gridIndexes[i] / ROW_SIZE][gridIndexes[i] % ROW_SIZE];
+                    assertThat(tiles.get(i) == tile, is(true));
+                }
+            }
+        }
+    }
+
     @Test
     public void checkWinConditionNotMet_allTilesOpen() {
         List<WinCondition> winConditions = winConditionMap.get(0);
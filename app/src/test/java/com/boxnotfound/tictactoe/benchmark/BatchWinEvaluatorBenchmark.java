@@ -0,0 +1,83 @@
+package com.boxnotfound.tictactoe.benchmark;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.wincondition.BatchWinEvaluator;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the time per position of {@link BatchWinEvaluator#evaluate} against
+ * {@link BatchWinEvaluator#evaluatePerPosition} for every row size, over batches of random
+ * positions.  This is not a unit test: wall clock timings depend on the machine and whatever else
+ * it is running, so it is run by hand, from the IDE or on the unit test classpath, and its output
+ * read rather than asserted on.
+ *
+ * Each row size is warmed up before it is measured, and the best of several rounds is reported to
+ * filter out pauses such as garbage collection.
+ */
+public class BatchWinEvaluatorBenchmark {
+
+    private static final int POSITION_COUNT = 1 << 20;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /** Accumulates every result, so the evaluations cannot be optimized away. */
+    private static long sink;
+
+    public static void main(final String[] args) {
+        System.out.println("row size   evaluate   evaluatePerPosition   (ns per position)");
+        for (int rowSize = 4; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            BatchWinEvaluator evaluator = new BatchWinEvaluator(rowSize);
+            long[] xTiles = new long[POSITION_COUNT];
+            long[] oTiles = new long[POSITION_COUNT];
+            randomPositions(new Random(rowSize), rowSize, xTiles, oTiles);
+            byte[] results = new byte[POSITION_COUNT];
+            short[] conditions = new short[POSITION_COUNT];
+
+            long batchNanos = Long.MAX_VALUE;
+            long perPositionNanos = Long.MAX_VALUE;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                long startNanos = System.nanoTime();
+                evaluator.evaluate(xTiles, oTiles, POSITION_COUNT, results, conditions);
+                long batchRoundNanos = System.nanoTime() - startNanos;
+                sink += conditions[round];
+
+                startNanos = System.nanoTime();
+                evaluator.evaluatePerPosition(xTiles, oTiles, POSITION_COUNT, results, conditions);
+                long perPositionRoundNanos = System.nanoTime() - startNanos;
+                sink += conditions[round];
+
+                if (round >= WARMUP_ROUNDS) {
+                    batchNanos = Math.min(batchNanos, batchRoundNanos);
+                    perPositionNanos = Math.min(perPositionNanos, perPositionRoundNanos);
+                }
+            }
+            System.out.println(String.format(Locale.US, "%8d %10.1f %21.1f", rowSize,
+                    (double) batchNanos / POSITION_COUNT, (double) perPositionNanos / POSITION_COUNT));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * Fill each position with a random number of alternating moves on random open tiles, so the
+     * batch holds both won and unfinished positions.
+     */
+    private static void randomPositions(final Random random, final int rowSize, final long[] xTiles,
+                                        final long[] oTiles) {
+        int gameBoardSize = rowSize * rowSize;
+        for (int position = 0; position < xTiles.length; position++) {
+            int moves = random.nextInt(gameBoardSize + 1);
+            for (int move = 0; move < moves; move++) {
+                long tile = 1L << random.nextInt(gameBoardSize);
+                if (((xTiles[position] | oTiles[position]) & tile) == 0) {
+                    if (move % 2 == 0) {
+                        xTiles[position] |= tile;
+                    } else {
+                        oTiles[position] |= tile;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.boxnotfound.tictactoe.benchmark;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.arena.GameArena;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures the moves per second a {@link GameArena} applies for every row size, stepping every
+ * game on the calling thread with {@link GameArena#stepRange(byte[], int, int)}, and in parallel
+ * with {@link GameArena#step(byte[])}.  This is not a unit test: wall clock timings depend on the
+ * machine and whatever else it is running, so it is run by hand, from the IDE or on the unit test
+ * classpath, and its output read rather than asserted on.
+ *
+ * Every game plays a random order of its tiles, so every move up to the end of the game is
+ * applied.  Each row size is warmed up before it is measured, and the best of several rounds is
+ * reported to filter out pauses such as garbage collection.
+ */
+public class GameArenaBenchmark {
+
+    private static final int GAME_COUNT = 1 << 18;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(final String[] args) {
+        System.out.println("row size   single thread   parallel   (million moves per second)");
+        for (int rowSize = 4; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            int gameBoardSize = rowSize * rowSize;
+            GameArena arena = new GameArena(GAME_COUNT, rowSize);
+            byte[][] moves = randomMoves(new Random(rowSize), gameBoardSize);
+
+            long singleThreadNanos = Long.MAX_VALUE;
+            long parallelNanos = Long.MAX_VALUE;
+            long movesApplied = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                arena.reset();
+                long startNanos = System.nanoTime();
+                for (byte[] stepMoves : moves) {
+                    arena.stepRange(stepMoves, 0, GAME_COUNT);
+                }
+                long singleThreadRoundNanos = System.nanoTime() - startNanos;
+                movesApplied = countMoves(arena);
+
+                arena.reset();
+                startNanos = System.nanoTime();
+                for (byte[] stepMoves : moves) {
+                    arena.step(stepMoves);
+                }
+                long parallelRoundNanos = System.nanoTime() - startNanos;
+
+                if (round >= WARMUP_ROUNDS) {
+                    singleThreadNanos = Math.min(singleThreadNanos, singleThreadRoundNanos);
+                    parallelNanos = Math.min(parallelNanos, parallelRoundNanos);
+                }
+            }
+            System.out.println(String.format(Locale.US, "%8d %15.1f %10.1f", rowSize,
+                    movesApplied * 1000.0 / singleThreadNanos, movesApplied * 1000.0 / parallelNanos));
+        }
+    }
+
+    /**
+     * Create the moves of every step, each game claiming its tiles in a random order.
+     */
+    private static byte[][] randomMoves(final Random random, final int gameBoardSize) {
+        byte[][] moves = new byte[gameBoardSize][GAME_COUNT];
+        byte[] tiles = new byte[gameBoardSize];
+        for (int game = 0; game < GAME_COUNT; game++) {
+            for (int tile = 0; tile < gameBoardSize; tile++) {
+                tiles[tile] = (byte) tile;
+            }
+            for (int tile = gameBoardSize - 1; tile > 0; tile--) {
+                int other = random.nextInt(tile + 1);
+                byte swap = tiles[tile];
+                tiles[tile] = tiles[other];
+                tiles[other] = swap;
+            }
+            for (int step = 0; step < gameBoardSize; step++) {
+                moves[step][game] = tiles[step];
+            }
+        }
+        return moves;
+    }
+
+    private static long countMoves(final GameArena arena) {
+        long moves = 0;
+        for (int game = 0; game < arena.getGameCount(); game++) {
+            moves += arena.getMoveCount(game);
+        }
+        return moves;
+    }
+}
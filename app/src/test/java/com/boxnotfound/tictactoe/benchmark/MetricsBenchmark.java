@@ -0,0 +1,83 @@
+package com.boxnotfound.tictactoe.benchmark;
+
+import com.boxnotfound.tictactoe.metrics.Metrics;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the time of a win check, the hottest instrumented path, bare, instrumented with metrics
+ * disabled, and instrumented with metrics enabled.  The cost of disabled metrics should be lost in
+ * the noise, while enabled metrics cost at least a read of the clock.  This is not a unit test:
+ * wall clock timings depend on the machine and whatever else it is running, so it is run by hand,
+ * from the IDE or on the unit test classpath, and its output read rather than asserted on.
+ *
+ * The best of several rounds is reported, after a warm up, to filter out pauses such as garbage
+ * collection.
+ */
+public class MetricsBenchmark {
+
+    private static final int POSITION_COUNT = 4096;
+    private static final int REPEATS = 20;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 15;
+
+    /** Accumulates every result, so the checks cannot be optimized away. */
+    private static long sink;
+
+    public static void main(final String[] args) {
+        WinConditionMasks masks = WinConditionMasks.forRowSize(8);
+        long[] positions = new long[POSITION_COUNT];
+        int[] lastMoves = new int[POSITION_COUNT];
+        Random random = new Random(45);
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            for (int tile = 0; tile < 20; tile++) {
+                lastMoves[i] = random.nextInt(64);
+                positions[i] |= 1L << lastMoves[i];
+            }
+        }
+
+        long bare = Long.MAX_VALUE;
+        long disabled = Long.MAX_VALUE;
+        long enabled = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            Metrics.setEnabled(false);
+            long bareRound = timeChecks(masks, positions, lastMoves, false);
+            long disabledRound = timeChecks(masks, positions, lastMoves, true);
+            Metrics.setEnabled(true);
+            long enabledRound = timeChecks(masks, positions, lastMoves, true);
+            if (round >= WARMUP_ROUNDS) {
+                bare = Math.min(bare, bareRound);
+                disabled = Math.min(disabled, disabledRound);
+                enabled = Math.min(enabled, enabledRound);
+            }
+        }
+        Metrics.setEnabled(false);
+        Metrics.reset();
+
+        double checks = (double) POSITION_COUNT * REPEATS;
+        System.out.println("bare   disabled   enabled   (ns per win check)");
+        System.out.println(String.format(Locale.US, "%4.1f %10.1f %9.1f", bare / checks, disabled / checks,
+                enabled / checks));
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long timeChecks(final WinConditionMasks masks, final long[] positions, final int[] lastMoves,
+                                   final boolean instrumented) {
+        long startNanos = System.nanoTime();
+        for (int repeat = 0; repeat < REPEATS; repeat++) {
+            for (int i = 0; i < positions.length; i++) {
+                if (instrumented) {
+                    long checkStartNanos = Metrics.SESSIONS_CHECK_WIN_CONDITIONS.start();
+                    sink += masks.findMetCondition(positions[i], lastMoves[i]);
+                    Metrics.SESSIONS_CHECK_WIN_CONDITIONS.stop(checkStartNanos);
+                    Metrics.SESSIONS_MOVES.increment();
+                } else {
+                    sink += masks.findMetCondition(positions[i], lastMoves[i]);
+                }
+            }
+        }
+        return System.nanoTime() - startNanos;
+    }
+}
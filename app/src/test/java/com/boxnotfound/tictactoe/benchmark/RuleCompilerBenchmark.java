@@ -0,0 +1,103 @@
+package com.boxnotfound.tictactoe.benchmark;
+
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.wincondition.RuleCompiler;
+import com.boxnotfound.tictactoe.model.wincondition.RuleSet;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionMasks;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the time of a win check against custom rules compiled by {@link RuleCompiler}, a plus
+ * and an L in any orientation, with a win check against the built-in rules of
+ * {@link WinConditionMasks#forRowSize(int)}, for every row size.  Both are checked by the same
+ * {@link WinConditionMasks#findMetCondition(long, int)}, so the time per check should follow the
+ * number of conditions per tile, also reported, rather than where the masks came from.  This is
+ * not a unit test: wall clock timings depend on the machine and whatever else it is running, so it
+ * is run by hand, from the IDE or on the unit test classpath, and its output read rather than
+ * asserted on.
+ *
+ * Each row size is warmed up before it is measured, and the best of several rounds is reported to
+ * filter out pauses such as garbage collection.
+ */
+public class RuleCompilerBenchmark {
+
+    private static final RuleSet CUSTOM_RULES = RuleSet.parse("shape plus\n"
+            + ".X.\n"
+            + "XXX\n"
+            + ".X.\n"
+            + "end\n"
+            + "shape L rotate\n"
+            + "X..\n"
+            + "X..\n"
+            + "XXX\n"
+            + "end");
+
+    private static final int POSITION_COUNT = 1 << 20;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    /** Accumulates every result, so the checks cannot be optimized away. */
+    private static long sink;
+
+    public static void main(final String[] args) {
+        System.out.println("row size   built-in   conditions   custom   conditions"
+                + "   (ns per check, conditions per tile)");
+        for (int rowSize = 4; rowSize <= GameState.MAX_ROW_SIZE; rowSize++) {
+            WinConditionMasks builtIn = WinConditionMasks.forRowSize(rowSize);
+            WinConditionMasks custom = RuleCompiler.compile(CUSTOM_RULES, rowSize);
+            long[] positions = new long[POSITION_COUNT];
+            int[] lastMoves = new int[POSITION_COUNT];
+            randomPositions(new Random(rowSize), rowSize, positions, lastMoves);
+
+            long builtInNanos = Long.MAX_VALUE;
+            long customNanos = Long.MAX_VALUE;
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                long builtInRoundNanos = timeChecks(builtIn, positions, lastMoves);
+                long customRoundNanos = timeChecks(custom, positions, lastMoves);
+                if (round >= WARMUP_ROUNDS) {
+                    builtInNanos = Math.min(builtInNanos, builtInRoundNanos);
+                    customNanos = Math.min(customNanos, customRoundNanos);
+                }
+            }
+            System.out.println(String.format(Locale.US, "%8d %10.1f %12.1f %8.1f %12.1f", rowSize,
+                    (double) builtInNanos / POSITION_COUNT, conditionsPerTile(builtIn),
+                    (double) customNanos / POSITION_COUNT, conditionsPerTile(custom)));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static long timeChecks(final WinConditionMasks masks, final long[] positions, final int[] lastMoves) {
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < positions.length; i++) {
+            sink += masks.findMetCondition(positions[i], lastMoves[i]);
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    private static double conditionsPerTile(final WinConditionMasks masks) {
+        int gameBoardSize = masks.getRowSize() * masks.getRowSize();
+        long conditions = 0;
+        for (int gridIndex = 0; gridIndex < gameBoardSize; gridIndex++) {
+            conditions += masks.getConditionsForTile(gridIndex).length;
+        }
+        return (double) conditions / gameBoardSize;
+    }
+
+    /**
+     * Fill each position with the tiles of a single player, up to half the board, and choose one
+     * of them as the last move.
+     */
+    private static void randomPositions(final Random random, final int rowSize, final long[] positions,
+                                        final int[] lastMoves) {
+        int gameBoardSize = rowSize * rowSize;
+        for (int position = 0; position < positions.length; position++) {
+            int tiles = 1 + random.nextInt(gameBoardSize / 2);
+            for (int tile = 0; tile < tiles; tile++) {
+                lastMoves[position] = random.nextInt(gameBoardSize);
+                positions[position] |= 1L << lastMoves[position];
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.boxnotfound.tictactoe.load;
+
+import com.boxnotfound.tictactoe.metrics.LatencyHistogram;
+import com.boxnotfound.tictactoe.model.GameState;
+import com.boxnotfound.tictactoe.model.session.GameSessions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+
+/**
+ * A closed-loop load generator for the game service, measuring how many concurrent players a
+ * {@link GameSessions} can serve before move latency degrades.
+ *
+ * The service runs the way it is deployed, as a single thread owning the sessions and serving
+ * requests from a queue.  Each player runs on its own thread, playing full games of new game and
+ * move requests, both sides of every game, on random open tiles.  A player sends a request, waits
+ * for the response, then thinks for a log-normally distributed time before sending the next one,
+ * so a player never has more than one request in flight.
+ *
+ * Because a waiting player sends nothing, a slow response hides the requests that would have
+ * been sent meanwhile.  Every move latency is therefore also recorded corrected for this
+ * coordinated omission, with the mean think time as the expected interval between moves, see
+ * {@link LatencyHistogram#recordValueWithExpectedInterval(long, long)}.
+ *
+ * Think times are waited out by a {@link Sleeper}, which tests replace to check the think times
+ * applied without depending on how long they actually took.
+ *
+ * This is a tool rather than part of the app, so it is kept with the unit tests and run by hand,
+ * from the IDE or on the unit test classpath, through {@link #main(String[])}.
+ */
+public class LoadGenerator {
+
+    /** Every player's game id is offset by its index, so no two players share a game. */
+    private static final long FIRST_GAME_ID = 1;
+
+    /** Parks the player until its think time has passed, for more precision than a sleep. */
+    private static final Sleeper PARKING_SLEEPER = nanos -> {
+        long deadline = System.nanoTime() + nanos;
+        for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    };
+
+    private final int rowSize;
+    private final long medianThinkNanos;
+    private final double thinkTimeSigma;
+    private final long seed;
+    private final Sleeper sleeper;
+
+    /**
+     * Waits out a player's think time.
+     */
+    public interface Sleeper {
+
+        /**
+         * Block the calling player for the given time.
+         * @param nanos The time to wait.
+         * @throws InterruptedException If the player is interrupted, ending its run.
+         */
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    /**
+     * @param rowSize The number of tiles per row of every game played.
+     * @param medianThinkNanos The median time a player thinks between receiving a response and
+     *                         sending the next request.
+     * @param thinkTimeSigma The spread of the think times, the standard deviation of their
+     *                       logarithm.  Human think times are typically around 0.5 to 1.
+     * @param seed The seed of every player's think times and moves, for repeatable runs.
+     */
+    public LoadGenerator(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize,
+                         @IntRange(from = 0) final long medianThinkNanos, final double thinkTimeSigma,
+                         final long seed) {
+        this(rowSize, medianThinkNanos, thinkTimeSigma, seed, PARKING_SLEEPER);
+    }
+
+    /**
+     * @param rowSize The number of tiles per row of every game played.
+     * @param medianThinkNanos The median time a player thinks between receiving a response and
+     *                         sending the next request.
+     * @param thinkTimeSigma The spread of the think times, the standard deviation of their
+     *                       logarithm.
+     * @param seed The seed of every player's think times and moves, for repeatable runs.
+     * @param sleeper Waits out every think time, called by the players concurrently.
+     */
+    public LoadGenerator(@IntRange(from = 2, to = GameState.MAX_ROW_SIZE) final int rowSize,
+                         @IntRange(from = 0) final long medianThinkNanos, final double thinkTimeSigma,
+                         final long seed, @NonNull final Sleeper sleeper) {
+        if (rowSize < 2 || rowSize > GameState.MAX_ROW_SIZE) {
+            throw new IllegalArgumentException("Row size must be between 2 and " + GameState.MAX_ROW_SIZE);
+        }
+        if (medianThinkNanos < 0 || thinkTimeSigma < 0) {
+            throw new IllegalArgumentException("Think times must not be negative");
+        }
+        this.rowSize = rowSize;
+        this.medianThinkNanos = medianThinkNanos;
+        this.thinkTimeSigma = thinkTimeSigma;
+        this.seed = seed;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Run the given number of players against a new service, measuring only after a warm-up.
+     * @param playerCount The number of concurrent players.
+     * @param warmupMillis The time played before measuring starts.
+     * @param durationMillis The time measured.
+     * @return The report of the measured time.
+     * @throws InterruptedException If the calling thread is interrupted while waiting on the run.
+     */
+    @NonNull
+    public LoadReport run(@IntRange(from = 1) final int playerCount, final long warmupMillis,
+                          final long durationMillis) throws InterruptedException {
+        if (playerCount < 1) {
+            throw new IllegalArgumentException("There must be at least one player");
+        }
+        LatencyHistogram moveLatency = new LatencyHistogram("moveLatency");
+        LatencyHistogram correctedMoveLatency = new LatencyHistogram("correctedMoveLatency");
+        // the mean of a log-normal distribution lies above its median
+        long expectedIntervalNanos = (long) (medianThinkNanos * Math.exp(thinkTimeSigma * thinkTimeSigma / 2));
+
+        Server server = new Server(playerCount);
+        Player[] players = new Player[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            players[i] = new Player(FIRST_GAME_ID + i, server, new Random(seed + i), moveLatency,
+                    correctedMoveLatency, expectedIntervalNanos);
+        }
+        server.start();
+        for (Player player : players) {
+            player.start();
+        }
+
+        Thread.sleep(warmupMillis);
+        for (Player player : players) {
+            player.recording = true;
+        }
+        long startNanos = System.nanoTime();
+        Thread.sleep(durationMillis);
+        for (Player player : players) {
+            player.recording = false;
+        }
+        long durationNanos = System.nanoTime() - startNanos;
+
+        long moveCount = 0;
+        long gameCount = 0;
+        for (Player player : players) {
+            // a thinking or waiting player stops at once rather than finishing its move
+            player.stopped = true;
+            player.interrupt();
+            player.join();
+            moveCount += player.moveCount;
+            gameCount += player.gameCount;
+        }
+        server.interrupt();
+        server.join();
+        return new LoadReport(playerCount, durationNanos, moveCount, gameCount, moveLatency.snapshot(),
+                correctedMoveLatency.snapshot());
+    }
+
+    /**
+     * Run an increasing number of players, doubling the count on every run, until the corrected
+     * p99 move latency exceeds the given limit or the maximum player count has been run.  The last
+     * report within the limit marks the saturation point.
+     * @param startPlayerCount The number of players of the first run.
+     * @param maxPlayerCount The largest number of players to run.
+     * @param warmupMillis The time played before measuring starts, on every run.
+     * @param durationMillis The time measured, on every run.
+     * @param p99LimitNanos The corrected p99 move latency a deployment must stay within.
+     * @return The report of every run, in order.
+     * @throws InterruptedException If the calling thread is interrupted while waiting on a run.
+     */
+    @NonNull
+    public List<LoadReport> ramp(@IntRange(from = 1) final int startPlayerCount, final int maxPlayerCount,
+                                 final long warmupMillis, final long durationMillis, final long p99LimitNanos)
+            throws InterruptedException {
+        List<LoadReport> reports = new ArrayList<>();
+        for (int playerCount = startPlayerCount; playerCount <= maxPlayerCount; playerCount *= 2) {
+            LoadReport report = run(playerCount, warmupMillis, durationMillis);
+            reports.add(report);
+            if (report.getCorrectedMoveLatency().getValueAtPercentile(99) > p99LimitNanos
+                    || playerCount > maxPlayerCount / 2) {
+                break;
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Ramp the players up to saturation and print every report.
+     * @param args The row size, the maximum player count, the median think time in milliseconds,
+     *             the measured time of every run in milliseconds, and the p99 move latency limit
+     *             in milliseconds.
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        if (args.length != 5) {
+            System.err.println("Usage: LoadGenerator <rowSize> <maxPlayers> <medianThinkMillis>"
+                    + " <durationMillis> <p99LimitMillis>");
+            System.exit(1);
+        }
+        LoadGenerator loadGenerator = new LoadGenerator(Integer.parseInt(args[0]),
+                TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[2])), 0.75, 47);
+        long durationMillis = Long.parseLong(args[3]);
+        List<LoadReport> reports = loadGenerator.ramp(1, Integer.parseInt(args[1]), durationMillis / 5,
+                durationMillis, TimeUnit.MILLISECONDS.toNanos(Long.parseLong(args[4])));
+        for (LoadReport report : reports) {
+            System.out.println(report);
+        }
+    }
+
+    /**
+     * The service thread, applying every request to the sessions it owns, in arrival order.
+     */
+    private class Server extends Thread {
+
+        private final GameSessions gameSessions;
+        private final BlockingQueue<Player> requests;
+
+        private Server(final int playerCount) {
+            super("LoadGenerator-server");
+            setDaemon(true);
+            // players never time out, and every player's game stays on the heap
+            gameSessions = new GameSessions(Long.MAX_VALUE, Long.MAX_VALUE, 1000, playerCount, 0);
+            // a player never has more than one request in flight
+            requests = new ArrayBlockingQueue<>(playerCount);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Player player = requests.take();
+                    if (player.requestedMove == Player.NEW_GAME) {
+                        gameSessions.launchNewTicTacToeGame(player.gameId, rowSize);
+                        player.gameOver = false;
+                    } else {
+                        gameSessions.setPlayerMove(player.gameId, player.requestedMove);
+                        player.gameOver = gameSessions.getGame(player.gameId).isGameOver();
+                    }
+                    player.response.release();
+                }
+            } catch (InterruptedException e) {
+                // the run is over
+            }
+        }
+    }
+
+    /**
+     * A player, playing one game after another until stopped.  The request fields are written by
+     * the player before queueing it, and the response fields by the server before releasing it, so
+     * the queue and the semaphore order every access.
+     */
+    private class Player extends Thread {
+
+        /** Requested in place of a grid index to start a new game. */
+        private static final int NEW_GAME = -1;
+
+        private final long gameId;
+        private final Server server;
+        private final Random random;
+        private final LatencyHistogram moveLatency;
+        private final LatencyHistogram correctedMoveLatency;
+        private final long expectedIntervalNanos;
+        private final Semaphore response = new Semaphore(0);
+
+        private int requestedMove;
+        private boolean gameOver;
+
+        private volatile boolean recording;
+        private volatile boolean stopped;
+        private long moveCount;
+        private long gameCount;
+
+        private Player(final long gameId, @NonNull final Server server, @NonNull final Random random,
+                       @NonNull final LatencyHistogram moveLatency, @NonNull final LatencyHistogram correctedMoveLatency,
+                       final long expectedIntervalNanos) {
+            super("LoadGenerator-player-" + gameId);
+            setDaemon(true);
+            this.gameId = gameId;
+            this.server = server;
+            this.random = random;
+            this.moveLatency = moveLatency;
+            this.correctedMoveLatency = correctedMoveLatency;
+            this.expectedIntervalNanos = expectedIntervalNanos;
+        }
+
+        @Override
+        public void run() {
+            int gameBoardSize = rowSize * rowSize;
+            long boardMask = gameBoardSize == Long.SIZE ? -1L : (1L << gameBoardSize) - 1;
+            long claimedTiles = 0;
+            gameOver = true;
+            try {
+                while (!stopped) {
+                    if (gameOver) {
+                        request(NEW_GAME);
+                        claimedTiles = 0;
+                        continue;
+                    }
+                    think();
+                    int gridIndex = randomTile(~claimedTiles & boardMask);
+                    long sentNanos = System.nanoTime();
+                    request(gridIndex);
+                    long latencyNanos = System.nanoTime() - sentNanos;
+                    claimedTiles |= 1L << gridIndex;
+                    if (recording) {
+                        moveLatency.recordValue(latencyNanos);
+                        correctedMoveLatency.recordValueWithExpectedInterval(latencyNanos, expectedIntervalNanos);
+                        moveCount++;
+                        if (gameOver) {
+                            gameCount++;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the run is over
+            }
+        }
+
+        private void request(final int gridIndex) throws InterruptedException {
+            requestedMove = gridIndex;
+            server.requests.put(this);
+            response.acquire();
+        }
+
+        private void think() throws InterruptedException {
+            if (medianThinkNanos == 0) {
+                return;
+            }
+            sleeper.sleep((long) (medianThinkNanos * Math.exp(thinkTimeSigma * random.nextGaussian())));
+        }
+
+        /**
+         * Pick one of the given tiles at random.
+         */
+        private int randomTile(final long openTiles) {
+            long tiles = openTiles;
+            for (int skip = random.nextInt(Long.bitCount(openTiles)); skip > 0; skip--) {
+                tiles &= tiles - 1;
+            }
+            return Long.numberOfTrailingZeros(tiles);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.boxnotfound.tictactoe.load;
+
+import com.boxnotfound.tictactoe.metrics.LatencyHistogram;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The throughput and move latencies measured by a single run of a {@link LoadGenerator} at a
+ * fixed number of players.
+ */
+public class LoadReport {
+
+    private final int playerCount;
+    private final long durationNanos;
+    private final long moveCount;
+    private final long gameCount;
+    private final LatencyHistogram.Snapshot moveLatency;
+    private final LatencyHistogram.Snapshot correctedMoveLatency;
+
+    LoadReport(final int playerCount, final long durationNanos, final long moveCount, final long gameCount,
+               @NonNull final LatencyHistogram.Snapshot moveLatency,
+               @NonNull final LatencyHistogram.Snapshot correctedMoveLatency) {
+        this.playerCount = playerCount;
+        this.durationNanos = durationNanos;
+        this.moveCount = moveCount;
+        this.gameCount = gameCount;
+        this.moveLatency = moveLatency;
+        this.correctedMoveLatency = correctedMoveLatency;
+    }
+
+    /**
+     * Retrieve the number of concurrent players.
+     * @return The player count.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Retrieve the length of the run.
+     * @return The duration in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Retrieve the number of moves applied during the run.
+     * @return The move count.
+     */
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Retrieve the number of games played to the end during the run.
+     * @return The game count.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Retrieve the number of moves applied per second.
+     * @return The throughput.
+     */
+    public double getMovesPerSecond() {
+        return moveCount * 1e9 / durationNanos;
+    }
+
+    /**
+     * Retrieve the latencies of every move as measured, from the request being sent to the
+     * response being received.
+     * @return The latency snapshot.
+     */
+    @NonNull
+    public LatencyHistogram.Snapshot getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Retrieve the latencies of every move corrected for coordinated omission, including the moves
+     * the players would have sent while waiting on a slow response.  These are the latencies to
+     * judge saturation by.
+     * @return The latency snapshot.
+     */
+    @NonNull
+    public LatencyHistogram.Snapshot getCorrectedMoveLatency() {
+        return correctedMoveLatency;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "players=%d moves/s=%.0f games=%d p50=%dns p99=%dns p999=%dns"
+                        + " (uncorrected p50=%dns p99=%dns p999=%dns)",
+                playerCount, getMovesPerSecond(), gameCount,
+                correctedMoveLatency.getValueAtPercentile(50), correctedMoveLatency.getValueAtPercentile(99),
+                correctedMoveLatency.getValueAtPercentile(99.9),
+                moveLatency.getValueAtPercentile(50), moveLatency.getValueAtPercentile(99),
+                moveLatency.getValueAtPercentile(99.9));
+    }
+}
@@ -0,0 +1,240 @@
+package com.boxnotfound.tictactoe.build;
+
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionGeometry;
+import com.boxnotfound.tictactoe.model.wincondition.WinConditionType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the source of the WinConditionTables class, holding the win conditions of every
+ * supported board size as static final primitive tables, so the app can load them without
+ * computing anything.
+ *
+ * The conditions are read from the app's own WinConditionGeometry, which this build compiles along
+ * with the generator, so the tables list the same conditions, in the same order, with the same
+ * tiles as WinConditionUtils and RuleCompiler generate at runtime.
+ *
+ * Run by the generateWinConditionTables task of the app module, or directly with the output
+ * directory and the smallest and largest row sizes as arguments.
+ */
+public class WinConditionTableGenerator {
+
+    private static final String PACKAGE = "com.boxnotfound.tictactoe.model.wincondition";
+    private static final String CLASS_NAME = "WinConditionTables";
+
+    private final int minRowSize;
+    private final int maxRowSize;
+
+    /**
+     * @param minRowSize The smallest row size to generate the tables of.
+     * @param maxRowSize The largest row size to generate the tables of, at most 8 so every board
+     *                   fits the bits of a long.
+     */
+    public WinConditionTableGenerator(final int minRowSize, final int maxRowSize) {
+        if (minRowSize < 2 || maxRowSize > 8 || minRowSize > maxRowSize) {
+            throw new IllegalArgumentException("Unsupported row sizes " + minRowSize + " to " + maxRowSize);
+        }
+        this.minRowSize = minRowSize;
+        this.maxRowSize = maxRowSize;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        new WinConditionTableGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2])).writeTo(new File(args[0]));
+    }
+
+    /**
+     * Write the source of the tables, in its package directory under the given source root.
+     * @param sourceRoot The root directory of the generated sources.
+     * @return The file written.
+     */
+    public File writeTo(final File sourceRoot) throws IOException {
+        File directory = new File(sourceRoot, PACKAGE.replace('.', File.separatorChar));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = new File(directory, CLASS_NAME + ".java");
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            write(out);
+        }
+        return file;
+    }
+
+    private void write(final PrintWriter out) {
+        out.println("// Generated by " + getClass().getName() + ", do not edit.");
+        out.println("package " + PACKAGE + ";");
+        out.println();
+        out.println("/**");
+        out.println(" * The win conditions of every board size from " + minRowSize + " to " + maxRowSize
+                + " tiles per row, as generated by");
+        out.println(" * {@link WinConditionGeometry}.  Every table is indexed by row size first, null for an unsupported");
+        out.println(" * size.  Conditions are listed in generation order, and the entries of a condition or tile run");
+        out.println(" * from its offset up to the offset of the next one.");
+        out.println(" */");
+        out.println("final class " + CLASS_NAME + " {");
+        out.println();
+        out.println("    static final int MIN_ROW_SIZE = " + minRowSize + ";");
+        out.println("    static final int MAX_ROW_SIZE = " + maxRowSize + ";");
+
+        List<List<List<Integer>>> conditionsBySize = new ArrayList<>();
+        List<List<WinConditionType>> typesBySize = new ArrayList<>();
+        for (int rowSize = minRowSize; rowSize <= maxRowSize; rowSize++) {
+            List<List<Integer>> conditions = new ArrayList<>();
+            List<WinConditionType> types = new ArrayList<>();
+            generate(rowSize, conditions, types);
+            conditionsBySize.add(conditions);
+            typesBySize.add(types);
+        }
+
+        out.println();
+        out.println("    /** The mask of each condition, one bit per grid index. */");
+        out.println("    static final long[][] MASKS = {");
+        writeLeadingNulls(out);
+        for (int size = 0; size < conditionsBySize.size(); size++) {
+            List<String> values = new ArrayList<>();
+            for (List<Integer> condition : conditionsBySize.get(size)) {
+                long mask = 0;
+                for (int gridIndex : condition) {
+                    mask |= 1L << gridIndex;
+                }
+                values.add("0x" + Long.toHexString(mask) + "L");
+            }
+            writeRow(out, values, size);
+        }
+        out.println("    };");
+
+        out.println();
+        out.println("    /** The type of each condition. */");
+        out.println("    static final WinConditionType[][] TYPES = {");
+        writeLeadingNulls(out);
+        for (int size = 0; size < typesBySize.size(); size++) {
+            List<String> values = new ArrayList<>();
+            for (WinConditionType type : typesBySize.get(size)) {
+                values.add("WinConditionType." + type.name());
+            }
+            writeRow(out, values, size);
+        }
+        out.println("    };");
+
+        out.println();
+        out.println("    /** The grid indexes of the tiles of every condition, in the order they are added. */");
+        out.println("    static final byte[][] CONDITION_TILES = {");
+        writeLeadingNulls(out);
+        for (int size = 0; size < conditionsBySize.size(); size++) {
+            List<String> values = new ArrayList<>();
+            for (List<Integer> condition : conditionsBySize.get(size)) {
+                for (int gridIndex : condition) {
+                    values.add(String.valueOf(gridIndex));
+                }
+            }
+            writeRow(out, values, size);
+        }
+        out.println("    };");
+
+        out.println();
+        out.println("    /** The offset of the first tile of each condition in {@link #CONDITION_TILES}, and the total. */");
+        out.println("    static final short[][] CONDITION_TILE_OFFSETS = {");
+        writeLeadingNulls(out);
+        for (int size = 0; size < conditionsBySize.size(); size++) {
+            List<String> values = new ArrayList<>();
+            int offset = 0;
+            for (List<Integer> condition : conditionsBySize.get(size)) {
+                values.add(String.valueOf(offset));
+                offset += condition.size();
+            }
+            values.add(String.valueOf(offset));
+            writeRow(out, values, size);
+        }
+        out.println("    };");
+
+        List<List<String>> tileConditionsBySize = new ArrayList<>();
+        List<List<String>> tileOffsetsBySize = new ArrayList<>();
+        for (int size = 0; size < conditionsBySize.size(); size++) {
+            int rowSize = minRowSize + size;
+            List<List<Integer>> conditions = conditionsBySize.get(size);
+            List<String> tileConditions = new ArrayList<>();
+            List<String> tileOffsets = new ArrayList<>();
+            for (int gridIndex = 0; gridIndex < rowSize * rowSize; gridIndex++) {
+                tileOffsets.add(String.valueOf(tileConditions.size()));
+                for (int condition = 0; condition < conditions.size(); condition++) {
+                    if (conditions.get(condition).contains(gridIndex)) {
+                        tileConditions.add(String.valueOf(condition));
+                    }
+                }
+            }
+            tileOffsets.add(String.valueOf(tileConditions.size()));
+            tileConditionsBySize.add(tileConditions);
+            tileOffsetsBySize.add(tileOffsets);
+        }
+
+        out.println();
+        out.println("    /** The indexes of the conditions containing every tile, by grid index then generation order. */");
+        out.println("    static final short[][] TILE_CONDITIONS = {");
+        writeLeadingNulls(out);
+        for (int size = 0; size < tileConditionsBySize.size(); size++) {
+            writeRow(out, tileConditionsBySize.get(size), size);
+        }
+        out.println("    };");
+
+        out.println();
+        out.println("    /** The offset of the first condition of each tile in {@link #TILE_CONDITIONS}, and the total. */");
+        out.println("    static final short[][] TILE_CONDITION_OFFSETS = {");
+        writeLeadingNulls(out);
+        for (int size = 0; size < tileOffsetsBySize.size(); size++) {
+            writeRow(out, tileOffsetsBySize.get(size), size);
+        }
+        out.println("    };");
+
+        out.println();
+        out.println("    private " + CLASS_NAME + "() {");
+        out.println("        // prevent instantiation, the class only holds tables");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private void writeLeadingNulls(final PrintWriter out) {
+        StringBuilder nulls = new StringBuilder("           ");
+        for (int rowSize = 0; rowSize < minRowSize; rowSize++) {
+            nulls.append(" null,");
+        }
+        out.println(nulls);
+    }
+
+    private void writeRow(final PrintWriter out, final List<String> values, final int size) {
+        out.println("            // " + (minRowSize + size) + " x " + (minRowSize + size));
+        out.println("            {");
+        StringBuilder line = new StringBuilder("                ");
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i) + (i + 1 < values.size() ? "," : "");
+            if (line.length() + value.length() + 1 > 100) {
+                out.println(line.toString().replaceAll("\\s+$", ""));
+                line = new StringBuilder("                ");
+            }
+            line.append(value).append(' ');
+        }
+        out.println(line.toString().replaceAll("\\s+$", ""));
+        out.println("            }" + (minRowSize + size < maxRowSize ? "," : ""));
+    }
+
+    /**
+     * Generate the grid indexes of the tiles of every condition, and their types, from the
+     * WinConditionGeometry.
+     */
+    private static void generate(final int rowSize, final List<List<Integer>> conditions,
+                                 final List<WinConditionType> types) {
+        for (WinConditionType type : WinConditionType.values()) {
+            for (int[] gridIndexes : WinConditionGeometry.generate(type, rowSize)) {
+                List<Integer> condition = new ArrayList<>();
+                for (int gridIndex : gridIndexes) {
+                    condition.add(gridIndex);
+                }
+                conditions.add(condition);
+                types.add(type);
+            }
+        }
+    }
+}